@@ -8,10 +8,12 @@ import com.hz.tgb.api.invoice.pdf.util.PDFNumberValidationUtils;
 import com.hz.tgb.api.invoice.pdf.util.PDFSortUtil;
 import com.hz.tgb.api.invoice.pdf.util.PDFStringUtil;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.pdfbox.io.MemoryUsageSetting;
 import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.pdmodel.PDPageTree;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -73,96 +75,96 @@ public class PDFReaderUtil {
 	private static final String BZ = "备注";
 	private static final String MMQ_BZ = "密码区备注";
 
-	// 参照关键字
+	// 参照关键字，每次解析新建一个实例记录，多线程并行解析互不影响
 	/**
 	 * 机器编号
 	 */
-	private static ReceiptPosition jqbhR = null;
+	private ReceiptPosition jqbhR = null;
 	/**
 	 * 合计
 	 */
-	private static ReceiptPosition hjR = null;
+	private ReceiptPosition hjR = null;
 	/**
 	 * 价税合计
 	 */
-	private static ReceiptPosition jshjR = null;
+	private ReceiptPosition jshjR = null;
 	/**
 	 * 货物或应税劳务、服务名称
 	 */
-	private static ReceiptPosition hwmcR = null;
+	private ReceiptPosition hwmcR = null;
 	/**
 	 * 规格型号
 	 */
-	private static ReceiptPosition ggxhR = null;
+	private ReceiptPosition ggxhR = null;
 	/**
 	 * 单位
 	 */
-	private static ReceiptPosition danweiR = null;
+	private ReceiptPosition danweiR = null;
 	/**
 	 * 数量
 	 */
-	private static ReceiptPosition shuliangR = null;
+	private ReceiptPosition shuliangR = null;
 	/**
 	 * 单价
 	 */
-	private static ReceiptPosition danjiaR = null;
+	private ReceiptPosition danjiaR = null;
 	/**
 	 * 金额
 	 */
-	private static ReceiptPosition jineR = null;
+	private ReceiptPosition jineR = null;
 	/**
 	 * 税率
 	 */
-	private static ReceiptPosition shuilvR = null;
+	private ReceiptPosition shuilvR = null;
 	/**
 	 * 税额
 	 */
-	private static ReceiptPosition shuieR = null;
+	private ReceiptPosition shuieR = null;
 	/**
 	 * 密码区
 	 */
-	private static ReceiptPosition mmqR = null;
+	private ReceiptPosition mmqR = null;
 	/**
 	 * 备注
 	 */
-	private static ReceiptPosition bzR = null;
+	private ReceiptPosition bzR = null;
 	//补充：销货清单 2018-05-02---$代表销货清单
 	/**
 	 * 销货清单-序号
 	 */
-	private static ReceiptPosition xh$R = null;
+	private ReceiptPosition xh$R = null;
 	/**
 	 * 销货清单-货物（劳务）名称
 	 */
-	private static ReceiptPosition hwmc$R = null;
+	private ReceiptPosition hwmc$R = null;
 	/**
 	 * 销货清单-规格型号
 	 */
-	private static ReceiptPosition ggxh$R = null;
+	private ReceiptPosition ggxh$R = null;
 	/**
 	 * 销货清单-单位
 	 */
-	private static ReceiptPosition dw$R = null;
+	private ReceiptPosition dw$R = null;
 	/**
 	 * 销货清单-数量
 	 */
-	private static ReceiptPosition sl$R = null;
+	private ReceiptPosition sl$R = null;
 	/**
 	 * 销货清单-单价
 	 */
-	private static ReceiptPosition dj$R = null;
+	private ReceiptPosition dj$R = null;
 	/**
 	 * 销货清单-金额
 	 */
-	private static ReceiptPosition je$R = null;
+	private ReceiptPosition je$R = null;
 	/**
 	 * 销货清单-税率
 	 */
-	private static ReceiptPosition slv$R = null;
+	private ReceiptPosition slv$R = null;
 	/**
 	 * 销货清单-税额
 	 */
-	private static ReceiptPosition se$R = null;
+	private ReceiptPosition se$R = null;
 
 	/**
 	 * 去除
@@ -179,55 +181,91 @@ public class PDFReaderUtil {
 		return str.trim();
 	}
 
+	private PDFReaderUtil() {
+	}
+
 	public static JSONObject readReceiptPdf(String pdfFileName) throws Exception {
+		return readReceiptPdf(new File(pdfFileName), MemoryUsageSetting.setupMainMemoryOnly());
+	}
 
-		List<ReceiptPosition> mainList = null;//主页
-		List<ReceiptPosition> addendumList = null;//附页
-		PDDocument document = null;
+	/**
+	 * 解析PDF文件
+	 * @param file
+	 * @param memUsageSetting PDFBox的内存设置，批量解析时用 {@link MemoryUsageSetting#setupMixed(long)} 限制单个文档占用的堆内存
+	 * @return
+	 * @throws IOException
+	 */
+	public static JSONObject readReceiptPdf(File file, MemoryUsageSetting memUsageSetting) throws IOException {
+		PDDocument document = PDDocument.load(file, memUsageSetting);
 		try {
-			document = PDDocument.load(new File(pdfFileName));
-
-			PDPageTree pages = document.getPages();
-			int pageCount = pages.getCount();
-
-			// 只有一页
-			if(pageCount == 1){
-				MyPDFTextStripper stripper = new MyPDFTextStripper();
-				stripper.setStartPage(1);
-				stripper.setEndPage(1);
-				stripper.setSortByPosition(true);
-				stripper.getText(document);
-				mainList = stripper.getPosList();
-			}else if(pageCount > 1){
-				// 超过一页，只解析前两页
-				MyPDFTextStripper stripperMain = new MyPDFTextStripper();
-				stripperMain.setStartPage(1);
-				stripperMain.setEndPage(1);
-				stripperMain.setSortByPosition(true);
-				stripperMain.getText(document);
-				mainList = stripperMain.getPosList();
-
-				MyPDFTextStripper stripperAddendum = new MyPDFTextStripper();
-				stripperAddendum.setStartPage(2);
-				stripperAddendum.setEndPage(2);
-				stripperAddendum.setSortByPosition(true);
-				stripperAddendum.getText(document);
-				addendumList = stripperAddendum.getPosList();
-			}
+			return readReceiptPdf(document);
 		} finally {
-			if (document != null) {
-				document.close();
-			}
+			document.close();
+		}
+	}
+
+	/**
+	 * 解析PDF输入流，流由调用方关闭
+	 * @param input
+	 * @param memUsageSetting
+	 * @return
+	 * @throws IOException
+	 */
+	public static JSONObject readReceiptPdf(InputStream input, MemoryUsageSetting memUsageSetting) throws IOException {
+		PDDocument document = PDDocument.load(input, memUsageSetting);
+		try {
+			return readReceiptPdf(document);
+		} finally {
+			document.close();
 		}
+	}
+
+	/**
+	 * 解析PDF字节数组
+	 * @param bytes
+	 * @param memUsageSetting
+	 * @return
+	 * @throws IOException
+	 */
+	public static JSONObject readReceiptPdf(byte[] bytes, MemoryUsageSetting memUsageSetting) throws IOException {
+		PDDocument document = PDDocument.load(bytes, "", null, null, memUsageSetting);
+		try {
+			return readReceiptPdf(document);
+		} finally {
+			document.close();
+		}
+	}
+
+	/**
+	 * 解析已加载的文档，文档由调用方关闭
+	 * @param document
+	 * @return
+	 * @throws IOException
+	 */
+	public static JSONObject readReceiptPdf(PDDocument document) throws IOException {
+
+		List<ReceiptPosition> mainList = null;//主页
+		List<ReceiptPosition> addendumList = null;//附页
+
+		int pageCount = document.getNumberOfPages();
+		if(pageCount >= 1){
+			mainList = readPositions(document, 1);
+		}
+		// 超过一页，只解析前两页
+		if(pageCount > 1){
+			addendumList = readPositions(document, 2);
+		}
+
+		PDFReaderUtil reader = new PDFReaderUtil();
 
 		// 记录特殊关键字起始坐标
-		specificDW(mainList);
+		reader.specificDW(mainList);
 
 		if(null != addendumList){
-			JSONObject json = reorganizationRegulation(mainList);
+			JSONObject json = reader.reorganizationRegulation(mainList);
 
 			try {
-				JSONObject xhqdJson = reorganizationRegulationSA(addendumList);
+				JSONObject xhqdJson = reader.reorganizationRegulationSA(addendumList);
 				// 第二页销货清单
 				json.put("qdxxs", xhqdJson);
 			} catch (Exception e) {
@@ -235,16 +273,32 @@ public class PDFReaderUtil {
 			}
 			return json;
 		}else{
-			return reorganizationRegulation(mainList);
+			return reader.reorganizationRegulation(mainList);
 		}
 	}
 
+	/**
+	 * 提取一页的文字坐标
+	 * @param document
+	 * @param page 从1开始
+	 * @return
+	 * @throws IOException
+	 */
+	private static List<ReceiptPosition> readPositions(PDDocument document, int page) throws IOException {
+		MyPDFTextStripper stripper = new MyPDFTextStripper();
+		stripper.setStartPage(page);
+		stripper.setEndPage(page);
+		stripper.setSortByPosition(true);
+		stripper.getText(document);
+		return stripper.getPosList();
+	}
+
 	/**
 	 * 解析销货清单（先假定销货清单有且只有一页）
 	 * @param addendumList
 	 * @return
 	 */
-	private static JSONObject reorganizationRegulationSA(List<ReceiptPosition> addendumList) {
+	private JSONObject reorganizationRegulationSA(List<ReceiptPosition> addendumList) {
 
 		JSONObject json = new JSONObject();
 
@@ -646,7 +700,7 @@ public class PDFReaderUtil {
 	 * <h3>记录特殊关键字起始坐标</h3>
 	 * @param list
 	 */
-	private static void specificDW(List<ReceiptPosition> list) {
+	private void specificDW(List<ReceiptPosition> list) {
 
 		jqbhR = new ReceiptPosition();
 		hjR = new ReceiptPosition();
@@ -947,7 +1001,7 @@ public class PDFReaderUtil {
 	 * @param list
 	 * @return
 	 */
-	private static JSONObject reorganizationRegulation(List<ReceiptPosition> list) {
+	private JSONObject reorganizationRegulation(List<ReceiptPosition> list) {
 
 		JSONObject jsonObject = new JSONObject();
 
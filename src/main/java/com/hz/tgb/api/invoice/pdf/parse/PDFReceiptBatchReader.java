@@ -0,0 +1,675 @@
+package com.hz.tgb.api.invoice.pdf.parse;
+
+import com.alibaba.fastjson.JSONObject;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 批量解析PDF电子发票，线程安全。<br>
+ * （1）在固定大小的线程池上并行调用 {@link PDFReaderUtil}，每个文档使用
+ * {@link MemoryUsageSetting#setupMixed(long)} 加载，超过上限的部分写临时文件，单个大文件不会占满堆；<br>
+ * （2）输入可以是文件、目录、字节数组或输入流，单个文档失败或超时只影响它自己的 {@link Result}；<br>
+ * （3）{@link #stream(Iterator)} 边提交边返回结果，同时最多只有 maxPending 个文档未被取走，批量再大内存也不会堆积；<br>
+ * （4）{@link #getStats()} 返回累计的成功/失败/超时数和吞吐量，可以用来展示进度。<br>
+ * 用法：
+ * <pre>
+ * PDFReceiptBatchReader reader = new PDFReceiptBatchReader(4);
+ * reader.setTimeout(30, TimeUnit.SECONDS);
+ * try (Stream&lt;Result&gt; results = reader.stream(Paths.get("/data/invoice"))) {
+ *     results.forEach(result -&gt; save(result));
+ * }
+ * reader.close();
+ * </pre>
+ *
+ * @author hezhao
+ * @Time 2026年10月26日 上午10:20:45
+ */
+public class PDFReceiptBatchReader implements AutoCloseable {
+
+	private static final Logger log = LoggerFactory.getLogger(PDFReceiptBatchReader.class);
+
+	/** 单个文档默认最多占用的堆内存 */
+	public static final long DEFAULT_MAX_MAIN_MEMORY = 16 * 1024 * 1024;
+
+	private final ExecutorService executor;
+
+	/** 是否由本服务创建线程池，close时只关闭自己创建的 */
+	private final boolean ownExecutor;
+
+	private volatile int maxPending;
+
+	private volatile long timeoutMillis;
+
+	private volatile long maxMainMemoryBytes = DEFAULT_MAX_MAIN_MEMORY;
+
+	private volatile File tempDir;
+
+	private final long startNanos = System.nanoTime();
+
+	private final AtomicLong submitted = new AtomicLong();
+
+	private final AtomicLong succeeded = new AtomicLong();
+
+	private final AtomicLong failed = new AtomicLong();
+
+	private final AtomicLong timedOut = new AtomicLong();
+
+	private final AtomicLong bytes = new AtomicLong();
+
+	private final AtomicLong parseNanos = new AtomicLong();
+
+	/**
+	 * 使用调用方的线程池，close时不会关闭它
+	 *
+	 * @param executor
+	 * @param maxPending 流式解析时最多同时提交多少个文档
+	 */
+	public PDFReceiptBatchReader(ExecutorService executor, int maxPending) {
+		if (executor == null) {
+			throw new IllegalArgumentException("\"executor\" is null.");
+		}
+		setMaxPending(maxPending);
+		this.executor = executor;
+		this.ownExecutor = false;
+	}
+
+	/**
+	 * 创建固定大小的守护线程池，最多同时提交2倍并行度个文档
+	 *
+	 * @param parallelism 并行度
+	 */
+	public PDFReceiptBatchReader(int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("parallelism must be positive");
+		}
+		final AtomicInteger index = new AtomicInteger();
+		this.executor = Executors.newFixedThreadPool(parallelism, new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "pdf-receipt-" + index.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		this.ownExecutor = true;
+		this.maxPending = parallelism * 2;
+	}
+
+	/**
+	 * 并行度为CPU核数
+	 */
+	public PDFReceiptBatchReader() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	public void setMaxPending(int maxPending) {
+		if (maxPending < 1) {
+			throw new IllegalArgumentException("maxPending must be positive");
+		}
+		this.maxPending = maxPending;
+	}
+
+	/**
+	 * 单个文档的超时，从提交算起，包括在线程池中排队的时间；小于等于0不限制。<br>
+	 * 超时的文档立即返回 {@link Status#TIMEOUT}：还在排队的轮到时直接跳过；已开始的因PDFBox的解析不响应中断，
+	 * 工作线程仍会把它解析完，结果丢弃。<br>
+	 * 所有工作线程都卡在解析上时，排队的文档照样按时超时，{@link #stream(Iterator)} 和 {@link #readAll(Iterable, Consumer)} 不会一直等下去；
+	 * 不设超时时，卡住的解析会让它们一直等待。
+	 *
+	 * @param timeout
+	 * @param unit
+	 */
+	public void setTimeout(long timeout, TimeUnit unit) {
+		this.timeoutMillis = unit.toMillis(timeout);
+	}
+
+	/**
+	 * 单个文档最多占用的堆内存，超出部分写到临时文件
+	 *
+	 * @param maxMainMemoryBytes
+	 */
+	public void setMaxMainMemoryBytes(long maxMainMemoryBytes) {
+		if (maxMainMemoryBytes < 0) {
+			throw new IllegalArgumentException("maxMainMemoryBytes must not be negative");
+		}
+		this.maxMainMemoryBytes = maxMainMemoryBytes;
+	}
+
+	/**
+	 * 临时文件目录，默认java.io.tmpdir
+	 *
+	 * @param tempDir
+	 */
+	public void setTempDir(File tempDir) {
+		this.tempDir = tempDir;
+	}
+
+	/**
+	 * 异步解析单个文档，返回的future总是正常完成，失败和超时体现在 {@link Result#getStatus()}
+	 *
+	 * @param source
+	 * @return
+	 */
+	public CompletableFuture<Result> readAsync(Source source) {
+		final Task task = new Task(source);
+		submitted.incrementAndGet();
+		long millis = timeoutMillis;
+		if (millis > 0) {
+			task.deadline = Timer.INSTANCE.schedule(new Runnable() {
+				@Override
+				public void run() {
+					task.complete(Status.TIMEOUT, null, null, System.nanoTime() - task.submitNanos);
+				}
+			}, millis, TimeUnit.MILLISECONDS);
+		}
+		try {
+			executor.execute(task);
+		} catch (RuntimeException e) {
+			// 线程池已关闭或拒绝，源不会再被读取
+			task.complete(Status.FAILED, null, e, 0);
+			source.discard();
+		}
+		return task.future;
+	}
+
+	/**
+	 * 流式解析，按完成顺序返回结果。源是惰性读取的，同时最多 maxPending 个文档在解析或等待被取走。<br>
+	 * 结果必须在调用方线程上消费；提前关闭流后，已提交的文档仍会解析完，结果丢弃。
+	 *
+	 * @param sources
+	 * @return
+	 */
+	public Stream<Result> stream(Iterator<Source> sources) {
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(new ResultIterator(sources),
+				Spliterator.NONNULL), false);
+	}
+
+	/**
+	 * 流式解析目录(含子目录)下所有的.pdf文件，用完需要关闭流以释放目录句柄
+	 *
+	 * @param directory
+	 * @return
+	 * @throws IOException
+	 */
+	public Stream<Result> stream(Path directory) throws IOException {
+		final Stream<Path> files = Files.walk(directory)
+				.filter(path -> Files.isRegularFile(path) && path.getFileName().toString().toLowerCase().endsWith(".pdf"));
+		return stream(files.map(Source::of).iterator()).onClose(files::close);
+	}
+
+	/**
+	 * 解析全部文档，每完成一个就在当前线程回调一次consumer，返回时所有文档都已处理
+	 *
+	 * @param sources
+	 * @param consumer
+	 */
+	public void readAll(Iterable<Source> sources, Consumer<Result> consumer) {
+		Iterator<Result> results = new ResultIterator(sources.iterator());
+		while (results.hasNext()) {
+			consumer.accept(results.next());
+		}
+	}
+
+	/**
+	 * 解析目录(含子目录)下所有的.pdf文件，每完成一个就在当前线程回调一次consumer
+	 *
+	 * @param directory
+	 * @param consumer
+	 * @throws IOException
+	 */
+	public void readDirectory(Path directory, Consumer<Result> consumer) throws IOException {
+		try (Stream<Result> results = stream(directory)) {
+			results.forEach(consumer);
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * 创建以来的累计统计
+	 *
+	 * @return
+	 */
+	public Stats getStats() {
+		return new Stats(submitted.get(), succeeded.get(), failed.get(), timedOut.get(), bytes.get(),
+				TimeUnit.NANOSECONDS.toMillis(parseNanos.get()), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+	}
+
+	/**
+	 * 关闭自己创建的线程池，调用方传入的线程池由调用方负责
+	 */
+	@Override
+	public void close() {
+		if (ownExecutor) {
+			executor.shutdown();
+		}
+	}
+
+	private MemoryUsageSetting memoryUsageSetting() {
+		MemoryUsageSetting setting = MemoryUsageSetting.setupMixed(maxMainMemoryBytes);
+		File dir = tempDir;
+		return dir == null ? setting : setting.setTempDir(dir);
+	}
+
+	/**
+	 * 单个文档的解析任务，解析完成和超时谁先到以谁为准；超时从提交时开始计算
+	 */
+	private final class Task implements Runnable {
+
+		private final Source source;
+
+		private final long submitNanos = System.nanoTime();
+
+		private final CompletableFuture<Result> future = new CompletableFuture<Result>();
+
+		private final AtomicBoolean done = new AtomicBoolean();
+
+		/** 超时定时任务，没有超时时为null */
+		private volatile ScheduledFuture<?> deadline;
+
+		Task(Source source) {
+			this.source = source;
+		}
+
+		@Override
+		public void run() {
+			if (done.get()) {
+				// 排队时已超时，不再解析
+				source.discard();
+				return;
+			}
+			long start = System.nanoTime();
+			try {
+				JSONObject json = source.read(memoryUsageSetting());
+				complete(Status.SUCCESS, json, null, System.nanoTime() - start);
+			} catch (Throwable e) {
+				complete(Status.FAILED, null, e, System.nanoTime() - start);
+			}
+		}
+
+		void complete(Status status, JSONObject json, Throwable error, long nanos) {
+			if (!done.compareAndSet(false, true)) {
+				return;
+			}
+			ScheduledFuture<?> task = deadline;
+			if (task != null) {
+				task.cancel(false);
+			}
+			// 先记统计再交付结果，消费方拿到结果时统计已经包含它
+			parseNanos.addAndGet(nanos);
+			switch (status) {
+				case SUCCESS:
+					succeeded.incrementAndGet();
+					bytes.addAndGet(Math.max(source.getLength(), 0));
+					break;
+				case TIMEOUT:
+					timedOut.incrementAndGet();
+					log.warn("解析PDF超时, {}", source.getName());
+					break;
+				default:
+					failed.incrementAndGet();
+					log.warn("解析PDF失败, {}", source.getName(), error);
+			}
+			future.complete(new Result(source.getName(), status, json, error, TimeUnit.NANOSECONDS.toMillis(nanos)));
+		}
+	}
+
+	/**
+	 * 滑动窗口：未取走的结果少于maxPending时继续从源里取文档提交，否则等待最先完成的一个
+	 */
+	private final class ResultIterator implements Iterator<Result> {
+
+		private final Iterator<Source> sources;
+
+		private final BlockingQueue<Result> completed = new LinkedBlockingQueue<Result>();
+
+		private final BiConsumer<Result, Throwable> collector = new BiConsumer<Result, Throwable>() {
+			@Override
+			public void accept(Result result, Throwable e) {
+				completed.add(result);
+			}
+		};
+
+		/** 已提交但还没被next取走的数量，只在调用方线程上读写 */
+		private int pending;
+
+		ResultIterator(Iterator<Source> sources) {
+			this.sources = sources;
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (pending < maxPending && sources.hasNext()) {
+				readAsync(sources.next()).whenComplete(collector);
+				pending++;
+			}
+			return pending > 0;
+		}
+
+		@Override
+		public Result next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			Result result;
+			try {
+				result = completed.take();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("interrupted while waiting for pdf result", e);
+			}
+			pending--;
+			return result;
+		}
+	}
+
+	/**
+	 * 超时定时器，任务只做状态切换
+	 */
+	private static final class Timer {
+
+		private static final ScheduledExecutorService INSTANCE;
+
+		static {
+			ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread thread = new Thread(r, "pdf-receipt-timer");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+			// 文档提前解析完时取消的任务立即移除，不留到到期
+			executor.setRemoveOnCancelPolicy(true);
+			INSTANCE = executor;
+		}
+	}
+
+	/**
+	 * 待解析的文档，需要从其他地方(如对象存储)读取时可以继承本类
+	 */
+	public abstract static class Source {
+
+		private final String name;
+
+		private final long length;
+
+		protected Source(String name, long length) {
+			this.name = name;
+			this.length = length;
+		}
+
+		public static Source of(final File file) {
+			return new Source(file.getPath(), file.length()) {
+				@Override
+				protected JSONObject read(MemoryUsageSetting setting) throws IOException {
+					return PDFReaderUtil.readReceiptPdf(file, setting);
+				}
+			};
+		}
+
+		public static Source of(Path path) {
+			return of(path.toFile());
+		}
+
+		public static Source of(String name, final byte[] bytes) {
+			return new Source(name, bytes.length) {
+				@Override
+				protected JSONObject read(MemoryUsageSetting setting) throws IOException {
+					return PDFReaderUtil.readReceiptPdf(bytes, setting);
+				}
+			};
+		}
+
+		/**
+		 * 输入流在解析结束、被拒绝或排队超时后由本服务关闭
+		 *
+		 * @param name
+		 * @param input
+		 * @return
+		 */
+		public static Source of(String name, final InputStream input) {
+			return new Source(name, -1) {
+				@Override
+				protected JSONObject read(MemoryUsageSetting setting) throws IOException {
+					try {
+						return PDFReaderUtil.readReceiptPdf(input, setting);
+					} finally {
+						input.close();
+					}
+				}
+
+				@Override
+				protected void discard() {
+					try {
+						input.close();
+					} catch (IOException e) {
+						log.debug("关闭输入流失败, {}", getName(), e);
+					}
+				}
+			};
+		}
+
+		/**
+		 * 在工作线程上加载并解析文档
+		 *
+		 * @param setting 按 {@link PDFReceiptBatchReader#setMaxMainMemoryBytes(long)} 创建的内存设置，加载时需要使用它
+		 * @return
+		 * @throws IOException
+		 */
+		protected abstract JSONObject read(MemoryUsageSetting setting) throws IOException;
+
+		/**
+		 * 文档不会再被读取时调用(线程池拒绝、排队时已超时)，释放 {@link #read(MemoryUsageSetting)} 要用的资源；默认什么也不做
+		 */
+		protected void discard() {
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * @return 字节数，输入流为-1
+		 */
+		public long getLength() {
+			return length;
+		}
+
+		@Override
+		public String toString() {
+			return name;
+		}
+	}
+
+	/**
+	 * 解析结果
+	 */
+	public enum Status {
+		SUCCESS,
+		/** 加载或解析时抛出异常 */
+		FAILED,
+		/** 超过 {@link PDFReceiptBatchReader#setTimeout(long, TimeUnit)} */
+		TIMEOUT
+	}
+
+	/**
+	 * 单个文档的解析结果
+	 */
+	public static final class Result {
+
+		private final String name;
+
+		private final Status status;
+
+		private final JSONObject json;
+
+		private final Throwable error;
+
+		private final long elapsedMillis;
+
+		Result(String name, Status status, JSONObject json, Throwable error, long elapsedMillis) {
+			this.name = name;
+			this.status = status;
+			this.json = json;
+			this.error = error;
+			this.elapsedMillis = elapsedMillis;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public Status getStatus() {
+			return status;
+		}
+
+		public boolean isSuccess() {
+			return status == Status.SUCCESS;
+		}
+
+		/**
+		 * @return 与 {@link PDFReaderUtil#readReceiptPdf(String)} 的返回值相同，未成功时为null
+		 */
+		public JSONObject getJson() {
+			return json;
+		}
+
+		public Throwable getError() {
+			return error;
+		}
+
+		/**
+		 * @return 解析耗时；超时的为从提交到超时的时间
+		 */
+		public long getElapsedMillis() {
+			return elapsedMillis;
+		}
+
+		@Override
+		public String toString() {
+			return "Result{name=" + name + ", status=" + status + ", elapsedMillis=" + elapsedMillis
+					+ (error == null ? "" : ", error=" + error) + "}";
+		}
+	}
+
+	/**
+	 * 累计统计快照
+	 */
+	public static final class Stats {
+
+		private final long submitted;
+
+		private final long succeeded;
+
+		private final long failed;
+
+		private final long timedOut;
+
+		private final long bytes;
+
+		private final long parseMillis;
+
+		private final long uptimeMillis;
+
+		Stats(long submitted, long succeeded, long failed, long timedOut, long bytes, long parseMillis, long uptimeMillis) {
+			this.submitted = submitted;
+			this.succeeded = succeeded;
+			this.failed = failed;
+			this.timedOut = timedOut;
+			this.bytes = bytes;
+			this.parseMillis = parseMillis;
+			this.uptimeMillis = uptimeMillis;
+		}
+
+		public long getSubmitted() {
+			return submitted;
+		}
+
+		public long getSucceeded() {
+			return succeeded;
+		}
+
+		public long getFailed() {
+			return failed;
+		}
+
+		public long getTimedOut() {
+			return timedOut;
+		}
+
+		public long getCompleted() {
+			return succeeded + failed + timedOut;
+		}
+
+		/**
+		 * @return 已提交还没有结果的数量
+		 */
+		public long getPending() {
+			return submitted - getCompleted();
+		}
+
+		/**
+		 * @return 成功解析的字节数，不含输入流
+		 */
+		public long getBytes() {
+			return bytes;
+		}
+
+		/**
+		 * @return 所有文档解析耗时之和，超时的按从提交到超时计
+		 */
+		public long getParseMillis() {
+			return parseMillis;
+		}
+
+		/**
+		 * @return 每秒完成的文档数
+		 */
+		public double getDocsPerSecond() {
+			return uptimeMillis == 0 ? 0 : getCompleted() * 1000D / uptimeMillis;
+		}
+
+		/**
+		 * @return 每秒解析的字节数
+		 */
+		public double getBytesPerSecond() {
+			return uptimeMillis == 0 ? 0 : bytes * 1000D / uptimeMillis;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("Stats{submitted=%d, succeeded=%d, failed=%d, timedOut=%d, pending=%d, docs/s=%.1f, MB/s=%.2f}",
+					submitted, succeeded, failed, timedOut, getPending(), getDocsPerSecond(), getBytesPerSecond() / 1024 / 1024);
+		}
+	}
+}
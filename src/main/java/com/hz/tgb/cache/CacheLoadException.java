@@ -0,0 +1,16 @@
+package com.hz.tgb.cache;
+
+/**
+ * 缓存加载失败异常，cause为 {@link CacheLoader#load(Object)} 抛出的原始异常
+ *
+ * @author hezhao
+ * @Time 2026年10月18日 下午2:07:12
+ */
+public class CacheLoadException extends RuntimeException {
+
+    private static final long serialVersionUID = -3203958610478122934L;
+
+    public CacheLoadException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,19 @@
+package com.hz.tgb.cache;
+
+/**
+ * 缓存加载器，缓存未命中或需要提前刷新时调用
+ *
+ * @author hezhao
+ * @Time 2026年10月18日 下午2:05:37
+ */
+public interface CacheLoader<K, V> {
+
+    /**
+     * 加载key对应的值，返回null表示不存在(不会写入缓存)
+     *
+     * @param key
+     * @return
+     * @throws Exception
+     */
+    V load(K key) throws Exception;
+}
@@ -0,0 +1,156 @@
+package com.hz.tgb.cache;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 缓存统计快照(不可变)，由 {@link ConcurrentLocalCache#stats()} 生成
+ *
+ * @author hezhao
+ * @Time 2026年10月18日 下午4:21:09
+ */
+public final class CacheStats {
+
+    private final long hitCount;
+
+    private final long missCount;
+
+    private final long loadSuccessCount;
+
+    private final long loadFailureCount;
+
+    private final long totalLoadTime;
+
+    private final long[] removalCounts;
+
+    private final long expiryLagTotal;
+
+    private final long expiryLagMax;
+
+    private final long size;
+
+    private final long weightedSize;
+
+    CacheStats(long hitCount, long missCount, long loadSuccessCount, long loadFailureCount, long totalLoadTime, long[] removalCounts,
+            long expiryLagTotal, long expiryLagMax, long size, long weightedSize) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.loadSuccessCount = loadSuccessCount;
+        this.loadFailureCount = loadFailureCount;
+        this.totalLoadTime = totalLoadTime;
+        this.removalCounts = removalCounts;
+        this.expiryLagTotal = expiryLagTotal;
+        this.expiryLagMax = expiryLagMax;
+        this.size = size;
+        this.weightedSize = weightedSize;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public long getRequestCount() {
+        return hitCount + missCount;
+    }
+
+    /**
+     * 命中率，没有请求时为1.0
+     *
+     * @return
+     */
+    public double getHitRate() {
+        long requestCount = getRequestCount();
+        return requestCount == 0 ? 1.0d : (double) hitCount / requestCount;
+    }
+
+    public double getMissRate() {
+        long requestCount = getRequestCount();
+        return requestCount == 0 ? 0.0d : (double) missCount / requestCount;
+    }
+
+    public long getLoadSuccessCount() {
+        return loadSuccessCount;
+    }
+
+    public long getLoadFailureCount() {
+        return loadFailureCount;
+    }
+
+    /**
+     * 累计加载耗时(纳秒)
+     *
+     * @return
+     */
+    public long getTotalLoadTime() {
+        return totalLoadTime;
+    }
+
+    /**
+     * 平均加载耗时(纳秒)
+     *
+     * @return
+     */
+    public double getAverageLoadPenalty() {
+        long loadCount = loadSuccessCount + loadFailureCount;
+        return loadCount == 0 ? 0.0d : (double) totalLoadTime / loadCount;
+    }
+
+    /**
+     * 按原因统计的移除次数
+     *
+     * @param cause
+     * @return
+     */
+    public long getRemovalCount(RemovalCause cause) {
+        return removalCounts[cause.ordinal()];
+    }
+
+    /**
+     * 缓存自行淘汰的次数(容量淘汰 + 过期)
+     *
+     * @return
+     */
+    public long getEvictionCount() {
+        return getRemovalCount(RemovalCause.SIZE) + getRemovalCount(RemovalCause.EXPIRED);
+    }
+
+    /**
+     * 过期条目平均多久之后才被真正移除(毫秒)，反映后台清理是否及时
+     *
+     * @return
+     */
+    public double getAverageExpiryLag() {
+        long expiredCount = getRemovalCount(RemovalCause.EXPIRED);
+        return expiredCount == 0 ? 0.0d : (double) expiryLagTotal / expiredCount;
+    }
+
+    /**
+     * 最大过期移除延迟(毫秒)
+     *
+     * @return
+     */
+    public long getMaxExpiryLag() {
+        return expiryLagMax;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public long getWeightedSize() {
+        return weightedSize;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats [hitCount=" + hitCount + ", missCount=" + missCount + ", hitRate=" + getHitRate() + ", loadSuccessCount=" + loadSuccessCount
+                + ", loadFailureCount=" + loadFailureCount + ", averageLoadPenalty=" + TimeUnit.NANOSECONDS.toMicros((long) getAverageLoadPenalty())
+                + "us, evictionBySize=" + getRemovalCount(RemovalCause.SIZE) + ", evictionByExpiry=" + getRemovalCount(RemovalCause.EXPIRED)
+                + ", explicitRemoval=" + getRemovalCount(RemovalCause.EXPLICIT) + ", replaced=" + getRemovalCount(RemovalCause.REPLACED)
+                + ", averageExpiryLag=" + getAverageExpiryLag() + "ms, maxExpiryLag=" + expiryLagMax + "ms, size=" + size + ", weightedSize="
+                + weightedSize + "]";
+    }
+}
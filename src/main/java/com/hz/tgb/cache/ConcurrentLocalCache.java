@@ -0,0 +1,893 @@
+package com.hz.tgb.cache;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 线程安全、有界的本地缓存引擎。<br>
+ * 数据存放在 {@link ConcurrentHashMap} 中，读操作无锁；淘汰队列按key的hash分段，每段一把锁，写操作只锁对应分段。<br>
+ * 读命中时以tryLock方式更新访问顺序，分段繁忙时放弃本次记录，保证读不阻塞。<br>
+ * 支持：最大条目数/最大权重、LRU/W-TinyLFU淘汰、按条目过期时间、后台定时清理过期条目。<br>
+ * 通过 {@link #get(Object, CacheLoader)} 加载时，同一key的并发未命中只会触发一次加载，其余线程等待同一结果；
+ * 配置了提前刷新时，即将过期的条目在后台异步重新加载，读取方不阻塞。<br>
+ * 开启统计后可通过 {@link #stats()} 获取快照，或通过 {@link #registerMBean(String)} 注册到JMX。<br>
+ * 注意：容量按分段平均分配，淘汰在分段内进行，因此只是近似的全局LRU/LFU。
+ *
+ * @author hezhao
+ * @Time 2026年10月18日 上午10:46:19
+ * @see LocalCacheBuilder
+ */
+public class ConcurrentLocalCache<K, V> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ConcurrentLocalCache.class);
+
+    /** 最大分段数 */
+    private static final int MAX_SEGMENTS = 1 << 6;
+
+    /** W-TinyLFU 窗口区占比 */
+    private static final double WINDOW_PERCENT = 0.01d;
+
+    /** W-TinyLFU 主区中保护区占比 */
+    private static final double PROTECTED_PERCENT = 0.8d;
+
+    static final int WINDOW = 0;
+
+    static final int PROBATION = 1;
+
+    static final int PROTECTED = 2;
+
+    static final int DEAD = -1;
+
+    private final ConcurrentHashMap<K, Node<K, V>> data;
+
+    private final Segment<K, V>[] segments;
+
+    private final int segmentShift;
+
+    private final int segmentMask;
+
+    private final Weigher<K, V> weigher;
+
+    private final long expireAfterWriteMillis;
+
+    private final long refreshAheadMillis;
+
+    private final Executor refreshExecutor;
+
+    /** 正在加载(含提前刷新)的key */
+    private final ConcurrentHashMap<K, CompletableFuture<V>> loading;
+
+    /** 统计计数器，未开启统计时为null */
+    private final StatsCounter statsCounter;
+
+    private final long sweepIntervalMillis;
+
+    private volatile ScheduledFuture<?> sweepFuture;
+
+    /** close后不再启动后台清理 */
+    private volatile boolean closed;
+
+    private volatile ObjectName mbeanName;
+
+    @SuppressWarnings("unchecked")
+    ConcurrentLocalCache(LocalCacheBuilder<? super K, ? super V> builder) {
+        long maximum = builder.getMaximum();
+        boolean bounded = maximum != LocalCacheBuilder.UNBOUNDED;
+        boolean tinyLfu = bounded && builder.getEvictionPolicy() == EvictionPolicy.W_TINY_LFU;
+
+        int segmentCount = 1;
+        int shift = 0;
+        int level = Math.min(builder.getConcurrencyLevel(), MAX_SEGMENTS);
+        while (segmentCount < level && (!bounded || segmentCount * 2L <= maximum)) {
+            segmentCount <<= 1;
+            shift++;
+        }
+        this.segmentShift = 32 - shift;
+        this.segmentMask = segmentCount - 1;
+        this.segments = (Segment<K, V>[]) new Segment<?, ?>[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            long segmentMax = bounded ? maximum / segmentCount + (i < maximum % segmentCount ? 1 : 0) : Long.MAX_VALUE;
+            segments[i] = new Segment<K, V>(this, segmentMax, tinyLfu);
+        }
+
+        this.data = new ConcurrentHashMap<K, Node<K, V>>(16, 0.75f, segmentCount);
+        this.weigher = builder.getWeigher();
+        this.expireAfterWriteMillis = builder.getExpireAfterWriteMillis();
+        this.refreshAheadMillis = builder.getRefreshAheadMillis();
+        this.refreshExecutor = builder.getRefreshExecutor();
+        this.loading = new ConcurrentHashMap<K, CompletableFuture<V>>(16, 0.75f, segmentCount);
+        this.statsCounter = builder.isRecordStats() ? new StatsCounter() : null;
+
+        this.sweepIntervalMillis = builder.getSweepIntervalMillis();
+        if (expireAfterWriteMillis != LocalCacheBuilder.NEVER_EXPIRE && sweeperPending()) {
+            startSweeper();
+        }
+    }
+
+    /**
+     * 查询缓存，未命中或已过期时返回null
+     *
+     * @param key
+     * @return
+     */
+    public V getIfPresent(K key) {
+        LocalCacheObj<V> entry = getEntry(key);
+        return entry == null ? null : entry.getT();
+    }
+
+    /**
+     * 查询缓存条目(包含过期时间)，未命中或已过期时返回null
+     *
+     * @param key
+     * @return
+     */
+    public LocalCacheObj<V> getEntry(K key) {
+        Node<K, V> node = data.get(key);
+        if (node == null) {
+            if (statsCounter != null) {
+                statsCounter.recordMiss();
+            }
+            return null;
+        }
+        LocalCacheObj<V> entry = node.entry;
+        long now = System.currentTimeMillis();
+        if (isExpired(entry, now)) {
+            expireNode(node, now);
+            if (statsCounter != null) {
+                statsCounter.recordMiss();
+            }
+            return null;
+        }
+        if (statsCounter != null) {
+            statsCounter.recordHit();
+        }
+        Segment<K, V> segment = segmentFor(key);
+        if (segment.tryLock()) {
+            try {
+                segment.onAccess(node);
+            } finally {
+                segment.unlock();
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * 查询缓存，未命中时调用loader加载并写入缓存。<br>
+     * 同一key的并发未命中共享同一次加载；命中但条目即将过期(剩余时间小于提前刷新时间)时，
+     * 返回当前值并在后台异步刷新。
+     *
+     * @param key
+     * @param loader
+     * @return loader返回null时返回null
+     * @throws CacheLoadException loader抛出异常时
+     * @throws IllegalStateException loader在加载过程中又以同一个key调用本方法时(否则会等待自己而死锁)
+     */
+    public V get(K key, CacheLoader<? super K, ? extends V> loader) {
+        LocalCacheObj<V> entry = getEntry(key);
+        if (entry != null) {
+            if (refreshAheadMillis > 0 && entry.getExpireTime() - System.currentTimeMillis() < refreshAheadMillis) {
+                refreshAsync(key, entry, loader);
+            }
+            return entry.getT();
+        }
+
+        LoadingFuture<V> future = new LoadingFuture<V>();
+        CompletableFuture<V> inFlight = loading.putIfAbsent(key, future);
+        if (inFlight != null) {
+            if (inFlight instanceof LoadingFuture && ((LoadingFuture<V>) inFlight).loader == Thread.currentThread()) {
+                throw new IllegalStateException("recursive load of key:" + key);
+            }
+            return await(key, inFlight);
+        }
+        try {
+            // 注册前可能刚有线程加载完成
+            Node<K, V> node = data.get(key);
+            V value;
+            if (node != null && !isExpired(node.entry, System.currentTimeMillis())) {
+                value = node.entry.getT();
+            } else {
+                value = load(key, loader);
+                if (value != null) {
+                    put(key, value);
+                }
+            }
+            future.complete(value);
+            return value;
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+            throw asLoadException(key, e);
+        } finally {
+            loading.remove(key, future);
+        }
+    }
+
+    /**
+     * 异步刷新，同一key同时只有一个加载任务；刷新失败时保留旧值直到过期
+     */
+    private void refreshAsync(final K key, final LocalCacheObj<V> oldEntry, final CacheLoader<? super K, ? extends V> loader) {
+        final CompletableFuture<V> future = new CompletableFuture<V>();
+        if (loading.putIfAbsent(key, future) != null) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        V value = load(key, loader);
+                        if (value != null) {
+                            doPut(key, value, expireAfterWriteMillis, oldEntry);
+                        }
+                        future.complete(value);
+                    } catch (Throwable e) {
+                        LOG.warn("refresh key:{} failed", key, e);
+                        future.completeExceptionally(e);
+                    } finally {
+                        loading.remove(key, future);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            loading.remove(key, future);
+            future.complete(oldEntry.getT());
+        }
+    }
+
+    private V load(K key, CacheLoader<? super K, ? extends V> loader) throws Exception {
+        if (statsCounter == null) {
+            return loader.load(key);
+        }
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            V value = loader.load(key);
+            success = true;
+            return value;
+        } finally {
+            long loadNanos = System.nanoTime() - start;
+            if (success) {
+                statsCounter.recordLoadSuccess(loadNanos);
+            } else {
+                statsCounter.recordLoadFailure(loadNanos);
+            }
+        }
+    }
+
+    private V await(K key, CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw asLoadException(key, e.getCause() != null ? e.getCause() : e);
+        } catch (RuntimeException e) {
+            throw asLoadException(key, e);
+        }
+    }
+
+    private CacheLoadException asLoadException(K key, Throwable e) {
+        if (e instanceof CacheLoadException) {
+            return (CacheLoadException) e;
+        }
+        return new CacheLoadException("load key:" + key + " failed", e);
+    }
+
+    /**
+     * 写入缓存，使用默认过期时间。value可以为null，查询时得到值为null的条目(与旧版LocalCache一致)
+     *
+     * @param key
+     * @param value
+     */
+    public void put(K key, V value) {
+        put(key, value, expireAfterWriteMillis);
+    }
+
+    /**
+     * 写入缓存并指定该条目的存活时间
+     *
+     * @param key
+     * @param value
+     * @param ttlMillis 存活毫秒数，负数表示永不过期；没有默认过期时间的缓存第一次写入会过期的条目时启动后台清理
+     */
+    public void put(K key, V value, long ttlMillis) {
+        doPut(key, value, ttlMillis, null);
+    }
+
+    /**
+     * 写入缓存，expected不为null时仅当当前条目仍是expected才写入(提前刷新时避免覆盖期间的删除或写入)
+     */
+    private boolean doPut(K key, V value, long ttlMillis, LocalCacheObj<V> expected) {
+        if (key == null) {
+            throw new NullPointerException("key must not be null");
+        }
+        long expireTime = ttlMillis < 0 ? Long.MAX_VALUE : System.currentTimeMillis() + ttlMillis;
+        if (expireTime != Long.MAX_VALUE && sweeperPending()) {
+            startSweeper();
+        }
+        LocalCacheObj<V> entry = new LocalCacheObj<V>(value, expireTime);
+        // null值不交给权重计算器，按1计
+        int weight = weigher == null || value == null ? 1 : weigher.weigh(key, value);
+        if (weight < 0) {
+            throw new IllegalArgumentException("weight must not be negative: " + weight);
+        }
+
+        Segment<K, V> segment = segmentFor(key);
+        segment.lock();
+        try {
+            Node<K, V> node = data.get(key);
+            if (expected != null && (node == null || node.entry != expected)) {
+                return false;
+            }
+            if (node != null) {
+                node.entry = entry;
+                segment.onUpdate(node, weight);
+                recordRemoval(RemovalCause.REPLACED);
+            } else {
+                node = new Node<K, V>(key, entry, weight);
+                data.put(key, node);
+                segment.onInsert(node);
+            }
+            segment.evict();
+            return true;
+        } finally {
+            segment.unlock();
+        }
+    }
+
+    /**
+     * 删除缓存
+     *
+     * @param key
+     * @return 被删除的值，不存在时返回null
+     */
+    public V remove(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        segment.lock();
+        try {
+            Node<K, V> node = data.remove(key);
+            if (node == null) {
+                return null;
+            }
+            segment.onRemove(node);
+            recordRemoval(RemovalCause.EXPLICIT);
+            return node.entry.getT();
+        } finally {
+            segment.unlock();
+        }
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void invalidateAll() {
+        for (Segment<K, V> segment : segments) {
+            segment.lock();
+            try {
+                segment.clear();
+            } finally {
+                segment.unlock();
+            }
+        }
+    }
+
+    /**
+     * 立即清理所有已过期的条目，后台清理线程也调用此方法
+     */
+    public void cleanUp() {
+        long now = System.currentTimeMillis();
+        for (Segment<K, V> segment : segments) {
+            segment.lock();
+            try {
+                segment.expireEntries(now);
+            } finally {
+                segment.unlock();
+            }
+        }
+    }
+
+    /**
+     * 当前条目数(可能包含尚未清理的过期条目)
+     *
+     * @return
+     */
+    public long size() {
+        return data.size();
+    }
+
+    /**
+     * 当前总权重，未指定权重计算器时等于条目数
+     *
+     * @return
+     */
+    public long weightedSize() {
+        long weightedSize = 0;
+        for (Segment<K, V> segment : segments) {
+            weightedSize += segment.totalWeight;
+        }
+        return weightedSize;
+    }
+
+    /**
+     * 统计快照，未开启统计({@link LocalCacheBuilder#recordStats()})时计数均为0
+     *
+     * @return
+     */
+    public CacheStats stats() {
+        StatsCounter counter = statsCounter != null ? statsCounter : new StatsCounter();
+        return counter.snapshot(size(), weightedSize());
+    }
+
+    /**
+     * 注册JMX MBean，ObjectName为 com.hz.tgb.cache:type=LocalCache,name=缓存名，{@link #close()} 时注销
+     *
+     * @param cacheName
+     * @throws IllegalStateException 注册失败(如名称重复)时
+     */
+    public void registerMBean(String cacheName) {
+        try {
+            ObjectName name = new ObjectName("com.hz.tgb.cache:type=LocalCache,name=" + ObjectName.quote(cacheName));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new LocalCacheMXBeanImpl(this), name);
+            this.mbeanName = name;
+        } catch (JMException e) {
+            throw new IllegalStateException("register local cache mbean " + cacheName + " failed", e);
+        }
+    }
+
+    /**
+     * 停止后台清理任务并注销MBean，缓存本身仍可继续使用
+     */
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            ScheduledFuture<?> future = sweepFuture;
+            if (future != null) {
+                future.cancel(false);
+                sweepFuture = null;
+            }
+        }
+        ObjectName name = mbeanName;
+        if (name != null) {
+            mbeanName = null;
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            try {
+                if (server.isRegistered(name)) {
+                    server.unregisterMBean(name);
+                }
+            } catch (JMException e) {
+                LOG.warn("unregister mbean {} failed", name, e);
+            }
+        }
+    }
+
+    /**
+     * 后台清理还没启动且可以启动：已启动、已关闭或禁用了清理(sweepInterval为0)时返回false，
+     * 带过期时间的写入不用每次都进入 {@link #startSweeper()} 的锁
+     */
+    private boolean sweeperPending() {
+        return sweepFuture == null && !closed && sweepIntervalMillis > 0;
+    }
+
+    /**
+     * 启动后台清理，只要有条目会过期就需要，重复调用只启动一次
+     */
+    private synchronized void startSweeper() {
+        if (sweeperPending()) {
+            sweepFuture = Sweeper.schedule(this, sweepIntervalMillis);
+        }
+    }
+
+    private void expireNode(Node<K, V> node, long now) {
+        Segment<K, V> segment = segmentFor(node.key);
+        segment.lock();
+        try {
+            // 无锁判断过期后，可能有写入或刷新更新了同一个节点的entry，加锁后重新判断
+            if (isExpired(node.entry, now) && data.remove(node.key, node)) {
+                segment.onRemove(node);
+                recordExpiry(node, now);
+            }
+        } finally {
+            segment.unlock();
+        }
+    }
+
+    void recordRemoval(RemovalCause cause) {
+        if (statsCounter != null) {
+            statsCounter.recordRemoval(cause);
+        }
+    }
+
+    void recordExpiry(Node<K, V> node, long now) {
+        if (statsCounter != null) {
+            statsCounter.recordExpiry(now - node.entry.getExpireTime());
+        }
+    }
+
+    private Segment<K, V> segmentFor(Object key) {
+        int hash = rehash(key.hashCode());
+        return segments[(hash >>> segmentShift) & segmentMask];
+    }
+
+    static boolean isExpired(LocalCacheObj<?> entry, long now) {
+        return now > entry.getExpireTime();
+    }
+
+    /**
+     * Wang/Jenkins hash 再散列，避免分段不均
+     */
+    private static int rehash(int h) {
+        h += (h << 15) ^ 0xffffcd7d;
+        h ^= (h >>> 10);
+        h += (h << 3);
+        h ^= (h >>> 6);
+        h += (h << 2) + (h << 14);
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * 调用方线程同步加载时使用，记录加载线程以识别递归加载
+     */
+    static final class LoadingFuture<V> extends CompletableFuture<V> {
+
+        final Thread loader = Thread.currentThread();
+    }
+
+    /**
+     * 缓存节点，entry可无锁读取，其余字段由所属分段的锁保护
+     */
+    static final class Node<K, V> {
+
+        final K key;
+
+        volatile LocalCacheObj<V> entry;
+
+        int weight;
+
+        int queue;
+
+        Node(K key, LocalCacheObj<V> entry, int weight) {
+            this.key = key;
+            this.entry = entry;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * 缓存分段，维护本段的淘汰队列和权重。LRU只使用probation队列；
+     * W-TinyLFU新条目先进入window，溢出后与probation队首比较频率决定去留，probation再次命中后晋升到protected。
+     */
+    static final class Segment<K, V> extends ReentrantLock {
+
+        private static final long serialVersionUID = 1L;
+
+        final transient ConcurrentLocalCache<K, V> cache;
+
+        final long maxWeight;
+
+        final long windowMax;
+
+        final long protectedMax;
+
+        final transient FrequencySketch sketch;
+
+        final transient LinkedHashMap<K, Node<K, V>> window = new LinkedHashMap<K, Node<K, V>>(16, 0.75f, true);
+
+        final transient LinkedHashMap<K, Node<K, V>> probation = new LinkedHashMap<K, Node<K, V>>(16, 0.75f, true);
+
+        final transient LinkedHashMap<K, Node<K, V>> protectedQueue = new LinkedHashMap<K, Node<K, V>>(16, 0.75f, true);
+
+        long windowWeight;
+
+        long probationWeight;
+
+        long protectedWeight;
+
+        volatile long totalWeight;
+
+        Segment(ConcurrentLocalCache<K, V> cache, long maxWeight, boolean tinyLfu) {
+            this.cache = cache;
+            this.maxWeight = maxWeight;
+            if (tinyLfu) {
+                this.windowMax = Math.max(1, (long) (maxWeight * WINDOW_PERCENT));
+                this.protectedMax = (long) ((maxWeight - windowMax) * PROTECTED_PERCENT);
+                this.sketch = new FrequencySketch(maxWeight);
+            } else {
+                this.windowMax = 0;
+                this.protectedMax = 0;
+                this.sketch = null;
+            }
+        }
+
+        void onInsert(Node<K, V> node) {
+            totalWeight += node.weight;
+            if (sketch == null) {
+                node.queue = PROBATION;
+                probation.put(node.key, node);
+                probationWeight += node.weight;
+            } else {
+                sketch.increment(node.key);
+                node.queue = WINDOW;
+                window.put(node.key, node);
+                windowWeight += node.weight;
+            }
+        }
+
+        void onUpdate(Node<K, V> node, int weight) {
+            int delta = weight - node.weight;
+            node.weight = weight;
+            totalWeight += delta;
+            switch (node.queue) {
+            case WINDOW:
+                windowWeight += delta;
+                break;
+            case PROBATION:
+                probationWeight += delta;
+                break;
+            case PROTECTED:
+                protectedWeight += delta;
+                break;
+            default:
+                break;
+            }
+            onAccess(node);
+        }
+
+        void onAccess(Node<K, V> node) {
+            if (sketch != null) {
+                sketch.increment(node.key);
+            }
+            switch (node.queue) {
+            case WINDOW:
+                window.get(node.key);
+                break;
+            case PROBATION:
+                if (sketch == null) {
+                    probation.get(node.key);
+                } else {
+                    probation.remove(node.key);
+                    probationWeight -= node.weight;
+                    node.queue = PROTECTED;
+                    protectedQueue.put(node.key, node);
+                    protectedWeight += node.weight;
+                    demoteProtected();
+                }
+                break;
+            case PROTECTED:
+                protectedQueue.get(node.key);
+                break;
+            default:
+                // 已被移除的节点
+                break;
+            }
+        }
+
+        void onRemove(Node<K, V> node) {
+            switch (node.queue) {
+            case WINDOW:
+                window.remove(node.key);
+                windowWeight -= node.weight;
+                break;
+            case PROBATION:
+                probation.remove(node.key);
+                probationWeight -= node.weight;
+                break;
+            case PROTECTED:
+                protectedQueue.remove(node.key);
+                protectedWeight -= node.weight;
+                break;
+            default:
+                return;
+            }
+            totalWeight -= node.weight;
+            node.queue = DEAD;
+        }
+
+        /**
+         * 按策略淘汰，直到本段权重不超过上限
+         */
+        void evict() {
+            if (sketch != null) {
+                while (windowWeight > windowMax) {
+                    Node<K, V> candidate = pollFirst(window);
+                    windowWeight -= candidate.weight;
+                    admit(candidate);
+                }
+            }
+            while (totalWeight > maxWeight) {
+                Node<K, V> victim = first(probation);
+                if (victim == null) {
+                    victim = first(protectedQueue);
+                }
+                if (victim == null) {
+                    victim = first(window);
+                }
+                if (victim == null) {
+                    break;
+                }
+                evictNode(victim);
+            }
+        }
+
+        /**
+         * window溢出的候选条目与主区牺牲者比较频率，频率更高者留下
+         */
+        private void admit(Node<K, V> candidate) {
+            long mainMax = maxWeight - windowMax;
+            while (probationWeight + protectedWeight + candidate.weight > mainMax) {
+                Node<K, V> victim = first(probation);
+                if (victim == null) {
+                    victim = first(protectedQueue);
+                }
+                if (victim == null) {
+                    break;
+                }
+                if (sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+                    evictNode(victim);
+                } else {
+                    candidate.queue = DEAD;
+                    totalWeight -= candidate.weight;
+                    cache.data.remove(candidate.key, candidate);
+                    cache.recordRemoval(RemovalCause.SIZE);
+                    return;
+                }
+            }
+            candidate.queue = PROBATION;
+            probation.put(candidate.key, candidate);
+            probationWeight += candidate.weight;
+        }
+
+        /**
+         * protected超出上限时，把最久未访问的条目降级回probation
+         */
+        private void demoteProtected() {
+            while (protectedWeight > protectedMax) {
+                Node<K, V> demoted = pollFirst(protectedQueue);
+                if (demoted == null) {
+                    break;
+                }
+                protectedWeight -= demoted.weight;
+                demoted.queue = PROBATION;
+                probation.put(demoted.key, demoted);
+                probationWeight += demoted.weight;
+            }
+        }
+
+        private void evictNode(Node<K, V> node) {
+            cache.data.remove(node.key, node);
+            onRemove(node);
+            cache.recordRemoval(RemovalCause.SIZE);
+        }
+
+        void expireEntries(long now) {
+            expireEntries(window, now);
+            expireEntries(probation, now);
+            expireEntries(protectedQueue, now);
+        }
+
+        private void expireEntries(LinkedHashMap<K, Node<K, V>> queue, long now) {
+            Iterator<Node<K, V>> iterator = queue.values().iterator();
+            while (iterator.hasNext()) {
+                Node<K, V> node = iterator.next();
+                if (isExpired(node.entry, now)) {
+                    iterator.remove();
+                    switch (node.queue) {
+                    case WINDOW:
+                        windowWeight -= node.weight;
+                        break;
+                    case PROBATION:
+                        probationWeight -= node.weight;
+                        break;
+                    default:
+                        protectedWeight -= node.weight;
+                        break;
+                    }
+                    totalWeight -= node.weight;
+                    node.queue = DEAD;
+                    cache.data.remove(node.key, node);
+                    cache.recordExpiry(node, now);
+                }
+            }
+        }
+
+        void clear() {
+            clear(window);
+            clear(probation);
+            clear(protectedQueue);
+            windowWeight = 0;
+            probationWeight = 0;
+            protectedWeight = 0;
+            totalWeight = 0;
+        }
+
+        private void clear(LinkedHashMap<K, Node<K, V>> queue) {
+            for (Node<K, V> node : queue.values()) {
+                node.queue = DEAD;
+                cache.data.remove(node.key, node);
+                cache.recordRemoval(RemovalCause.EXPLICIT);
+            }
+            queue.clear();
+        }
+
+        private static <K, V> Node<K, V> first(LinkedHashMap<K, Node<K, V>> queue) {
+            if (queue.isEmpty()) {
+                return null;
+            }
+            return queue.values().iterator().next();
+        }
+
+        private static <K, V> Node<K, V> pollFirst(LinkedHashMap<K, Node<K, V>> queue) {
+            if (queue.isEmpty()) {
+                return null;
+            }
+            Iterator<Map.Entry<K, Node<K, V>>> iterator = queue.entrySet().iterator();
+            Node<K, V> node = iterator.next().getValue();
+            iterator.remove();
+            return node;
+        }
+    }
+
+    /**
+     * 所有缓存共享的后台清理线程，只持有缓存的弱引用，缓存被回收后任务自动取消
+     */
+    static final class Sweeper implements Runnable {
+
+        private static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "local-cache-sweeper");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+
+        private final WeakReference<ConcurrentLocalCache<?, ?>> cacheRef;
+
+        private volatile ScheduledFuture<?> future;
+
+        private Sweeper(ConcurrentLocalCache<?, ?> cache) {
+            this.cacheRef = new WeakReference<ConcurrentLocalCache<?, ?>>(cache);
+        }
+
+        static ScheduledFuture<?> schedule(ConcurrentLocalCache<?, ?> cache, long intervalMillis) {
+            Sweeper sweeper = new Sweeper(cache);
+            sweeper.future = EXECUTOR.scheduleWithFixedDelay(sweeper, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+            return sweeper.future;
+        }
+
+        @Override
+        public void run() {
+            ConcurrentLocalCache<?, ?> cache = cacheRef.get();
+            if (cache == null) {
+                ScheduledFuture<?> f = future;
+                if (f != null) {
+                    f.cancel(false);
+                }
+                return;
+            }
+            try {
+                cache.cleanUp();
+            } catch (Throwable e) {
+                LOG.error("local cache sweep failed", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.hz.tgb.cache;
+
+/**
+ * 本地缓存淘汰策略
+ *
+ * @author hezhao
+ * @Time 2026年10月18日 上午10:12:31
+ */
+public enum EvictionPolicy {
+
+    /**
+     * 最近最少使用：容量满时淘汰最久未被访问的条目
+     */
+    LRU,
+
+    /**
+     * W-TinyLFU：小窗口LRU + 分段LRU主区，由频率草图(Count-Min Sketch)决定候选条目能否挤掉主区的牺牲者，
+     * 对突发流量和扫描型访问的抗性比LRU更好
+     */
+    W_TINY_LFU
+}
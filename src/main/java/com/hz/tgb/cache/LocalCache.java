@@ -1,7 +1,6 @@
 package com.hz.tgb.cache;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import com.hz.tgb.entity.Student;
 import org.slf4j.Logger;
@@ -9,19 +8,42 @@ import org.slf4j.LoggerFactory;
 
 /**
  * 自定义本地缓存，可应用于简单的缓存场景。<br>
- * 注意事项：1.多节点部署时，该缓存不共享，建议使用集中式缓存 2.数据刷新时，需要主动设置该缓存过期
+ * 注意事项：1.多节点部署时，该缓存不共享，建议使用集中式缓存 2.数据刷新时，需要主动设置该缓存过期<br>
+ * 底层为线程安全的 {@link ConcurrentLocalCache}，容量满时按W-TinyLFU淘汰，过期条目由后台线程定时清理。
+ * 需要自定义容量、权重或淘汰策略时，请直接使用 {@link LocalCacheBuilder} 构建。<br>
+ * 命中率等统计可通过 {@link #stats()} 或JMX(com.hz.tgb.cache:type=LocalCache,name="LocalCache")查看。
  * 
  * @author Yaphis 2015年11月9日 下午2:13:53
  */
 public class LocalCache {
 
-    private static final Map<String, LocalCacheObj<Object>> cacheMap = new HashMap<String, LocalCacheObj<Object>>();
-
     private static final Logger LOG = LoggerFactory.getLogger(LocalCache.class);
 
     /** 默认的缓存时间 */
     private static final long DEFULT_EXPIRE = 30 * 60 * 1000;
 
+    /** 过期前多久开始提前刷新(仅对通过loader加载的条目生效) */
+    private static final long REFRESH_AHEAD = 60 * 1000;
+
+    /** 最大缓存条目数 */
+    private static final long MAX_SIZE = 10000;
+
+    private static final ConcurrentLocalCache<String, Object> cacheMap = LocalCacheBuilder.<String, Object> newBuilder()
+            .maximumSize(MAX_SIZE)
+            .evictionPolicy(EvictionPolicy.W_TINY_LFU)
+            .expireAfterWrite(DEFULT_EXPIRE, TimeUnit.MILLISECONDS)
+            .refreshAhead(REFRESH_AHEAD, TimeUnit.MILLISECONDS)
+            .recordStats()
+            .build();
+
+    static {
+        try {
+            cacheMap.registerMBean("LocalCache");
+        } catch (IllegalStateException e) {
+            LOG.warn("LocalCache mbean not registered", e);
+        }
+    }
+
     /**
      * 插入缓存
      * 
@@ -29,14 +51,18 @@ public class LocalCache {
      * @param t
      */
     public static <T> void insertCache(String key, T t) {
-        // 这里简单设计 防止缓存过大导致内存溢出
-        if (cacheMap.size() >= 10000) {
-            LOG.error("current cacheMap size:{},has up to limit!", cacheMap.size());
-            return;
-        }
-        long expireTime = System.currentTimeMillis() + DEFULT_EXPIRE;
-        LocalCacheObj<Object> localCache = new LocalCacheObj<Object>(t, expireTime);
-        cacheMap.put(key, localCache);
+        cacheMap.put(key, t);
+    }
+
+    /**
+     * 插入缓存并指定过期时间
+     * 
+     * @param key
+     * @param t
+     * @param expireMillis 缓存毫秒数，负数表示永不过期
+     */
+    public static <T> void insertCache(String key, T t, long expireMillis) {
+        cacheMap.put(key, t, expireMillis);
     }
 
     /**
@@ -52,21 +78,33 @@ public class LocalCache {
      * 查询缓存
      * 
      * @param key
-     * @return
+     * @return 缓存已经过期或不存在时返回null
      */
     public static LocalCacheObj<Object> queryCache(String key) {
-        LocalCacheObj<Object> localCache = cacheMap.get(key);
-        if (null != localCache) {
-            long nowTime = System.currentTimeMillis();
-            if (nowTime > localCache.getExpireTime()) {
-                LOG.info("key:{} has been expired!", key);
-                cacheMap.remove(key);
-                return null; // 缓存已经过期
-            } else {
-                return localCache;
-            }
-        }
-        return null;
+        return cacheMap.getEntry(key);
+    }
+
+    /**
+     * 查询缓存，未命中时调用loader加载并写入缓存。<br>
+     * 同一key的并发未命中只加载一次；过期前一分钟内被读取的条目会在后台异步刷新，读取方不阻塞。
+     * 
+     * @param key
+     * @param loader
+     * @return loader返回null时返回null
+     * @throws CacheLoadException loader抛出异常时
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T get(String key, CacheLoader<String, T> loader) {
+        return (T) cacheMap.get(key, loader);
+    }
+
+    /**
+     * 缓存统计快照
+     * 
+     * @return
+     */
+    public static CacheStats stats() {
+        return cacheMap.stats();
     }
 
     public static void main(String[] args) {
@@ -82,5 +120,6 @@ public class LocalCache {
 
         System.out.println(LocalCache.queryCache("name"));
         System.out.println(LocalCache.queryCache("student"));
+        System.out.println(LocalCache.stats());
     }
 }
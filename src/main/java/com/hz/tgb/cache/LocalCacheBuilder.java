@@ -0,0 +1,219 @@
+package com.hz.tgb.cache;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ConcurrentLocalCache} 构建器
+ *
+ * <pre>
+ * ConcurrentLocalCache&lt;String, User&gt; cache = LocalCacheBuilder.&lt;String, User&gt; newBuilder()
+ *         .maximumSize(10000)
+ *         .evictionPolicy(EvictionPolicy.W_TINY_LFU)
+ *         .expireAfterWrite(30, TimeUnit.MINUTES)
+ *         .build();
+ * </pre>
+ *
+ * @author hezhao
+ * @Time 2026年10月18日 上午10:31:02
+ */
+public class LocalCacheBuilder<K, V> {
+
+    /** 不过期 */
+    static final long NEVER_EXPIRE = -1L;
+
+    /** 不限容量 */
+    static final long UNBOUNDED = -1L;
+
+    /** 默认清理周期 */
+    static final long DEFAULT_SWEEP_INTERVAL = 60 * 1000;
+
+    private long maximumSize = UNBOUNDED;
+
+    private long maximumWeight = UNBOUNDED;
+
+    private Weigher<? super K, ? super V> weigher;
+
+    private EvictionPolicy evictionPolicy = EvictionPolicy.LRU;
+
+    private long expireAfterWriteMillis = NEVER_EXPIRE;
+
+    private long sweepIntervalMillis = DEFAULT_SWEEP_INTERVAL;
+
+    private int concurrencyLevel = Runtime.getRuntime().availableProcessors();
+
+    private long refreshAheadMillis = 0;
+
+    private Executor refreshExecutor = ForkJoinPool.commonPool();
+
+    private boolean recordStats = false;
+
+    private LocalCacheBuilder() {
+    }
+
+    public static <K, V> LocalCacheBuilder<K, V> newBuilder() {
+        return new LocalCacheBuilder<K, V>();
+    }
+
+    /**
+     * 最大条目数，与 {@link #maximumWeight(long)} 互斥
+     *
+     * @param maximumSize
+     * @return
+     */
+    public LocalCacheBuilder<K, V> maximumSize(long maximumSize) {
+        checkArgument(maximumSize >= 0, "maximumSize must not be negative");
+        checkArgument(this.maximumWeight == UNBOUNDED, "maximumWeight was already set");
+        this.maximumSize = maximumSize;
+        return this;
+    }
+
+    /**
+     * 最大总权重，需同时指定 {@link #weigher(Weigher)}
+     *
+     * @param maximumWeight
+     * @return
+     */
+    public LocalCacheBuilder<K, V> maximumWeight(long maximumWeight) {
+        checkArgument(maximumWeight >= 0, "maximumWeight must not be negative");
+        checkArgument(this.maximumSize == UNBOUNDED, "maximumSize was already set");
+        this.maximumWeight = maximumWeight;
+        return this;
+    }
+
+    public LocalCacheBuilder<K, V> weigher(Weigher<? super K, ? super V> weigher) {
+        checkArgument(weigher != null, "weigher must not be null");
+        this.weigher = weigher;
+        return this;
+    }
+
+    public LocalCacheBuilder<K, V> evictionPolicy(EvictionPolicy evictionPolicy) {
+        checkArgument(evictionPolicy != null, "evictionPolicy must not be null");
+        this.evictionPolicy = evictionPolicy;
+        return this;
+    }
+
+    /**
+     * 写入后多久过期，可被 {@link ConcurrentLocalCache#put(Object, Object, long)} 按条目覆盖
+     *
+     * @param duration
+     * @param unit
+     * @return
+     */
+    public LocalCacheBuilder<K, V> expireAfterWrite(long duration, TimeUnit unit) {
+        checkArgument(duration >= 0, "duration must not be negative");
+        this.expireAfterWriteMillis = unit.toMillis(duration);
+        return this;
+    }
+
+    /**
+     * 后台清理过期条目的周期，0表示不启动后台清理(仅在读取时惰性过期)
+     *
+     * @param interval
+     * @param unit
+     * @return
+     */
+    public LocalCacheBuilder<K, V> sweepInterval(long interval, TimeUnit unit) {
+        checkArgument(interval >= 0, "interval must not be negative");
+        this.sweepIntervalMillis = unit.toMillis(interval);
+        return this;
+    }
+
+    /**
+     * 预期并发写线程数，决定锁分段数量(向上取2的幂)
+     *
+     * @param concurrencyLevel
+     * @return
+     */
+    public LocalCacheBuilder<K, V> concurrencyLevel(int concurrencyLevel) {
+        checkArgument(concurrencyLevel > 0, "concurrencyLevel must be positive");
+        this.concurrencyLevel = concurrencyLevel;
+        return this;
+    }
+
+    /**
+     * 提前刷新：通过 {@link ConcurrentLocalCache#get(Object, CacheLoader)} 读取时，
+     * 若条目剩余存活时间小于该值，则在后台异步重新加载，读取方直接拿到当前值不阻塞
+     *
+     * @param duration
+     * @param unit
+     * @return
+     */
+    public LocalCacheBuilder<K, V> refreshAhead(long duration, TimeUnit unit) {
+        checkArgument(duration >= 0, "duration must not be negative");
+        this.refreshAheadMillis = unit.toMillis(duration);
+        return this;
+    }
+
+    /**
+     * 提前刷新使用的线程池，默认为 {@link ForkJoinPool#commonPool()}
+     *
+     * @param refreshExecutor
+     * @return
+     */
+    public LocalCacheBuilder<K, V> refreshExecutor(Executor refreshExecutor) {
+        checkArgument(refreshExecutor != null, "refreshExecutor must not be null");
+        this.refreshExecutor = refreshExecutor;
+        return this;
+    }
+
+    /**
+     * 开启命中率、加载耗时、淘汰原因等统计，见 {@link ConcurrentLocalCache#stats()}
+     *
+     * @return
+     */
+    public LocalCacheBuilder<K, V> recordStats() {
+        this.recordStats = true;
+        return this;
+    }
+
+    public <K1 extends K, V1 extends V> ConcurrentLocalCache<K1, V1> build() {
+        checkArgument(maximumWeight == UNBOUNDED || weigher != null, "maximumWeight requires weigher");
+        checkArgument(weigher == null || maximumWeight != UNBOUNDED, "weigher requires maximumWeight");
+        return new ConcurrentLocalCache<K1, V1>(this);
+    }
+
+    long getMaximum() {
+        return maximumWeight != UNBOUNDED ? maximumWeight : maximumSize;
+    }
+
+    @SuppressWarnings("unchecked")
+    <K1 extends K, V1 extends V> Weigher<K1, V1> getWeigher() {
+        return (Weigher<K1, V1>) weigher;
+    }
+
+    EvictionPolicy getEvictionPolicy() {
+        return evictionPolicy;
+    }
+
+    long getExpireAfterWriteMillis() {
+        return expireAfterWriteMillis;
+    }
+
+    long getSweepIntervalMillis() {
+        return sweepIntervalMillis;
+    }
+
+    int getConcurrencyLevel() {
+        return concurrencyLevel;
+    }
+
+    long getRefreshAheadMillis() {
+        return refreshAheadMillis;
+    }
+
+    Executor getRefreshExecutor() {
+        return refreshExecutor;
+    }
+
+    boolean isRecordStats() {
+        return recordStats;
+    }
+
+    private static void checkArgument(boolean expression, String message) {
+        if (!expression) {
+            throw new IllegalArgumentException(message);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.hz.tgb.cache;
+
+/**
+ * 本地缓存JMX监控接口，注册名为 com.hz.tgb.cache:type=LocalCache,name=缓存名
+ *
+ * @author hezhao
+ * @Time 2026年10月18日 下午4:35:52
+ * @see ConcurrentLocalCache#registerMBean(String)
+ */
+public interface LocalCacheMXBean {
+
+    long getHitCount();
+
+    long getMissCount();
+
+    double getHitRate();
+
+    long getLoadSuccessCount();
+
+    long getLoadFailureCount();
+
+    double getAverageLoadPenalty();
+
+    long getEvictionBySizeCount();
+
+    long getEvictionByExpiryCount();
+
+    long getExplicitRemovalCount();
+
+    long getReplacedCount();
+
+    double getAverageExpiryLag();
+
+    long getMaxExpiryLag();
+
+    long getSize();
+
+    long getWeightedSize();
+
+    /**
+     * 立即清理过期条目
+     */
+    void cleanUp();
+}
@@ -0,0 +1,91 @@
+package com.hz.tgb.cache;
+
+/**
+ * {@link LocalCacheMXBean} 实现，每个属性读取一次统计快照
+ *
+ * @author hezhao
+ * @Time 2026年10月18日 下午4:38:27
+ */
+class LocalCacheMXBeanImpl implements LocalCacheMXBean {
+
+    private final ConcurrentLocalCache<?, ?> cache;
+
+    LocalCacheMXBeanImpl(ConcurrentLocalCache<?, ?> cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public long getHitCount() {
+        return cache.stats().getHitCount();
+    }
+
+    @Override
+    public long getMissCount() {
+        return cache.stats().getMissCount();
+    }
+
+    @Override
+    public double getHitRate() {
+        return cache.stats().getHitRate();
+    }
+
+    @Override
+    public long getLoadSuccessCount() {
+        return cache.stats().getLoadSuccessCount();
+    }
+
+    @Override
+    public long getLoadFailureCount() {
+        return cache.stats().getLoadFailureCount();
+    }
+
+    @Override
+    public double getAverageLoadPenalty() {
+        return cache.stats().getAverageLoadPenalty();
+    }
+
+    @Override
+    public long getEvictionBySizeCount() {
+        return cache.stats().getRemovalCount(RemovalCause.SIZE);
+    }
+
+    @Override
+    public long getEvictionByExpiryCount() {
+        return cache.stats().getRemovalCount(RemovalCause.EXPIRED);
+    }
+
+    @Override
+    public long getExplicitRemovalCount() {
+        return cache.stats().getRemovalCount(RemovalCause.EXPLICIT);
+    }
+
+    @Override
+    public long getReplacedCount() {
+        return cache.stats().getRemovalCount(RemovalCause.REPLACED);
+    }
+
+    @Override
+    public double getAverageExpiryLag() {
+        return cache.stats().getAverageExpiryLag();
+    }
+
+    @Override
+    public long getMaxExpiryLag() {
+        return cache.stats().getMaxExpiryLag();
+    }
+
+    @Override
+    public long getSize() {
+        return cache.size();
+    }
+
+    @Override
+    public long getWeightedSize() {
+        return cache.weightedSize();
+    }
+
+    @Override
+    public void cleanUp() {
+        cache.cleanUp();
+    }
+}
@@ -0,0 +1,31 @@
+package com.hz.tgb.cache;
+
+/**
+ * 缓存条目被移除的原因
+ *
+ * @author hezhao
+ * @Time 2026年10月18日 下午4:02:18
+ */
+public enum RemovalCause {
+
+    /** 主动删除或清空 */
+    EXPLICIT,
+
+    /** 同一key被重新写入，旧值被替换 */
+    REPLACED,
+
+    /** 已过期(读取时发现或后台清理) */
+    EXPIRED,
+
+    /** 超出容量/权重上限被淘汰 */
+    SIZE;
+
+    /**
+     * 是否属于缓存自行淘汰(非调用方主动操作)
+     *
+     * @return
+     */
+    public boolean wasEvicted() {
+        return this == EXPIRED || this == SIZE;
+    }
+}
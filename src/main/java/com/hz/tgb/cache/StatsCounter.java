@@ -0,0 +1,79 @@
+package com.hz.tgb.cache;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 缓存统计计数器，基于 {@link LongAdder} 分段累加，热点路径上只有一次无竞争的CAS
+ *
+ * @author hezhao
+ * @Time 2026年10月18日 下午4:10:45
+ */
+final class StatsCounter {
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    private final LongAdder loadSuccessCount = new LongAdder();
+
+    private final LongAdder loadFailureCount = new LongAdder();
+
+    private final LongAdder totalLoadTime = new LongAdder();
+
+    private final LongAdder[] removalCounts;
+
+    private final LongAdder expiryLagTotal = new LongAdder();
+
+    private final LongAccumulator expiryLagMax = new LongAccumulator(Math::max, 0L);
+
+    StatsCounter() {
+        RemovalCause[] causes = RemovalCause.values();
+        removalCounts = new LongAdder[causes.length];
+        for (int i = 0; i < causes.length; i++) {
+            removalCounts[i] = new LongAdder();
+        }
+    }
+
+    void recordHit() {
+        hitCount.increment();
+    }
+
+    void recordMiss() {
+        missCount.increment();
+    }
+
+    void recordLoadSuccess(long loadNanos) {
+        loadSuccessCount.increment();
+        totalLoadTime.add(loadNanos);
+    }
+
+    void recordLoadFailure(long loadNanos) {
+        loadFailureCount.increment();
+        totalLoadTime.add(loadNanos);
+    }
+
+    void recordRemoval(RemovalCause cause) {
+        removalCounts[cause.ordinal()].increment();
+    }
+
+    /**
+     * 记录过期条目从到期到真正被移除之间的延迟
+     *
+     * @param lagMillis
+     */
+    void recordExpiry(long lagMillis) {
+        removalCounts[RemovalCause.EXPIRED.ordinal()].increment();
+        expiryLagTotal.add(lagMillis);
+        expiryLagMax.accumulate(lagMillis);
+    }
+
+    CacheStats snapshot(long size, long weightedSize) {
+        long[] removals = new long[removalCounts.length];
+        for (int i = 0; i < removals.length; i++) {
+            removals[i] = removalCounts[i].sum();
+        }
+        return new CacheStats(hitCount.sum(), missCount.sum(), loadSuccessCount.sum(), loadFailureCount.sum(), totalLoadTime.sum(), removals,
+                expiryLagTotal.sum(), expiryLagMax.get(), size, weightedSize);
+    }
+}
@@ -0,0 +1,19 @@
+package com.hz.tgb.cache;
+
+/**
+ * 缓存条目权重计算器，配合 {@link LocalCacheBuilder#maximumWeight(long)} 使用
+ *
+ * @author hezhao
+ * @Time 2026年10月18日 上午10:14:05
+ */
+public interface Weigher<K, V> {
+
+    /**
+     * 计算条目权重，写入时调用一次，结果不能为负数
+     *
+     * @param key
+     * @param value
+     * @return
+     */
+    int weigh(K key, V value);
+}
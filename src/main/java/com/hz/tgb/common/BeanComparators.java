@@ -0,0 +1,371 @@
+package com.hz.tgb.common;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Comparator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.hz.tgb.reflect.Accessors;
+
+/**
+ * 按对象属性/无参方法排序的比较器工厂<br>
+ * 每个类的每个属性/方法只解析一次，通过 {@link Accessors} 生成访问函数，结果缓存在 {@link ClassValue} 中。int/long/double等基本类型直接比较，不装箱。<br>
+ * 比较规则与 {@link SortListUtil} 原实现一致：基本类型按数值，实现了Comparable的类型调用compareTo，其余按String.valueOf比较；
+ * 另外null排在最前(升序时)，找不到属性/方法时记录错误日志，该排序字段视为相等。
+ *
+ * @author hezhao
+ * @Time 2026年10月20日 下午4:05:18
+ */
+public final class BeanComparators {
+
+    private static final Logger logger = LoggerFactory.getLogger(BeanComparators.class);
+
+    private static final ClassValue<ConcurrentMap<String, Accessor>> FIELD_ACCESSORS = new ClassValue<ConcurrentMap<String, Accessor>>() {
+        @Override
+        protected ConcurrentMap<String, Accessor> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<String, Accessor>();
+        }
+    };
+
+    private static final ClassValue<ConcurrentMap<String, Accessor>> METHOD_ACCESSORS = new ClassValue<ConcurrentMap<String, Accessor>>() {
+        @Override
+        protected ConcurrentMap<String, Accessor> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<String, Accessor>();
+        }
+    };
+
+    private BeanComparators() {
+    }
+
+    /**
+     * 按属性排序
+     *
+     * @param field 属性名，包括父类中声明的属性
+     * @param sort {@link SortListUtil#DESC} 降序，其他升序
+     */
+    public static <T> Comparator<T> byField(String field, String sort) {
+        return byFields(new String[] { field }, new String[] { sort });
+    }
+
+    /**
+     * 按多个属性排序，fields[i]相同时再比较fields[i+1]
+     *
+     * @param fields 属性名
+     * @param sorts sorts[i]指定fields[i]的排序方式，为空时升序
+     */
+    public static <T> Comparator<T> byFields(String[] fields, String[] sorts) {
+        return chain(fields, sorts, false);
+    }
+
+    /**
+     * 按无参公有方法的返回值排序
+     *
+     * @param method 方法名，如getId
+     * @param sort {@link SortListUtil#DESC} 降序，其他升序
+     */
+    public static <T> Comparator<T> byMethod(String method, String sort) {
+        return byMethods(new String[] { method }, new String[] { sort });
+    }
+
+    /**
+     * 按多个无参公有方法的返回值排序
+     */
+    public static <T> Comparator<T> byMethods(String[] methods, String[] sorts) {
+        return chain(methods, sorts, true);
+    }
+
+    private static <T> Comparator<T> chain(String[] names, String[] sorts, boolean method) {
+        int length = names == null ? 0 : names.length;
+        KeyComparator[] keys = new KeyComparator[length];
+        for (int i = 0; i < length; i++) {
+            String sort = sorts != null && sorts.length > i ? sorts[i] : null;
+            keys[i] = new KeyComparator(names[i], method, sort != null && SortListUtil.DESC.equals(sort.toLowerCase()));
+        }
+        return new ChainComparator<T>(keys);
+    }
+
+    private static class ChainComparator<T> implements Comparator<T> {
+
+        private final KeyComparator[] keys;
+
+        ChainComparator(KeyComparator[] keys) {
+            this.keys = keys;
+        }
+
+        @Override
+        public int compare(T a, T b) {
+            for (KeyComparator key : keys) {
+                int ret = key.compare(a, b);
+                if (ret != 0) {
+                    return ret;
+                }
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * 单个排序字段，缓存最近一次使用的类，同类列表只需一次引用比较即可拿到访问器
+     */
+    private static class KeyComparator {
+
+        private final String name;
+
+        private final boolean method;
+
+        private final boolean desc;
+
+        private Accessor last;
+
+        KeyComparator(String name, boolean method, boolean desc) {
+            this.name = name;
+            this.method = method;
+            this.desc = desc;
+        }
+
+        int compare(Object a, Object b) {
+            Class<?> typeA = a.getClass();
+            Accessor accessorA = accessor(typeA);
+            int ret;
+            if (typeA == b.getClass()) {
+                ret = accessorA.compare(a, b);
+            } else {
+                Accessor accessorB = accessor(b.getClass());
+                ret = compareObjects(accessorA.get(a), accessorB.get(b), false);
+            }
+            return desc ? Integer.compare(0, ret) : ret;
+        }
+
+        private Accessor accessor(Class<?> type) {
+            // 多线程下可能重复解析，但Accessor不可变，结果相同
+            Accessor accessor = last;
+            if (accessor != null && accessor.owner == type) {
+                return accessor;
+            }
+            accessor = lookup(type, name, method);
+            last = accessor;
+            return accessor;
+        }
+    }
+
+    private static Accessor lookup(Class<?> type, String name, boolean method) {
+        ConcurrentMap<String, Accessor> accessors = (method ? METHOD_ACCESSORS : FIELD_ACCESSORS).get(type);
+        Accessor accessor = accessors.get(name);
+        if (accessor == null) {
+            accessor = method ? createMethodAccessor(type, name) : createFieldAccessor(type, name);
+            Accessor existing = accessors.putIfAbsent(name, accessor);
+            if (existing != null) {
+                accessor = existing;
+            }
+        }
+        return accessor;
+    }
+
+    private static Accessor createFieldAccessor(Class<?> type, String name) {
+        Field field = null;
+        for (Class<?> c = type; c != null && field == null; c = c.getSuperclass()) {
+            try {
+                field = c.getDeclaredField(name);
+            } catch (NoSuchFieldException e) {
+                // 继续查找父类
+            }
+        }
+        if (field == null) {
+            logger.error("no such field: {}.{}", type.getName(), name);
+            return new MissingAccessor(type);
+        }
+        try {
+            Class<?> valueType = field.getType();
+            if (isIntLike(valueType)) {
+                return new IntAccessor(type, Accessors.intGetter(field));
+            } else if (valueType == long.class) {
+                return new LongAccessor(type, Accessors.longGetter(field));
+            } else if (valueType == double.class || valueType == float.class) {
+                return new DoubleAccessor(type, Accessors.doubleGetter(field));
+            }
+            return new ObjectAccessor(type, Accessors.getter(field), isComparable(valueType));
+        } catch (Exception e) {
+            logger.error("can not access field: " + type.getName() + "." + name, e);
+            return new MissingAccessor(type);
+        }
+    }
+
+    private static Accessor createMethodAccessor(Class<?> type, String name) {
+        Method method;
+        try {
+            method = type.getMethod(name);
+        } catch (NoSuchMethodException e) {
+            logger.error("no such method: {}.{}()", type.getName(), name);
+            return new MissingAccessor(type);
+        }
+        try {
+            Class<?> valueType = method.getReturnType();
+            if (isIntLike(valueType)) {
+                return new IntAccessor(type, Accessors.intGetter(method));
+            } else if (valueType == long.class) {
+                return new LongAccessor(type, Accessors.longGetter(method));
+            } else if (valueType == double.class || valueType == float.class) {
+                return new DoubleAccessor(type, Accessors.doubleGetter(method));
+            }
+            return new ObjectAccessor(type, Accessors.getter(method), isComparable(valueType));
+        } catch (Exception e) {
+            logger.error("can not access method: " + method, e);
+            return new MissingAccessor(type);
+        }
+    }
+
+    private static boolean isIntLike(Class<?> type) {
+        return type == int.class || type == short.class || type == byte.class || type == char.class;
+    }
+
+    private static boolean isComparable(Class<?> type) {
+        return Comparable.class.isAssignableFrom(type) || type == boolean.class;
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    static int compareObjects(Object x, Object y, boolean comparable) {
+        if (x == y) {
+            return 0;
+        }
+        if (x == null) {
+            return -1;
+        }
+        if (y == null) {
+            return 1;
+        }
+        if (comparable || (x instanceof Comparable && x.getClass() == y.getClass())) {
+            return ((Comparable) x).compareTo(y);
+        }
+        return String.valueOf(x).compareTo(String.valueOf(y));
+    }
+
+    /**
+     * 某个类的某个属性/方法的访问器
+     */
+    private abstract static class Accessor {
+
+        final Class<?> owner;
+
+        Accessor(Class<?> owner) {
+            this.owner = owner;
+        }
+
+        abstract Object get(Object bean);
+
+        /**
+         * 比较两个owner类型对象的值
+         */
+        abstract int compare(Object a, Object b);
+    }
+
+    private static final class IntAccessor extends Accessor {
+
+        private final ToIntFunction<Object> function;
+
+        IntAccessor(Class<?> owner, ToIntFunction<Object> function) {
+            super(owner);
+            this.function = function;
+        }
+
+        @Override
+        Object get(Object bean) {
+            return function.applyAsInt(bean);
+        }
+
+        @Override
+        int compare(Object a, Object b) {
+            return Integer.compare(function.applyAsInt(a), function.applyAsInt(b));
+        }
+    }
+
+    private static final class LongAccessor extends Accessor {
+
+        private final ToLongFunction<Object> function;
+
+        LongAccessor(Class<?> owner, ToLongFunction<Object> function) {
+            super(owner);
+            this.function = function;
+        }
+
+        @Override
+        Object get(Object bean) {
+            return function.applyAsLong(bean);
+        }
+
+        @Override
+        int compare(Object a, Object b) {
+            return Long.compare(function.applyAsLong(a), function.applyAsLong(b));
+        }
+    }
+
+    private static final class DoubleAccessor extends Accessor {
+
+        private final ToDoubleFunction<Object> function;
+
+        DoubleAccessor(Class<?> owner, ToDoubleFunction<Object> function) {
+            super(owner);
+            this.function = function;
+        }
+
+        @Override
+        Object get(Object bean) {
+            return function.applyAsDouble(bean);
+        }
+
+        @Override
+        int compare(Object a, Object b) {
+            return Double.compare(function.applyAsDouble(a), function.applyAsDouble(b));
+        }
+    }
+
+    private static final class ObjectAccessor extends Accessor {
+
+        private final Function<Object, Object> function;
+
+        private final boolean comparable;
+
+        ObjectAccessor(Class<?> owner, Function<Object, Object> function, boolean comparable) {
+            super(owner);
+            this.function = function;
+            this.comparable = comparable;
+        }
+
+        @Override
+        Object get(Object bean) {
+            return function.apply(bean);
+        }
+
+        @Override
+        int compare(Object a, Object b) {
+            return compareObjects(function.apply(a), function.apply(b), comparable);
+        }
+    }
+
+    /**
+     * 找不到属性/方法时使用，所有值视为相等
+     */
+    private static final class MissingAccessor extends Accessor {
+
+        MissingAccessor(Class<?> owner) {
+            super(owner);
+        }
+
+        @Override
+        Object get(Object bean) {
+            return null;
+        }
+
+        @Override
+        int compare(Object a, Object b) {
+            return 0;
+        }
+    }
+}
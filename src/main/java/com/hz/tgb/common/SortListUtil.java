@@ -1,12 +1,7 @@
 package com.hz.tgb.common;
 
 import com.hz.tgb.entity.Student;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.util.*;
   
 /** 
@@ -18,10 +13,11 @@ import java.util.*;
  */  
 public class SortListUtil {  
 	
-	private static final Logger logger = LoggerFactory.getLogger(SortListUtil.class);
-
     public static final String DESC = "desc";
     public static final String ASC = "asc";
+
+    /** 并行排序的最小元素个数，元素较少时并行的调度开销大于收益 */
+    public static final int PARALLEL_THRESHOLD = 1 << 13;
     
     private SortListUtil(){
     	// 私有类构造方法
@@ -51,57 +47,9 @@ public class SortListUtil {
      *            排序方式: SortList.DESC(降序) SortList.ASC(升序). 
      * @return 
      */  
-    @SuppressWarnings("unchecked")  
     public static List<?> sort(List<?> list, final String field,  
             final String sort) {  
-        Collections.sort(list, new Comparator() {  
-            public int compare(Object a, Object b) {  
-                int ret = 0;  
-                try {  
-                    Field f = a.getClass().getDeclaredField(field);  
-                    f.setAccessible(true);  
-                    Class<?> type = f.getType();  
-  
-                    if (type == int.class) {  
-                        ret = ((Integer) f.getInt(a)).compareTo((Integer) f  
-                                .getInt(b));  
-                    } else if (type == double.class) {  
-                        ret = ((Double) f.getDouble(a)).compareTo((Double) f  
-                                .getDouble(b));  
-                    } else if (type == long.class) {  
-                        ret = ((Long) f.getLong(a)).compareTo((Long) f  
-                                .getLong(b));  
-                    } else if (type == float.class) {  
-                        ret = ((Float) f.getFloat(a)).compareTo((Float) f  
-                                .getFloat(b));  
-                    } else if (type == Date.class) {  
-                        ret = ((Date) f.get(a)).compareTo((Date) f.get(b));  
-                    } else if (isImplementsOf(type, Comparable.class)) {  
-                        ret = ((Comparable) f.get(a)).compareTo((Comparable) f  
-                                .get(b));  
-                    } else {  
-                        ret = String.valueOf(f.get(a)).compareTo(  
-                                String.valueOf(f.get(b)));  
-                    }  
-  
-                } catch (SecurityException e) {  
-                    e.printStackTrace();  
-                } catch (NoSuchFieldException e) {  
-                    e.printStackTrace();  
-                } catch (IllegalArgumentException e) {  
-                    e.printStackTrace();  
-                } catch (IllegalAccessException e) {  
-                    e.printStackTrace();  
-                }  
-                if (sort != null && sort.toLowerCase().equals(DESC)) {  
-                    return -ret;  
-                } else {  
-                    return ret;  
-                }  
-  
-            }  
-        });  
-        return list;  
+        return sort(list, BeanComparators.byField(field, sort), false);  
     }  
   
     /** 
@@ -113,66 +61,24 @@ public class SortListUtil {
      * @param sorts 
      * @return 
      */  
-    @SuppressWarnings("unchecked")  
     public static List<?> sort(List<?> list, String[] fields, String[] sorts) {  
-        if (fields != null && fields.length > 0) {  
-            for (int i = fields.length - 1; i >= 0; i--) {  
-                final String field = fields[i];  
-                String tmpSort = ASC;  
-                if (sorts != null && sorts.length > i && sorts[i] != null) {  
-                    tmpSort = sorts[i];  
-                }  
-                final String sort = tmpSort;  
-                Collections.sort(list, new Comparator() {  
-                    public int compare(Object a, Object b) {  
-                        int ret = 0;  
-                        try {  
-                            Field f = a.getClass().getDeclaredField(field);  
-                            f.setAccessible(true);  
-                            Class<?> type = f.getType();  
-                            if (type == int.class) {  
-                                ret = ((Integer) f.getInt(a))  
-                                        .compareTo((Integer) f.getInt(b));  
-                            } else if (type == double.class) {  
-                                ret = ((Double) f.getDouble(a))  
-                                        .compareTo((Double) f.getDouble(b));  
-                            } else if (type == long.class) {  
-                                ret = ((Long) f.getLong(a)).compareTo((Long) f  
-                                        .getLong(b));  
-                            } else if (type == float.class) {  
-                                ret = ((Float) f.getFloat(a))  
-                                        .compareTo((Float) f.getFloat(b));  
-                            } else if (type == Date.class) {  
-                                ret = ((Date) f.get(a)).compareTo((Date) f  
-                                        .get(b));  
-                            } else if (isImplementsOf(type, Comparable.class)) {  
-                                ret = ((Comparable) f.get(a))  
-                                        .compareTo((Comparable) f.get(b));  
-                            } else {  
-                                ret = String.valueOf(f.get(a)).compareTo(  
-                                        String.valueOf(f.get(b)));  
-                            }  
-  
-                        } catch (SecurityException e) {  
-                            e.printStackTrace();  
-                        } catch (NoSuchFieldException e) {  
-                            e.printStackTrace();  
-                        } catch (IllegalArgumentException e) {  
-                            e.printStackTrace();  
-                        } catch (IllegalAccessException e) {  
-                            e.printStackTrace();  
-                        }  
+        return sort(list, fields, sorts, false);  
+    }  
   
-                        if (sort != null && sort.toLowerCase().equals(DESC)) {  
-                            return -ret;  
-                        } else {  
-                            return ret;  
-                        }  
-                    }  
-                });  
-            }  
+    /** 
+     * 同 {@link #sort(List, String[], String[])}, parallel为true且元素不少于 {@link #PARALLEL_THRESHOLD} 个时并行排序. 
+     *  
+     * @param list 
+     * @param fields 
+     * @param sorts 
+     * @param parallel 
+     * @return 
+     */  
+    public static List<?> sort(List<?> list, String[] fields, String[] sorts, boolean parallel) {  
+        if (fields == null || fields.length == 0) {  
+            return list;  
         }  
-        return list;  
+        return sort(list, BeanComparators.byFields(fields, sorts), parallel);  
     }  
   
     /** 
@@ -186,125 +92,47 @@ public class SortListUtil {
         return sortByMethod(list, method, null);  
     }  
   
-    @SuppressWarnings("unchecked")  
     public static List<?> sortByMethod(List<?> list, final String method,  
             final String sort) {  
-        Collections.sort(list, new Comparator() {  
-            public int compare(Object a, Object b) {  
-                int ret = 0;  
-                try {  
-                    Method m = a.getClass().getMethod(method, null);  
-                    m.setAccessible(true);  
-                    Class<?> type = m.getReturnType();  
-                    if (type == int.class) {  
-                        ret = ((Integer) m.invoke(a, null))  
-                                .compareTo((Integer) m.invoke(b, null));  
-                    } else if (type == double.class) {  
-                        ret = ((Double) m.invoke(a, null)).compareTo((Double) m  
-                                .invoke(b, null));  
-                    } else if (type == long.class) {  
-                        ret = ((Long) m.invoke(a, null)).compareTo((Long) m  
-                                .invoke(b, null));  
-                    } else if (type == float.class) {  
-                        ret = ((Float) m.invoke(a, null)).compareTo((Float) m  
-                                .invoke(b, null));  
-                    } else if (type == Date.class) {  
-                        ret = ((Date) m.invoke(a, null)).compareTo((Date) m  
-                                .invoke(b, null));  
-                    } else if (isImplementsOf(type, Comparable.class)) {  
-                        ret = ((Comparable) m.invoke(a, null))  
-                                .compareTo((Comparable) m.invoke(b, null));  
-                    } else {  
-                        ret = String.valueOf(m.invoke(a, null)).compareTo(  
-                                String.valueOf(m.invoke(b, null)));  
-                    }  
-  
-                    if (isImplementsOf(type, Comparable.class)) {  
-                        ret = ((Comparable) m.invoke(a, null))  
-                                .compareTo((Comparable) m.invoke(b, null));  
-                    } else {  
-                        ret = String.valueOf(m.invoke(a, null)).compareTo(  
-                                String.valueOf(m.invoke(b, null)));  
-                    }  
-  
-                } catch (NoSuchMethodException ne) {  
-                	logger.error(ne.toString(),ne);  
-                } catch (IllegalAccessException ie) {  
-                	logger.error(ie.toString(),ie);  
-                } catch (InvocationTargetException it) {  
-                	logger.error(it.toString(),it);  
-                }  
-  
-                if (sort != null && sort.toLowerCase().equals(DESC)) {  
-                    return -ret;  
-                } else {  
-                    return ret;  
-                }  
-            }  
-        });  
-        return list;  
+        return sort(list, BeanComparators.byMethod(method, sort), false);  
     }  
   
-    @SuppressWarnings("unchecked")  
     public static List<?> sortByMethod(List<?> list, final String methods[],  
             final String sorts[]) {  
-        if (methods != null && methods.length > 0) {  
-            for (int i = methods.length - 1; i >= 0; i--) {  
-                final String method = methods[i];  
-                String tmpSort = ASC;  
-                if (sorts != null && sorts.length > i && sorts[i] != null) {  
-                    tmpSort = sorts[i];  
-                }  
-                final String sort = tmpSort;  
-                Collections.sort(list, new Comparator() {  
-                    public int compare(Object a, Object b) {  
-                        int ret = 0;  
-                        try {  
-                            Method m = a.getClass().getMethod(method, null);  
-                            m.setAccessible(true);  
-                            Class<?> type = m.getReturnType();  
-                            if (type == int.class) {  
-                                ret = ((Integer) m.invoke(a, null))  
-                                        .compareTo((Integer) m.invoke(b, null));  
-                            } else if (type == double.class) {  
-                                ret = ((Double) m.invoke(a, null))  
-                                        .compareTo((Double) m.invoke(b, null));  
-                            } else if (type == long.class) {  
-                                ret = ((Long) m.invoke(a, null))  
-                                        .compareTo((Long) m.invoke(b, null));  
-                            } else if (type == float.class) {  
-                                ret = ((Float) m.invoke(a, null))  
-                                        .compareTo((Float) m.invoke(b, null));  
-                            } else if (type == Date.class) {  
-                                ret = ((Date) m.invoke(a, null))  
-                                        .compareTo((Date) m.invoke(b, null));  
-                            } else if (isImplementsOf(type, Comparable.class)) {  
-                                ret = ((Comparable) m.invoke(a, null))  
-                                        .compareTo((Comparable) m.invoke(b,  
-                                                null));  
-                            } else {  
-                                ret = String.valueOf(m.invoke(a, null))  
-                                        .compareTo(  
-                                                String.valueOf(m  
-                                                        .invoke(b, null)));  
-                            }  
+        return sortByMethod(list, methods, sorts, false);  
+    }  
   
-                        } catch (NoSuchMethodException ne) {  
-                        	logger.error(ne.toString(),ne);
-                        } catch (IllegalAccessException ie) {  
-                        	logger.error(ie.toString(),ie); 
-                        } catch (InvocationTargetException it) {  
-                        	logger.error(it.toString(),it);
-                        }  
+    /** 
+     * 同 {@link #sortByMethod(List, String[], String[])}, parallel为true且元素不少于 {@link #PARALLEL_THRESHOLD} 个时并行排序. 
+     */  
+    public static List<?> sortByMethod(List<?> list, final String methods[],  
+            final String sorts[], boolean parallel) {  
+        if (methods == null || methods.length == 0) {  
+            return list;  
+        }  
+        return sort(list, BeanComparators.byMethods(methods, sorts), parallel);  
+    }  
   
-                        if (sort != null && sort.toLowerCase().equals(DESC)) {  
-                            return -ret;  
-                        } else {  
-                            return ret;  
-                        }  
-                    }  
-                });  
+    /** 
+     * 按比较器排序(稳定排序), 比较器由 {@link BeanComparators} 生成时每个类的属性/方法只解析一次. 
+     *  
+     * @param list 
+     * @param comparator 
+     * @param parallel 元素不少于 {@link #PARALLEL_THRESHOLD} 个时使用 {@link Arrays#parallelSort(Object[], Comparator)} 
+     * @return 
+     */  
+    @SuppressWarnings({ "unchecked", "rawtypes" })  
+    public static <T> List<T> sort(List<T> list, Comparator<? super T> comparator, boolean parallel) {  
+        if (parallel && list.size() >= PARALLEL_THRESHOLD) {  
+            Object[] array = list.toArray();  
+            Arrays.parallelSort(array, (Comparator) comparator);  
+            ListIterator<T> iterator = list.listIterator();  
+            for (Object element : array) {  
+                iterator.next();  
+                iterator.set((T) element);  
             }  
+        } else {  
+            Collections.sort(list, comparator);  
         }  
         return list;  
     }  
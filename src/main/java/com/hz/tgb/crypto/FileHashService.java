@@ -0,0 +1,221 @@
+package com.hz.tgb.crypto;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 文件摘要服务，线程安全。<br>
+ * （1）每个线程使用自己的 {@link MessageDigest} 和一块定长的直接内存缓冲区循环读取，不做内存映射，文件多大内存占用都不变；<br>
+ * （2）支持MD5/SHA-256；<br>
+ * （3）批量接口在指定的线程池上并行计算多个文件，单个文件的摘要本身只能顺序计算。<br>
+ * 用法：
+ * <pre>
+ * FileHashService service = new FileHashService(8);
+ * Map&lt;File, String&gt; md5s = service.hashAll(files, HashAlgorithm.MD5);
+ * service.close();
+ * </pre>
+ *
+ * @author hezhao
+ * @Time 2026年10月19日 下午7:10:36
+ */
+public class FileHashService implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(FileHashService.class);
+
+    /** 每个线程的读缓冲区大小 */
+    static final int BUFFER_SIZE = 256 * 1024;
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private static final ThreadLocal<ByteBuffer> BUFFERS = new ThreadLocal<ByteBuffer>() {
+        @Override
+        protected ByteBuffer initialValue() {
+            return ByteBuffer.allocateDirect(BUFFER_SIZE);
+        }
+    };
+
+    private final ExecutorService executor;
+
+    /** 是否由本服务创建线程池，close时只关闭自己创建的 */
+    private final boolean ownExecutor;
+
+    /**
+     * 使用调用方的线程池，close时不会关闭它
+     *
+     * @param executor
+     */
+    public FileHashService(ExecutorService executor) {
+        if (executor == null) {
+            throw new IllegalArgumentException("\"executor\" is null.");
+        }
+        this.executor = executor;
+        this.ownExecutor = false;
+    }
+
+    /**
+     * 创建固定大小的守护线程池
+     *
+     * @param parallelism 并行度
+     */
+    public FileHashService(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be positive");
+        }
+        final AtomicInteger index = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(parallelism, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "file-hash-" + index.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        this.ownExecutor = true;
+    }
+
+    /**
+     * 并行度为CPU核数
+     */
+    public FileHashService() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * 在当前线程计算文件摘要
+     *
+     * @param file
+     * @param algorithm
+     * @return 小写十六进制
+     * @throws IOException
+     */
+    public static String hash(File file, HashAlgorithm algorithm) throws IOException {
+        MessageDigest digest = algorithm.digest();
+        ByteBuffer buffer = BUFFERS.get();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            buffer.clear();
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * 在当前线程计算字节数组的摘要
+     *
+     * @param bytes
+     * @param algorithm
+     * @return 小写十六进制
+     */
+    public static String hash(byte[] bytes, HashAlgorithm algorithm) {
+        return toHex(algorithm.digest().digest(bytes));
+    }
+
+    /**
+     * 异步计算单个文件的摘要
+     *
+     * @param file
+     * @param algorithm
+     * @return
+     */
+    public CompletableFuture<String> hashAsync(final File file, final HashAlgorithm algorithm) {
+        return CompletableFuture.supplyAsync(new Supplier<String>() {
+            @Override
+            public String get() {
+                try {
+                    return hash(file, algorithm);
+                } catch (IOException e) {
+                    throw new FileHashException(file, e);
+                }
+            }
+        }, executor);
+    }
+
+    /**
+     * 并行计算多个文件的摘要并等待全部完成，返回的顺序与files一致。<br>
+     * 计算失败的文件记录日志，值为空串(与 {@link FileMD5Util#getFileMD5WithoutException(File)} 一致)。
+     *
+     * @param files
+     * @param algorithm
+     * @return
+     * @throws InterruptedException
+     */
+    public Map<File, String> hashAll(Collection<File> files, HashAlgorithm algorithm) throws InterruptedException {
+        List<CompletableFuture<String>> futures = new ArrayList<>(files.size());
+        for (File file : files) {
+            futures.add(hashAsync(file, algorithm));
+        }
+        Map<File, String> result = new LinkedHashMap<>(files.size() * 4 / 3 + 1);
+        int i = 0;
+        for (File file : files) {
+            String hash;
+            try {
+                hash = futures.get(i++).get();
+            } catch (ExecutionException e) {
+                log.error("计算文件摘要失败, {}", file.getPath(), e.getCause());
+                hash = "";
+            }
+            result.put(file, hash);
+        }
+        return result;
+    }
+
+    /**
+     * 关闭自己创建的线程池，调用方传入的线程池由调用方负责
+     */
+    @Override
+    public void close() {
+        if (ownExecutor) {
+            executor.shutdown();
+        }
+    }
+
+    static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length << 1];
+        for (int i = 0, j = 0; i < bytes.length; i++) {
+            chars[j++] = HEX_DIGITS[(bytes[i] & 0xf0) >> 4];
+            chars[j++] = HEX_DIGITS[bytes[i] & 0xf];
+        }
+        return new String(chars);
+    }
+
+    /**
+     * 异步计算时包装IO异常
+     */
+    public static class FileHashException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        private final File file;
+
+        public FileHashException(File file, IOException cause) {
+            super("计算文件摘要失败: " + file.getPath(), cause);
+            this.file = file;
+        }
+
+        public File getFile() {
+            return file;
+        }
+    }
+}
@@ -5,14 +5,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.nio.MappedByteBuffer;
-import java.nio.channels.FileChannel;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Map;
 
-/** 文件MD5
+/** 文件MD5，线程安全：摘要实例按线程隔离，文件通过定长缓冲区流式读取，见 {@link FileHashService}
  * Created by jimin on 15/11/29.
  */
 public class FileMD5Util {
@@ -21,6 +20,10 @@ public class FileMD5Util {
 
     protected static char hexDigits[] = { '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f' };
 
+    /**
+     * @deprecated 多线程共享同一个实例会相互污染，已不再使用，请用 {@link HashAlgorithm#digest()}
+     */
+    @Deprecated
     protected static MessageDigest messageDigest = null;
 
     static {
@@ -41,35 +44,23 @@ public class FileMD5Util {
     }
 
     public static String getFileMD5String(File file) throws IOException {
-        FileInputStream in = new FileInputStream(file);
-        FileChannel ch = in.getChannel();
-
-        //700000000 bytes are about 670M
-        int maxSize = 700000000;
-
-        long startPosition = 0L;
-        long step = file.length() / maxSize;
-
-        if (step == 0) {
-            MappedByteBuffer byteBuffer = ch.map(FileChannel.MapMode.READ_ONLY, 0, file.length());
-            messageDigest.update(byteBuffer);
-            return bufferToHex(messageDigest.digest());
-        }
-
-        for (int i = 0; i < step; i++) {
-            MappedByteBuffer byteBuffer = ch.map(FileChannel.MapMode.READ_ONLY, startPosition, maxSize);
-            messageDigest.update(byteBuffer);
-            startPosition += maxSize;
-        }
-
-        if (startPosition == file.length()) {
-            return bufferToHex(messageDigest.digest());
-        }
+        return FileHashService.hash(file, HashAlgorithm.MD5);
+    }
 
-        MappedByteBuffer byteBuffer = ch.map(FileChannel.MapMode.READ_ONLY, startPosition, file.length() - startPosition);
-        messageDigest.update(byteBuffer);
+    public static String getFileSHA256String(File file) throws IOException {
+        return FileHashService.hash(file, HashAlgorithm.SHA256);
+    }
 
-        return bufferToHex(messageDigest.digest());
+    /**
+     * 使用默认线程池(CPU核数)并行计算多个文件的摘要，返回的顺序与files一致，失败的文件值为空串
+     *
+     * @param files
+     * @param algorithm
+     * @return
+     * @throws InterruptedException
+     */
+    public static Map<File, String> getFileHashes(Collection<File> files, HashAlgorithm algorithm) throws InterruptedException {
+        return DefaultServiceHolder.SERVICE.hashAll(files, algorithm);
     }
 
     public static String getMD5String(String s) {
@@ -77,28 +68,7 @@ public class FileMD5Util {
     }
 
     public static String getMD5String(byte[] bytes) {
-        messageDigest.update(bytes);
-        return bufferToHex(messageDigest.digest());
-    }
-
-    private static String bufferToHex(byte bytes[]) {
-        return bufferToHex(bytes, 0, bytes.length);
-    }
-
-    private static String bufferToHex(byte bytes[], int m, int n) {
-        StringBuffer stringbuffer = new StringBuffer(2 * n);
-        int k = m + n;
-        for (int l = m; l < k; l++) {
-            appendHexPair(bytes[l], stringbuffer);
-        }
-        return stringbuffer.toString();
-    }
-
-    private static void appendHexPair(byte bt, StringBuffer stringbuffer) {
-        char c0 = hexDigits[(bt & 0xf0) >> 4];
-        char c1 = hexDigits[bt & 0xf];
-        stringbuffer.append(c0);
-        stringbuffer.append(c1);
+        return FileHashService.hash(bytes, HashAlgorithm.MD5);
     }
 
     public static boolean checkPassword(String password, String md5PwdStr) {
@@ -106,4 +76,8 @@ public class FileMD5Util {
         return s.equals(md5PwdStr);
     }
 
+    private static class DefaultServiceHolder {
+        static final FileHashService SERVICE = new FileHashService();
+    }
+
 }
\ No newline at end of file
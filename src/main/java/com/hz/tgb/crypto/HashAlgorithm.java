@@ -0,0 +1,55 @@
+package com.hz.tgb.crypto;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * 文件/数据摘要算法，每个线程持有各自的 {@link MessageDigest} 实例，可并发使用
+ *
+ * @author hezhao
+ * @Time 2026年10月19日 下午7:05:12
+ */
+public enum HashAlgorithm {
+
+    MD5("MD5"),
+
+    SHA256("SHA-256");
+
+    private final String name;
+
+    private final ThreadLocal<MessageDigest> digests;
+
+    HashAlgorithm(final String name) {
+        this.name = name;
+        this.digests = new ThreadLocal<MessageDigest>() {
+            @Override
+            protected MessageDigest initialValue() {
+                try {
+                    return MessageDigest.getInstance(name);
+                } catch (NoSuchAlgorithmException e) {
+                    throw new IllegalStateException("MessageDigest不支持" + name, e);
+                }
+            }
+        };
+    }
+
+    /**
+     * JCA算法名
+     *
+     * @return
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 获取当前线程的摘要实例，已重置，只能在当前线程内使用
+     *
+     * @return
+     */
+    public MessageDigest digest() {
+        MessageDigest digest = digests.get();
+        digest.reset();
+        return digest;
+    }
+}
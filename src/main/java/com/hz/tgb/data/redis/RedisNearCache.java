@@ -0,0 +1,251 @@
+package com.hz.tgb.data.redis;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.PatternTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.listener.Topic;
+
+import com.alibaba.fastjson.JSON;
+import com.hz.tgb.cache.CacheLoader;
+import com.hz.tgb.cache.CacheStats;
+import com.hz.tgb.cache.ConcurrentLocalCache;
+import com.hz.tgb.cache.EvictionPolicy;
+import com.hz.tgb.cache.LocalCacheBuilder;
+
+/**
+ * 二级缓存：进程内 {@link ConcurrentLocalCache} + {@link RedisService}。<br>
+ * 本地缓存保存的是已经反序列化好的对象，命中时不访问Redis也不做JSON解析；
+ * 写入/删除走Redis，并通过Redis发布订阅广播失效消息，所有节点收到后删除本地副本。
+ * 也可以开启Redis键空间通知(notify-keyspace-events需包含Kg$x等)，由Redis直接推送key的变更。<br>
+ * 注意：本地缓存返回的是共享对象，调用方不要修改；失效消息丢失时(如订阅断线)本地副本最多保留localTtl时长。
+ *
+ * <pre>
+ * RedisNearCache nearCache = new RedisNearCache(redisService, 10000, 60, TimeUnit.SECONDS);
+ * nearCache.subscribe(redisMessageListenerContainer);
+ * User user = nearCache.get("user:1", User.class);
+ * </pre>
+ *
+ * @author hezhao
+ * @Time 2026年10月18日 下午5:12:40
+ */
+public class RedisNearCache implements MessageListener {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RedisNearCache.class);
+
+    /** 默认失效广播频道 */
+    public static final String DEFAULT_CHANNEL = "near-cache:invalidate";
+
+    private static final String KEYSPACE_PREFIX = "__keyspace@";
+
+    /** 失效版本号分段数 */
+    private static final int STRIPES = 64;
+
+    private final RedisService redisService;
+
+    private final ConcurrentLocalCache<String, Object> localCache;
+
+    private final String channel;
+
+    /** 键空间通知订阅的pattern，为null时不订阅 */
+    private String keyspacePattern;
+
+    /**
+     * 按key分段的失效版本号，加载期间若收到同段失效消息，则丢弃本次加载结果，避免旧值被写回本地缓存
+     */
+    private final AtomicLongArray invalidations = new AtomicLongArray(STRIPES);
+
+    /** 按类型缓存的加载器 */
+    private final ConcurrentHashMap<Class<?>, CacheLoader<String, Object>> loaders = new ConcurrentHashMap<Class<?>, CacheLoader<String, Object>>();
+
+    public RedisNearCache(RedisService redisService, long maximumSize, long localTtl, TimeUnit unit) {
+        this(redisService, maximumSize, localTtl, unit, DEFAULT_CHANNEL);
+    }
+
+    public RedisNearCache(RedisService redisService, long maximumSize, long localTtl, TimeUnit unit, String channel) {
+        this.redisService = redisService;
+        this.channel = channel;
+        this.localCache = LocalCacheBuilder.<String, Object> newBuilder()
+                .maximumSize(maximumSize)
+                .evictionPolicy(EvictionPolicy.W_TINY_LFU)
+                .expireAfterWrite(localTtl, unit)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * 开启Redis键空间通知订阅，例如 "__keyspace@0__:user:*"，需在 {@link #subscribe(RedisMessageListenerContainer)} 之前调用
+     *
+     * @param keyspacePattern
+     */
+    public void setKeyspacePattern(String keyspacePattern) {
+        this.keyspacePattern = keyspacePattern;
+    }
+
+    /**
+     * 订阅失效消息
+     *
+     * @param container
+     */
+    public void subscribe(RedisMessageListenerContainer container) {
+        container.addMessageListener(this, getTopics());
+    }
+
+    /**
+     * 需要订阅的频道
+     *
+     * @return
+     */
+    public List<Topic> getTopics() {
+        List<Topic> topics = new ArrayList<Topic>(2);
+        topics.add(new ChannelTopic(channel));
+        if (keyspacePattern != null) {
+            topics.add(new PatternTopic(keyspacePattern));
+        }
+        return topics;
+    }
+
+    /**
+     * 获取对象，本地未命中时从Redis读取并反序列化后放入本地缓存，同一key的并发未命中只访问一次Redis
+     *
+     * @param key
+     * @param clazz
+     * @return
+     */
+    public <T> T get(String key, Class<T> clazz) {
+        int stripe = stripe(key);
+        long version = invalidations.get(stripe);
+        Object value = localCache.get(key, loaderFor(clazz));
+        if (value == null) {
+            return null;
+        }
+        if (invalidations.get(stripe) != version) {
+            // 加载期间收到失效消息，本次值可用但不保留在本地
+            localCache.remove(key);
+        }
+        if (!clazz.isInstance(value)) {
+            // 同一key曾以其他类型读取
+            localCache.remove(key);
+            return redisService.get(key, clazz);
+        }
+        return clazz.cast(value);
+    }
+
+    /**
+     * 每个类型一个加载器，读取时不用每次新建
+     */
+    private CacheLoader<String, Object> loaderFor(final Class<?> clazz) {
+        CacheLoader<String, Object> loader = loaders.get(clazz);
+        if (loader == null) {
+            loader = new CacheLoader<String, Object>() {
+                @Override
+                public Object load(String k) throws Exception {
+                    String json = redisService.get(k);
+                    return json == null ? null : JSON.parseObject(json, clazz);
+                }
+            };
+            CacheLoader<String, Object> existing = loaders.putIfAbsent(clazz, loader);
+            if (existing != null) {
+                loader = existing;
+            }
+        }
+        return loader;
+    }
+
+    /**
+     * 保存对象并广播失效
+     *
+     * @param key
+     * @param t
+     * @param seconds Redis过期时间(秒)，0表示不过期
+     * @return
+     */
+    public <T> boolean save(String key, T t, long seconds) {
+        boolean result = redisService.save(key, t, seconds);
+        invalidate(key);
+        return result;
+    }
+
+    public <T> boolean save(String key, T t) {
+        return save(key, t, 0);
+    }
+
+    /**
+     * 删除key并广播失效
+     *
+     * @param key
+     * @return
+     */
+    public Long delete(String key) {
+        Long count = redisService.delete(key);
+        invalidate(key);
+        return count;
+    }
+
+    /**
+     * 删除本地副本并通知其他节点
+     *
+     * @param key
+     */
+    public void invalidate(String key) {
+        invalidateLocal(key);
+        try {
+            redisService.publish(channel, key);
+        } catch (RuntimeException e) {
+            LOG.error("publish invalidation for key:{} failed", key, e);
+        }
+    }
+
+    /**
+     * 只删除本节点的本地副本
+     *
+     * @param key
+     */
+    public void invalidateLocal(String key) {
+        invalidations.incrementAndGet(stripe(key));
+        localCache.remove(key);
+    }
+
+    /**
+     * 收到失效消息：普通频道消息体为key；键空间通知的key在频道名中
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String messageChannel = new String(message.getChannel(), StandardCharsets.UTF_8);
+        String key;
+        if (messageChannel.startsWith(KEYSPACE_PREFIX)) {
+            key = messageChannel.substring(messageChannel.indexOf(':') + 1);
+        } else {
+            key = new String(message.getBody(), StandardCharsets.UTF_8);
+        }
+        invalidateLocal(key);
+    }
+
+    /**
+     * 本地缓存统计
+     *
+     * @return
+     */
+    public CacheStats stats() {
+        return localCache.stats();
+    }
+
+    public void close() {
+        localCache.close();
+    }
+
+    private static int stripe(String key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & (STRIPES - 1);
+    }
+}
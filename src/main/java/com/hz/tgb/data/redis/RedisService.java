@@ -271,4 +271,24 @@ public class RedisService {
         return redisTemplate.opsForValue().increment(key, delta);
     }
 
+    /**
+     * 发布消息到频道
+     * 
+     * @param channel
+     * @param message
+     * @return 收到消息的订阅者数量
+     */
+    public long publish(final String channel, final String message) {
+        Long receivers = redisTemplate.execute(new RedisCallback<Long>() {
+
+            @Override
+            public Long doInRedis(RedisConnection connection) throws DataAccessException {
+                byte[] channelByte = redisTemplate.getStringSerializer().serialize(channel);
+                byte[] messageByte = redisTemplate.getStringSerializer().serialize(message);
+                return connection.publish(channelByte, messageByte);
+            }
+        });
+        return receivers == null ? 0 : receivers;
+    }
+
 }
@@ -0,0 +1,186 @@
+package com.hz.tgb.datetime;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.LongStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 无锁雪花算法ID生成器，位布局、起始时间与 {@link Snowflake} 相同，可以混用。<br>
+ * （1）"时间戳+序列号"打包在一个AtomicLong中，通过CAS推进，不加锁也不自旋等待下一毫秒；<br>
+ * （2）同一毫秒序列号用完时直接进位到下一毫秒(借用未来时间)，时钟回拨时沿用上次的时间继续递增，保证ID单调递增；<br>
+ * （3）借用的时间达到maxTimeDifference(持续超发或时钟大幅回拨)时，挂起等待时钟追上，而不是忙等；<br>
+ * （4）{@link #nextIds(int)} 一次CAS预留一段连续序列号，适合批量插入。
+ *
+ * @author hezhao
+ * @Time 2026年10月19日 上午9:35:14
+ */
+public class AtomicSnowflake {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AtomicSnowflake.class);
+
+    /**
+     * 起始的时间戳。
+     */
+    private static final long START_TIMESTAMP = 1511435554743L;
+
+    private static final long SEQUENCE_BITS = 12;
+
+    private static final long MACHINE_ID_BITS = 5;
+
+    private static final long DATACENTER_ID_BITS = 5;
+
+    private static final long MAX_DATACENTER_ID = -1L ^ (-1L << DATACENTER_ID_BITS);
+
+    private static final long MAX_MACHINE_ID = -1L ^ (-1L << MACHINE_ID_BITS);
+
+    private static final long MAX_SEQUENCE = -1L ^ (-1L << SEQUENCE_BITS);
+
+    private static final long MACHINE_LEFT = SEQUENCE_BITS;
+
+    private static final long DATACENTER_LEFT = SEQUENCE_BITS + MACHINE_ID_BITS;
+
+    /** 打包状态中的时间戳需要再左移的位数 */
+    private static final long WORKER_BITS = MACHINE_ID_BITS + DATACENTER_ID_BITS;
+
+    private final long datacenterId;
+
+    private final long machineId;
+
+    /** 数据中心和机器标识部分，预先算好 */
+    private final long workerPart;
+
+    /**
+     * 最多允许借用的未来时间(毫秒)
+     */
+    private final long maxTimeDifference;
+
+    /**
+     * 已分配的最后一个 (时间戳 - START_TIMESTAMP) << SEQUENCE_BITS | 序列号
+     */
+    private final AtomicLong state = new AtomicLong(-1L);
+
+    /** 是否正处于等待时钟追上的状态，一次等待只打印一次日志 */
+    private final AtomicBoolean stalled = new AtomicBoolean();
+
+    public AtomicSnowflake(long datacenterId, long machineId) {
+        this(datacenterId, machineId, 5000L);
+    }
+
+    public AtomicSnowflake(long datacenterId, long machineId, long maxTimeDifference) {
+        if (datacenterId > MAX_DATACENTER_ID || datacenterId < 0) {
+            String msg = String.format("datacenterId can't be greater than %d or less than 0", MAX_DATACENTER_ID);
+            throw new IllegalArgumentException(msg);
+        }
+        if (machineId > MAX_MACHINE_ID || machineId < 0) {
+            String msg = String.format("machineId can't be greater than %d or less than 0", MAX_MACHINE_ID);
+            throw new IllegalArgumentException(msg);
+        }
+        if (maxTimeDifference <= 0) {
+            throw new IllegalArgumentException("maxTimeDifference must be positive");
+        }
+        this.datacenterId = datacenterId;
+        this.machineId = machineId;
+        this.workerPart = datacenterId << DATACENTER_LEFT | machineId << MACHINE_LEFT;
+        this.maxTimeDifference = maxTimeDifference;
+    }
+
+    /**
+     * 产生下一个ID。
+     *
+     * @return
+     */
+    public long nextId() {
+        return toId(reserve(1));
+    }
+
+    /**
+     * 批量产生n个连续递增的ID，只做一次CAS。
+     *
+     * @param n 不超过4096(一毫秒的序列号数)
+     * @return
+     */
+    public long[] nextIds(int n) {
+        checkBatchSize(n);
+        long last = reserve(n);
+        long[] ids = new long[n];
+        long first = last - n + 1;
+        for (int i = 0; i < n; i++) {
+            ids[i] = toId(first + i);
+        }
+        return ids;
+    }
+
+    /**
+     * 批量产生n个ID的流，序列号在调用时已一次性预留，流本身惰性计算。
+     *
+     * @param n 不超过4096(一毫秒的序列号数)
+     * @return
+     */
+    public LongStream nextIdStream(int n) {
+        checkBatchSize(n);
+        long last = reserve(n);
+        return LongStream.rangeClosed(last - n + 1, last).map(this::toId);
+    }
+
+    public long getDatacenterId() {
+        return datacenterId;
+    }
+
+    public long getMachineId() {
+        return machineId;
+    }
+
+    /**
+     * 从ID中解析出生成时间(毫秒)
+     *
+     * @param id
+     * @return
+     */
+    public static long getTimestamp(long id) {
+        return (id >>> (SEQUENCE_BITS + WORKER_BITS)) + START_TIMESTAMP;
+    }
+
+    private static void checkBatchSize(int n) {
+        if (n <= 0 || n > MAX_SEQUENCE + 1) {
+            throw new IllegalArgumentException("n must be between 1 and " + (MAX_SEQUENCE + 1));
+        }
+    }
+
+    /**
+     * 预留n个连续状态值，返回最后一个
+     */
+    private long reserve(int n) {
+        boolean waited = false;
+        for (;;) {
+            long now = System.currentTimeMillis() - START_TIMESTAMP;
+            long prev = state.get();
+            long first = Math.max(prev + 1, now << SEQUENCE_BITS);
+            long last = first + n - 1;
+            long borrowed = (last >>> SEQUENCE_BITS) - now;
+            if (borrowed >= maxTimeDifference) {
+                // 时钟回拨或分配过快，已借用的时间达到上限，等待时钟追上
+                if (stalled.compareAndSet(false, true)) {
+                    LOGGER.warn("The difference between last timestamp and current timestamp is great or equal to {} millis.", maxTimeDifference);
+                }
+                waited = true;
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(borrowed - maxTimeDifference + 1));
+                continue;
+            }
+            if (state.compareAndSet(prev, last)) {
+                if (waited) {
+                    stalled.set(false);
+                }
+                return last;
+            }
+        }
+    }
+
+    private long toId(long packed) {
+        return (packed & ~MAX_SEQUENCE) << WORKER_BITS | workerPart | (packed & MAX_SEQUENCE);
+    }
+}
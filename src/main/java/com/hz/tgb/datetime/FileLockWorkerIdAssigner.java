@@ -0,0 +1,113 @@
+package com.hz.tgb.datetime;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 基于租约文件的工作节点ID分配器，保证同一主机上的多个JVM拿到不同的ID。<br>
+ * 目录下每个ID对应一个 worker-{id}.lock 文件，进程对其加操作系统文件锁后即持有该ID，
+ * 锁在进程生命周期内不释放，进程退出(包括被kill)时由操作系统自动释放，无需心跳续约。<br>
+ * 多台主机需要各自不同的ID段时，可通过 {@link #FileLockWorkerIdAssigner(File, int, int)} 指定起止范围。
+ *
+ * @author hezhao
+ * @Time 2026年10月19日 下午2:18:51
+ */
+public class FileLockWorkerIdAssigner implements WorkerIdAssigner {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FileLockWorkerIdAssigner.class);
+
+    private final File directory;
+
+    private final int minWorkerId;
+
+    private final int maxWorkerId;
+
+    /** 持有的锁，需保持引用直到进程退出 */
+    private final List<FileLock> leases = new ArrayList<FileLock>();
+
+    /**
+     * 默认使用 ${java.io.tmpdir}/snowflake-worker 目录，ID范围0~1023
+     */
+    public FileLockWorkerIdAssigner() {
+        this(new File(System.getProperty("java.io.tmpdir"), "snowflake-worker"), 0, (int) MAX_WORKER_ID);
+    }
+
+    public FileLockWorkerIdAssigner(File directory, int minWorkerId, int maxWorkerId) {
+        if (minWorkerId < 0 || maxWorkerId > MAX_WORKER_ID || minWorkerId > maxWorkerId) {
+            throw new IllegalArgumentException("illegal worker id range: " + minWorkerId + "~" + maxWorkerId);
+        }
+        this.directory = directory;
+        this.minWorkerId = minWorkerId;
+        this.maxWorkerId = maxWorkerId;
+    }
+
+    @Override
+    public synchronized long assign() {
+        if (!directory.isDirectory() && !directory.mkdirs() && !directory.isDirectory()) {
+            throw new IllegalStateException("can not create worker lease directory: " + directory);
+        }
+        String processName = ManagementFactory.getRuntimeMXBean().getName();
+        int range = maxWorkerId - minWorkerId + 1;
+        // 从进程号对应的位置开始探测，减少多进程同时启动时的争抢
+        int offset = (processName.hashCode() & Integer.MAX_VALUE) % range;
+        for (int i = 0; i < range; i++) {
+            int workerId = minWorkerId + (offset + i) % range;
+            FileLock lock = tryLease(workerId, processName);
+            if (lock != null) {
+                leases.add(lock);
+                LOG.info("process:{} leased snowflake worker id:{} in {}", processName, workerId, directory);
+                return workerId;
+            }
+        }
+        throw new IllegalStateException("no free snowflake worker id in " + directory + " (" + minWorkerId + "~" + maxWorkerId + ")");
+    }
+
+    private FileLock tryLease(int workerId, String processName) {
+        File file = new File(directory, "worker-" + workerId + ".lock");
+        RandomAccessFile raf = null;
+        try {
+            raf = new RandomAccessFile(file, "rw");
+            FileChannel channel = raf.getChannel();
+            FileLock lock = channel.tryLock();
+            if (lock == null) {
+                raf.close();
+                return null;
+            }
+            // 写入持有者信息便于排查
+            channel.truncate(0);
+            channel.write(ByteBuffer.wrap(processName.getBytes(StandardCharsets.UTF_8)));
+            channel.force(false);
+            return lock;
+        } catch (OverlappingFileLockException e) {
+            // 本进程内已持有
+            closeQuietly(raf);
+            return null;
+        } catch (IOException e) {
+            LOG.warn("lease worker id:{} failed", workerId, e);
+            closeQuietly(raf);
+            return null;
+        }
+    }
+
+    private static void closeQuietly(RandomAccessFile raf) {
+        if (raf != null) {
+            try {
+                raf.close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+    }
+}
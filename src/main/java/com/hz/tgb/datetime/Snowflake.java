@@ -80,6 +80,11 @@ public class Snowflake {
      */
     private long maxTimeDifference = 5000L;
 
+    /**
+     * 由 {@link SnowflakeUtils#getInstance(long, long, String)} 创建时委托给注册表中的无锁生成器，两者共用同一序列。
+     */
+    private AtomicSnowflake delegate;
+
     public Snowflake(long datacenterId, long machineId) {
 	// Normalize parameters.
 
@@ -99,6 +104,12 @@ public class Snowflake {
 	this.machineId = machineId;
     }
 
+    Snowflake(AtomicSnowflake delegate) {
+	this(delegate.getDatacenterId(), delegate.getMachineId());
+
+	this.delegate = delegate;
+    }
+
     public Snowflake(long datacenterId, long machineId, long maxTimeDifference) {
 	this(datacenterId, machineId);
 
@@ -110,7 +121,14 @@ public class Snowflake {
      *
      * @return
      */
-    public synchronized long nextId() {
+    public long nextId() {
+	if (delegate != null) {
+	    return delegate.nextId();
+	}
+	return nextLocalId();
+    }
+
+    private synchronized long nextLocalId() {
 	long currentTimestamp = this.getTimestamp();
 	if (currentTimestamp < this.lastTimestamp) {
 	    String msg = "Clock moved backwards.";
@@ -2,33 +2,130 @@ package com.hz.tgb.datetime;
 
 import org.apache.commons.lang3.StringUtils;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * 雪花算法ID生成器注册表，按业务标识(target)缓存生成器实例，查找无锁。<br>
+ * 推荐使用 {@link #getGenerator(String)}：工作节点ID由 {@link WorkerIdAssigner} 在首次使用时自动分配，
+ * 默认的 {@link FileLockWorkerIdAssigner} 保证同一主机上的多个JVM不会冲突；跨主机部署时通过
+ * {@link #setWorkerIdAssigner(WorkerIdAssigner)} 接入自己的协调服务。<br>
+ * 注册表面向固定的一组业务标识，生成器创建后不会移除；未规范化的写法最多额外缓存 {@link #MAX_ALIASES} 个。
+ */
 public class SnowflakeUtils {
 
-    private static final Map<String, Snowflake> snowflakeCache = new HashMap<>();
+    /** 未规范化写法的缓存上限，超过后仍可使用，只是每次都要先规范化 */
+    public static final int MAX_ALIASES = 1024;
 
-    public static Snowflake getInstance(long datacenterId, long machineId, String target) {
+    private static final ConcurrentMap<String, AtomicSnowflake> generatorCache = new ConcurrentHashMap<>();
+
+    private static final ConcurrentMap<String, Snowflake> snowflakeCache = new ConcurrentHashMap<>();
+
+    private static final AtomicInteger aliasCount = new AtomicInteger();
+
+    private static volatile WorkerIdAssigner workerIdAssigner = new FileLockWorkerIdAssigner();
+
+    /** 本进程分配到的工作节点ID，-1表示尚未分配 */
+    private static volatile long workerId = -1L;
+
+    private SnowflakeUtils() {
+    }
+
+    /**
+     * 设置工作节点ID分配器，必须在首次调用 {@link #getGenerator(String)} 之前设置
+     *
+     * @param assigner
+     */
+    public static synchronized void setWorkerIdAssigner(WorkerIdAssigner assigner) {
+        if (assigner == null) {
+            throw new IllegalArgumentException("\"assigner\" is null.");
+        }
+        if (workerId >= 0) {
+            throw new IllegalStateException("worker id has already been assigned: " + workerId);
+        }
+        workerIdAssigner = assigner;
+    }
+
+    /**
+     * 获取本进程的工作节点ID(0~1023)，首次调用时分配
+     *
+     * @return
+     */
+    public static long getWorkerId() {
+        long id = workerId;
+        if (id < 0) {
+            id = assignWorkerId();
+        }
+        return id;
+    }
+
+    private static synchronized long assignWorkerId() {
+        if (workerId < 0) {
+            long id = workerIdAssigner.assign();
+            if (id < 0 || id > WorkerIdAssigner.MAX_WORKER_ID) {
+                throw new IllegalStateException("illegal worker id: " + id);
+            }
+            workerId = id;
+        }
+        return workerId;
+    }
+
+    /**
+     * 获取业务对应的ID生成器，工作节点ID自动分配
+     *
+     * @param target 业务标识
+     * @return
+     */
+    public static AtomicSnowflake getGenerator(String target) {
+        AtomicSnowflake generator = generatorCache.get(target == null ? "" : target);
+        if (generator != null) {
+            return generator;
+        }
+        long id = getWorkerId();
+        return getGenerator(id >> 5, id & 31, target);
+    }
+
+    /**
+     * 获取业务对应的ID生成器，同一target以首次注册的数据中心/机器标识为准
+     *
+     * @param datacenterId
+     * @param machineId
+     * @param target 业务标识
+     * @return
+     */
+    public static AtomicSnowflake getGenerator(final long datacenterId, final long machineId, String target) {
+        AtomicSnowflake generator = generatorCache.get(target == null ? "" : target);
+        if (generator != null) {
+            return generator;
+        }
+        String normalized = normalize(target);
+        generator = generatorCache.computeIfAbsent(normalized, key -> new AtomicSnowflake(datacenterId, machineId));
+        if (!normalized.equals(target) && aliasCount.get() < MAX_ALIASES
+                && generatorCache.putIfAbsent(target, generator) == null) {
+            // 原始写法也缓存一份，下次直接命中
+            aliasCount.incrementAndGet();
+        }
+        return generator;
+    }
+
+    /**
+     * 获取synchronized版本的生成器，内部委托给 {@link #getGenerator(long, long, String)} 注册的同一个生成器，
+     * 同一target混用两个方法也不会产生重复ID
+     *
+     * @deprecated 使用无锁的 {@link #getGenerator(long, long, String)} 或自动分配节点ID的 {@link #getGenerator(String)}
+     */
+    @Deprecated
+    public static Snowflake getInstance(final long datacenterId, final long machineId, String target) {
+        return snowflakeCache.computeIfAbsent(normalize(target),
+                key -> new Snowflake(getGenerator(datacenterId, machineId, key)));
+    }
+
+    private static String normalize(String target) {
         if (StringUtils.isEmpty(target)) {
             String msg = "\"target\" is empty.";
             throw new IllegalArgumentException(msg);
-        } else {
-            target = StringUtils.normalizeSpace(target);
-        }
-
-        Snowflake snowflake = snowflakeCache.get(target);
-        if (snowflake == null) {
-            synchronized (snowflakeCache) {
-                if (snowflakeCache.get(target) == null) {
-                    snowflake = new Snowflake(datacenterId, machineId);
-                    snowflakeCache.put(target, snowflake);
-                } else {
-                    snowflake = snowflakeCache.get(target);
-                }
-            }
         }
-
-        return snowflake;
+        return StringUtils.normalizeSpace(target);
     }
-}
\ No newline at end of file
+}
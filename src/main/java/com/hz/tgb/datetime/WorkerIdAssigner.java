@@ -0,0 +1,24 @@
+package com.hz.tgb.datetime;
+
+/**
+ * 雪花算法工作节点ID分配器。<br>
+ * 返回0~1023之间的10位ID，高5位作为数据中心标识，低5位作为机器标识。
+ * 同一时刻正在运行的进程必须拿到不同的ID，跨主机部署时可基于ZooKeeper/Redis/数据库实现，
+ * 单机多进程可使用 {@link FileLockWorkerIdAssigner}。
+ *
+ * @author hezhao
+ * @Time 2026年10月19日 下午2:10:26
+ */
+public interface WorkerIdAssigner {
+
+    /** 最大工作节点ID */
+    long MAX_WORKER_ID = 1023L;
+
+    /**
+     * 分配当前进程的工作节点ID，每个进程只调用一次
+     *
+     * @return 0 ~ {@link #MAX_WORKER_ID}
+     * @throws IllegalStateException 无可用ID时
+     */
+    long assign();
+}
@@ -15,10 +15,10 @@ import com.alibaba.dubbo.rpc.Invocation;
 import com.alibaba.dubbo.rpc.Invoker;
 import com.alibaba.dubbo.rpc.Result;
 import com.alibaba.dubbo.rpc.RpcException;
-import com.alibaba.fastjson.JSON;
 
 /**
- * 日志过滤器-JSON格式打印
+ * 日志过滤器-JSON格式打印<br>
+ * 参数和返回值的序列化、采样和截断由 {@link RpcLogPipeline} 在后台线程完成
  * 
  * @author Yaphis 2018年1月4日 下午2:59:19
  */
@@ -59,20 +59,10 @@ public class LogbackJsonLogFilter implements Filter {
                 } else {
                     resultObj = (result == null) ? null : result.getValue();
                 }
-                String resultStr = JSON.toJSONString(resultObj);
-                String paramStr = JSON.toJSONString(invocation.getArguments());
                 long costTime = System.currentTimeMillis() - startTime;
-                if (null == throwable) {
-                    // 没有抛出异常的情况 判断需要打印的日志级别
-                    if (isWarnLog(resultObj)) {
-                        LOG.warn("{}.{}() param:{}, return:{}, cost:{} ms!", invoker.getInterface(), invocation.getMethodName(), paramStr, resultStr, costTime);
-                    } else {
-                        LOG.info("{}.{}() param:{}, return:{}, cost:{} ms!", invoker.getInterface(), invocation.getMethodName(), paramStr, resultStr, costTime);
-                    }
-                } else {
-                    // 抛出异常的情况 打印警告
-                    LOG.warn("{}.{}() param:{}, return:{}, exception:{}, cost:{} ms!", invoker.getInterface(), invocation.getMethodName(), paramStr, resultStr, throwable, costTime);
-                }
+                // 只交出引用，序列化和打印在日志管道的后台线程完成
+                RpcLogPipeline.getInstance().log(LOG, RpcLogFormat.JSON, invoker, invocation, resultObj, throwable,
+                        null == throwable && isWarnLog(resultObj), costTime);
             } catch (Exception e) {
                 LOG.error("", e);
             }
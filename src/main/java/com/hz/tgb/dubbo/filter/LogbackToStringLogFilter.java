@@ -1,6 +1,5 @@
 package com.hz.tgb.dubbo.filter;
 
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.Map;
 import java.util.UUID;
@@ -20,7 +19,8 @@ import ch.qos.logback.classic.Level;
 
 /**
  * 日志过滤器-toString()格式打印<br>
- * 该格式打印的方便调用者自己决定哪些属性需要打印处理,主要应用在返回有大量集合的情况下。基于性能考虑可能只需要打印size就可以了.
+ * 该格式打印的方便调用者自己决定哪些属性需要打印处理,主要应用在返回有大量集合的情况下。基于性能考虑可能只需要打印size就可以了.<br>
+ * 参数和返回值的序列化、采样和截断由 {@link RpcLogPipeline} 在后台线程完成
  * 
  * @author Yaphis 2018年1月4日 下午2:59:41
  */
@@ -61,21 +61,10 @@ public class LogbackToStringLogFilter implements Filter {
                 } else {
                     resultObj = (result == null) ? null : result.getValue();
                 }
-                String resultStr = resultObj == null ? null : resultObj.toString().trim().replace("\n", "").replace("\r", "").replace("\t", "");
-                String paramStr = Arrays.toString(invocation.getArguments()).trim().replace("\n", "").replace("\r", "").replace("\t", "");
                 long costTime = System.currentTimeMillis() - startTime;
-                if (null == throwable) {
-                    // 没有抛出异常的情况 判断需要打印的日志级别
-                    Level level = getLogLevel(resultObj);
-                    if (level.equals(Level.WARN)) {
-                        LOG.warn("{}.{}() param:{}, return:{}, cost:{} ms!", invoker.getInterface(), invocation.getMethodName(), paramStr, resultStr, costTime);
-                    } else {
-                        LOG.info("{}.{}() param:{}, return:{}, cost:{} ms!", invoker.getInterface(), invocation.getMethodName(), paramStr, resultStr, costTime);
-                    }
-                } else {
-                    // 抛出异常的情况 打印警告
-                    LOG.warn("{}.{}() param:{}, return:{}, exception:{}, cost:{} ms!", invoker.getInterface(), invocation.getMethodName(), paramStr, resultStr, throwable, costTime);
-                }
+                // 只交出引用，序列化和打印在日志管道的后台线程完成
+                RpcLogPipeline.getInstance().log(LOG, RpcLogFormat.TO_STRING, invoker, invocation, resultObj, throwable,
+                        null == throwable && Level.WARN.equals(getLogLevel(resultObj)), costTime);
             } catch (Exception e) {
                 LOG.error("", e);
             }
@@ -0,0 +1,128 @@
+package com.hz.tgb.dubbo.filter;
+
+import java.io.Writer;
+import java.util.Arrays;
+
+import com.alibaba.fastjson.JSON;
+
+/**
+ * RPC日志的参数/返回值格式化方式，输出超过预算(字符数)时截断
+ *
+ * @author hezhao
+ * @Time 2026年10月19日 下午10:12:35
+ */
+public enum RpcLogFormat {
+
+    /**
+     * fastjson序列化，超出预算后立即中止序列化，不会把整个大对象写完
+     */
+    JSON {
+        @Override
+        public String format(Object value, int budget) {
+            if (budget <= 0) {
+                return com.alibaba.fastjson.JSON.toJSONString(value);
+            }
+            BudgetWriter writer = new BudgetWriter(budget);
+            try {
+                com.alibaba.fastjson.JSON.writeJSONString(writer, value);
+            } catch (RuntimeException e) {
+                // fastjson会把Writer抛出的异常包装一层，这里只认预算耗尽
+                if (!writer.exhausted) {
+                    throw e;
+                }
+            }
+            return writer.exhausted ? writer.builder.append(TRUNCATED).toString() : writer.builder.toString();
+        }
+    },
+
+    /**
+     * toString()，去掉换行和制表符，数组按元素打印
+     */
+    TO_STRING {
+        @Override
+        public String format(Object value, int budget) {
+            if (value == null) {
+                return null;
+            }
+            String text = value instanceof Object[] ? Arrays.toString((Object[]) value) : value.toString();
+            text = text.trim().replace("\n", "").replace("\r", "").replace("\t", "");
+            if (budget > 0 && text.length() > budget) {
+                return text.substring(0, budget) + TRUNCATED;
+            }
+            return text;
+        }
+    };
+
+    /** 截断标记 */
+    public static final String TRUNCATED = "...(truncated)";
+
+    /**
+     * 格式化
+     *
+     * @param value 参数数组或返回值
+     * @param budget 最多保留的字符数(char个数，不是字节数)，&lt;=0 不限制
+     * @return 格式化结果
+     */
+    public abstract String format(Object value, int budget);
+
+    /**
+     * 超出预算时抛出异常中止序列化
+     */
+    private static class BudgetWriter extends Writer {
+
+        private final StringBuilder builder;
+
+        private final int budget;
+
+        private boolean exhausted;
+
+        BudgetWriter(int budget) {
+            this.budget = budget;
+            this.builder = new StringBuilder(Math.min(budget, 256));
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            int room = budget - builder.length();
+            if (len > room) {
+                builder.append(cbuf, off, room);
+                exhausted = true;
+                throw BudgetExhaustedException.INSTANCE;
+            }
+            builder.append(cbuf, off, len);
+        }
+
+        @Override
+        public void write(String str, int off, int len) {
+            int room = budget - builder.length();
+            if (len > room) {
+                builder.append(str, off, off + room);
+                exhausted = true;
+                throw BudgetExhaustedException.INSTANCE;
+            }
+            builder.append(str, off, off + len);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * 只用于中止序列化，不需要堆栈
+     */
+    private static class BudgetExhaustedException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        static final BudgetExhaustedException INSTANCE = new BudgetExhaustedException();
+
+        private BudgetExhaustedException() {
+            super("log budget exhausted", null, false, false);
+        }
+    }
+}
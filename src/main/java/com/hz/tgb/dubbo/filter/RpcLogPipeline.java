@@ -0,0 +1,326 @@
+package com.hz.tgb.dubbo.filter;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import com.alibaba.dubbo.common.URL;
+import com.alibaba.dubbo.rpc.Invocation;
+import com.alibaba.dubbo.rpc.Invoker;
+
+/**
+ * Dubbo日志过滤器的异步日志管道<br>
+ * 调用线程只采样并保存参数/返回值的引用，放入有界队列；后台线程负责序列化、截断和打印。<br>
+ * 队列满时直接丢弃并计数，不阻塞业务线程。<br>
+ * 注意：序列化发生在调用返回之后，参数和返回值如果是可变对象且被业务代码继续修改，日志中看到的是打印时的状态，
+ * 不一定是调用时的状态。这是把序列化移出业务线程的代价；需要精确快照的服务请 {@link #setAsync(boolean)} 关闭异步。<br>
+ * <br>
+ * 可在服务/方法级别通过Dubbo URL参数配置(方法级优先)，如 &lt;dubbo:method name="query"&gt;&lt;dubbo:parameter key="rpclog.sample" value="0.1"/&gt;：<br>
+ * rpclog.sample 采样率0~1，普通调用按此比例打印；设为0即"只打印慢调用"<br>
+ * rpclog.slow 慢调用阈值(ms)，耗时达到阈值的调用总是打印，&lt;=0 不启用<br>
+ * rpclog.budget 参数和返回值各自最多打印的字符数(按Java char计，不是字节数，中文写入UTF-8日志时占3个字节)，&lt;=0 不限制<br>
+ * 抛出异常或返回失败Response的调用总是打印。
+ *
+ * @author hezhao
+ * @Time 2026年10月19日 下午10:26:51
+ */
+public class RpcLogPipeline {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RpcLogPipeline.class);
+
+    public static final String SAMPLE_KEY = "rpclog.sample";
+
+    public static final String SLOW_KEY = "rpclog.slow";
+
+    public static final String BUDGET_KEY = "rpclog.budget";
+
+    public static final int DEFAULT_CAPACITY = 8192;
+
+    private static final String THREAD_NAME = "ThreadName";
+
+    private static final RpcLogPipeline INSTANCE = new RpcLogPipeline(DEFAULT_CAPACITY);
+
+    private final BlockingQueue<RpcLogRecord> queue;
+
+    private volatile double defaultSampleRate = 1D;
+
+    private volatile long defaultSlowMillis = 0L;
+
+    private volatile int defaultBudget = 4096;
+
+    private volatile boolean async = true;
+
+    private volatile Thread worker;
+
+    /** close后不再启动后台线程，新的记录在调用线程上同步打印 */
+    private volatile boolean closed;
+
+    /** flush等待打印完成 */
+    private final Object flushLock = new Object();
+
+    private volatile int flushWaiters;
+
+    private final LongAdder submitted = new LongAdder();
+
+    private final LongAdder sampledOut = new LongAdder();
+
+    private final LongAdder dropped = new LongAdder();
+
+    private final LongAdder written = new LongAdder();
+
+    private final LongAdder failed = new LongAdder();
+
+    public RpcLogPipeline(int capacity) {
+        this.queue = new ArrayBlockingQueue<RpcLogRecord>(capacity);
+    }
+
+    /**
+     * 过滤器共用的管道
+     */
+    public static RpcLogPipeline getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 记录一次调用，是否打印由采样和慢调用阈值决定
+     *
+     * @param warn 是否是失败的通用返回
+     */
+    public void log(Logger logger, RpcLogFormat format, Invoker<?> invoker, Invocation invocation, Object result, Throwable throwable,
+            boolean warn, long costTime) {
+        String method = invocation.getMethodName();
+        URL url = invoker.getUrl();
+        if (!(throwable != null || warn || isSlow(url, method, costTime) || sampled(url, method))) {
+            sampledOut.increment();
+            return;
+        }
+        int budget = url == null ? defaultBudget : url.getMethodParameter(method, BUDGET_KEY, defaultBudget);
+        submit(new RpcLogRecord(logger, format, budget, MDC.get(THREAD_NAME), invoker.getInterface(), method, invocation.getArguments(),
+                result, throwable, warn, costTime));
+    }
+
+    private boolean isSlow(URL url, String method, long costTime) {
+        long slowMillis = url == null ? defaultSlowMillis : url.getMethodParameter(method, SLOW_KEY, defaultSlowMillis);
+        return slowMillis > 0 && costTime >= slowMillis;
+    }
+
+    private boolean sampled(URL url, String method) {
+        double rate = url == null ? defaultSampleRate : url.getMethodParameter(method, SAMPLE_KEY, defaultSampleRate);
+        return rate >= 1D || (rate > 0D && ThreadLocalRandom.current().nextDouble() < rate);
+    }
+
+    void submit(RpcLogRecord record) {
+        submitted.increment();
+        if (!async || closed) {
+            write(record);
+            return;
+        }
+        ensureWorker();
+        if (!queue.offer(record)) {
+            dropped.increment();
+            completed();
+        } else if (closed) {
+            // 入队时恰好close，后台线程可能已经退出，由调用线程打印剩余记录
+            RpcLogRecord left;
+            while ((left = queue.poll()) != null) {
+                writeWithMdc(left);
+            }
+        }
+    }
+
+    private void write(RpcLogRecord record) {
+        try {
+            record.write();
+            written.increment();
+        } catch (Exception e) {
+            failed.increment();
+            LOG.error("", e);
+        }
+        completed();
+    }
+
+    /**
+     * 一条记录处理完(打印、失败或丢弃)，有flush在等待时唤醒它
+     */
+    private void completed() {
+        if (flushWaiters > 0) {
+            synchronized (flushLock) {
+                flushLock.notifyAll();
+            }
+        }
+    }
+
+    private void ensureWorker() {
+        if (worker != null) {
+            return;
+        }
+        synchronized (this) {
+            if (worker == null && !closed) {
+                Thread thread = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        drain();
+                    }
+                }, "rpc-log-writer");
+                thread.setDaemon(true);
+                thread.start();
+                worker = thread;
+            }
+        }
+    }
+
+    private void drain() {
+        while (!closed) {
+            RpcLogRecord record;
+            try {
+                record = queue.take();
+            } catch (InterruptedException e) {
+                // close时中断，退出前打印剩余的记录
+                break;
+            }
+            writeWithMdc(record);
+        }
+        RpcLogRecord record;
+        while ((record = queue.poll()) != null) {
+            writeWithMdc(record);
+        }
+    }
+
+    private void writeWithMdc(RpcLogRecord record) {
+        if (record.threadName != null) {
+            MDC.put(THREAD_NAME, record.threadName);
+        }
+        try {
+            write(record);
+        } finally {
+            MDC.remove(THREAD_NAME);
+        }
+    }
+
+    /**
+     * 等待已入队的记录打印完毕
+     *
+     * @return 超时前是否打印完
+     */
+    public boolean flush(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (flushLock) {
+            flushWaiters++;
+            try {
+                while (getPending() > 0) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(flushLock, remaining);
+                }
+                return true;
+            } finally {
+                flushWaiters--;
+            }
+        }
+    }
+
+    /**
+     * 停止后台线程：已入队的记录由后台线程打印完后退出，之后的记录在调用线程上同步打印
+     *
+     * @param timeout 等待后台线程退出的最长时间
+     * @param unit
+     * @return 超时前后台线程是否已退出
+     */
+    public boolean close(long timeout, TimeUnit unit) throws InterruptedException {
+        Thread thread;
+        synchronized (this) {
+            closed = true;
+            thread = worker;
+        }
+        if (thread == null) {
+            return true;
+        }
+        thread.interrupt();
+        thread.join(Math.max(1, unit.toMillis(timeout)));
+        return !thread.isAlive();
+    }
+
+    /**
+     * 已入队或正在打印的记录数
+     */
+    public long getPending() {
+        return submitted.sum() - dropped.sum() - written.sum() - failed.sum();
+    }
+
+    /** 进入管道(采样通过)的记录数 */
+    public long getSubmitted() {
+        return submitted.sum();
+    }
+
+    /** 未被采样而跳过的调用数 */
+    public long getSampledOut() {
+        return sampledOut.sum();
+    }
+
+    /** 队列满被丢弃的记录数 */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /** 已打印的记录数 */
+    public long getWritten() {
+        return written.sum();
+    }
+
+    /** 格式化或打印失败的记录数 */
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    public double getDefaultSampleRate() {
+        return defaultSampleRate;
+    }
+
+    /**
+     * 没有配置 rpclog.sample 时的采样率
+     */
+    public void setDefaultSampleRate(double defaultSampleRate) {
+        this.defaultSampleRate = defaultSampleRate;
+    }
+
+    public long getDefaultSlowMillis() {
+        return defaultSlowMillis;
+    }
+
+    /**
+     * 没有配置 rpclog.slow 时的慢调用阈值(ms)
+     */
+    public void setDefaultSlowMillis(long defaultSlowMillis) {
+        this.defaultSlowMillis = defaultSlowMillis;
+    }
+
+    public int getDefaultBudget() {
+        return defaultBudget;
+    }
+
+    /**
+     * 没有配置 rpclog.budget 时参数和返回值各自最多打印的字符数(按char计，不是字节数)
+     */
+    public void setDefaultBudget(int defaultBudget) {
+        this.defaultBudget = defaultBudget;
+    }
+
+    public boolean isAsync() {
+        return async;
+    }
+
+    /**
+     * 关闭异步时在调用线程上同步打印(仍然采样和截断)
+     */
+    public void setAsync(boolean async) {
+        this.async = async;
+    }
+}
@@ -0,0 +1,68 @@
+package com.hz.tgb.dubbo.filter;
+
+import org.slf4j.Logger;
+
+/**
+ * 一次RPC调用的日志记录，只持有参数/返回值的引用，格式化在后台线程完成
+ *
+ * @author hezhao
+ * @Time 2026年10月19日 下午10:18:06
+ */
+final class RpcLogRecord {
+
+    final Logger logger;
+
+    final RpcLogFormat format;
+
+    final int budget;
+
+    /** 调用线程上的MDC ThreadName，后台线程打印时恢复 */
+    final String threadName;
+
+    final Class<?> service;
+
+    final String method;
+
+    final Object[] arguments;
+
+    final Object result;
+
+    final Throwable throwable;
+
+    final boolean warn;
+
+    final long costTime;
+
+    RpcLogRecord(Logger logger, RpcLogFormat format, int budget, String threadName, Class<?> service, String method,
+            Object[] arguments, Object result, Throwable throwable, boolean warn, long costTime) {
+        this.logger = logger;
+        this.format = format;
+        this.budget = budget;
+        this.threadName = threadName;
+        this.service = service;
+        this.method = method;
+        // 浅拷贝，调用方之后替换数组元素不影响日志
+        this.arguments = arguments == null ? null : arguments.clone();
+        this.result = result;
+        this.throwable = throwable;
+        this.warn = warn;
+        this.costTime = costTime;
+    }
+
+    /**
+     * 格式化并打印，与原过滤器的日志格式一致
+     */
+    void write() {
+        String paramStr = format.format(arguments, budget);
+        String resultStr = format.format(result, budget);
+        if (null == throwable) {
+            if (warn) {
+                logger.warn("{}.{}() param:{}, return:{}, cost:{} ms!", service, method, paramStr, resultStr, costTime);
+            } else {
+                logger.info("{}.{}() param:{}, return:{}, cost:{} ms!", service, method, paramStr, resultStr, costTime);
+            }
+        } else {
+            logger.warn("{}.{}() param:{}, return:{}, exception:{}, cost:{} ms!", service, method, paramStr, resultStr, throwable, costTime);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.hz.tgb.dubbo.filter;
+
+import com.alibaba.dubbo.rpc.Filter;
+import com.alibaba.dubbo.rpc.Invocation;
+import com.alibaba.dubbo.rpc.Invoker;
+import com.alibaba.dubbo.rpc.Result;
+import com.alibaba.dubbo.rpc.RpcException;
+import com.hz.tgb.dubbo.metrics.MethodMetrics;
+import com.hz.tgb.dubbo.metrics.RpcMetricsRegistry;
+
+/**
+ * 调用统计过滤器<br>
+ * 按 接口.方法 统计耗时分布(p50/p90/p99/p999)、吞吐量、错误率和并发数，抛出异常或返回异常结果计为错误。<br>
+ * 统计通过JMX(com.hz.tgb.dubbo:type=RpcMetrics)查看，或通过 {@link RpcMetricsRegistry#startReporting} 定期上报。<br>
+ * 应配置在其他过滤器之前，使耗时包含后续过滤器的开销。
+ *
+ * @author hezhao
+ * @Time 2026年10月20日 上午11:24:09
+ */
+public class RpcMetricsFilter implements Filter {
+
+    private final RpcMetricsRegistry registry;
+
+    public RpcMetricsFilter() {
+        this(RpcMetricsRegistry.getInstance());
+    }
+
+    public RpcMetricsFilter(RpcMetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Result invoke(Invoker<?> invoker, Invocation invocation) throws RpcException {
+        MethodMetrics metrics = registry.get(invoker.getInterface().getName(), invocation.getMethodName());
+        long startNanos = metrics.start();
+        boolean error = true;
+        try {
+            Result result = invoker.invoke(invocation);
+            error = result != null && result.hasException();
+            return result;
+        } finally {
+            metrics.stop(startNanos, error);
+        }
+    }
+}
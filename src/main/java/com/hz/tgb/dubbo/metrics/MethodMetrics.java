@@ -0,0 +1,76 @@
+package com.hz.tgb.dubbo.metrics;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.hz.tgb.metrics.LatencyHistogram;
+
+/**
+ * 单个接口方法的调用统计：耗时直方图、错误数、并发数
+ *
+ * @author hezhao
+ * @Time 2026年10月20日 上午10:34:50
+ */
+public final class MethodMetrics {
+
+    private final String service;
+
+    private final String method;
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    private final LongAdder errorCount = new LongAdder();
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final long createNanos = System.nanoTime();
+
+    MethodMetrics(String service, String method) {
+        this.service = service;
+        this.method = method;
+    }
+
+    /**
+     * 调用开始
+     *
+     * @return 开始时间，传给 {@link #stop(long, boolean)}
+     */
+    public long start() {
+        inFlight.incrementAndGet();
+        return System.nanoTime();
+    }
+
+    /**
+     * 调用结束
+     *
+     * @param startNanos {@link #start()} 的返回值
+     * @param error 是否出现异常
+     */
+    public void stop(long startNanos, boolean error) {
+        latency.recordNanos(System.nanoTime() - startNanos);
+        if (error) {
+            errorCount.increment();
+        }
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * 从创建到现在的累计快照
+     */
+    public MethodMetricsSnapshot snapshot() {
+        return new MethodMetricsSnapshot(service, method, latency.snapshot(), errorCount.sum(), inFlight.get(),
+                System.nanoTime() - createNanos);
+    }
+
+    public String getService() {
+        return service;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,110 @@
+package com.hz.tgb.dubbo.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+import com.hz.tgb.metrics.HistogramSnapshot;
+
+/**
+ * 接口方法统计快照(不可变)，可以是累计值，也可以是两次快照之间的区间值
+ *
+ * @author hezhao
+ * @Time 2026年10月20日 上午10:42:18
+ */
+public final class MethodMetricsSnapshot {
+
+    private final String service;
+
+    private final String method;
+
+    private final HistogramSnapshot latency;
+
+    private final long errorCount;
+
+    private final int inFlight;
+
+    private final long intervalNanos;
+
+    MethodMetricsSnapshot(String service, String method, HistogramSnapshot latency, long errorCount, int inFlight, long intervalNanos) {
+        this.service = service;
+        this.method = method;
+        this.latency = latency;
+        this.errorCount = errorCount;
+        this.inFlight = inFlight;
+        this.intervalNanos = intervalNanos;
+    }
+
+    /**
+     * 本快照减去同一方法更早的快照，得到区间统计；并发数取当前值
+     */
+    public MethodMetricsSnapshot minus(MethodMetricsSnapshot previous) {
+        return new MethodMetricsSnapshot(service, method, latency.minus(previous.latency), Math.max(0L, errorCount - previous.errorCount),
+                inFlight, Math.max(0L, intervalNanos - previous.intervalNanos));
+    }
+
+    public String getService() {
+        return service;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public HistogramSnapshot getLatency() {
+        return latency;
+    }
+
+    public long getCount() {
+        return latency.getCount();
+    }
+
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    /**
+     * 错误率，没有调用时为0
+     */
+    public double getErrorRate() {
+        long count = getCount();
+        return count == 0 ? 0.0d : (double) errorCount / count;
+    }
+
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    public long getIntervalNanos() {
+        return intervalNanos;
+    }
+
+    /**
+     * 每秒调用数
+     */
+    public double getThroughput() {
+        return intervalNanos <= 0 ? 0.0d : getCount() * (double) TimeUnit.SECONDS.toNanos(1) / intervalNanos;
+    }
+
+    public double getMeanMillis() {
+        return latency.getMeanMicros() / 1000.0d;
+    }
+
+    /**
+     * 百分位耗时(ms)
+     *
+     * @param percentile 0~100
+     */
+    public double getPercentileMillis(double percentile) {
+        return latency.getValueAtPercentile(percentile) / 1000.0d;
+    }
+
+    public double getMaxMillis() {
+        return latency.getMaxMicros() / 1000.0d;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s.%s() count:%d, qps:%.1f, error:%d(%.2f%%), inFlight:%d, mean:%.3f ms, p50:%.3f ms, p90:%.3f ms, p99:%.3f ms, p999:%.3f ms, max:%.3f ms",
+                service, method, getCount(), getThroughput(), errorCount, getErrorRate() * 100, inFlight, getMeanMillis(), getPercentileMillis(50),
+                getPercentileMillis(90), getPercentileMillis(99), getPercentileMillis(99.9), getMaxMillis());
+    }
+}
@@ -0,0 +1,33 @@
+package com.hz.tgb.dubbo.metrics;
+
+/**
+ * 接口方法调用统计JMX监控接口，注册名为 com.hz.tgb.dubbo:type=RpcMetrics,service=接口名,method=方法名<br>
+ * 数值为从启动到现在的累计值，耗时单位ms
+ *
+ * @author hezhao
+ * @Time 2026年10月20日 上午10:57:41
+ */
+public interface RpcMethodMetricsMXBean {
+
+    long getCount();
+
+    long getErrorCount();
+
+    double getErrorRate();
+
+    int getInFlight();
+
+    double getThroughput();
+
+    double getMeanMillis();
+
+    double getP50Millis();
+
+    double getP90Millis();
+
+    double getP99Millis();
+
+    double getP999Millis();
+
+    double getMaxMillis();
+}
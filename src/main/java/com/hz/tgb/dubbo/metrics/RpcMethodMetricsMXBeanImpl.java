@@ -0,0 +1,69 @@
+package com.hz.tgb.dubbo.metrics;
+
+/**
+ * @author hezhao
+ * @Time 2026年10月20日 上午11:01:12
+ */
+class RpcMethodMetricsMXBeanImpl implements RpcMethodMetricsMXBean {
+
+    private final MethodMetrics metrics;
+
+    RpcMethodMetricsMXBeanImpl(MethodMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public long getCount() {
+        return metrics.snapshot().getCount();
+    }
+
+    @Override
+    public long getErrorCount() {
+        return metrics.snapshot().getErrorCount();
+    }
+
+    @Override
+    public double getErrorRate() {
+        return metrics.snapshot().getErrorRate();
+    }
+
+    @Override
+    public int getInFlight() {
+        return metrics.getInFlight();
+    }
+
+    @Override
+    public double getThroughput() {
+        return metrics.snapshot().getThroughput();
+    }
+
+    @Override
+    public double getMeanMillis() {
+        return metrics.snapshot().getMeanMillis();
+    }
+
+    @Override
+    public double getP50Millis() {
+        return metrics.snapshot().getPercentileMillis(50);
+    }
+
+    @Override
+    public double getP90Millis() {
+        return metrics.snapshot().getPercentileMillis(90);
+    }
+
+    @Override
+    public double getP99Millis() {
+        return metrics.snapshot().getPercentileMillis(99);
+    }
+
+    @Override
+    public double getP999Millis() {
+        return metrics.snapshot().getPercentileMillis(99.9);
+    }
+
+    @Override
+    public double getMaxMillis() {
+        return metrics.snapshot().getMaxMillis();
+    }
+}
@@ -0,0 +1,173 @@
+package com.hz.tgb.dubbo.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 接口方法调用统计的注册表<br>
+ * 每个方法首次调用时创建 {@link MethodMetrics}，并注册JMX MBean(可关闭)；
+ * 可通过 {@link #startReporting(RpcMetricsReporter, long, TimeUnit)} 定期把区间统计交给上报器。
+ *
+ * @author hezhao
+ * @Time 2026年10月20日 上午11:08:35
+ */
+public class RpcMetricsRegistry {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RpcMetricsRegistry.class);
+
+    private static final RpcMetricsRegistry INSTANCE = new RpcMetricsRegistry(true);
+
+    /** 接口名 -&gt; 方法名 -&gt; 统计，两级Map避免每次调用拼接key */
+    private final ConcurrentMap<String, ConcurrentMap<String, MethodMetrics>> services = new ConcurrentHashMap<String, ConcurrentMap<String, MethodMetrics>>();
+
+    private final boolean jmxEnabled;
+
+    /**
+     * @param jmxEnabled 是否为每个方法注册MBean
+     */
+    public RpcMetricsRegistry(boolean jmxEnabled) {
+        this.jmxEnabled = jmxEnabled;
+    }
+
+    /**
+     * Dubbo过滤器共用的注册表，注册JMX
+     */
+    public static RpcMetricsRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 获取方法的统计，不存在时创建
+     */
+    public MethodMetrics get(String service, String method) {
+        ConcurrentMap<String, MethodMetrics> methods = services.get(service);
+        if (methods == null) {
+            ConcurrentMap<String, MethodMetrics> created = new ConcurrentHashMap<String, MethodMetrics>();
+            methods = services.putIfAbsent(service, created);
+            if (methods == null) {
+                methods = created;
+            }
+        }
+        MethodMetrics metrics = methods.get(method);
+        if (metrics == null) {
+            MethodMetrics created = new MethodMetrics(service, method);
+            metrics = methods.putIfAbsent(method, created);
+            if (metrics == null) {
+                metrics = created;
+                if (jmxEnabled) {
+                    registerMBean(created);
+                }
+            }
+        }
+        return metrics;
+    }
+
+    /**
+     * 所有方法的统计
+     */
+    public List<MethodMetrics> getAll() {
+        List<MethodMetrics> all = new ArrayList<MethodMetrics>();
+        for (ConcurrentMap<String, MethodMetrics> methods : services.values()) {
+            all.addAll(methods.values());
+        }
+        return all;
+    }
+
+    /**
+     * 所有方法的累计快照
+     */
+    public List<MethodMetricsSnapshot> snapshot() {
+        List<MethodMetricsSnapshot> snapshots = new ArrayList<MethodMetricsSnapshot>();
+        for (MethodMetrics metrics : getAll()) {
+            snapshots.add(metrics.snapshot());
+        }
+        return snapshots;
+    }
+
+    /**
+     * 定期上报，每次上报的是与上次上报之间的区间统计，适合观察尾延迟的变化
+     *
+     * @param reporter 上报器，在后台线程调用，异常会被记录并忽略
+     * @param period 周期
+     * @param unit 周期单位
+     * @return 调用cancel停止上报
+     */
+    public ScheduledFuture<?> startReporting(RpcMetricsReporter reporter, long period, TimeUnit unit) {
+        return Reporting.EXECUTOR.scheduleAtFixedRate(new Reporting(this, reporter), period, period, unit);
+    }
+
+    private void registerMBean(MethodMetrics metrics) {
+        try {
+            ObjectName name = new ObjectName("com.hz.tgb.dubbo:type=RpcMetrics,service=" + ObjectName.quote(metrics.getService()) + ",method="
+                    + ObjectName.quote(metrics.getMethod()));
+            if (!ManagementFactory.getPlatformMBeanServer().isRegistered(name)) {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(new RpcMethodMetricsMXBeanImpl(metrics), name);
+            }
+        } catch (JMException e) {
+            LOG.warn("register rpc metrics mbean {}.{} failed", metrics.getService(), metrics.getMethod(), e);
+        }
+    }
+
+    /**
+     * 上报任务，保存上次的累计快照用于计算区间值
+     */
+    private static class Reporting implements Runnable {
+
+        private static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "rpc-metrics-reporter");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+
+        private final RpcMetricsRegistry registry;
+
+        private final RpcMetricsReporter reporter;
+
+        private final Map<MethodMetrics, MethodMetricsSnapshot> previous = new HashMap<MethodMetrics, MethodMetricsSnapshot>();
+
+        private Reporting(RpcMetricsRegistry registry, RpcMetricsReporter reporter) {
+            this.registry = registry;
+            this.reporter = reporter;
+        }
+
+        @Override
+        public void run() {
+            try {
+                List<MethodMetricsSnapshot> snapshots = new ArrayList<MethodMetricsSnapshot>();
+                for (MethodMetrics metrics : registry.getAll()) {
+                    MethodMetricsSnapshot current = metrics.snapshot();
+                    MethodMetricsSnapshot last = previous.put(metrics, current);
+                    MethodMetricsSnapshot interval = last == null ? current : current.minus(last);
+                    if (interval.getCount() > 0 || interval.getInFlight() > 0) {
+                        snapshots.add(interval);
+                    }
+                }
+                if (!snapshots.isEmpty()) {
+                    reporter.report(snapshots);
+                }
+            } catch (Exception e) {
+                // 抛出异常会终止周期任务
+                LOG.error("report rpc metrics failed", e);
+            }
+        }
+    }
+}
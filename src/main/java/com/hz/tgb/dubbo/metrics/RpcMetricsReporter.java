@@ -0,0 +1,20 @@
+package com.hz.tgb.dubbo.metrics;
+
+import java.util.List;
+
+/**
+ * 调用统计上报接口，可对接日志、监控系统等
+ *
+ * @author hezhao
+ * @Time 2026年10月20日 上午10:50:03
+ * @see RpcMetricsRegistry#startReporting(RpcMetricsReporter, long, java.util.concurrent.TimeUnit)
+ */
+public interface RpcMetricsReporter {
+
+    /**
+     * 上报一个周期内的统计
+     *
+     * @param snapshots 各方法本周期的区间快照，本周期没有调用的方法不包含在内
+     */
+    void report(List<MethodMetricsSnapshot> snapshots);
+}
@@ -0,0 +1,24 @@
+package com.hz.tgb.dubbo.metrics;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 把调用统计打印到日志，每个方法一行
+ *
+ * @author hezhao
+ * @Time 2026年10月20日 上午10:53:26
+ */
+public class Slf4jRpcMetricsReporter implements RpcMetricsReporter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(Slf4jRpcMetricsReporter.class);
+
+    @Override
+    public void report(List<MethodMetricsSnapshot> snapshots) {
+        for (MethodMetricsSnapshot snapshot : snapshots) {
+            LOG.info("{}", snapshot);
+        }
+    }
+}
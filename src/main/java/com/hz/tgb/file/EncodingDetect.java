@@ -7,25 +7,84 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
 import java.net.URL;
+import java.nio.ByteBuffer;
 
 /**
  * 获取文件编码格式<br/>
  * 如：String fileEncode = EncodingDetect.getJavaEncode(filePath);<br/>
+ * 文件/流只采样开头一段(默认64KB)，探测器全局共享，可多线程并发调用<br/>
  * by hezhao 2017-09-29
  */
 public class EncodingDetect {
 
     protected static Logger LogManager = LoggerFactory.getLogger(EncodingDetect.class);
 
+    /** 共享的探测器，频率表只初始化一次，线程安全 */
+    private static final BytesEncodingDetect DETECTOR = new BytesEncodingDetect();
+
+    /** 默认采样窗口大小(字节)，大文件只读取开头部分 */
+    public static final int DEFAULT_SAMPLE_SIZE = BytesEncodingDetect.DEFAULT_SAMPLE_SIZE;
+
     public static String getJavaEncode(String filePath) {
-        BytesEncodingDetect s = new BytesEncodingDetect();
-        String fileCode = BytesEncodingDetect.javaname[s
-                .detectEncoding(new File(filePath))];
-        return fileCode;
+        return getJavaEncode(new File(filePath));
+    }
+
+    /**
+     * 探测文件编码，只读取文件开头 {@link #DEFAULT_SAMPLE_SIZE} 字节
+     *
+     * @param file
+     * @return
+     */
+    public static String getJavaEncode(File file) {
+        return BytesEncodingDetect.javaname[DETECTOR.detectEncoding(file)];
+    }
+
+    /**
+     * 探测流的编码，读取开头最多sampleSize字节，调用方负责关闭流
+     *
+     * @param in
+     * @param sampleSize 采样窗口大小
+     * @return
+     * @throws IOException
+     */
+    public static String getJavaEncode(InputStream in, int sampleSize) throws IOException {
+        return BytesEncodingDetect.javaname[DETECTOR.detectEncoding(in, sampleSize)];
+    }
+
+    /**
+     * 探测ByteBuffer剩余内容的编码，最多取sampleSize字节，不改变其position
+     *
+     * @param buffer
+     * @param sampleSize 采样窗口大小
+     * @return
+     */
+    public static String getJavaEncode(ByteBuffer buffer, int sampleSize) {
+        return BytesEncodingDetect.javaname[DETECTOR.detectEncoding(buffer, sampleSize)];
+    }
+
+    /**
+     * 探测字节数组的编码
+     *
+     * @param bytes
+     * @return
+     */
+    public static String getJavaEncode(byte[] bytes) {
+        return BytesEncodingDetect.javaname[DETECTOR.detectEncoding(bytes)];
+    }
+
+    /**
+     * 按原始算法逐个编码完整扫描探测，结果与 {@link #getJavaEncode(byte[])} 一致但更慢，用于对照排查
+     *
+     * @param bytes
+     * @return
+     */
+    public static String getJavaEncodeMultiPass(byte[] bytes) {
+        return BytesEncodingDetect.javaname[DETECTOR.detectEncodingMultiPass(bytes, bytes.length)];
     }
 
 
@@ -83,33 +142,50 @@ public class EncodingDetect {
     }
 }
 
+/**
+ * 字节编码探测器。频率表为类级别共享的只读数据，只在类加载时初始化一次；
+ * 探测过程只使用局部变量，同一实例可被多线程并发复用。
+ */
 class BytesEncodingDetect extends Encoding {
-    int GBFreq[][];
 
-    int GBKFreq[][];
+    /** 默认采样窗口大小 */
+    static final int DEFAULT_SAMPLE_SIZE = 64 * 1024;
 
-    int Big5Freq[][];
+    static final int GBFreq[][] = new int[94][94];
 
-    int Big5PFreq[][];
+    static final int GBKFreq[][] = new int[126][191];
 
-    int EUC_TWFreq[][];
+    static final int Big5Freq[][] = new int[94][158];
 
-    int KRFreq[][];
+    static final int Big5PFreq[][] = new int[126][191];
+
+    static final int EUC_TWFreq[][] = new int[94][94];
+
+    static final int KRFreq[][] = new int[94][94];
+
+    static final int JPFreq[][] = new int[94][94];
+
+    static {
+        initialize_frequencies();
+    }
+
+    /** 线程复用的采样缓冲区 */
+    private static final ThreadLocal<byte[]> SAMPLE_BUFFER = new ThreadLocal<byte[]>() {
+        @Override
+        protected byte[] initialValue() {
+            return new byte[DEFAULT_SAMPLE_SIZE];
+        }
+    };
 
-    int JPFreq[][];
+    /** 打印各编码的得分 */
     public boolean debug;
 
+    /** 使用逐个编码完整扫描的原始算法，用于和单次扫描对照 */
+    public boolean multiPass;
+
     public BytesEncodingDetect() {
         super();
         debug = false;
-        GBFreq = new int[94][94];
-        GBKFreq = new int[126][191];
-        Big5Freq = new int[94][158];
-        Big5PFreq = new int[126][191];
-        EUC_TWFreq = new int[94][94];
-        KRFreq = new int[94][94];
-        JPFreq = new int[94][94];
-        initialize_frequencies();
     }
 
     public static void main(String argc[]) {
@@ -127,6 +203,9 @@ class BytesEncodingDetect extends Encoding {
             } else if (argc[i].equals("-d")) {
                 sinodetector.debug = true;
                 continue;
+            } else if (argc[i].equals("-m")) {
+                sinodetector.multiPass = true;
+                continue;
             } else {
                 result = sinodetector.detectEncoding(new File(argc[i]));
             }
@@ -156,49 +235,361 @@ class BytesEncodingDetect extends Encoding {
     }
 
 
+    /**
+     * 只读取文件开头 {@link #DEFAULT_SAMPLE_SIZE} 字节进行探测
+     */
     public int detectEncoding(File testfile) {
-        FileInputStream chinesefile;
-        byte[] rawtext;
-        rawtext = new byte[(int) testfile.length()];
+        InputStream chinesefile = null;
         try {
             chinesefile = new FileInputStream(testfile);
-            chinesefile.read(rawtext);
-            chinesefile.close();
-        } catch (Exception e) {
+            return detectEncoding(chinesefile, DEFAULT_SAMPLE_SIZE);
+        } catch (IOException e) {
             System.err.println("Error: " + e);
+            return OTHER;
+        } finally {
+            if (chinesefile != null) {
+                try {
+                    chinesefile.close();
+                } catch (IOException e) {
+                    // ignore
+                }
+            }
+        }
+    }
+
+    /**
+     * 读取流开头最多sampleSize字节进行探测，不关闭流
+     *
+     * @param in
+     * @param sampleSize 采样窗口大小
+     * @return
+     * @throws IOException
+     */
+    public int detectEncoding(InputStream in, int sampleSize) throws IOException {
+        checkSampleSize(sampleSize);
+        byte[] rawtext = sampleBuffer(sampleSize);
+        int len = 0;
+        int bytesread;
+        while (len < sampleSize && (bytesread = in.read(rawtext, len, sampleSize - len)) > 0) {
+            len += bytesread;
         }
-        return detectEncoding(rawtext);
+        return detectEncoding(rawtext, len);
     }
 
+    /**
+     * 从ByteBuffer当前位置起最多sampleSize字节进行探测，不改变其position
+     *
+     * @param buffer
+     * @param sampleSize 采样窗口大小
+     * @return
+     */
+    public int detectEncoding(ByteBuffer buffer, int sampleSize) {
+        checkSampleSize(sampleSize);
+        int len = Math.min(buffer.remaining(), sampleSize);
+        byte[] rawtext = sampleBuffer(len);
+        buffer.duplicate().get(rawtext, 0, len);
+        return detectEncoding(rawtext, len);
+    }
 
     public int detectEncoding(byte[] rawtext) {
+        return detectEncoding(rawtext, rawtext.length);
+    }
+
+    private static void checkSampleSize(int sampleSize) {
+        if (sampleSize <= 0) {
+            throw new IllegalArgumentException("sampleSize must be positive");
+        }
+    }
+
+    private static byte[] sampleBuffer(int sampleSize) {
+        return sampleSize <= DEFAULT_SAMPLE_SIZE ? SAMPLE_BUFFER.get() : new byte[sampleSize];
+    }
+
+    /**
+     * 只探测rawtext的前len个字节。<br>
+     * 单次扫描：各编码的打分状态机在同一个循环里逐字节推进，得分与 {@link #detectEncodingMultiPass(byte[], int)}
+     * 完全一致；另外在以下情况提前返回：<br>
+     * （1）开头是UTF-16/UTF-8的BOM；<br>
+     * （2）纯ASCII(且不含ESC和~)，只做一次无状态的前缀扫描。<br>
+     * 其他情况总是扫描完整个采样窗口，前面是UTF-8、后面是GBK的混合内容与多遍扫描的结果相同。
+     *
+     * @param rawtext
+     * @param len
+     * @return
+     */
+    public int detectEncoding(byte[] rawtext, int len) {
+        if (multiPass) {
+            return detectEncodingMultiPass(rawtext, len);
+        }
+        if (len > 1 && (((byte) 0xFE == rawtext[0] && (byte) 0xFF == rawtext[1])
+                || ((byte) 0xFF == rawtext[0] && (byte) 0xFE == rawtext[1]))) {
+            return UNICODE;
+        }
+        if (len > 2 && (byte) 0xEF == rawtext[0] && (byte) 0xBB == rawtext[1] && (byte) 0xBF == rawtext[2]) {
+            return UTF8;
+        }
+
+        // ASCII前缀对所有双字节状态机都只是跳过，不产生任何状态
+        boolean escape = false, tilde = false;
+        int start = 0, asciiPenalty = 0;
+        while (start < len && rawtext[start] >= 0) {
+            if (rawtext[start] == (byte) 0x1B) {
+                escape = true;
+                asciiPenalty++;
+            } else if (rawtext[start] == '~') {
+                tilde = true;
+            }
+            start++;
+        }
+        if (start == len && !escape && !tilde) {
+            return ASCII;
+        }
+
+        // GB2312/GBK/GB18030/Big5/EUC-KR/CP949/EUC-JP 的步进完全相同：高位字节总是连同下一个字节一起消费
+        int pairPos = start, dbchars = 1;
+        int gbchars = 1, gbkExtChars = 0, gb4Chars = 0, big5chars = 1, eucKrChars = 1, cp949Chars = 1, eucJpChars = 1;
+        long gbfreq = 0, gbtotal = 1, gbkExtFreq = 0, big5freq = 0, big5total = 1;
+        long eucKrFreq = 0, eucKrTotal = 1, cp949Freq = 0, cp949Total = 1, eucJpFreq = 0, eucJpTotal = 1;
+        // EUC-TW、Shift-JIS、UTF-8 各自的步进不同，分别维护下一个待处理的位置
+        int twPos = start, twDbchars = 1, cnschars = 1;
+        long cnsfreq = 0, cnstotal = 1;
+        int sjPos = start, sjDbchars = 1, sjchars = 1;
+        long sjfreq = 0, sjtotal = 1;
+        int utfPos = start, utfAscii = start, utfGood = 0;
+
+        int row, column;
+        for (int i = start; i < len; i++) {
+            byte b = rawtext[i];
+            if (b < 0) {
+                asciiPenalty++;
+            } else if (b == (byte) 0x1B) {
+                asciiPenalty++;
+                escape = true;
+            } else if (b == '~') {
+                tilde = true;
+            }
+
+            if (i == pairPos && i < len - 1) {
+                if (b >= 0) {
+                    pairPos = i + 1;
+                } else {
+                    byte n = rawtext[i + 1];
+                    dbchars++;
+                    if ((byte) 0xA1 <= b && b <= (byte) 0xF7 && (byte) 0xA1 <= n && n <= (byte) 0xFE) {
+                        gbchars++;
+                        gbtotal += 500;
+                        row = b + 256 - 0xA1;
+                        column = n + 256 - 0xA1;
+                        if (GBFreq[row][column] != 0) {
+                            gbfreq += GBFreq[row][column];
+                        } else if (15 <= row && row < 55) {
+                            gbfreq += 200;
+                        }
+                    } else if ((byte) 0x81 <= b && b <= (byte) 0xFE
+                            && (((byte) 0x80 <= n && n <= (byte) 0xFE) || ((byte) 0x40 <= n && n <= (byte) 0x7E))) {
+                        gbkExtChars++;
+                        row = b + 256 - 0x81;
+                        if (0x40 <= n && n <= 0x7E) {
+                            column = n - 0x40;
+                        } else {
+                            column = n + 256 - 0x40;
+                        }
+                        if (GBKFreq[row][column] != 0) {
+                            gbkExtFreq += GBKFreq[row][column];
+                        }
+                    } else if ((byte) 0x81 <= b && b <= (byte) 0xFE && i + 3 < len
+                            && (byte) 0x30 <= n && n <= (byte) 0x39
+                            && (byte) 0x81 <= rawtext[i + 2] && rawtext[i + 2] <= (byte) 0xFE
+                            && (byte) 0x30 <= rawtext[i + 3] && rawtext[i + 3] <= (byte) 0x39) {
+                        gb4Chars++;
+                    }
+                    if ((byte) 0xA1 <= b && b <= (byte) 0xF9
+                            && (((byte) 0x40 <= n && n <= (byte) 0x7E) || ((byte) 0xA1 <= n && n <= (byte) 0xFE))) {
+                        big5chars++;
+                        big5total += 500;
+                        row = b + 256 - 0xA1;
+                        if (0x40 <= n && n <= 0x7E) {
+                            column = n - 0x40;
+                        } else {
+                            column = n + 256 - 0x61;
+                        }
+                        if (Big5Freq[row][column] != 0) {
+                            big5freq += Big5Freq[row][column];
+                        } else if (3 <= row && row <= 37) {
+                            big5freq += 200;
+                        }
+                    }
+                    if ((byte) 0xA1 <= b && b <= (byte) 0xFE && (byte) 0xA1 <= n && n <= (byte) 0xFE) {
+                        row = b + 256 - 0xA1;
+                        column = n + 256 - 0xA1;
+                        eucKrChars++;
+                        eucKrTotal += 500;
+                        eucKrFreq += KRFreq[row][column];
+                        eucJpChars++;
+                        eucJpTotal += 500;
+                        eucJpFreq += JPFreq[row][column];
+                    }
+                    if ((byte) 0x81 <= b && b <= (byte) 0xFE
+                            && ((byte) 0x41 <= n && n <= (byte) 0x5A || (byte) 0x61 <= n && n <= (byte) 0x7A
+                            || (byte) 0x81 <= n && n <= (byte) 0xFE)) {
+                        cp949Chars++;
+                        cp949Total += 500;
+                        if ((byte) 0xA1 <= b && b <= (byte) 0xFE && (byte) 0xA1 <= n && n <= (byte) 0xFE) {
+                            cp949Freq += KRFreq[b + 256 - 0xA1][n + 256 - 0xA1];
+                        }
+                    }
+                    pairPos = i + 2;
+                }
+            }
+
+            if (i == twPos && i < len - 1) {
+                twPos = i + 1;
+                if (b < 0) {
+                    twDbchars++;
+                    if (i + 3 < len && (byte) 0x8E == b
+                            && (byte) 0xA1 <= rawtext[i + 1] && rawtext[i + 1] <= (byte) 0xB0
+                            && (byte) 0xA1 <= rawtext[i + 2] && rawtext[i + 2] <= (byte) 0xFE
+                            && (byte) 0xA1 <= rawtext[i + 3] && rawtext[i + 3] <= (byte) 0xFE) {
+                        cnschars++;
+                        twPos = i + 4;
+                    } else if ((byte) 0xA1 <= b && b <= (byte) 0xFE
+                            && (byte) 0xA1 <= rawtext[i + 1] && rawtext[i + 1] <= (byte) 0xFE) {
+                        cnschars++;
+                        cnstotal += 500;
+                        row = b + 256 - 0xA1;
+                        column = rawtext[i + 1] + 256 - 0xA1;
+                        if (EUC_TWFreq[row][column] != 0) {
+                            cnsfreq += EUC_TWFreq[row][column];
+                        } else if (35 <= row && row <= 92) {
+                            cnsfreq += 150;
+                        }
+                        twPos = i + 2;
+                    }
+                }
+            }
+
+            if (i == sjPos && i < len - 1) {
+                sjPos = i + 1;
+                if (b < 0) {
+                    byte n = rawtext[i + 1];
+                    sjDbchars++;
+                    if ((((byte) 0x81 <= b && b <= (byte) 0x9F) || ((byte) 0xE0 <= b && b <= (byte) 0xEF))
+                            && (((byte) 0x40 <= n && n <= (byte) 0x7E) || ((byte) 0x80 <= n && n <= (byte) 0xFC))) {
+                        sjchars++;
+                        sjtotal += 500;
+                        // 与sjis_probability保持一致(列号被固定为0x20)
+                        int adjust = n + 256 < 0x9f ? 1 : 0;
+                        row = b + 256;
+                        if (row < 0xa0) {
+                            row = ((row - 0x70) << 1) - adjust;
+                        } else {
+                            row = ((row - 0xb0) << 1) - adjust;
+                        }
+                        row -= 0x20;
+                        column = 0x20;
+                        if (row < JPFreq.length && column < JPFreq[row].length && JPFreq[row][column] != 0) {
+                            sjfreq += JPFreq[row][column];
+                        }
+                        sjPos = i + 2;
+                    }
+                }
+            }
+
+            if (i == utfPos) {
+                utfPos = i + 1;
+                if (b >= 0) {
+                    utfAscii++;
+                } else if (-64 <= b && b <= -33 && i + 1 < len && -128 <= rawtext[i + 1] && rawtext[i + 1] <= -65) {
+                    utfGood += 2;
+                    utfPos = i + 2;
+                } else if (-32 <= b && b <= -17 && i + 2 < len && -128 <= rawtext[i + 1] && rawtext[i + 1] <= -65
+                        && -128 <= rawtext[i + 2] && rawtext[i + 2] <= -65) {
+                    utfGood += 3;
+                    utfPos = i + 3;
+                }
+            }
+        }
+
+        int[] scores = new int[TOTALTYPES];
+        scores[GB2312] = score(gbchars, dbchars, gbfreq, gbtotal);
+        scores[GBK] = score(gbchars + gbkExtChars, dbchars, gbfreq + gbkExtFreq, gbtotal + 500L * gbkExtChars) - 1;
+        scores[GB18030] = score(gbchars + gbkExtChars + gb4Chars, dbchars, gbfreq + gbkExtFreq, gbtotal + 500L * gbkExtChars) - 1;
+        scores[HZ] = tilde ? hz_probability(rawtext, len) : 0;
+        scores[BIG5] = score(big5chars, dbchars, big5freq, big5total);
+        scores[CNS11643] = score(cnschars, twDbchars, cnsfreq, cnstotal);
+        // 没有ESC时ISO-2022系列的得分是固定值
+        scores[ISO2022CN] = escape ? iso_2022_cn_probability(rawtext, len) : 50;
+        scores[UTF8] = utf8_score(utfGood, utfAscii, len);
+        scores[UNICODE] = 0;
+        scores[EUC_KR] = score(eucKrChars, dbchars, eucKrFreq, eucKrTotal);
+        scores[CP949] = score(cp949Chars, dbchars, cp949Freq, cp949Total);
+        scores[ISO2022KR] = escape ? iso_2022_kr_probability(rawtext, len) : 0;
+        scores[ASCII] = asciiPenalty >= 15 ? 0 : 75 - 5 * asciiPenalty;
+        scores[SJIS] = score(sjchars, sjDbchars, sjfreq, sjtotal) - 1;
+        scores[EUC_JP] = score(eucJpChars, dbchars, eucJpFreq, eucJpTotal);
+        scores[ISO2022JP] = escape ? iso_2022_jp_probability(rawtext, len) : 0;
+        return tabulate(scores);
+    }
+
+    private static int score(int chars, int dbchars, long freq, long totalfreq) {
+        float rangeval = 50 * ((float) chars / (float) dbchars);
+        float freqval = 50 * ((float) freq / (float) totalfreq);
+        return (int) (rangeval + freqval);
+    }
+
+    private static int utf8_score(int goodbytes, int asciibytes, int rawtextlen) {
+        if (asciibytes == rawtextlen) {
+            return 0;
+        }
+        int score = (int) (100 * ((float) goodbytes / (float) (rawtextlen - asciibytes)));
+        if (score > 98) {
+            return score;
+        } else if (score > 95 && goodbytes > 30) {
+            return score;
+        } else {
+            return 0;
+        }
+    }
+
+    /**
+     * 逐个编码完整扫描打分(原始算法)，用于调试和对照
+     *
+     * @param rawtext
+     * @param len
+     * @return
+     */
+    public int detectEncodingMultiPass(byte[] rawtext, int len) {
         int[] scores;
-        int index, maxscore = 0;
-        int encoding_guess = OTHER;
         scores = new int[TOTALTYPES];
         // Assign Scores
-        scores[GB2312] = gb2312_probability(rawtext);
-        scores[GBK] = gbk_probability(rawtext);
-        scores[GB18030] = gb18030_probability(rawtext);
-        scores[HZ] = hz_probability(rawtext);
-        scores[BIG5] = big5_probability(rawtext);
-        scores[CNS11643] = euc_tw_probability(rawtext);
-        scores[ISO2022CN] = iso_2022_cn_probability(rawtext);
-        scores[UTF8] = utf8_probability(rawtext);
-        scores[UNICODE] = utf16_probability(rawtext);
-        scores[EUC_KR] = euc_kr_probability(rawtext);
-        scores[CP949] = cp949_probability(rawtext);
+        scores[GB2312] = gb2312_probability(rawtext, len);
+        scores[GBK] = gbk_probability(rawtext, len);
+        scores[GB18030] = gb18030_probability(rawtext, len);
+        scores[HZ] = hz_probability(rawtext, len);
+        scores[BIG5] = big5_probability(rawtext, len);
+        scores[CNS11643] = euc_tw_probability(rawtext, len);
+        scores[ISO2022CN] = iso_2022_cn_probability(rawtext, len);
+        scores[UTF8] = utf8_probability(rawtext, len);
+        scores[UNICODE] = utf16_probability(rawtext, len);
+        scores[EUC_KR] = euc_kr_probability(rawtext, len);
+        scores[CP949] = cp949_probability(rawtext, len);
         scores[JOHAB] = 0;
-        scores[ISO2022KR] = iso_2022_kr_probability(rawtext);
-        scores[ASCII] = ascii_probability(rawtext);
-        scores[SJIS] = sjis_probability(rawtext);
-        scores[EUC_JP] = euc_jp_probability(rawtext);
-        scores[ISO2022JP] = iso_2022_jp_probability(rawtext);
+        scores[ISO2022KR] = iso_2022_kr_probability(rawtext, len);
+        scores[ASCII] = ascii_probability(rawtext, len);
+        scores[SJIS] = sjis_probability(rawtext, len);
+        scores[EUC_JP] = euc_jp_probability(rawtext, len);
+        scores[ISO2022JP] = iso_2022_jp_probability(rawtext, len);
         scores[UNICODET] = 0;
         scores[UNICODES] = 0;
         scores[ISO2022CN_GB] = 0;
         scores[ISO2022CN_CNS] = 0;
         scores[OTHER] = 0;
+        return tabulate(scores);
+    }
+
+    private int tabulate(int[] scores) {
+        int index, maxscore = 0;
+        int encoding_guess = OTHER;
         // Tabulate Scores
         for (index = 0; index < TOTALTYPES; index++) {
             if (debug)
@@ -221,14 +612,14 @@ class BytesEncodingDetect extends Encoding {
 	 * number from 0 to 100 representing probability text in array uses GB-2312
 	 * encoding
 	 */
-    int gb2312_probability(byte[] rawtext) {
+    int gb2312_probability(byte[] rawtext, int len) {
         int i, rawtextlen = 0;
         int dbchars = 1, gbchars = 1;
         long gbfreq = 0, totalfreq = 1;
         float rangeval = 0, freqval = 0;
         int row, column;
         // Stage 1: Check to see if characters fit into acceptable ranges
-        rawtextlen = rawtext.length;
+        rawtextlen = len;
         for (i = 0; i < rawtextlen - 1; i++) {
             // System.err.println(rawtext[i]);
             if (rawtext[i] >= 0) {
@@ -262,14 +653,14 @@ class BytesEncodingDetect extends Encoding {
 	 * number from 0 to 100 representing probability text in array uses GBK
 	 * encoding
 	 */
-    int gbk_probability(byte[] rawtext) {
+    int gbk_probability(byte[] rawtext, int len) {
         int i, rawtextlen = 0;
         int dbchars = 1, gbchars = 1;
         long gbfreq = 0, totalfreq = 1;
         float rangeval = 0, freqval = 0;
         int row, column;
         // Stage 1: Check to see if characters fit into acceptable ranges
-        rawtextlen = rawtext.length;
+        rawtextlen = len;
         for (i = 0; i < rawtextlen - 1; i++) {
             // System.err.println(rawtext[i]);
             if (rawtext[i] >= 0) {
@@ -323,14 +714,14 @@ class BytesEncodingDetect extends Encoding {
 	 * number from 0 to 100 representing probability text in array uses GBK
 	 * encoding
 	 */
-    int gb18030_probability(byte[] rawtext) {
+    int gb18030_probability(byte[] rawtext, int len) {
         int i, rawtextlen = 0;
         int dbchars = 1, gbchars = 1;
         long gbfreq = 0, totalfreq = 1;
         float rangeval = 0, freqval = 0;
         int row, column;
         // Stage 1: Check to see if characters fit into acceptable ranges
-        rawtextlen = rawtext.length;
+        rawtextlen = len;
         for (i = 0; i < rawtextlen - 1; i++) {
             // System.err.println(rawtext[i]);
             if (rawtext[i] >= 0) {
@@ -404,16 +795,16 @@ class BytesEncodingDetect extends Encoding {
 	 * Function: hz_probability Argument: byte array Returns : number from 0 to
 	 * 100 representing probability text in array uses HZ encoding
 	 */
-    int hz_probability(byte[] rawtext) {
+    int hz_probability(byte[] rawtext, int len) {
         int i, rawtextlen;
         int hzchars = 0, dbchars = 1;
         long hzfreq = 0, totalfreq = 1;
         float rangeval = 0, freqval = 0;
         int hzstart = 0, hzend = 0;
         int row, column;
-        rawtextlen = rawtext.length;
+        rawtextlen = len;
         for (i = 0; i < rawtextlen; i++) {
-            if (rawtext[i] == '~') {
+            if (rawtext[i] == '~' && i + 1 < rawtextlen) {
                 if (rawtext[i + 1] == '{') {
                     hzstart++;
                     i += 2;
@@ -476,14 +867,14 @@ class BytesEncodingDetect extends Encoding {
      * Function: big5_probability Argument: byte array Returns : number from 0
      * to 100 representing probability text in array uses Big5 encoding
      */
-    int big5_probability(byte[] rawtext) {
+    int big5_probability(byte[] rawtext, int len) {
         int i, rawtextlen = 0;
         int dbchars = 1, bfchars = 1;
         float rangeval = 0, freqval = 0;
         long bffreq = 0, totalfreq = 1;
         int row, column;
         // Check to see if characters fit into acceptable ranges
-        rawtextlen = rawtext.length;
+        rawtextlen = len;
         for (i = 0; i < rawtextlen - 1; i++) {
             if (rawtext[i] >= 0) {
                 // asciichars++;
@@ -519,14 +910,14 @@ class BytesEncodingDetect extends Encoding {
 	 * Returns : number from 0 to 100 representing probability text in array
 	 * uses Big5+ encoding
 	 */
-    int big5plus_probability(byte[] rawtext) {
+    int big5plus_probability(byte[] rawtext, int len) {
         int i, rawtextlen = 0;
         int dbchars = 1, bfchars = 1;
         long bffreq = 0, totalfreq = 1;
         float rangeval = 0, freqval = 0;
         int row, column;
         // Stage 1: Check to see if characters fit into acceptable ranges
-        rawtextlen = rawtext.length;
+        rawtextlen = len;
         for (i = 0; i < rawtextlen - 1; i++) {
             // System.err.println(rawtext[i]);
             if (rawtext[i] >= 128) {
@@ -585,7 +976,7 @@ class BytesEncodingDetect extends Encoding {
 	 * to 100 representing probability text in array uses EUC-TW (CNS 11643)
 	 * encoding
 	 */
-    int euc_tw_probability(byte[] rawtext) {
+    int euc_tw_probability(byte[] rawtext, int len) {
         int i, rawtextlen = 0;
         int dbchars = 1, cnschars = 1;
         long cnsfreq = 0, totalfreq = 1;
@@ -593,7 +984,7 @@ class BytesEncodingDetect extends Encoding {
         int row, column;
         // Check to see if characters fit into acceptable ranges
         // and have expected frequency of use
-        rawtextlen = rawtext.length;
+        rawtextlen = len;
         for (i = 0; i < rawtextlen - 1; i++) {
             if (rawtext[i] >= 0) { // in ASCII range
                 // asciichars++;
@@ -638,7 +1029,7 @@ class BytesEncodingDetect extends Encoding {
 	 * from 0 to 100 representing probability text in array uses ISO 2022-CN
 	 * encoding WORKS FOR BASIC CASES, BUT STILL NEEDS MORE WORK
 	 */
-    int iso_2022_cn_probability(byte[] rawtext) {
+    int iso_2022_cn_probability(byte[] rawtext, int len) {
         int i, rawtextlen = 0;
         int dbchars = 1, isochars = 1;
         long isofreq = 0, totalfreq = 1;
@@ -646,14 +1037,14 @@ class BytesEncodingDetect extends Encoding {
         int row, column;
         // Check to see if characters fit into acceptable ranges
         // and have expected frequency of use
-        rawtextlen = rawtext.length;
+        rawtextlen = len;
         for (i = 0; i < rawtextlen - 1; i++) {
             if (rawtext[i] == (byte) 0x1B && i + 3 < rawtextlen) { // Escape
                 // char ESC
                 if (rawtext[i + 1] == (byte) 0x24 && rawtext[i + 2] == 0x29
                         && rawtext[i + 3] == (byte) 0x41) { // GB Escape $ ) A
                     i += 4;
-                    while (rawtext[i] != (byte) 0x1B) {
+                    while (i < rawtextlen - 1 && rawtext[i] != (byte) 0x1B) {
                         dbchars++;
                         if ((0x21 <= rawtext[i] && rawtext[i] <= 0x77)
                                 && (0x21 <= rawtext[i + 1] && rawtext[i + 1] <= 0x77)) {
@@ -675,7 +1066,7 @@ class BytesEncodingDetect extends Encoding {
                         && rawtext[i + 3] == (byte) 0x47) {
                     // CNS Escape $ ) G
                     i += 4;
-                    while (rawtext[i] != (byte) 0x1B) {
+                    while (i < rawtextlen - 1 && rawtext[i] != (byte) 0x1B) {
                         dbchars++;
                         if ((byte) 0x21 <= rawtext[i]
                                 && rawtext[i] <= (byte) 0x7E
@@ -695,7 +1086,7 @@ class BytesEncodingDetect extends Encoding {
                         i++;
                     }
                 }
-                if (rawtext[i] == (byte) 0x1B && i + 2 < rawtextlen
+                if (i + 2 < rawtextlen && rawtext[i] == (byte) 0x1B
                         && rawtext[i + 1] == (byte) 0x28
                         && rawtext[i + 2] == (byte) 0x42) { // ASCII:
                     // ESC
@@ -718,13 +1109,13 @@ class BytesEncodingDetect extends Encoding {
 	 * to 100 representing probability text in array uses UTF-8 encoding of
 	 * Unicode
 	 */
-    int utf8_probability(byte[] rawtext) {
+    int utf8_probability(byte[] rawtext, int len) {
         int score = 0;
         int i, rawtextlen = 0;
         int goodbytes = 0, asciibytes = 0;
         // Maybe also use UTF8 Byte Order Mark: EF BB BF
         // Check to see if characters fit into acceptable ranges
-        rawtextlen = rawtext.length;
+        rawtextlen = len;
         for (i = 0; i < rawtextlen; i++) {
             if ((rawtext[i] & (byte) 0x7F) == rawtext[i]) { // One byte
                 asciibytes++;
@@ -768,19 +1159,19 @@ class BytesEncodingDetect extends Encoding {
 	 * to 100 representing probability text in array uses UTF-16 encoding of
 	 * Unicode, guess based on BOM // NOT VERY GENERAL, NEEDS MUCH MORE WORK
 	 */
-    int utf16_probability(byte[] rawtext) {
+    int utf16_probability(byte[] rawtext, int len) {
         // int score = 0;
         // int i, rawtextlen = 0;
         // int goodbytes = 0, asciibytes = 0;
-        if (rawtext.length > 1
-                && ((byte) 0xFE == rawtext[0] && (byte) 0xFF == rawtext[1]) || // Big-endian
-                ((byte) 0xFF == rawtext[0] && (byte) 0xFE == rawtext[1])) { // Little-endian
+        if (len > 1
+                && (((byte) 0xFE == rawtext[0] && (byte) 0xFF == rawtext[1]) || // Big-endian
+                ((byte) 0xFF == rawtext[0] && (byte) 0xFE == rawtext[1]))) { // Little-endian
             return 100;
         }
         return 0;
 		/*
 		 * // Check to see if characters fit into acceptable ranges rawtextlen =
-		 * rawtext.length; for (i = 0; i < rawtextlen; i++) { if ((rawtext[i] &
+		 * len; for (i = 0; i < rawtextlen; i++) { if ((rawtext[i] &
 		 * (byte)0x7F) == rawtext[i]) { // One byte goodbytes += 1;
 		 * asciibytes++; } else if ((rawtext[i] & (byte)0xDF) == rawtext[i]) { //
 		 * Two bytes if (i+1 < rawtextlen && (rawtext[i+1] & (byte)0xBF) ==
@@ -789,7 +1180,7 @@ class BytesEncodingDetect extends Encoding {
 		 * (rawtext[i+1] & (byte)0xBF) == rawtext[i+1] && (rawtext[i+2] &
 		 * (byte)0xBF) == rawtext[i+2]) { goodbytes += 3; i+=2; } } }
 		 *
-		 * score = (int)(100 * ((float)goodbytes/(float)rawtext.length)); // An
+		 * score = (int)(100 * ((float)goodbytes/(float)len)); // An
 		 * all ASCII file is also a good UTF8 file, but I'd rather it // get
 		 * identified as ASCII. Can delete following 3 lines otherwise if
 		 * (goodbytes == asciibytes) { score = 0; } // If not above 90, reduce
@@ -804,10 +1195,10 @@ class BytesEncodingDetect extends Encoding {
 	 * Sees if array has any characters not in ASCII range, if so, score is
 	 * reduced
 	 */
-    int ascii_probability(byte[] rawtext) {
+    int ascii_probability(byte[] rawtext, int len) {
         int score = 75;
         int i, rawtextlen;
-        rawtextlen = rawtext.length;
+        rawtextlen = len;
         for (i = 0; i < rawtextlen; i++) {
             if (rawtext[i] < 0) {
                 score = score - 5;
@@ -826,14 +1217,14 @@ class BytesEncodingDetect extends Encoding {
 	 * number from 0 to 100 representing probability text in array uses EUC-KR
 	 * encoding
 	 */
-    int euc_kr_probability(byte[] rawtext) {
+    int euc_kr_probability(byte[] rawtext, int len) {
         int i, rawtextlen = 0;
         int dbchars = 1, krchars = 1;
         long krfreq = 0, totalfreq = 1;
         float rangeval = 0, freqval = 0;
         int row, column;
         // Stage 1: Check to see if characters fit into acceptable ranges
-        rawtextlen = rawtext.length;
+        rawtextlen = len;
         for (i = 0; i < rawtextlen - 1; i++) {
             // System.err.println(rawtext[i]);
             if (rawtext[i] >= 0) {
@@ -866,14 +1257,14 @@ class BytesEncodingDetect extends Encoding {
 	 * number from 0 to 100 representing probability text in array uses Cp949
 	 * encoding
 	 */
-    int cp949_probability(byte[] rawtext) {
+    int cp949_probability(byte[] rawtext, int len) {
         int i, rawtextlen = 0;
         int dbchars = 1, krchars = 1;
         long krfreq = 0, totalfreq = 1;
         float rangeval = 0, freqval = 0;
         int row, column;
         // Stage 1: Check to see if characters fit into acceptable ranges
-        rawtextlen = rawtext.length;
+        rawtextlen = len;
         for (i = 0; i < rawtextlen - 1; i++) {
             // System.err.println(rawtext[i]);
             if (rawtext[i] >= 0) {
@@ -907,10 +1298,10 @@ class BytesEncodingDetect extends Encoding {
         return (int) (rangeval + freqval);
     }
 
-    int iso_2022_kr_probability(byte[] rawtext) {
+    int iso_2022_kr_probability(byte[] rawtext, int len) {
         int i;
-        for (i = 0; i < rawtext.length; i++) {
-            if (i + 3 < rawtext.length && rawtext[i] == 0x1b
+        for (i = 0; i < len; i++) {
+            if (i + 3 < len && rawtext[i] == 0x1b
                     && (char) rawtext[i + 1] == '$'
                     && (char) rawtext[i + 2] == ')'
                     && (char) rawtext[i + 3] == 'C') {
@@ -925,14 +1316,14 @@ class BytesEncodingDetect extends Encoding {
 	 * number from 0 to 100 representing probability text in array uses EUC-JP
 	 * encoding
 	 */
-    int euc_jp_probability(byte[] rawtext) {
+    int euc_jp_probability(byte[] rawtext, int len) {
         int i, rawtextlen = 0;
         int dbchars = 1, jpchars = 1;
         long jpfreq = 0, totalfreq = 1;
         float rangeval = 0, freqval = 0;
         int row, column;
         // Stage 1: Check to see if characters fit into acceptable ranges
-        rawtextlen = rawtext.length;
+        rawtextlen = len;
         for (i = 0; i < rawtextlen - 1; i++) {
             // System.err.println(rawtext[i]);
             if (rawtext[i] >= 0) {
@@ -960,10 +1351,10 @@ class BytesEncodingDetect extends Encoding {
         return (int) (rangeval + freqval);
     }
 
-    int iso_2022_jp_probability(byte[] rawtext) {
+    int iso_2022_jp_probability(byte[] rawtext, int len) {
         int i;
-        for (i = 0; i < rawtext.length; i++) {
-            if (i + 2 < rawtext.length && rawtext[i] == 0x1b
+        for (i = 0; i < len; i++) {
+            if (i + 2 < len && rawtext[i] == 0x1b
                     && (char) rawtext[i + 1] == '$'
                     && (char) rawtext[i + 2] == 'B') {
                 return 100;
@@ -977,21 +1368,21 @@ class BytesEncodingDetect extends Encoding {
 	 * number from 0 to 100 representing probability text in array uses
 	 * Shift-JIS encoding
 	 */
-    int sjis_probability(byte[] rawtext) {
+    int sjis_probability(byte[] rawtext, int len) {
         int i, rawtextlen = 0;
         int dbchars = 1, jpchars = 1;
         long jpfreq = 0, totalfreq = 1;
         float rangeval = 0, freqval = 0;
         int row, column, adjust;
         // Stage 1: Check to see if characters fit into acceptable ranges
-        rawtextlen = rawtext.length;
+        rawtextlen = len;
         for (i = 0; i < rawtextlen - 1; i++) {
             // System.err.println(rawtext[i]);
             if (rawtext[i] >= 0) {
                 // asciichars++;
             } else {
                 dbchars++;
-                if (i + 1 < rawtext.length
+                if (i + 1 < len
                         && (((byte) 0x81 <= rawtext[i] && rawtext[i] <= (byte) 0x9F) || ((byte) 0xE0 <= rawtext[i] && rawtext[i] <= (byte) 0xEF))
                         && (((byte) 0x40 <= rawtext[i + 1] && rawtext[i + 1] <= (byte) 0x7E) || ((byte) 0x80 <= rawtext[i + 1] && rawtext[i + 1] <= (byte) 0xFC))) {
                     jpchars++;
@@ -1036,7 +1427,7 @@ class BytesEncodingDetect extends Encoding {
         return (int) (rangeval + freqval) - 1;
     }
 
-    void initialize_frequencies() {
+    static void initialize_frequencies() {
         int i, j;
         for (i = 0; i < 94; i++) {
             for (j = 0; j < 94; j++) {
@@ -4774,8 +5165,8 @@ class Encoding {
     // Names of charsets as used in charset parameter of HTML Meta tag
     public static String[] htmlname;
 
-    // Constructor
-    public Encoding() {
+    // Names are shared by all instances, initialize once
+    static {
         javaname = new String[TOTALTYPES];
         nicename = new String[TOTALTYPES];
         htmlname = new String[TOTALTYPES];
@@ -0,0 +1,452 @@
+package com.hz.tgb.filter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 多关键词匹配器：Aho-Corasick自动机，转移表用双数组(base/check)存储。<br>
+ * 构建后不可变，可被任意多线程并发使用；一次线性扫描即可找出文本中的全部关键词，
+ * 与关键词数量无关。关键词按字面匹配，不存在正则转义问题。
+ *
+ * @author hezhao
+ * @Time 2026年10月19日 下午8:06:51
+ */
+public final class KeyWordMatcher {
+
+    private static final int ROOT = 0;
+
+    private static final int FREE = -1;
+
+    /** 字符 -> 字母表编码(1~n)，0表示字典中没有该字符 */
+    private final char[] codes;
+
+    private final int[] base;
+
+    private final int[] check;
+
+    private final int[] fail;
+
+    /** 以该状态结尾的最长关键词长度(含失败链上的)，0表示不是任何关键词的结尾 */
+    private final int[] outLength;
+
+    /** 失败链上下一个关键词结尾状态，ROOT表示没有 */
+    private final int[] outputLink;
+
+    /** 该状态本身是关键词结尾时为关键词长度，否则为0 */
+    private final int[] terminalLength;
+
+    private final List<String> keyWords;
+
+    /**
+     * @param keyWords 关键词，空串和重复项会被忽略
+     */
+    public KeyWordMatcher(Collection<String> keyWords) {
+        Set<String> distinct = new LinkedHashSet<String>();
+        for (String keyWord : keyWords) {
+            if (keyWord != null && keyWord.length() > 0) {
+                distinct.add(keyWord);
+            }
+        }
+        this.keyWords = Collections.unmodifiableList(new ArrayList<String>(distinct));
+
+        // 字母表只包含字典中出现过的字符，编码按出现频率从高到低分配，使常用字符的槽位更集中
+        final int[] counts = new int[65536];
+        for (String keyWord : distinct) {
+            for (int i = 0; i < keyWord.length(); i++) {
+                counts[keyWord.charAt(i)]++;
+            }
+        }
+        List<Character> alphabet = new ArrayList<Character>();
+        for (int c = 0; c < counts.length; c++) {
+            if (counts[c] > 0) {
+                alphabet.add((char) c);
+            }
+        }
+        Collections.sort(alphabet, new Comparator<Character>() {
+            @Override
+            public int compare(Character a, Character b) {
+                return counts[b] - counts[a];
+            }
+        });
+        this.codes = new char[65536];
+        for (int i = 0; i < alphabet.size(); i++) {
+            codes[alphabet.get(i)] = (char) (i + 1);
+        }
+
+        Node root = new Node(0);
+        int nodeCount = 1;
+        for (String keyWord : distinct) {
+            Node node = root;
+            for (int i = 0; i < keyWord.length(); i++) {
+                int code = codes[keyWord.charAt(i)];
+                Node child = node.child(code);
+                if (child == null) {
+                    child = node.addChild(code, new Node(i + 1));
+                    nodeCount++;
+                }
+                node = child;
+            }
+            node.terminal = true;
+        }
+
+        DoubleArrayBuilder builder = new DoubleArrayBuilder(nodeCount, alphabet.size());
+        List<Node> order = builder.build(root);
+        this.base = Arrays.copyOf(builder.base, builder.size);
+        this.check = Arrays.copyOf(builder.check, builder.size);
+        this.fail = new int[builder.size];
+        this.outLength = new int[builder.size];
+        this.outputLink = new int[builder.size];
+        this.terminalLength = new int[builder.size];
+
+        // 按BFS顺序计算失败指针，父节点总是先于子节点处理
+        for (Node node : order) {
+            for (int i = 0; i < node.childCount; i++) {
+                Node child = node.children[i];
+                int code = node.childCodes[i];
+                int target = ROOT;
+                if (node != root) {
+                    int state = fail[node.state];
+                    while (true) {
+                        int next = transition(state, code);
+                        if (next >= 0) {
+                            target = next;
+                            break;
+                        }
+                        if (state == ROOT) {
+                            break;
+                        }
+                        state = fail[state];
+                    }
+                }
+                fail[child.state] = target;
+                outLength[child.state] = child.terminal ? child.depth : outLength[target];
+                terminalLength[child.state] = child.terminal ? child.depth : 0;
+                outputLink[child.state] = terminalLength[target] > 0 ? target : outputLink[target];
+            }
+        }
+    }
+
+    /**
+     * 关键词列表(去重后，只读)
+     *
+     * @return
+     */
+    public List<String> getKeyWords() {
+        return keyWords;
+    }
+
+    public int size() {
+        return keyWords.size();
+    }
+
+    /**
+     * 文本中是否包含任意关键词
+     *
+     * @param text
+     * @return
+     */
+    public boolean containsAny(String text) {
+        if (text == null) {
+            return false;
+        }
+        int state = ROOT;
+        for (int i = 0; i < text.length(); i++) {
+            state = next(state, text.charAt(i));
+            if (outLength[state] > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 把文本中的关键词替换为mask，相互重叠的关键词合并为一处替换
+     *
+     * @param text
+     * @param mask 替换内容
+     * @return 没有命中时返回原字符串
+     */
+    public String replace(String text, String mask) {
+        if (text == null || keyWords.isEmpty()) {
+            return text;
+        }
+        // 命中区间[start, end)，按结束位置递增产生，与栈顶重叠时合并
+        int[] starts = null;
+        int[] ends = null;
+        int top = 0;
+        int state = ROOT;
+        for (int i = 0; i < text.length(); i++) {
+            state = next(state, text.charAt(i));
+            int length = outLength[state];
+            if (length == 0) {
+                continue;
+            }
+            int start = i + 1 - length;
+            if (starts == null) {
+                starts = new int[8];
+                ends = new int[8];
+            }
+            while (top > 0 && ends[top - 1] > start) {
+                top--;
+                start = Math.min(start, starts[top]);
+            }
+            if (top == starts.length) {
+                starts = Arrays.copyOf(starts, top << 1);
+                ends = Arrays.copyOf(ends, top << 1);
+            }
+            starts[top] = start;
+            ends[top] = i + 1;
+            top++;
+        }
+        if (top == 0) {
+            return text;
+        }
+        StringBuilder builder = new StringBuilder(text.length());
+        int last = 0;
+        for (int i = 0; i < top; i++) {
+            builder.append(text, last, starts[i]).append(mask);
+            last = ends[i];
+        }
+        return builder.append(text, last, text.length()).toString();
+    }
+
+    /**
+     * 找出文本中出现的全部关键词(包括相互重叠的)，按结束位置排序
+     *
+     * @param text
+     * @return
+     */
+    public List<String> findAll(String text) {
+        List<String> result = new ArrayList<String>();
+        if (text == null) {
+            return result;
+        }
+        int state = ROOT;
+        for (int i = 0; i < text.length(); i++) {
+            state = next(state, text.charAt(i));
+            // 沿输出链列出以当前位置结尾的所有关键词
+            int s = terminalLength[state] > 0 ? state : outputLink[state];
+            while (s != ROOT) {
+                result.add(text.substring(i + 1 - terminalLength[s], i + 1));
+                s = outputLink[s];
+            }
+        }
+        return result;
+    }
+
+    private int next(int state, char c) {
+        int code = codes[c];
+        if (code == 0) {
+            return ROOT;
+        }
+        while (true) {
+            int next = transition(state, code);
+            if (next >= 0) {
+                return next;
+            }
+            if (state == ROOT) {
+                return ROOT;
+            }
+            state = fail[state];
+        }
+    }
+
+    private int transition(int state, int code) {
+        int next = base[state] + code;
+        return next < check.length && check[next] == state ? next : -1;
+    }
+
+    /**
+     * 构建期的临时Trie节点
+     */
+    private static final class Node {
+
+        final int depth;
+
+        boolean terminal;
+
+        int state;
+
+        int[] childCodes = new int[0];
+
+        Node[] children = new Node[0];
+
+        int childCount;
+
+        Node(int depth) {
+            this.depth = depth;
+        }
+
+        Node child(int code) {
+            for (int i = 0; i < childCount; i++) {
+                if (childCodes[i] == code) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        Node addChild(int code, Node child) {
+            if (childCount == children.length) {
+                int capacity = Math.max(2, childCount << 1);
+                childCodes = Arrays.copyOf(childCodes, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            childCodes[childCount] = code;
+            children[childCount] = child;
+            childCount++;
+            return child;
+        }
+    }
+
+    /**
+     * 按BFS顺序为每个节点寻找base，使其全部子节点的槽位(base + code)都空闲。<br>
+     * 空闲槽位串成双向链表，查找时跳过已占用的槽位，大词库下构建仍接近线性。
+     */
+    private static final class DoubleArrayBuilder {
+
+        int[] base;
+
+        int[] check;
+
+        int size = 1;
+
+        private int[] prevFree;
+
+        private int[] nextFree;
+
+        private int head = -1;
+
+        private int tail = -1;
+
+        DoubleArrayBuilder(int nodeCount, int alphabetSize) {
+            int capacity = Math.max(nodeCount * 2, alphabetSize + 2);
+            base = new int[capacity];
+            check = new int[capacity];
+            prevFree = new int[capacity];
+            nextFree = new int[capacity];
+            Arrays.fill(check, FREE);
+            check[ROOT] = ROOT;
+            linkFree(1, capacity);
+        }
+
+        List<Node> build(Node root) {
+            List<Node> order = new ArrayList<Node>();
+            ArrayDeque<Node> queue = new ArrayDeque<Node>();
+            root.state = ROOT;
+            queue.add(root);
+            while (!queue.isEmpty()) {
+                Node node = queue.poll();
+                order.add(node);
+                if (node.childCount == 0) {
+                    continue;
+                }
+                sortChildren(node);
+                int b = findBase(node.childCodes, node.childCount);
+                base[node.state] = b;
+                for (int i = 0; i < node.childCount; i++) {
+                    int slot = b + node.childCodes[i];
+                    occupy(slot);
+                    check[slot] = node.state;
+                    node.children[i].state = slot;
+                    size = Math.max(size, slot + 1);
+                    queue.add(node.children[i]);
+                }
+            }
+            return order;
+        }
+
+        private int findBase(int[] childCodes, int count) {
+            int minCode = childCodes[0];
+            int maxCode = childCodes[count - 1];
+            int free = head;
+            while (true) {
+                if (free < 0) {
+                    free = check.length;
+                    grow(check.length + (check.length >> 1));
+                }
+                int b = free - minCode;
+                if (b < 1) {
+                    free = nextFree[free];
+                    continue;
+                }
+                if (b + maxCode >= check.length) {
+                    grow(b + maxCode + 1);
+                }
+                boolean fit = true;
+                for (int i = 1; i < count; i++) {
+                    if (check[b + childCodes[i]] != FREE) {
+                        fit = false;
+                        break;
+                    }
+                }
+                if (fit) {
+                    return b;
+                }
+                free = nextFree[free];
+            }
+        }
+
+        private void occupy(int slot) {
+            int prev = prevFree[slot];
+            int next = nextFree[slot];
+            if (prev >= 0) {
+                nextFree[prev] = next;
+            } else {
+                head = next;
+            }
+            if (next >= 0) {
+                prevFree[next] = prev;
+            } else {
+                tail = prev;
+            }
+        }
+
+        private void linkFree(int from, int to) {
+            for (int i = from; i < to; i++) {
+                prevFree[i] = tail;
+                nextFree[i] = -1;
+                if (tail >= 0) {
+                    nextFree[tail] = i;
+                } else {
+                    head = i;
+                }
+                tail = i;
+            }
+        }
+
+        private void grow(int capacity) {
+            int oldCapacity = check.length;
+            int newCapacity = Math.max(capacity, oldCapacity + (oldCapacity >> 1));
+            base = Arrays.copyOf(base, newCapacity);
+            check = Arrays.copyOf(check, newCapacity);
+            prevFree = Arrays.copyOf(prevFree, newCapacity);
+            nextFree = Arrays.copyOf(nextFree, newCapacity);
+            Arrays.fill(check, oldCapacity, newCapacity, FREE);
+            linkFree(oldCapacity, newCapacity);
+        }
+
+        private static void sortChildren(Node node) {
+            // 子节点数通常很少，插入排序
+            for (int i = 1; i < node.childCount; i++) {
+                int code = node.childCodes[i];
+                Node child = node.children[i];
+                int j = i - 1;
+                while (j >= 0 && node.childCodes[j] > code) {
+                    node.childCodes[j + 1] = node.childCodes[j];
+                    node.children[j + 1] = node.children[j];
+                    j--;
+                }
+                node.childCodes[j + 1] = code;
+                node.children[j + 1] = child;
+            }
+        }
+    }
+}
@@ -2,82 +2,114 @@ package com.hz.tgb.filter;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 /**
- * 关键词过滤，读取文件中配置的关键词
+ * 关键词过滤，读取文件中配置的关键词<br>
+ * 使用 {@link KeyWordMatcher}(Aho-Corasick自动机)一次扫描替换全部关键词，耗时与关键词数量无关；
+ * 关键词按字面匹配。词库可通过 {@link #reload()} 热更新：新自动机构建完成后整体替换，
+ * 过滤中的线程不会被阻塞，始终使用一个完整的词库。
  * @author hezhao
  *
  */
 public class KeyWordsFilter {
-	
+
 	public static final String FILEPATH = "keyWord.txt";
-	
-	private static KeyWordsFilter keyWordsFilter = null;
-	
-	private static List<String> keyWord = null;
-	
+
+	/** 关键词替换内容 */
+	public static final String MASK = "**";
+
+	private static final KeyWordsFilter keyWordsFilter = new KeyWordsFilter();
+
+	private volatile KeyWordMatcher matcher;
+
 	public static KeyWordsFilter getInstance() {
-	    if(keyWordsFilter == null) {
-	    	keyWordsFilter = new KeyWordsFilter();
-	    }
 	    return keyWordsFilter;
-	} 
-	
+	}
+
 	private KeyWordsFilter(){
+		List<String> keyWord = new ArrayList<String>();
 		try {
 			keyWord = readKeyWord();
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
+		matcher = new KeyWordMatcher(keyWord);
 	}
-	
+
 	public static List<String> readKeyWord() throws IOException{
 		List<String> keyWord = new ArrayList<String>();
+		InputStream in = Thread.currentThread().getContextClassLoader().getResourceAsStream(FILEPATH);
+		if (in == null) {
+			throw new IOException(FILEPATH + " not found in classpath");
+		}
 		String line = "";
-		BufferedReader bufferin = null;
-		bufferin = new BufferedReader(new InputStreamReader(Thread.currentThread().getContextClassLoader().getResourceAsStream(FILEPATH),"UTF-8"));
-		if (bufferin != null){
+		BufferedReader bufferin = new BufferedReader(new InputStreamReader(in, "UTF-8"));
+		try {
 			while ((line = bufferin.readLine()) != null){
-				if(null != line && line.trim().length() > 0){
+				if (keyWord.isEmpty() && line.length() > 0 && line.charAt(0) == '\uFEFF') {
+					// 去掉UTF-8 BOM
+					line = line.substring(1);
+				}
+				if(line.trim().length() > 0){
 					keyWord.add(line);
 				}
 			}
+		} finally {
+			bufferin.close();
 		}
 		return keyWord;
 	}
-	
+
+	/**
+	 * 重新读取 {@link #FILEPATH} 并替换词库，读取失败时保留原词库
+	 *
+	 * @throws IOException
+	 */
+	public void reload() throws IOException {
+		reload(readKeyWord());
+	}
+
+	/**
+	 * 用指定的关键词替换词库
+	 *
+	 * @param keyWords
+	 */
+	public void reload(Collection<String> keyWords) {
+		matcher = new KeyWordMatcher(keyWords);
+	}
+
 	public List<String> getKeyWordList(){
-		return keyWord;
+		return matcher.getKeyWords();
 	}
-	
+
+	/**
+	 * 文本中是否包含关键词
+	 *
+	 * @param src
+	 * @return
+	 */
+	public boolean containsKeyWord(String src) {
+		return matcher.containsAny(src);
+	}
+
+	/**
+	 * 将关键词替换为 {@link #MASK}，相互重叠的关键词合并为一处
+	 *
+	 * @param src
+	 * @return
+	 */
 	public String filterKeyWord(String src){
-		List<String> keyWord = KeyWordsFilter.getInstance().getKeyWordList();
-		
-		if(src != null)
-		{
-			for(String str : keyWord){
-				if(src.indexOf(str) > -1){
-					src = src.replaceAll(str, "**");
-				}
-			}
-		}
-		
-		return src;
+		return matcher.replace(src, MASK);
 	}
-	
+
 	public static void main(String[] args) {
 		System.out.println(KeyWordsFilter.getInstance().getKeyWordList().size());
-		List<String> test = KeyWordsFilter.getInstance().getKeyWordList();
 		String s = "测试关键词替换是否成功替换av和白粉and法轮功习x近x平能不能替换呢？";
-		System.out.println(KeyWordsFilter.getInstance().filterKeyWord(s));
-		for(String str : test){
-			if(s.indexOf(str) > -1){
-				s = s.replaceAll(str, "**");
-			}
-		}
-		System.out.println("替换后的s:"+s);
+		System.out.println("替换后的s:" + KeyWordsFilter.getInstance().filterKeyWord(s));
 	}
 }
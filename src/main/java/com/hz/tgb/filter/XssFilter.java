@@ -5,21 +5,32 @@ import javax.servlet.http.HttpServletRequest;
 import java.io.IOException;
 
 /**
- * @author hezhao Xss过滤器
+ * @author hezhao Xss过滤器<br>
+ * 可通过init-param "policy" 指定 {@link XssPolicy} 实现类(需有无参构造)，默认 {@link XssSanitizer#DEFAULT}
  */
 public class XssFilter implements Filter {
 
     FilterConfig filterConfig = null;
 
+    private XssPolicy policy = XssSanitizer.DEFAULT;
+
     @Override
     public void init(FilterConfig filterConfig) throws ServletException {
         this.filterConfig = filterConfig;
+        String policyClass = filterConfig.getInitParameter("policy");
+        if (policyClass != null && policyClass.trim().length() > 0) {
+            try {
+                policy = (XssPolicy) Class.forName(policyClass.trim()).newInstance();
+            } catch (Exception e) {
+                throw new ServletException("无法创建XssPolicy: " + policyClass, e);
+            }
+        }
     }
 
     @Override
     public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
 
-        chain.doFilter(new XssHttpServletRequestWrapper((HttpServletRequest) request), response);
+        chain.doFilter(new XssHttpServletRequestWrapper((HttpServletRequest) request, policy), response);
     }
 
     @Override
@@ -2,30 +2,59 @@ package com.hz.tgb.filter;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletRequestWrapper;
-import java.util.regex.Pattern;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
 
 /**
- * 防Xss攻击,对请求数据进行转义
- * 
+ * 防Xss攻击,对请求数据进行转义<br>
+ * 清洗结果在本次请求内缓存，重复获取同一参数/请求头不会重复清洗。缓存同时记录清洗前的原值，
+ * 每次先取被包装请求的当前值比较，forward/include合并了新的查询参数时会重新清洗，不会返回旧值。
+ *
  * @author hezhao
  */
 public class XssHttpServletRequestWrapper extends HttpServletRequestWrapper {
 
+	private final XssPolicy policy;
+
+	/** 请求通常只在一个线程内处理，缓存不做同步 */
+	private Map<String, Cleaned<String>> parameterCache;
+
+	private Map<String, Cleaned<String[]>> parameterValuesCache;
+
+	/** 请求头名不区分大小写 */
+	private Map<String, Cleaned<String>> headerCache;
+
 	public XssHttpServletRequestWrapper(HttpServletRequest request) {
+		this(request, XssSanitizer.DEFAULT);
+	}
+
+	public XssHttpServletRequestWrapper(HttpServletRequest request, XssPolicy policy) {
 		super(request);
+		this.policy = policy;
 	}
 
 	public String[] getParameterValues(String parameter) {
 		String[] values = super.getParameterValues(parameter);
-		if (values==null) {
+		if (values == null) {
 			return null;
 		}
-		int count = values.length;
-		String[] encodedValues = new String[count];
-		for (int i = 0; i < count; i++) {
-			encodedValues[i] = cleanXSS(values[i]);
+		if (parameterValuesCache == null) {
+			parameterValuesCache = new HashMap<String, Cleaned<String[]>>();
 		}
-		return encodedValues;
+		Cleaned<String[]> cleaned = parameterValuesCache.get(parameter);
+		if (cleaned == null || !Arrays.equals(cleaned.raw, values)) {
+			int count = values.length;
+			String[] encodedValues = new String[count];
+			for (int i = 0; i < count; i++) {
+				encodedValues[i] = cleanXSS(values[i]);
+			}
+			cleaned = new Cleaned<String[]>(values.clone(), encodedValues);
+			parameterValuesCache.put(parameter, cleaned);
+		}
+		// 调用方可能修改数组，每次返回副本
+		return cleaned.value.clone();
 	}
 
 	public String getParameter(String parameter) {
@@ -33,14 +62,30 @@ public class XssHttpServletRequestWrapper extends HttpServletRequestWrapper {
 		if (value == null) {
 			return null;
 		}
-		return cleanXSS(value);
+		if (parameterCache == null) {
+			parameterCache = new HashMap<String, Cleaned<String>>();
+		}
+		return cleaned(parameterCache, parameter, value);
 	}
 
 	public String getHeader(String name) {
 		String value = super.getHeader(name);
-		if (value == null)
+		if (value == null) {
 			return null;
-		return cleanXSS(value);
+		}
+		if (headerCache == null) {
+			headerCache = new TreeMap<String, Cleaned<String>>(String.CASE_INSENSITIVE_ORDER);
+		}
+		return cleaned(headerCache, name, value);
+	}
+
+	private String cleaned(Map<String, Cleaned<String>> cache, String name, String raw) {
+		Cleaned<String> cleaned = cache.get(name);
+		if (cleaned == null || !raw.equals(cleaned.raw)) {
+			cleaned = new Cleaned<String>(raw, cleanXSS(raw));
+			cache.put(name, cleaned);
+		}
+		return cleaned.value;
 	}
 
 	/**
@@ -50,12 +95,21 @@ public class XssHttpServletRequestWrapper extends HttpServletRequestWrapper {
 	 * @return String
 	 */
 	private String cleanXSS(String value) {
-		value = value.replaceAll("<", "& lt;").replaceAll(">", "& gt;");
-		value = value.replaceAll("\\(", "& #40;").replaceAll("\\)", "& #41;");
-		value = value.replaceAll("'", "& #39;");
-		value = value.replaceAll("eval\\((.*)\\)", "");
-		value = value.replaceAll("[\\\"\\\'][\\s]*javascript:(.*)[\\\"\\\']", "\"\"");
-		value = value.replaceAll("script", "");
-		return value;
+		return policy.clean(value);
+	}
+
+	/**
+	 * 清洗前后的值
+	 */
+	private static final class Cleaned<T> {
+
+		final T raw;
+
+		final T value;
+
+		Cleaned(T raw, T value) {
+			this.raw = raw;
+			this.value = value;
+		}
 	}
 }
@@ -0,0 +1,18 @@
+package com.hz.tgb.filter;
+
+/**
+ * Xss清洗策略，实现必须线程安全
+ *
+ * @author hezhao
+ * @Time 2026年10月19日 下午9:20:11
+ */
+public interface XssPolicy {
+
+    /**
+     * 清洗请求数据
+     *
+     * @param value 非null
+     * @return 不需要清洗时应返回value本身
+     */
+    String clean(String value);
+}
@@ -0,0 +1,593 @@
+package com.hz.tgb.http;
+
+import com.hz.tgb.http.util.async.HttpAsyncRuntime;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.utils.CloneUtils;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.util.EntityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiConsumer;
+
+/**
+ * 批量并发执行http请求<br>
+ * 代替循环调用 {@link com.hz.tgb.http.util.HttpClientUtil#doGet} 逐个串行请求多个后端：一批请求在共享的
+ * {@link HttpAsyncRuntime} 上并发执行，同时进行的请求数不超过 {@link Builder#maxConcurrency(int)}，不占用调用线程。<br>
+ * 整批可以设置截止时间，到期未完成的请求被取消并记为 {@link Status#TIMEOUT}；
+ * 可以开启对冲请求：一个请求超过 {@link Builder#hedge(long, int)} 指定的时间还没有响应(或已经失败)时再发一份，
+ * 先返回的结果生效，其余的被取消，用来削减长尾延迟。默认只对幂等的方法(GET、HEAD、OPTIONS、PUT、DELETE、TRACE)对冲。<br>
+ * 每个请求的结果、状态、耗时和尝试次数按提交顺序放在同一个future里返回，单个请求失败不影响其他请求。
+ *
+ * <pre>
+ * HttpBatchExecutor executor = HttpBatchExecutor.custom().maxConcurrency(16).deadline(2000).hedge(200, 1).build();
+ * List&lt;HttpBatchExecutor.Result&gt; results = executor.execute(requests).get();
+ * </pre>
+ *
+ * @author hezhao
+ * @Time 2026年10月24日 上午10:05:12
+ */
+public final class HttpBatchExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(HttpBatchExecutor.class);
+
+    private final HttpAsyncRuntime runtime;
+
+    private final int maxConcurrency;
+
+    private final long deadline;
+
+    private final long hedgeDelay;
+
+    private final int maxHedges;
+
+    private final boolean hedgeNonIdempotent;
+
+    private HttpBatchExecutor(Builder builder) {
+        this.runtime = builder.runtime;
+        this.maxConcurrency = builder.maxConcurrency;
+        this.deadline = builder.deadline;
+        this.hedgeDelay = builder.hedgeDelay;
+        this.maxHedges = builder.maxHedges;
+        this.hedgeNonIdempotent = builder.hedgeNonIdempotent;
+    }
+
+    public static Builder custom() {
+        return new Builder();
+    }
+
+    /**
+     * 并发执行一批请求
+     *
+     * @param requests 请求，对冲时复制请求对象，请求体需要可以重复读取(如StringEntity、ByteArrayEntity)
+     * @return 按提交顺序排列的结果，所有请求结束(或截止时间到)后完成；取消future会取消进行中的请求
+     */
+    public CompletableFuture<List<Result>> execute(List<? extends HttpUriRequest> requests) {
+        if (requests.isEmpty()) {
+            return CompletableFuture.completedFuture(Collections.<Result> emptyList());
+        }
+        return new Batch(requests).start();
+    }
+
+    private HttpAsyncRuntime runtime() {
+        return runtime != null ? runtime : HttpAsyncRuntime.getDefault();
+    }
+
+    /**
+     * 一批请求的执行状态
+     */
+    private final class Batch {
+
+        private final List<? extends HttpUriRequest> requests;
+
+        private final HttpAsyncRuntime runtime = runtime();
+
+        private final Result[] results;
+
+        private final AtomicReferenceArray<Call> calls;
+
+        /** 下一个要启动的请求 */
+        private final AtomicInteger next = new AtomicInteger();
+
+        /** 还没有结果的请求数 */
+        private final AtomicInteger remaining;
+
+        private final CompletableFuture<List<Result>> future = new CompletableFuture<List<Result>>();
+
+        private volatile boolean expired;
+
+        private volatile ScheduledFuture<?> deadlineTask;
+
+        Batch(List<? extends HttpUriRequest> requests) {
+            this.requests = requests;
+            this.results = new Result[requests.size()];
+            this.calls = new AtomicReferenceArray<Call>(requests.size());
+            this.remaining = new AtomicInteger(requests.size());
+        }
+
+        CompletableFuture<List<Result>> start() {
+            if (deadline > 0) {
+                deadlineTask = Timer.INSTANCE.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        expire(Status.TIMEOUT, null);
+                    }
+                }, deadline, TimeUnit.MILLISECONDS);
+            }
+            future.whenComplete(new BiConsumer<List<Result>, Throwable>() {
+                @Override
+                public void accept(List<Result> value, Throwable e) {
+                    if (future.isCancelled()) {
+                        expire(Status.CANCELLED, new CancellationException("batch cancelled"));
+                    }
+                }
+            });
+            int slots = Math.min(maxConcurrency, results.length);
+            for (int i = 0; i < slots; i++) {
+                startNext();
+            }
+            return future;
+        }
+
+        /**
+         * 占用一个并发名额启动下一个请求，没有剩余请求时不启动
+         */
+        void startNext() {
+            int index = next.getAndIncrement();
+            if (index >= results.length) {
+                return;
+            }
+            Call call = new Call(this, index, requests.get(index));
+            calls.set(index, call);
+            // 与expire交叉检查，截止时间到了之后不再启动
+            if (expired) {
+                call.finish(Status.TIMEOUT, null, null, 0, null);
+                return;
+            }
+            call.launch();
+        }
+
+        /**
+         * 截止时间到或整批被取消：未启动的请求直接结束，进行中的请求取消
+         */
+        void expire(Status status, Exception cause) {
+            expired = true;
+            int from = next.getAndSet(results.length);
+            for (int i = from; i < results.length; i++) {
+                record(new Result(i, requests.get(i), status, null, null, cause, 0, 0, false));
+            }
+            for (int i = 0; i < from && i < results.length; i++) {
+                Call call = calls.get(i);
+                if (call != null) {
+                    call.finish(status, null, null, 0, cause);
+                }
+            }
+        }
+
+        void record(Result result) {
+            results[result.index] = result;
+            if (remaining.decrementAndGet() == 0) {
+                ScheduledFuture<?> task = deadlineTask;
+                if (task != null) {
+                    task.cancel(false);
+                }
+                future.complete(Collections.unmodifiableList(Arrays.asList(results)));
+            }
+        }
+    }
+
+    /**
+     * 一个请求，包含原始请求和对冲请求
+     */
+    private final class Call {
+
+        private final Batch batch;
+
+        private final int index;
+
+        private final HttpUriRequest request;
+
+        private final long startNanos = System.nanoTime();
+
+        private final AtomicBoolean done = new AtomicBoolean();
+
+        /** 已发出的请求数，包括原始请求 */
+        private final AtomicInteger attempts = new AtomicInteger();
+
+        /** 还没有结束的请求数 */
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        private final List<Future<HttpResponse>> futures = new ArrayList<Future<HttpResponse>>(2);
+
+        private final boolean hedgeable;
+
+        private volatile ScheduledFuture<?> hedgeTask;
+
+        Call(Batch batch, int index, HttpUriRequest request) {
+            this.batch = batch;
+            this.index = index;
+            this.request = request;
+            this.hedgeable = maxHedges > 0 && (hedgeNonIdempotent || isIdempotent(request.getMethod()));
+        }
+
+        void launch() {
+            inFlight.incrementAndGet();
+            attempt(request, attempts.incrementAndGet());
+            scheduleHedge();
+        }
+
+        private void scheduleHedge() {
+            if (hedgeable && hedgeDelay > 0 && attempts.get() <= maxHedges && !done.get()) {
+                hedgeTask = Timer.INSTANCE.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (hedge()) {
+                            scheduleHedge();
+                        }
+                    }
+                }, hedgeDelay, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        /**
+         * 再发一份请求，对冲定时器和失败重发可能同时进入。<br>
+         * 占用对冲次数和计入进行中的请求在同一个临界区内完成：失败的请求发现次数已用完时，一定也能看到正在发出的对冲
+         *
+         * @return 是否已发出
+         */
+        private boolean hedge() {
+            if (!hedgeable || done.get() || batch.expired) {
+                return false;
+            }
+            HttpUriRequest copy;
+            try {
+                copy = CloneUtils.cloneObject(request);
+            } catch (CloneNotSupportedException e) {
+                logger.debug("request can not be hedged: {}", request, e);
+                return false;
+            }
+            int n;
+            synchronized (attempts) {
+                n = attempts.get();
+                if (n > maxHedges) {
+                    return false;
+                }
+                attempts.set(n + 1);
+                inFlight.incrementAndGet();
+            }
+            attempt(copy, n + 1);
+            return true;
+        }
+
+        /**
+         * 发出请求，调用前已计入inFlight
+         */
+        private void attempt(HttpUriRequest req, final int attempt) {
+            Future<HttpResponse> f = batch.runtime.execute(req, null, new FutureCallback<HttpResponse>() {
+                @Override
+                public void completed(HttpResponse resp) {
+                    inFlight.decrementAndGet();
+                    if (done.get()) {
+                        return;
+                    }
+                    byte[] body = null;
+                    HttpEntity entity = resp.getEntity();
+                    try {
+                        if (entity != null) {
+                            body = EntityUtils.toByteArray(entity);
+                        }
+                    } catch (Exception e) {
+                        onFailure(e, attempt);
+                        return;
+                    }
+                    finish(Status.SUCCESS, resp, body, attempt, null);
+                }
+
+                @Override
+                public void failed(Exception e) {
+                    inFlight.decrementAndGet();
+                    if (!done.get()) {
+                        onFailure(e, attempt);
+                    }
+                }
+
+                @Override
+                public void cancelled() {
+                    inFlight.decrementAndGet();
+                }
+            });
+            synchronized (futures) {
+                futures.add(f);
+            }
+            // 发出后才结束的(截止时间到、其他请求已返回)，补上取消
+            if (done.get()) {
+                f.cancel(true);
+            }
+        }
+
+        /**
+         * 失败的请求不等对冲时间，立即重发；没有可重发的次数且没有其他进行中的请求时记为失败
+         */
+        private void onFailure(Exception e, int attempt) {
+            if (hedge()) {
+                return;
+            }
+            // 重发失败后再读：其他线程占到的对冲已经计入
+            if (inFlight.get() == 0) {
+                finish(Status.FAILED, null, null, attempt, e);
+            }
+        }
+
+        void finish(Status status, HttpResponse response, byte[] body, int winner, Exception error) {
+            if (!done.compareAndSet(false, true)) {
+                return;
+            }
+            ScheduledFuture<?> task = hedgeTask;
+            if (task != null) {
+                task.cancel(false);
+            }
+            synchronized (futures) {
+                for (Future<HttpResponse> f : futures) {
+                    f.cancel(true);
+                }
+            }
+            long elapsed = attempts.get() == 0 ? 0 : System.nanoTime() - startNanos;
+            batch.record(new Result(index, request, status, response, body, error, elapsed, attempts.get(), winner > 1));
+            if (status == Status.SUCCESS || status == Status.FAILED) {
+                batch.startNext();
+            }
+        }
+    }
+
+    private static boolean isIdempotent(String method) {
+        return "GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method) || "PUT".equals(method) || "DELETE".equals(method)
+                || "TRACE".equals(method);
+    }
+
+    /**
+     * 截止时间和对冲的定时器，任务只做状态检查和发起请求
+     */
+    private static final class Timer {
+
+        private static final ScheduledExecutorService INSTANCE;
+
+        static {
+            ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "http-batch-timer");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            // 请求提前结束时取消的任务立即移除，不留到到期
+            executor.setRemoveOnCancelPolicy(true);
+            INSTANCE = executor;
+        }
+    }
+
+    /**
+     * 请求结果
+     */
+    public enum Status {
+        /** 收到响应，任意http状态码 */
+        SUCCESS,
+        /** 所有尝试都失败 */
+        FAILED,
+        /** 截止时间到时还没有结果，包括没来得及启动的请求 */
+        TIMEOUT,
+        /** 整批被取消 */
+        CANCELLED
+    }
+
+    /**
+     * 单个请求的结果
+     */
+    public static final class Result {
+
+        private final int index;
+
+        private final HttpUriRequest request;
+
+        private final Status status;
+
+        private final HttpResponse response;
+
+        private final byte[] body;
+
+        private final Exception error;
+
+        private final long elapsedNanos;
+
+        private final int attempts;
+
+        private final boolean hedged;
+
+        Result(int index, HttpUriRequest request, Status status, HttpResponse response, byte[] body, Exception error, long elapsedNanos, int attempts,
+                boolean hedged) {
+            this.index = index;
+            this.request = request;
+            this.status = status;
+            this.response = response;
+            this.body = body;
+            this.error = error;
+            this.elapsedNanos = elapsedNanos;
+            this.attempts = attempts;
+            this.hedged = hedged;
+        }
+
+        /**
+         * 在批次中的位置
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        public HttpUriRequest getRequest() {
+            return request;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public boolean isSuccess() {
+            return status == Status.SUCCESS;
+        }
+
+        /**
+         * 响应，响应体已读出，见 {@link #getBody()}；没有响应时为null
+         */
+        public HttpResponse getResponse() {
+            return response;
+        }
+
+        /**
+         * http状态码，没有响应时为-1
+         */
+        public int getStatusCode() {
+            return response != null ? response.getStatusLine().getStatusCode() : -1;
+        }
+
+        /**
+         * 响应体，没有响应或响应没有实体时为null
+         */
+        public byte[] getBody() {
+            return body;
+        }
+
+        /**
+         * 响应体按charset转为字符串
+         */
+        public String getBody(Charset charset) {
+            return body != null ? new String(body, charset) : null;
+        }
+
+        /**
+         * 失败的原因，最后一次尝试的异常；取消时为 {@link CancellationException}
+         */
+        public Exception getError() {
+            return error;
+        }
+
+        /**
+         * 从启动到有结果的耗时，没有启动的请求为0
+         */
+        public long getElapsed(TimeUnit unit) {
+            return unit.convert(elapsedNanos, TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * 发出的请求数，包括对冲和失败重发的请求
+         */
+        public int getAttempts() {
+            return attempts;
+        }
+
+        /**
+         * 结果是否来自对冲(或重发)的请求
+         */
+        public boolean isHedged() {
+            return hedged;
+        }
+
+        @Override
+        public String toString() {
+            return "Result[" + index + " " + request.getMethod() + " " + request.getURI() + " " + status + (response != null ? " " + getStatusCode() : "")
+                    + " " + getElapsed(TimeUnit.MILLISECONDS) + "ms attempts=" + attempts + (hedged ? " hedged" : "") + (error != null ? " " + error : "") + "]";
+        }
+    }
+
+    /**
+     * 批量执行配置，时间单位均为毫秒
+     */
+    public static final class Builder {
+
+        private HttpAsyncRuntime runtime;
+
+        private int maxConcurrency = 16;
+
+        private long deadline;
+
+        private long hedgeDelay;
+
+        private int maxHedges;
+
+        private boolean hedgeNonIdempotent;
+
+        private Builder() {
+        }
+
+        /**
+         * 执行请求的异步运行时，默认为 {@link HttpAsyncRuntime#getDefault()}
+         */
+        public Builder runtime(HttpAsyncRuntime runtime) {
+            this.runtime = runtime;
+            return this;
+        }
+
+        /**
+         * 一批请求中同时进行的请求数，对冲请求不占名额
+         */
+        public Builder maxConcurrency(int maxConcurrency) {
+            if (maxConcurrency <= 0) {
+                throw new IllegalArgumentException("maxConcurrency must be positive: " + maxConcurrency);
+            }
+            this.maxConcurrency = maxConcurrency;
+            return this;
+        }
+
+        /**
+         * 整批的截止时间，从 {@link HttpBatchExecutor#execute(List)} 开始计算，0为不限制
+         */
+        public Builder deadline(long deadline) {
+            this.deadline = deadline;
+            return this;
+        }
+
+        /**
+         * 对冲请求
+         *
+         * @param hedgeDelay 请求超过该时间没有响应时再发一份，0为只在失败时重发
+         * @param maxHedges 每个请求最多额外发出的请求数，0为不对冲
+         */
+        public Builder hedge(long hedgeDelay, int maxHedges) {
+            this.hedgeDelay = hedgeDelay;
+            this.maxHedges = maxHedges;
+            return this;
+        }
+
+        /**
+         * 是否对POST、PATCH等非幂等的请求也对冲，默认否
+         */
+        public Builder hedgeNonIdempotent(boolean hedgeNonIdempotent) {
+            this.hedgeNonIdempotent = hedgeNonIdempotent;
+            return this;
+        }
+
+        /**
+         * 执行器不持有线程和连接，可以长期复用
+         */
+        public HttpBatchExecutor build() {
+            return new HttpBatchExecutor(this);
+        }
+    }
+}
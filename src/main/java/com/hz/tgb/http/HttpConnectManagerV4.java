@@ -1,16 +1,10 @@
 package com.hz.tgb.http;
 
+import com.hz.tgb.http.util.HttpClientRuntime;
 import com.hz.tgb.number.NumberUtil;
 import org.apache.http.client.config.CookieSpecs;
-import org.apache.http.client.config.RequestConfig;
-import org.apache.http.config.Registry;
-import org.apache.http.config.RegistryBuilder;
-import org.apache.http.conn.socket.ConnectionSocketFactory;
-import org.apache.http.conn.socket.PlainConnectionSocketFactory;
 import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
-import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.ssl.SSLContexts;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -26,7 +20,7 @@ public class HttpConnectManagerV4 {
 
     private static final Logger logger = LoggerFactory.getLogger(HttpConnectManagerV4.class);
 
-    private static final PoolingHttpClientConnectionManager CONNECT_MANAGER;
+    private static final HttpClientRuntime RUNTIME;
     private static final CloseableHttpClient DEFAULT_HTTP_CLIENT;
     private static SSLConnectionSocketFactory sslSocketFactory = null;
     public static final String HTTP_MAX_TOTAL_CONNECTIONS = "http.max_total_connections";
@@ -63,16 +57,9 @@ public class HttpConnectManagerV4 {
             logger.error("HttpConnectManager init NoSuchAlgorithmException error.", e);
         }
 
-        Registry<ConnectionSocketFactory> socketFactoryRegistry = RegistryBuilder.<ConnectionSocketFactory> create().register("http", PlainConnectionSocketFactory.INSTANCE)
-                .register("https", sslSocketFactory).build();
-        // 设置连接管理器
-        CONNECT_MANAGER = new PoolingHttpClientConnectionManager(socketFactoryRegistry);
-
         int maxTotal = NumberUtil.parseInt(System.getProperty(HTTP_MAX_TOTAL_CONNECTIONS), MAX_TOTAL_CONNECTIONS);
-        CONNECT_MANAGER.setMaxTotal(maxTotal);
         // 设置每个路由的最大连接数
         int maxRoute = NumberUtil.parseInt(System.getProperty(HTTP_MAX_ROUTE_CONNECTIONS), MAX_ROUTE_CONNECTIONS);
-        CONNECT_MANAGER.setDefaultMaxPerRoute(maxRoute);
 
         // 设置连接超时时间
         int connectTimeout = NumberUtil.parseInt(System.getProperty(HTTP_CONNECT_TIMEOUT), CONNECT_TIMEOUT);
@@ -81,11 +68,14 @@ public class HttpConnectManagerV4 {
 
         logger.debug("maxTotal:{},maxRoute:{},connectTimeout:{},readTimeout:{}", new Object[] { maxTotal, maxRoute, connectTimeout, readTimeout });
 
-        // 设置超时时间
-        RequestConfig requestConfig = RequestConfig.custom().setConnectionRequestTimeout(connectTimeout).setConnectTimeout(connectTimeout).setSocketTimeout(readTimeout)
-                .setCookieSpec(CookieSpecs.IGNORE_COOKIES).build();
-
-        DEFAULT_HTTP_CLIENT = HttpClients.custom().setConnectionManager(CONNECT_MANAGER).setDefaultRequestConfig(requestConfig).build();
+        // 设置连接池和超时时间
+        // 不能共用HttpClientRuntime.getDefault()：默认运行时信任所有证书且不校验主机名，这里要校验证书和主机名，
+        // 而SSL连接工厂属于连接池，不能按请求区分；超时和cookie策略也与默认运行时不同
+        HttpClientRuntime.Builder builder = HttpClientRuntime.custom().pool(maxTotal, maxRoute).timeout(connectTimeout, readTimeout)
+                .connectionRequestTimeout(connectTimeout).cookieSpec(CookieSpecs.IGNORE_COOKIES)
+                .sslSocketFactory(sslSocketFactory != null ? sslSocketFactory : SSLConnectionSocketFactory.getSocketFactory());
+        RUNTIME = builder.build();
+        DEFAULT_HTTP_CLIENT = RUNTIME.getHttpClient();
     }
 
     /**
@@ -95,6 +85,13 @@ public class HttpConnectManagerV4 {
         return DEFAULT_HTTP_CLIENT;
     }
 
+    /**
+     * 连接池所在的运行时，可以取得连接池统计或按池化缓冲区读取响应
+     */
+    public static HttpClientRuntime getRuntime() {
+        return RUNTIME;
+    }
+
     public static void main(String[] args) {
         HttpConnectManagerV4.getHttpClient();
     }
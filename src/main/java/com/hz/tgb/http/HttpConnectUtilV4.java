@@ -1,5 +1,7 @@
 package com.hz.tgb.http;
 
+import com.hz.tgb.http.util.HttpClientRuntime;
+import org.apache.http.Consts;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
 import org.apache.http.NameValuePair;
@@ -36,6 +38,27 @@ public class HttpConnectUtilV4 {
      */
     public static final String DEFAULT_ENCODING = "UTF-8";
 
+    /**
+     * 只有200的时候才按成功处理，指定返回信息编码为UTF-8
+     */
+    private static final HttpClientRuntime.BodyHandler<String> BODY_HANDLER = new HttpClientRuntime.BodyHandler<String>() {
+
+        @Override
+        public boolean readBody(HttpResponse response) {
+            return response.getStatusLine().getStatusCode() == HTTP_STATUS_OK;
+        }
+
+        @Override
+        public String handle(HttpResponse response, HttpClientRuntime.ResponseBody body) throws IOException {
+            int status = response.getStatusLine().getStatusCode();
+            if (status == HTTP_STATUS_OK) {
+                return body != null ? body.asString(Consts.UTF_8) : null;
+            } else {
+                throw new ClientProtocolException("Unexpected response status: " + status);
+            }
+        }
+    };
+
     /***
      * get请求form表单数据
      * 
@@ -149,7 +172,13 @@ public class HttpConnectUtilV4 {
      */
     public static String getResponseData(HttpClient client, HttpUriRequest request) throws Exception {
         if (null == client) {
-            client = HttpConnectManagerV4.getHttpClient();
+            try {
+                // 默认连接池，响应体读入池化的缓冲区
+                return HttpConnectManagerV4.getRuntime().execute(request, BODY_HANDLER);
+            } catch (Exception ex) {
+                request.abort();
+                throw ex;
+            }
         }
 
         try {
@@ -0,0 +1,601 @@
+package com.hz.tgb.http.util;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.ClientProtocolException;
+import org.apache.http.client.ResponseHandler;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.LayeredConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.NoopHostnameVerifier;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.message.BasicHeader;
+import org.apache.http.pool.PoolStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 共享的同步http运行时<br>
+ * 一个运行时只有一个连接池(按路由限制连接数)，{@link HttpClientPool}、{@link HttpClientPoolUtil} 共用默认运行时；
+ * {@link com.hz.tgb.http.HttpConnectManagerV4} 要校验https证书，SSL配置属于连接池，所以单独建一个运行时。<br>
+ * 按 {@link HttpConfig} 的形态(连接超时、读取超时、默认header)缓存client，相同配置的请求不再每次新建client；
+ * 缓存的client不能关闭连接池，调用方误关也不影响其他请求。<br>
+ * {@link #execute(HttpUriRequest, HttpConfig, BodyHandler)} 把响应体读入池化复用的缓冲区交给调用方处理，
+ * 不经过String，也不为每个响应重新分配缓冲区。<br>
+ * 后台定时关闭过期和空闲过久的连接，可以取得整个连接池和每个路由的统计(已借出、空闲、等待)。
+ *
+ * @author hezhao
+ * @Time 2026年10月23日 上午9:41:17
+ */
+public final class HttpClientRuntime {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HttpClientRuntime.class);
+
+    private final PoolingHttpClientConnectionManager connManager;
+
+    private final String cookieSpec;
+
+    private final CloseableHttpClient defaultClient;
+
+    private final ConcurrentMap<ClientKey, CloseableHttpClient> clients = new ConcurrentHashMap<ClientKey, CloseableHttpClient>();
+
+    private final int maxCachedClients;
+
+    private final AtomicLong evictedClients = new AtomicLong();
+
+    private final BlockingQueue<ResponseBody> buffers;
+
+    private final int bufferSize;
+
+    private final int maxRetainedBufferSize;
+
+    private final ScheduledExecutorService evictor;
+
+    private volatile boolean closed;
+
+    private HttpClientRuntime(Builder builder) {
+        LayeredConnectionSocketFactory sslSocketFactory = builder.sslSocketFactory != null ? builder.sslSocketFactory : trustAllSocketFactory();
+        Registry<ConnectionSocketFactory> socketFactoryRegistry = RegistryBuilder.<ConnectionSocketFactory> create()
+                .register("http", PlainConnectionSocketFactory.INSTANCE).register("https", sslSocketFactory).build();
+        connManager = new PoolingHttpClientConnectionManager(socketFactoryRegistry);
+        connManager.setMaxTotal(builder.maxTotal);
+        connManager.setDefaultMaxPerRoute(builder.maxPerRoute);
+        for (Map.Entry<HttpRoute, Integer> entry : builder.routeLimits.entrySet()) {
+            connManager.setMaxPerRoute(entry.getKey(), entry.getValue());
+        }
+        connManager.setValidateAfterInactivity(builder.validateAfterInactivity);
+        cookieSpec = builder.cookieSpec;
+        defaultClient = buildClient(requestConfig(builder.connectionRequestTimeout, builder.connectTimeout, builder.socketTimeout), null);
+        maxCachedClients = builder.maxCachedClients;
+        buffers = new ArrayBlockingQueue<ResponseBody>(builder.pooledBuffers);
+        bufferSize = builder.bufferSize;
+        maxRetainedBufferSize = builder.maxRetainedBufferSize;
+
+        evictor = HttpRuntimes.startEvictor("http-client-evictor", connManager, builder.idleTimeout, builder.evictInterval);
+    }
+
+    /**
+     * 默认运行时：最大800个连接，每个路由300个，https信任所有证书
+     */
+    public static HttpClientRuntime getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    public static Builder custom() {
+        return new Builder();
+    }
+
+    /**
+     * 使用运行时默认超时的client
+     */
+    public CloseableHttpClient getHttpClient() {
+        return defaultClient;
+    }
+
+    /**
+     * 按配置取得client：连接超时、读取超时、默认header相同的配置共用同一个client。<br>
+     * 缓存的client数达到上限后淘汰任意一个再缓存新的；client共用连接池，被淘汰的client仍可继续使用。
+     * 第一次淘汰时打印警告：配置形态过多(如header中带每个请求不同的值)会让client反复新建。
+     */
+    public CloseableHttpClient getHttpClient(HttpConfig httpConfig) {
+        ClientKey key = new ClientKey(httpConfig.getConnectionTimeout(), httpConfig.getReadTimeout(), httpConfig.getHeaderMap());
+        CloseableHttpClient client = clients.get(key);
+        if (client != null) {
+            return client;
+        }
+        client = buildClient(requestConfig(key.connectionTimeout, key.connectionTimeout, key.readTimeout), key.headers);
+        if (clients.size() >= maxCachedClients) {
+            Iterator<ClientKey> keys = clients.keySet().iterator();
+            if (keys.hasNext()) {
+                keys.next();
+                keys.remove();
+            }
+            if (evictedClients.getAndIncrement() == 0) {
+                LOG.warn("http client cache is full({}), evicting cached clients; too many distinct configs? {}", maxCachedClients, httpConfig);
+            }
+        }
+        CloseableHttpClient existing = clients.putIfAbsent(key, client);
+        return existing != null ? existing : client;
+    }
+
+    /**
+     * 使用运行时默认超时执行请求，见 {@link #execute(HttpUriRequest, HttpConfig, BodyHandler)}
+     */
+    public <T> T execute(HttpUriRequest request, BodyHandler<T> handler) throws IOException {
+        return execute(defaultClient, request, handler);
+    }
+
+    /**
+     * 执行请求，把响应体读入池化的缓冲区后交给handler处理；handler返回后缓冲区归还，连接释放回连接池。<br>
+     * 读取响应体之前先按状态行询问 {@link BodyHandler#readBody(HttpResponse)}，不需要的响应体(如错误页)不进入缓冲区
+     *
+     * @param httpConfig 超时和默认header
+     * @param handler 响应处理，不能在返回后继续持有 {@link ResponseBody}
+     */
+    public <T> T execute(HttpUriRequest request, HttpConfig httpConfig, BodyHandler<T> handler) throws IOException {
+        return execute(getHttpClient(httpConfig), request, handler);
+    }
+
+    private <T> T execute(CloseableHttpClient client, HttpUriRequest request, final BodyHandler<T> handler) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("http client runtime is closed");
+        }
+        return client.execute(request, new ResponseHandler<T>() {
+            @Override
+            public T handleResponse(HttpResponse response) throws ClientProtocolException, IOException {
+                HttpEntity entity = response.getEntity();
+                if (entity == null || !handler.readBody(response)) {
+                    // 不读取的实体由client在返回前消费掉，连接照常归还
+                    return handler.handle(response, null);
+                }
+                ResponseBody body = borrow();
+                try {
+                    body.readFrom(entity, maxRetainedBufferSize);
+                    return handler.handle(response, body);
+                } finally {
+                    giveBack(body);
+                }
+            }
+        });
+    }
+
+    /**
+     * 整个连接池的统计：已借出、空闲、等待连接的请求数、上限
+     */
+    public PoolStats getTotalStats() {
+        return connManager.getTotalStats();
+    }
+
+    /**
+     * 某个路由的统计
+     *
+     * @param url http(s)://host[:port]/...
+     */
+    public PoolStats getStats(String url) {
+        return connManager.getStats(HttpRuntimes.route(url));
+    }
+
+    /**
+     * 所有路由的统计，key为scheme://host:port
+     */
+    public Map<String, PoolStats> getRouteStats() {
+        Map<String, PoolStats> stats = new LinkedHashMap<String, PoolStats>();
+        for (HttpRoute route : connManager.getRoutes()) {
+            stats.put(route.getTargetHost().toURI(), connManager.getStats(route));
+        }
+        return stats;
+    }
+
+    /**
+     * 缓存的client数
+     */
+    public int getCachedClients() {
+        return clients.size();
+    }
+
+    /**
+     * 缓存满后被淘汰的client数，持续增长说明配置形态过多
+     */
+    public long getEvictedClients() {
+        return evictedClients.get();
+    }
+
+    /**
+     * 空闲的池化缓冲区数
+     */
+    public int getPooledBuffers() {
+        return buffers.size();
+    }
+
+    /**
+     * 关闭连接池和空闲连接回收线程，之后的请求抛出 {@link IllegalStateException}
+     */
+    public void close() {
+        closed = true;
+        evictor.shutdownNow();
+        clients.clear();
+        buffers.clear();
+        connManager.shutdown();
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    private CloseableHttpClient buildClient(RequestConfig requestConfig, Map<String, String> headers) {
+        List<Header> headerList = new ArrayList<Header>();
+        if (headers != null) {
+            for (Map.Entry<String, String> entry : headers.entrySet()) {
+                headerList.add(new BasicHeader(entry.getKey(), entry.getValue()));
+            }
+        }
+        return HttpClients.custom().setConnectionManager(connManager).setConnectionManagerShared(true).setDefaultRequestConfig(requestConfig)
+                .setDefaultHeaders(headerList).build();
+    }
+
+    private RequestConfig requestConfig(int connectionRequestTimeout, int connectTimeout, int socketTimeout) {
+        RequestConfig.Builder builder = RequestConfig.custom().setConnectionRequestTimeout(connectionRequestTimeout).setConnectTimeout(connectTimeout)
+                .setSocketTimeout(socketTimeout);
+        if (cookieSpec != null) {
+            builder.setCookieSpec(cookieSpec);
+        }
+        return builder.build();
+    }
+
+    private ResponseBody borrow() {
+        ResponseBody body = buffers.poll();
+        return body != null ? body : new ResponseBody(bufferSize);
+    }
+
+    private void giveBack(ResponseBody body) {
+        if (body.buf.length > maxRetainedBufferSize) {
+            body.buf = new byte[bufferSize];
+        }
+        body.length = 0;
+        body.charset = null;
+        buffers.offer(body);
+    }
+
+    private static LayeredConnectionSocketFactory trustAllSocketFactory() {
+        try {
+            return new SSLConnectionSocketFactory(HttpClientPool.initTrustAllContext(), NoopHostnameVerifier.INSTANCE);
+        } catch (Exception e) {
+            LOG.error("init trust all SSLContext failed, use default", e);
+            return SSLConnectionSocketFactory.getSocketFactory();
+        }
+    }
+
+    private static final class DefaultHolder {
+        private static final HttpClientRuntime INSTANCE = custom().build();
+    }
+
+    /**
+     * 响应处理
+     */
+    public interface BodyHandler<T> {
+
+        /**
+         * 读取响应体之前调用，此时只有状态行和响应头。返回false时不缓冲响应体，{@link #handle(HttpResponse, ResponseBody)} 收到的body为null。<br>
+         * 默认总是读取；只关心2xx响应体的handler可以覆盖，避免大的错误页占用缓冲区
+         */
+        default boolean readBody(HttpResponse response) {
+            return true;
+        }
+
+        /**
+         * @param response 响应，实体已读完
+         * @param body 响应体，没有实体或 {@link #readBody(HttpResponse)} 返回false时为null；只在方法内有效
+         */
+        T handle(HttpResponse response, ResponseBody body) throws IOException;
+    }
+
+    /**
+     * 池化的响应体缓冲区，只在 {@link BodyHandler#handle(HttpResponse, ResponseBody)} 内有效
+     */
+    public static final class ResponseBody {
+
+        private byte[] buf;
+
+        private int length;
+
+        private Charset charset;
+
+        private ResponseBody(int size) {
+            buf = new byte[size];
+        }
+
+        /**
+         * @param maxPresize 按Content-Length预先分配的上限，声明的长度不可信，超过的部分边读边扩容
+         */
+        private void readFrom(HttpEntity entity, int maxPresize) throws IOException {
+            try {
+                ContentType contentType = ContentType.get(entity);
+                charset = contentType != null ? contentType.getCharset() : null;
+            } catch (RuntimeException e) {
+                charset = null;
+            }
+            long contentLength = entity.getContentLength();
+            if (contentLength > buf.length) {
+                int presize = (int) Math.min(contentLength, Math.max(maxPresize, buf.length));
+                if (presize > buf.length) {
+                    buf = new byte[presize];
+                }
+            }
+            InputStream in = entity.getContent();
+            if (in == null) {
+                return;
+            }
+            try {
+                while (true) {
+                    if (length == buf.length) {
+                        // 缓冲区已满时先探测是否还有数据，正好读满时不扩容
+                        int b = in.read();
+                        if (b == -1) {
+                            break;
+                        }
+                        byte[] grown = new byte[buf.length << 1];
+                        System.arraycopy(buf, 0, grown, 0, length);
+                        buf = grown;
+                        buf[length++] = (byte) b;
+                    }
+                    int n = in.read(buf, length, buf.length - length);
+                    if (n == -1) {
+                        break;
+                    }
+                    length += n;
+                }
+            } finally {
+                in.close();
+            }
+        }
+
+        /**
+         * 底层数组，有效内容为 [0, {@link #length()})
+         */
+        public byte[] array() {
+            return buf;
+        }
+
+        public int length() {
+            return length;
+        }
+
+        /**
+         * 响应头Content-Type中声明的编码，没有声明时为null
+         */
+        public Charset getCharset() {
+            return charset;
+        }
+
+        /**
+         * 按声明的编码转为字符串，没有声明时使用defaultCharset，与 {@link org.apache.http.util.EntityUtils#toString(HttpEntity, Charset)} 一致
+         */
+        public String asString(Charset defaultCharset) {
+            return new String(buf, 0, length, charset != null ? charset : defaultCharset);
+        }
+
+        public byte[] toByteArray() {
+            byte[] copy = new byte[length];
+            System.arraycopy(buf, 0, copy, 0, length);
+            return copy;
+        }
+
+        public InputStream newInputStream() {
+            return new ByteArrayInputStream(buf, 0, length);
+        }
+
+        public void writeTo(OutputStream out) throws IOException {
+            out.write(buf, 0, length);
+        }
+    }
+
+    /**
+     * client缓存的key：连接超时、读取超时、默认header
+     */
+    private static final class ClientKey {
+
+        private final int connectionTimeout;
+
+        private final int readTimeout;
+
+        private final Map<String, String> headers;
+
+        ClientKey(int connectionTimeout, int readTimeout, Map<String, String> headers) {
+            this.connectionTimeout = connectionTimeout;
+            this.readTimeout = readTimeout;
+            this.headers = headers == null ? new HashMap<String, String>() : new HashMap<String, String>(headers);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ClientKey)) {
+                return false;
+            }
+            ClientKey other = (ClientKey) o;
+            return connectionTimeout == other.connectionTimeout && readTimeout == other.readTimeout && headers.equals(other.headers);
+        }
+
+        @Override
+        public int hashCode() {
+            return (connectionTimeout * 31 + readTimeout) * 31 + headers.hashCode();
+        }
+    }
+
+    /**
+     * 运行时配置，超时单位均为毫秒
+     */
+    public static final class Builder {
+
+        private int maxTotal = 800;
+
+        private int maxPerRoute = 300;
+
+        private final Map<HttpRoute, Integer> routeLimits = new LinkedHashMap<HttpRoute, Integer>();
+
+        private int connectTimeout = 6000;
+
+        private int socketTimeout = 6000;
+
+        private int connectionRequestTimeout = 6000;
+
+        private String cookieSpec;
+
+        private LayeredConnectionSocketFactory sslSocketFactory;
+
+        private int validateAfterInactivity = 2000;
+
+        private long idleTimeout = 60000;
+
+        private long evictInterval = 5000;
+
+        private int maxCachedClients = 64;
+
+        private int pooledBuffers = 256;
+
+        private int bufferSize = 8 * 1024;
+
+        private int maxRetainedBufferSize = 64 * 1024;
+
+        private Builder() {
+        }
+
+        /**
+         * 连接池大小
+         *
+         * @param maxTotal 最大连接数
+         * @param maxPerRoute 每个路由默认的最大连接数
+         */
+        public Builder pool(int maxTotal, int maxPerRoute) {
+            this.maxTotal = maxTotal;
+            this.maxPerRoute = maxPerRoute;
+            return this;
+        }
+
+        /**
+         * 单独指定某个路由的最大连接数
+         *
+         * @param url http(s)://host[:port]
+         */
+        public Builder maxPerRoute(String url, int max) {
+            routeLimits.put(HttpRuntimes.route(url), max);
+            return this;
+        }
+
+        /**
+         * 默认超时，{@link HttpClientRuntime#getHttpClient(HttpConfig)} 取得的client使用HttpConfig中的超时
+         *
+         * @param connectTimeout 建立连接超时
+         * @param socketTimeout 读取超时
+         */
+        public Builder timeout(int connectTimeout, int socketTimeout) {
+            this.connectTimeout = connectTimeout;
+            this.socketTimeout = socketTimeout;
+            return this;
+        }
+
+        /**
+         * 从连接池取得连接的默认超时
+         */
+        public Builder connectionRequestTimeout(int connectionRequestTimeout) {
+            this.connectionRequestTimeout = connectionRequestTimeout;
+            return this;
+        }
+
+        /**
+         * cookie策略，如 {@link org.apache.http.client.config.CookieSpecs#IGNORE_COOKIES}
+         */
+        public Builder cookieSpec(String cookieSpec) {
+            this.cookieSpec = cookieSpec;
+            return this;
+        }
+
+        /**
+         * https连接工厂，默认信任所有证书且不校验主机名
+         */
+        public Builder sslSocketFactory(LayeredConnectionSocketFactory sslSocketFactory) {
+            this.sslSocketFactory = sslSocketFactory;
+            return this;
+        }
+
+        /**
+         * 空闲连接回收
+         *
+         * @param idleTimeout 空闲超过该时间的连接被关闭
+         * @param evictInterval 检查间隔
+         */
+        public Builder evictIdle(long idleTimeout, long evictInterval) {
+            this.idleTimeout = idleTimeout;
+            this.evictInterval = evictInterval;
+            return this;
+        }
+
+        /**
+         * 连接空闲超过该时间后，再次借出前先检查是否已被服务端关闭
+         */
+        public Builder validateAfterInactivity(int validateAfterInactivity) {
+            this.validateAfterInactivity = validateAfterInactivity;
+            return this;
+        }
+
+        /**
+         * 按HttpConfig缓存的client数上限
+         */
+        public Builder maxCachedClients(int maxCachedClients) {
+            this.maxCachedClients = maxCachedClients;
+            return this;
+        }
+
+        /**
+         * 响应体缓冲区池
+         *
+         * @param pooledBuffers 最多保留的空闲缓冲区数
+         * @param bufferSize 缓冲区初始大小
+         * @param maxRetainedBufferSize 扩容超过该大小的缓冲区归还时丢弃，避免大响应长期占用内存。
+         *            池最多常驻 pooledBuffers * maxRetainedBufferSize 字节，默认256 * 64KB = 16MB
+         */
+        public Builder buffers(int pooledBuffers, int bufferSize, int maxRetainedBufferSize) {
+            this.pooledBuffers = pooledBuffers;
+            this.bufferSize = bufferSize;
+            this.maxRetainedBufferSize = maxRetainedBufferSize;
+            return this;
+        }
+
+        /**
+         * 创建运行时，由调用方负责关闭
+         */
+        public HttpClientRuntime build() {
+            return new HttpClientRuntime(this);
+        }
+    }
+}
@@ -5,7 +5,6 @@ import com.alibaba.fastjson.JSONObject;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.*;
 import org.apache.http.client.ClientProtocolException;
-import org.apache.http.client.ResponseHandler;
 import org.apache.http.client.entity.UrlEncodedFormEntity;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
@@ -16,7 +15,6 @@ import org.apache.http.entity.StringEntity;
 import org.apache.http.entity.mime.HttpMultipartMode;
 import org.apache.http.entity.mime.MultipartEntityBuilder;
 import org.apache.http.entity.mime.content.StringBody;
-import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.message.BasicNameValuePair;
 import org.apache.http.util.EntityUtils;
 import org.slf4j.Logger;
@@ -27,8 +25,10 @@ import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.math.BigDecimal;
 import java.nio.charset.Charset;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -100,8 +100,20 @@ public class HttpClientUtil {
      * @throws IOException
      */
     private static String execute(HttpRequestBase httpRequestBase, HttpConfig httpConfig) throws ClientProtocolException, IOException {
-        CloseableHttpClient httpclient = HttpClientPoolUtil.getHttpClient(httpConfig);
-        return httpclient.execute(httpRequestBase, HttpClientUtil.stringResponseHandler());
+        return execute(httpRequestBase, httpConfig, STRING_BODY_HANDLER);
+    }
+
+    /**
+     * 执行HTTP请求，响应体读入池化的缓冲区后交给handler，适合直接从字节解析的场景
+     * 
+     * @param httpRequestBase
+     * @param httpConfig
+     * @param handler 响应处理，不能在返回后继续持有响应体
+     * @return
+     * @throws IOException
+     */
+    public static <T> T execute(HttpRequestBase httpRequestBase, HttpConfig httpConfig, HttpClientRuntime.BodyHandler<T> handler) throws IOException {
+        return HttpClientRuntime.getDefault().execute(httpRequestBase, httpConfig, handler);
     }
 
     /**
@@ -164,7 +176,7 @@ public class HttpClientUtil {
         MultipartEntityBuilder multipartEntityBuilder = MultipartEntityBuilder.create();
         multipartEntityBuilder.setMode(HttpMultipartMode.BROWSER_COMPATIBLE);
         multipartEntityBuilder.setCharset(Charset.forName("UTF8"));
-        multipartEntityBuilder.addBinaryBody(formParamName, file);
+        multipartEntityBuilder.addPart(formParamName, new HttpFileTransfer.PathBody(file.toPath()));
         multipartEntityBuilder.addTextBody("fileName", file.getName());
         httpPost.setEntity(multipartEntityBuilder.build());
         HttpConfig httpConfig = new HttpConfig();
@@ -193,7 +205,7 @@ public class HttpClientUtil {
         MultipartEntityBuilder multipartEntityBuilder = MultipartEntityBuilder.create();
         multipartEntityBuilder.setMode(HttpMultipartMode.BROWSER_COMPATIBLE);
         multipartEntityBuilder.setCharset(Charset.forName("UTF8"));
-        multipartEntityBuilder.addBinaryBody(formParamName, file);
+        multipartEntityBuilder.addPart(formParamName, new HttpFileTransfer.PathBody(file.toPath()));
         ContentType contentType = ContentType.create(ContentType.DEFAULT_TEXT.getMimeType(), Consts.UTF_8);
         for (Map.Entry<String, String> entry : postMap.entrySet()) {
             StringBody stringBody = new StringBody(entry.getValue(), contentType);
@@ -228,33 +240,91 @@ public class HttpClientUtil {
     }
 
     /**
+     * multipart上传多个文件和表单字段，文件内容直接从FileChannel写到连接，不读入内存
+     * 
+     * @param reqUrl 请求地址
+     * @param files 表单名称 -> 文件
+     * @param postMap 表单字段
+     * @param httpConfig http配置，大文件注意读取超时
      * @return
+     * @throws IOException
      */
-    private static ResponseHandler<String> stringResponseHandler() {
-
-        return new ResponseHandler<String>() {
-
-            @Override
-            public String handleResponse(HttpResponse response) throws ClientProtocolException, IOException {
-                int status = response.getStatusLine().getStatusCode();
-                if (status >= 200 && status < 300) {
-                    HttpEntity entity = response.getEntity();
-                    if (null == entity) {
-                        LOG.info("entity is null!");
-                        return "entity is null";
-                    }
-                    String entityStr = EntityUtils.toString(entity, "UTF-8");
-                    if (null == entityStr || "".equals(entityStr)) {
-                        LOG.info("entityStr is empty!");
-                        return "entity is empty!";
-                    }
-                    return entityStr;
-                } else {
-                    return "status:" + status;
+    public static String postFiles(String reqUrl, Map<String, File> files, Map<String, String> postMap, HttpConfig httpConfig) throws IOException {
+        Map<String, Path> paths = new LinkedHashMap<String, Path>(files.size() * 4 / 3 + 1);
+        for (Map.Entry<String, File> entry : files.entrySet()) {
+            paths.put(entry.getKey(), entry.getValue().toPath());
+        }
+        long startTime = System.currentTimeMillis();
+        String response = HttpFileTransfer.getDefault().upload(reqUrl, paths, postMap, httpConfig, STRING_BODY_HANDLER);
+        LOG.info("reqMethod[POST],reqUrl:{},files:{},postMap:{},response:{},cost:{}", new Object[] { reqUrl, files, postMap, response,
+                System.currentTimeMillis() - startTime });
+        return response;
+    }
+
+    /**
+     * 下载文件到本地，响应体直接写入文件，先写到 target.part，完成后改名；上次未完成的 .part 从断点续传
+     * 
+     * @param reqUrl 请求地址
+     * @param target 目标文件
+     * @param httpConfig http配置
+     * @return 文件长度
+     * @throws IOException 多次续传仍失败，或服务端返回非2xx
+     */
+    public static long download(String reqUrl, File target, HttpConfig httpConfig) throws IOException {
+        long startTime = System.currentTimeMillis();
+        long size = HttpFileTransfer.getDefault().download(reqUrl, target.toPath(), httpConfig);
+        LOG.info("reqMethod[GET],reqUrl:{},download:{},size:{},cost:{} ms!", new Object[] { reqUrl, target.getAbsolutePath(), size,
+                System.currentTimeMillis() - startTime });
+        return size;
+    }
+
+    /**
+     * 分段并行下载大文件，服务端不支持Range或文件较小时退化为单线程下载
+     * 
+     * @param reqUrl 请求地址
+     * @param target 目标文件
+     * @param segments 最多拆成的段数
+     * @param httpConfig http配置
+     * @return 文件长度
+     * @throws IOException
+     */
+    public static long downloadSegmented(String reqUrl, File target, int segments, HttpConfig httpConfig) throws IOException {
+        long startTime = System.currentTimeMillis();
+        long size = HttpFileTransfer.getDefault().downloadSegmented(reqUrl, target.toPath(), segments, httpConfig);
+        LOG.info("reqMethod[GET],reqUrl:{},download:{},size:{},segments:{},cost:{} ms!", new Object[] { reqUrl, target.getAbsolutePath(), size, segments,
+                System.currentTimeMillis() - startTime });
+        return size;
+    }
+
+    /**
+     * 2xx时按UTF-8返回响应体，否则返回"status:"+状态码
+     */
+    private static final HttpClientRuntime.BodyHandler<String> STRING_BODY_HANDLER = new HttpClientRuntime.BodyHandler<String>() {
+
+        @Override
+        public boolean readBody(HttpResponse response) {
+            int status = response.getStatusLine().getStatusCode();
+            return status >= 200 && status < 300;
+        }
+
+        @Override
+        public String handle(HttpResponse response, HttpClientRuntime.ResponseBody body) throws IOException {
+            int status = response.getStatusLine().getStatusCode();
+            if (status >= 200 && status < 300) {
+                if (null == body) {
+                    LOG.info("entity is null!");
+                    return "entity is null";
+                }
+                if (body.length() == 0) {
+                    LOG.info("entityStr is empty!");
+                    return "entity is empty!";
                 }
+                return body.asString(Consts.UTF_8);
+            } else {
+                return "status:" + status;
             }
-        };
-    }
+        }
+    };
 
     private HttpClientUtil() {
     }
@@ -0,0 +1,503 @@
+package com.hz.tgb.http.util;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.HttpResponseException;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.mime.HttpMultipartMode;
+import org.apache.http.entity.mime.MIME;
+import org.apache.http.entity.mime.MultipartEntityBuilder;
+import org.apache.http.entity.mime.content.AbstractContentBody;
+import org.apache.http.util.EntityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * 大文件流式传输，线程安全。<br>
+ * （1）下载时响应体从连接直接写入 {@link FileChannel}，每个线程只用一块定长缓冲区，文件多大内存占用都不变；<br>
+ * （2）下载先写入同目录的 .part 文件，完成后再改名；中途失败按已写入的位置用Range续传，
+ * {@link #download(String, Path, HttpConfig)} 在进程重启后再次下载也从 .part 续传；<br>
+ * （3）服务端支持Range时，大文件拆成多段在线程池上并行下载，每段写入文件的对应位置；
+ * 每段在本次下载内可以续传，但没有记录哪些段已完成，进程重启后分段下载会清空 .part 从头开始；<br>
+ * （4）上传用 {@link PathBody} 组装multipart，发送时直接从 {@link FileChannel} 传输，不把文件读入内存。<br>
+ * 连接来自 {@link HttpClientRuntime} 的共享连接池。用法：
+ * <pre>
+ * HttpFileTransfer transfer = new HttpFileTransfer(4);
+ * transfer.downloadSegmented(url, Paths.get("/data/big.zip"), httpConfig);
+ * transfer.close();
+ * </pre>
+ *
+ * @author hezhao
+ * @Time 2026年10月25日 上午9:36:20
+ */
+public class HttpFileTransfer implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(HttpFileTransfer.class);
+
+    /** 每个线程的读缓冲区大小 */
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    /** 下载中的文件后缀 */
+    public static final String PART_SUFFIX = ".part";
+
+    private static final ThreadLocal<ByteBuffer> BUFFERS = new ThreadLocal<ByteBuffer>() {
+        @Override
+        protected ByteBuffer initialValue() {
+            return ByteBuffer.allocate(BUFFER_SIZE);
+        }
+    };
+
+    private final HttpClientRuntime runtime;
+
+    private final ExecutorService executor;
+
+    /** 是否由本服务创建线程池，close时只关闭自己创建的 */
+    private final boolean ownExecutor;
+
+    /** 不指定段数时的分段数 */
+    private final int defaultSegments;
+
+    /** 每段传输中途失败后续传的次数 */
+    private volatile int retries = 3;
+
+    /** 分段下载时每段的最小长度，文件小于两段时不拆分 */
+    private volatile long minSegmentSize = 4L * 1024 * 1024;
+
+    /**
+     * 使用调用方的线程池，close时不会关闭它；不指定段数的分段下载按CPU数分段
+     *
+     * @param runtime 连接池
+     * @param executor 分段下载的线程池
+     */
+    public HttpFileTransfer(HttpClientRuntime runtime, ExecutorService executor) {
+        if (runtime == null || executor == null) {
+            throw new IllegalArgumentException("\"runtime\" or \"executor\" is null.");
+        }
+        this.runtime = runtime;
+        this.executor = executor;
+        this.ownExecutor = false;
+        this.defaultSegments = Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * 使用默认连接池，创建固定大小的守护线程池
+     *
+     * @param parallelism 同时下载的段数
+     */
+    public HttpFileTransfer(int parallelism) {
+        this(HttpClientRuntime.getDefault(), parallelism);
+    }
+
+    /**
+     * 创建固定大小的守护线程池
+     *
+     * @param runtime 连接池
+     * @param parallelism 同时下载的段数
+     */
+    public HttpFileTransfer(HttpClientRuntime runtime, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be positive");
+        }
+        this.runtime = runtime;
+        this.executor = Executors.newFixedThreadPool(parallelism, HttpRuntimes.daemonThreads("http-transfer"));
+        this.ownExecutor = true;
+        this.defaultSegments = parallelism;
+    }
+
+    /**
+     * 默认实例：默认连接池，4个下载线程
+     */
+    public static HttpFileTransfer getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    public void setRetries(int retries) {
+        this.retries = retries;
+    }
+
+    public void setMinSegmentSize(long minSegmentSize) {
+        this.minSegmentSize = minSegmentSize;
+    }
+
+    /**
+     * 下载文件，存在未完成的 .part 文件时从断点续传
+     *
+     * @param url
+     * @param target 目标文件，下载完成后才出现
+     * @param httpConfig 超时和header，大文件注意读取超时是两次读之间的间隔
+     * @return 文件长度
+     * @throws IOException 多次续传仍失败，或服务端返回非2xx({@link HttpResponseException})
+     */
+    public long download(String url, Path target, HttpConfig httpConfig) throws IOException {
+        Path part = partFile(target);
+        long size;
+        try (FileChannel channel = FileChannel.open(part, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            Cursor cursor = new Cursor(channel.size(), -1);
+            transfer(url, channel, cursor, httpConfig, true);
+            size = cursor.pos;
+        }
+        moveTo(part, target);
+        return size;
+    }
+
+    /**
+     * 下载文件的一段，写入target的相同位置；target不存在时创建，其他位置的内容不变
+     *
+     * @param offset 起始位置
+     * @param length 长度
+     * @throws IOException 服务端不支持Range时也抛出
+     */
+    public void downloadRange(String url, Path target, long offset, long length, HttpConfig httpConfig) throws IOException {
+        if (offset < 0 || length <= 0) {
+            throw new IllegalArgumentException("invalid range: offset=" + offset + ", length=" + length);
+        }
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            transfer(url, channel, new Cursor(offset, offset + length - 1), httpConfig, false);
+        }
+    }
+
+    /**
+     * 并行分段下载：先请求第一个字节得到文件长度，服务端支持Range且文件够大时拆成最多segments段并行下载，
+     * 否则退化为单线程下载(直接使用探测请求的响应，不再重复请求)。<br>
+     * 已有的 .part 文件会被清空，不能像 {@link #download(String, Path, HttpConfig)} 那样跨进程续传
+     *
+     * @param segments 最多拆成的段数
+     * @return 文件长度
+     */
+    public long downloadSegmented(final String url, Path target, int segments, final HttpConfig httpConfig) throws IOException {
+        Path part = partFile(target);
+        long size;
+        try (final FileChannel channel = FileChannel.open(part, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            // 探测：支持Range时只返回第一个字节和总长度
+            Cursor probe = new Cursor(0, 0);
+            long total = transfer(url, channel, probe, httpConfig, true);
+            if (probe.end < 0) {
+                // 没有按Range返回，已经整个下载完了
+                size = probe.pos;
+            } else if (total < 0 || total < minSegmentSize * 2 || segments < 2) {
+                // 长度未知或文件不大，接着第一个字节单线程下载
+                Cursor rest = new Cursor(probe.pos, -1);
+                transfer(url, channel, rest, httpConfig, true);
+                size = rest.pos;
+            } else {
+                size = downloadSegments(url, channel, total, segments, httpConfig);
+            }
+        }
+        moveTo(part, target);
+        return size;
+    }
+
+    /**
+     * 段数为本实例创建的线程数，使用调用方线程池时为CPU数，见 {@link #downloadSegmented(String, Path, int, HttpConfig)}
+     */
+    public long downloadSegmented(String url, Path target, HttpConfig httpConfig) throws IOException {
+        return downloadSegmented(url, target, defaultSegments, httpConfig);
+    }
+
+    private long downloadSegments(final String url, final FileChannel channel, long total, int segments, final HttpConfig httpConfig) throws IOException {
+        long segmentSize = Math.max(minSegmentSize, (total + segments - 1) / segments);
+        List<CompletableFuture<Void>> futures = new ArrayList<CompletableFuture<Void>>();
+        // 第一个字节已经写入
+        for (long start = 1; start < total; start += segmentSize) {
+            final Cursor cursor = new Cursor(start, Math.min(start + segmentSize, total) - 1);
+            futures.add(CompletableFuture.supplyAsync(new Supplier<Void>() {
+                @Override
+                public Void get() {
+                    try {
+                        transfer(url, channel, cursor, httpConfig, false);
+                        return null;
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    }
+                }
+            }, executor));
+        }
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()])).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("segmented download interrupted: " + url, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof CompletionException ? e.getCause().getCause() : e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("segmented download failed: " + url, cause);
+        }
+        log.debug("segmented download {}, {} bytes in {} segments", url, total, futures.size() + 1);
+        return total;
+    }
+
+    /**
+     * 把cursor指定的范围下载到channel的相同位置，中途失败时从已写入的位置续传
+     *
+     * @param whole 是否下载整个文件：服务端不支持Range时从头重新下载；否则必须按Range返回
+     * @return 文件总长度，未知时-1
+     */
+    private long transfer(String url, FileChannel channel, Cursor cursor, HttpConfig httpConfig, boolean whole) throws IOException {
+        IOException last = null;
+        for (int attempt = 0; attempt <= retries; attempt++) {
+            if (attempt > 0) {
+                log.warn("resume download {} from {}, attempt {}", url, cursor.pos, attempt, last);
+            }
+            HttpGet get = new HttpGet(url);
+            if (cursor.pos > 0 || cursor.end >= 0) {
+                get.setHeader(HttpHeaders.RANGE, "bytes=" + cursor.pos + "-" + (cursor.end >= 0 ? String.valueOf(cursor.end) : ""));
+            }
+            try (CloseableHttpResponse response = runtime.getHttpClient(httpConfig).execute(get)) {
+                long total = receive(response, channel, cursor, whole);
+                // 读完才能复用连接，提前结束的响应在close时断开
+                EntityUtils.consume(response.getEntity());
+                return total;
+            } catch (HttpResponseException e) {
+                throw e;
+            } catch (IOException e) {
+                last = e;
+            }
+        }
+        throw last;
+    }
+
+    private long receive(CloseableHttpResponse response, FileChannel channel, Cursor cursor, boolean whole) throws IOException {
+        int status = response.getStatusLine().getStatusCode();
+        HttpEntity entity = response.getEntity();
+        long total;
+        if (status == HttpStatus.SC_PARTIAL_CONTENT) {
+            long[] range = contentRange(response);
+            if (range[0] != cursor.pos) {
+                throw new HttpResponseException(status, "unexpected Content-Range, expect start " + cursor.pos + " but " + range[0]);
+            }
+            total = range[2];
+        } else if (status == HttpStatus.SC_OK) {
+            if (!whole) {
+                throw new HttpResponseException(status, "server does not support Range");
+            }
+            // 服务端忽略了Range，从头写
+            total = entity != null ? entity.getContentLength() : 0;
+            cursor.pos = 0;
+            cursor.end = -1;
+            channel.truncate(0);
+        } else if (status == HttpStatus.SC_REQUESTED_RANGE_NOT_SATISFIABLE && whole && cursor.end < 0) {
+            // 续传的起点已经是文件末尾
+            long[] range = contentRange(response);
+            if (range[2] != cursor.pos) {
+                // 本地的 .part 比远端文件还长，远端文件已经变了，从头重新下载
+                String message = "range not satisfiable, local " + cursor.pos + ", remote " + range[2] + ", restart";
+                channel.truncate(0);
+                cursor.pos = 0;
+                throw new IOException(message);
+            }
+            return cursor.pos;
+        } else if (status == HttpStatus.SC_REQUESTED_RANGE_NOT_SATISFIABLE && whole && cursor.pos == 0 && cursor.end == 0
+                && contentRange(response)[2] == 0) {
+            // 探测请求bytes=0-0遇到空文件，按整个文件已下载完处理
+            cursor.end = -1;
+            return 0;
+        } else {
+            throw new HttpResponseException(status, "download failed, status " + status);
+        }
+
+        if (entity != null) {
+            long limit = cursor.end >= 0 ? cursor.end + 1 : Long.MAX_VALUE;
+            ByteBuffer buffer = BUFFERS.get();
+            InputStream in = entity.getContent();
+            while (cursor.pos < limit) {
+                int n = in.read(buffer.array(), 0, (int) Math.min(buffer.capacity(), limit - cursor.pos));
+                if (n == -1) {
+                    break;
+                }
+                buffer.position(0).limit(n);
+                while (buffer.hasRemaining()) {
+                    cursor.pos += channel.write(buffer, cursor.pos);
+                }
+            }
+            buffer.clear();
+        }
+        long expectedEnd = cursor.end >= 0 ? cursor.end + 1 : total;
+        if (expectedEnd >= 0 && cursor.pos != expectedEnd) {
+            throw new IOException("premature end of content, received " + cursor.pos + " of " + expectedEnd);
+        }
+        return total;
+    }
+
+    /**
+     * 解析Content-Range: bytes start-end/total 或 bytes *&#47;total，未知的部分为-1
+     */
+    private static long[] contentRange(CloseableHttpResponse response) throws HttpResponseException {
+        Header header = response.getFirstHeader(HttpHeaders.CONTENT_RANGE);
+        int status = response.getStatusLine().getStatusCode();
+        if (header == null || !header.getValue().startsWith("bytes ")) {
+            throw new HttpResponseException(status, "missing Content-Range");
+        }
+        String value = header.getValue().substring(6).trim();
+        int slash = value.indexOf('/');
+        int dash = value.indexOf('-');
+        try {
+            long[] range = { -1, -1, -1 };
+            if (dash > 0 && dash < slash) {
+                range[0] = Long.parseLong(value.substring(0, dash).trim());
+                range[1] = Long.parseLong(value.substring(dash + 1, slash).trim());
+            }
+            String total = value.substring(slash + 1).trim();
+            if (!"*".equals(total)) {
+                range[2] = Long.parseLong(total);
+            }
+            return range;
+        } catch (RuntimeException e) {
+            throw new HttpResponseException(status, "invalid Content-Range: " + header.getValue());
+        }
+    }
+
+    /**
+     * multipart上传文件和表单字段，文件内容直接从FileChannel写到连接
+     *
+     * @param files 表单名称 -> 文件
+     * @param fields 表单名称 -> 值，UTF-8
+     * @param handler 处理响应
+     */
+    public <T> T upload(String url, Map<String, Path> files, Map<String, String> fields, HttpConfig httpConfig, HttpClientRuntime.BodyHandler<T> handler)
+            throws IOException {
+        MultipartEntityBuilder builder = MultipartEntityBuilder.create();
+        builder.setMode(HttpMultipartMode.BROWSER_COMPATIBLE);
+        builder.setCharset(Charset.forName("UTF-8"));
+        for (Map.Entry<String, Path> entry : files.entrySet()) {
+            builder.addPart(entry.getKey(), new PathBody(entry.getValue()));
+        }
+        if (fields != null) {
+            ContentType text = ContentType.create(ContentType.DEFAULT_TEXT.getMimeType(), Charset.forName("UTF-8"));
+            for (Map.Entry<String, String> entry : fields.entrySet()) {
+                builder.addTextBody(entry.getKey(), entry.getValue(), text);
+            }
+        }
+        HttpPost post = new HttpPost(url);
+        post.setEntity(builder.build());
+        return runtime.execute(post, httpConfig, handler);
+    }
+
+    /**
+     * 关闭自己创建的线程池，调用方传入的线程池由调用方负责
+     */
+    @Override
+    public void close() {
+        if (ownExecutor) {
+            executor.shutdown();
+        }
+    }
+
+    private static Path partFile(Path target) {
+        return target.resolveSibling(target.getFileName() + PART_SUFFIX);
+    }
+
+    private static void moveTo(Path part, Path target) throws IOException {
+        try {
+            Files.move(part, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(part, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * 下载进度：下一个要写入的位置和范围的结束位置(包含，-1为到文件末尾)
+     */
+    private static final class Cursor {
+
+        private long pos;
+
+        private long end;
+
+        Cursor(long pos, long end) {
+            this.pos = pos;
+            this.end = end;
+        }
+    }
+
+    private static final class DefaultHolder {
+        private static final HttpFileTransfer INSTANCE = new HttpFileTransfer(4);
+    }
+
+    /**
+     * multipart中的文件，发送时用 {@link FileChannel#transferTo(long, long, WritableByteChannel)} 写到连接，
+     * 长度已知，不会退化为chunked
+     */
+    public static class PathBody extends AbstractContentBody {
+
+        private final Path path;
+
+        private final String filename;
+
+        public PathBody(Path path) {
+            this(path, ContentType.DEFAULT_BINARY, path.getFileName().toString());
+        }
+
+        public PathBody(Path path, ContentType contentType, String filename) {
+            super(contentType);
+            this.path = path;
+            this.filename = filename;
+        }
+
+        @Override
+        public String getFilename() {
+            return filename;
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            // 不能关闭out所在的channel，连接还要继续使用
+            WritableByteChannel target = Channels.newChannel(out);
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                long size = channel.size();
+                long pos = 0;
+                while (pos < size) {
+                    pos += channel.transferTo(pos, size - pos, target);
+                }
+            }
+        }
+
+        @Override
+        public String getTransferEncoding() {
+            return MIME.ENC_BINARY;
+        }
+
+        @Override
+        public long getContentLength() {
+            try {
+                return Files.size(path);
+            } catch (IOException e) {
+                return -1;
+            }
+        }
+
+        public Path getPath() {
+            return path;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.hz.tgb.http.util;
+
+import org.apache.http.HttpHost;
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.nio.conn.NHttpClientConnectionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link HttpClientRuntime} 和 {@link com.hz.tgb.http.util.async.HttpAsyncRuntime} 共用的工具：路由解析、守护线程工厂、空闲连接回收。<br>
+ * 两个运行时不在同一个包，所以类是public的，只供运行时内部使用。
+ *
+ * @author hezhao
+ * @Time 2026年10月23日 上午9:35:02
+ */
+public final class HttpRuntimes {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HttpRuntimes.class);
+
+    private HttpRuntimes() {
+    }
+
+    /**
+     * 按url取得连接池的路由，没有端口时按scheme取默认端口
+     *
+     * @param url http(s)://host[:port]/...
+     */
+    public static HttpRoute route(String url) {
+        URI uri = URI.create(url);
+        boolean secure = "https".equalsIgnoreCase(uri.getScheme());
+        int port = uri.getPort() > 0 ? uri.getPort() : secure ? 443 : 80;
+        return new HttpRoute(new HttpHost(uri.getHost(), port, secure ? "https" : "http"), null, secure);
+    }
+
+    /**
+     * 守护线程工厂，线程名为 prefix-序号
+     */
+    public static ThreadFactory daemonThreads(final String prefix) {
+        final AtomicInteger index = new AtomicInteger();
+        return new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, prefix + "-" + index.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+
+    /**
+     * 启动同步连接池的空闲连接回收线程，关闭返回的executor即停止回收
+     *
+     * @param idleTimeout 空闲超过该时间(毫秒)的连接被关闭
+     * @param evictInterval 检查间隔(毫秒)
+     */
+    public static ScheduledExecutorService startEvictor(String threadName, final HttpClientConnectionManager connManager, final long idleTimeout,
+            long evictInterval) {
+        return startEvictor(threadName, new Runnable() {
+            @Override
+            public void run() {
+                connManager.closeExpiredConnections();
+                connManager.closeIdleConnections(idleTimeout, TimeUnit.MILLISECONDS);
+            }
+        }, evictInterval);
+    }
+
+    /**
+     * 启动异步连接池的空闲连接回收线程，见 {@link #startEvictor(String, HttpClientConnectionManager, long, long)}
+     */
+    public static ScheduledExecutorService startEvictor(String threadName, final NHttpClientConnectionManager connManager, final long idleTimeout,
+            long evictInterval) {
+        return startEvictor(threadName, new Runnable() {
+            @Override
+            public void run() {
+                connManager.closeExpiredConnections();
+                connManager.closeIdleConnections(idleTimeout, TimeUnit.MILLISECONDS);
+            }
+        }, evictInterval);
+    }
+
+    private static ScheduledExecutorService startEvictor(String threadName, final Runnable evict, long evictInterval) {
+        ScheduledExecutorService evictor = Executors.newSingleThreadScheduledExecutor(daemonThreads(threadName));
+        evictor.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    evict.run();
+                } catch (RuntimeException e) {
+                    LOG.warn("evict idle connections", e);
+                }
+            }
+        }, evictInterval, evictInterval, TimeUnit.MILLISECONDS);
+        return evictor;
+    }
+}
@@ -5,9 +5,13 @@ import org.apache.http.Header;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
 import org.apache.http.NameValuePair;
+import org.apache.http.client.HttpResponseException;
 import org.apache.http.client.methods.*;
 import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.entity.ContentType;
 import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.nio.client.methods.HttpAsyncMethods;
+import org.apache.http.nio.client.methods.ZeroCopyConsumer;
 import org.apache.http.protocol.HttpContext;
 import org.apache.http.util.EntityUtils;
 import org.slf4j.Logger;
@@ -17,6 +21,8 @@ import java.io.*;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 
 /**
@@ -30,7 +36,8 @@ public class HttpAsyncClientUtil{
 	
 	/**
 	 * 创建client对象
-	 * 并设置全局的标准cookie策略
+	 * 并设置全局的标准cookie策略<br>
+	 * 每次都新建连接池和IO线程，用完即关闭；未指定client的请求使用共享的 {@link HttpAsyncRuntime}
 	 * @return
 	 * @throws HttpProcessException
 	 */
@@ -52,6 +59,77 @@ public class HttpAsyncClientUtil{
 	public static void send(HttpAsyncConfig config) throws HttpProcessException {
 		execute(config);
 	}
+
+	/**
+	 * 请求资源或服务，返回响应体(按输出编码转换)的future<br>
+	 * 未指定client时在config的运行时(默认为 {@link HttpAsyncRuntime#getDefault()})上执行；
+	 * 指定了client时由调用方负责关闭，不再像回调方式那样用完即关闭
+	 *
+	 * @param config		请求参数配置
+	 * @return				请求失败时future以对应的异常失败
+	 */
+	public static CompletableFuture<String> sendAsync(HttpAsyncConfig config) {
+		final String encoding = config.outenc();
+		CompletableFuture<HttpResponse> future;
+		try {
+			future = executeAsync(config);
+		} catch (HttpProcessException e) {
+			future = new CompletableFuture<HttpResponse>();
+			future.completeExceptionally(e);
+		}
+		return future.thenApply(new Function<HttpResponse, String>() {
+			@Override
+			public String apply(HttpResponse resp) {
+				return fmt2String(resp, encoding);
+			}
+		});
+	}
+
+	/**
+	 * 以Get方式异步请求，返回响应体的future
+	 */
+	public static CompletableFuture<String> getAsync(String url) {
+		return sendAsync(HttpAsyncConfig.custom().method(HttpMethods.GET).url(url));
+	}
+
+	public static CompletableFuture<String> getAsync(HttpAsyncConfig config) {
+		return sendAsync(config.method(HttpMethods.GET));
+	}
+
+	/**
+	 * 以Post方式异步请求，返回响应体的future
+	 */
+	public static CompletableFuture<String> postAsync(String url, Map<String,Object> parasMap) {
+		return sendAsync(HttpAsyncConfig.custom().method(HttpMethods.POST).url(url).map(parasMap));
+	}
+
+	public static CompletableFuture<String> postAsync(HttpAsyncConfig config) {
+		return sendAsync(config.method(HttpMethods.POST));
+	}
+
+	public static CompletableFuture<String> putAsync(HttpAsyncConfig config) {
+		return sendAsync(config.method(HttpMethods.PUT));
+	}
+
+	public static CompletableFuture<String> deleteAsync(HttpAsyncConfig config) {
+		return sendAsync(config.method(HttpMethods.DELETE));
+	}
+
+	public static CompletableFuture<String> patchAsync(HttpAsyncConfig config) {
+		return sendAsync(config.method(HttpMethods.PATCH));
+	}
+
+	public static CompletableFuture<String> headAsync(HttpAsyncConfig config) {
+		return sendAsync(config.method(HttpMethods.HEAD));
+	}
+
+	public static CompletableFuture<String> optionsAsync(HttpAsyncConfig config) {
+		return sendAsync(config.method(HttpMethods.OPTIONS));
+	}
+
+	public static CompletableFuture<String> traceAsync(HttpAsyncConfig config) {
+		return sendAsync(config.method(HttpMethods.TRACE));
+	}
 	
 	//-----------华----丽----分----割----线--------------
 	//-----------华----丽----分----割----线--------------
@@ -288,6 +366,41 @@ public class HttpAsyncClientUtil{
 		execute(config.method(HttpMethods.GET));
 	}
 	
+	/**
+	 * 下载到文件，响应体由IO线程从连接直接传输到文件(FileChannel.transferFrom)，不经过内存缓冲，内存占用与文件大小无关。<br>
+	 * 写文件是同步的，在IO线程上执行：磁盘慢时会阻塞该IO线程，同一线程上的其他连接也跟着停顿；
+	 * 大量下载到慢磁盘时用单独的运行时(见 {@link HttpAsyncConfig#runtime(HttpAsyncRuntime)})或增加IO线程数<br>
+	 * 在config的运行时(默认为 {@link HttpAsyncRuntime#getDefault()})上执行，忽略config中的client和输出流
+	 *
+	 * @param config		请求参数配置
+	 * @param file			目标文件，已存在时先删除
+	 * @return				下载完成后返回文件；非2xx时future以 {@link HttpResponseException} 失败并删除文件
+	 */
+	public static CompletableFuture<File> downAsync(HttpAsyncConfig config, File file) {
+		try {
+			HttpRequestBase request = getRequest(config.method(HttpMethods.GET));
+			if (file.exists() && !file.delete()) {
+				throw new IOException("can not delete " + file);
+			}
+			ZeroCopyConsumer<File> consumer = new ZeroCopyConsumer<File>(file) {
+				@Override
+				protected File process(HttpResponse response, File file, ContentType contentType) throws Exception {
+					int status = response.getStatusLine().getStatusCode();
+					if (status < 200 || status >= 300) {
+						file.delete();
+						throw new HttpResponseException(status, "download failed, status " + status);
+					}
+					return file;
+				}
+			};
+			return runtime(config).execute(HttpAsyncMethods.create(request), consumer, config.context());
+		} catch (Exception e) {
+			CompletableFuture<File> failed = new CompletableFuture<File>();
+			failed.completeExceptionally(e);
+			return failed;
+		}
+	}
+	
 	/**
 	 * 请求资源或服务
 	 * 
@@ -295,9 +408,98 @@ public class HttpAsyncClientUtil{
 	 * @throws HttpProcessException
 	 */
 	private static void execute(HttpAsyncConfig config) throws HttpProcessException {
-		if(config.asynclient()==null){//检测是否设置了client
-			config.asynclient(create(config.url()));
+		HttpRequestBase request = getRequest(config);
+		final CloseableHttpAsyncClient client = config.asynclient();
+		if(client==null){//未设置client时使用共享的运行时，连接复用，不关闭
+			runtime(config).execute(request, config.context(), callback(config, null));
+			return;
+		}
+		// Start the client
+		client.start();
+		//异步执行请求操作，通过回调，处理结果
+		client.execute(request, config.context(), callback(config, client));
+	}
+
+	/**
+	 * 异步执行请求，未设置client时使用共享的运行时
+	 */
+	private static CompletableFuture<HttpResponse> executeAsync(HttpAsyncConfig config) throws HttpProcessException {
+		HttpRequestBase request = getRequest(config);
+		CloseableHttpAsyncClient client = config.asynclient();
+		if(client==null){
+			return runtime(config).execute(request, config.context());
 		}
+		client.start();
+		final CompletableFuture<HttpResponse> future = new CompletableFuture<HttpResponse>();
+		client.execute(request, config.context(), new FutureCallback<HttpResponse>() {
+			@Override
+			public void completed(HttpResponse resp) {
+				future.complete(resp);
+			}
+
+			@Override
+			public void failed(Exception e) {
+				future.completeExceptionally(e);
+			}
+
+			@Override
+			public void cancelled() {
+				future.cancel(false);
+			}
+		});
+		return future;
+	}
+
+	private static HttpAsyncRuntime runtime(HttpAsyncConfig config) {
+		return config.runtime() == null ? HttpAsyncRuntime.getDefault() : config.runtime();
+	}
+
+	/**
+	 * 把结果交给回调处理对象
+	 *
+	 * @param config				请求参数配置
+	 * @param client				处理完后要关闭的client，共享运行时为null
+	 */
+	private static FutureCallback<HttpResponse> callback(HttpAsyncConfig config, final CloseableHttpAsyncClient client) {
+		final String encoding=config.outenc();
+		final IHandler handler=config.handler();
+		final OutputStream out = config.out();
+		return new FutureCallback<HttpResponse>() {
+			@Override
+			public void failed(Exception e) {
+				handler.failed(e);
+				close(client);
+			}
+
+			@Override
+			public void completed(HttpResponse resp) {
+				try {
+					if(out == null){
+						handler.completed(fmt2String(resp, encoding));
+					}else{
+						handler.down(fmt2Stream(resp, out));
+					}
+				} catch (HttpProcessException e) {
+					e.printStackTrace();
+				}
+				close(client);
+			}
+
+			@Override
+			public void cancelled() {
+				handler.cancelled();
+				close(client);
+			}
+		};
+	}
+
+	/**
+	 * 创建请求对象，设置header和参数
+	 *
+	 * @param config				请求参数配置
+	 * @throws HttpProcessException
+	 */
+	private static HttpRequestBase getRequest(HttpAsyncConfig config) throws HttpProcessException {
 		try {
 			//创建请求对象
 			HttpRequestBase request = getRequest(config.url(), config.method());
@@ -327,43 +529,7 @@ public class HttpAsyncClientUtil{
 					logger.info("请求参数："+config.url().substring(idx+1));
 				}
 			}
-			//执行请求
-			final CloseableHttpAsyncClient client = config.asynclient();
-			final String encoding=config.outenc();
-			final IHandler handler=config.handler();
-			final OutputStream out = config.out();
-			
-			// Start the client
-			client.start();
-			//异步执行请求操作，通过回调，处理结果
-			client.execute(request, new FutureCallback<HttpResponse>() {
-				@Override
-				public void failed(Exception e) {
-					handler.failed(e);
-					close(client);
-				}
-				
-				@Override
-				public void completed(HttpResponse resp) {
-					try {
-						if(out == null){
-							handler.completed(fmt2String(resp, encoding));
-						}else{
-							handler.down(fmt2Stream(resp, out));
-						}
-					} catch (HttpProcessException e) {
-						e.printStackTrace();
-					}
-					close(client);
-				}
-				
-				@Override
-				public void cancelled() {
-					handler.cancelled();
-					close(client);
-				}
-			});
-			
+			return request;
 		} catch (UnsupportedEncodingException e) {
 			throw new HttpProcessException(e);
 		}
@@ -376,6 +542,7 @@ public class HttpAsyncClientUtil{
 	 */
 	private static void close(final CloseableHttpAsyncClient client) {
 		try {
+			if(client == null) return;
 			client.close();
 		} catch (IOException e) {
 			logger.error("close",e);
@@ -449,9 +616,8 @@ public class HttpAsyncClientUtil{
 	 * @param resp		实体
 	 * @param encoding	编码
 	 * @return
-	 * @throws HttpProcessException 
 	 */
-	private static String fmt2String(HttpResponse resp, String encoding) throws HttpProcessException {
+	private static String fmt2String(HttpResponse resp, String encoding) {
 		String body = "";
 		try {
 			HttpEntity entity = resp.getEntity();
@@ -98,6 +98,11 @@ public class HttpAsyncConfig {
 	 */
 	private HttpAsyncClientUtil.IHandler handler;
 
+	/**
+	 * 未设置asynclient时使用的共享运行时
+	 */
+	private HttpAsyncRuntime runtime;
+
 	/**
 	 * HttpClient对象
 	 */
@@ -213,6 +218,14 @@ public class HttpAsyncConfig {
 		this.handler = handler;
 		return this;
 	}
+	
+	/**
+	 * 未设置asynclient时使用的共享运行时，默认为 {@link HttpAsyncRuntime#getDefault()}
+	 */
+	public HttpAsyncConfig runtime(HttpAsyncRuntime runtime) {
+		this.runtime = runtime;
+		return this;
+	}
 
 
 	public HttpClient client() {
@@ -269,4 +282,8 @@ public class HttpAsyncConfig {
 	public HttpAsyncClientUtil.IHandler handler() {
 		return handler;
 	}
-}
\ No newline at end of file
+	
+	public HttpAsyncRuntime runtime() {
+		return runtime;
+	}
+}
@@ -0,0 +1,489 @@
+package com.hz.tgb.http.util.async;
+
+import com.hz.tgb.http.util.HttpRuntimes;
+import com.hz.tgb.http.util.exception.HttpProcessException;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.concurrent.BasicFuture;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.protocol.HttpAsyncRequestProducer;
+import org.apache.http.nio.protocol.HttpAsyncResponseConsumer;
+import org.apache.http.nio.conn.NoopIOSessionStrategy;
+import org.apache.http.nio.conn.SchemeIOSessionStrategy;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * 共享的异步http运行时<br>
+ * 一个运行时只有一组IO reactor线程和一个连接池(按路由限制连接数)，所有请求共用，连接keep-alive复用，
+ * 不会像 {@link HttpAsyncClientUtil#create(String)} 那样每个请求都新建IO线程、重新建立连接和TLS握手。<br>
+ * 后台定时关闭过期和空闲过久的连接；{@link #shutdown(long, TimeUnit)} 先拒绝新请求，等进行中的请求结束后再关闭。<br>
+ * 运行时按名称登记复用，{@link #getDefault()} 为默认运行时；JVM退出时关闭所有登记的运行时。
+ *
+ * @author hezhao
+ * @Time 2026年10月22日 上午10:12:36
+ */
+public final class HttpAsyncRuntime {
+
+	private static final Logger logger = LoggerFactory.getLogger(HttpAsyncRuntime.class);
+
+	/** 默认运行时的名称 */
+	public static final String DEFAULT_NAME = "default";
+
+	private static final ConcurrentMap<String, HttpAsyncRuntime> REGISTRY = new ConcurrentHashMap<String, HttpAsyncRuntime>();
+
+	static {
+		Runtime.getRuntime().addShutdownHook(new Thread("http-async-runtime-shutdown") {
+			@Override
+			public void run() {
+				shutdownAll(5, TimeUnit.SECONDS);
+			}
+		});
+	}
+
+	private final String name;
+
+	private final PoolingNHttpClientConnectionManager connManager;
+
+	private final CloseableHttpAsyncClient client;
+
+	private final ScheduledExecutorService evictor;
+
+	private final AtomicInteger inFlight = new AtomicInteger();
+
+	private volatile boolean shutdown;
+
+	private HttpAsyncRuntime(String name, Builder builder) throws HttpProcessException {
+		this.name = name;
+		Registry<SchemeIOSessionStrategy> sessionStrategyRegistry = RegistryBuilder.<SchemeIOSessionStrategy>create()
+				.register("http", NoopIOSessionStrategy.INSTANCE)
+				.register("https", SSLUtil.getInstance().getSSLIOSS())
+				.build();
+		IOReactorConfig ioReactorConfig = IOReactorConfig.custom().setIoThreadCount(builder.ioThreads).setConnectTimeout(builder.connectTimeout)
+				.setSoTimeout(builder.socketTimeout).build();
+		DefaultConnectingIOReactor ioReactor;
+		try {
+			ioReactor = new DefaultConnectingIOReactor(ioReactorConfig, HttpRuntimes.daemonThreads("http-async-io-" + name));
+		} catch (IOReactorException e) {
+			throw new HttpProcessException(e);
+		}
+		connManager = new PoolingNHttpClientConnectionManager(ioReactor, sessionStrategyRegistry);
+		connManager.setMaxTotal(builder.maxTotal);
+		connManager.setDefaultMaxPerRoute(builder.maxPerRoute);
+		for (Map.Entry<HttpRoute, Integer> entry : builder.routeLimits.entrySet()) {
+			connManager.setMaxPerRoute(entry.getKey(), entry.getValue());
+		}
+		RequestConfig requestConfig = RequestConfig.custom()
+				.setConnectionRequestTimeout(builder.connectionRequestTimeout)
+				.setConnectTimeout(builder.connectTimeout)
+				.setSocketTimeout(builder.socketTimeout)
+				.build();
+		client = HttpAsyncClients.custom().setConnectionManager(connManager).setDefaultRequestConfig(requestConfig)
+				.setThreadFactory(HttpRuntimes.daemonThreads("http-async-dispatch-" + name)).build();
+		client.start();
+
+		evictor = HttpRuntimes.startEvictor("http-async-evictor-" + name, connManager, builder.idleTimeout, builder.evictInterval);
+	}
+
+	/**
+	 * 默认运行时：最大800个连接，每个路由300个
+	 */
+	public static HttpAsyncRuntime getDefault() {
+		return named(DEFAULT_NAME, custom());
+	}
+
+	/**
+	 * 按名称取得运行时，不存在(或已关闭)时按builder创建并登记
+	 *
+	 * @throws IllegalStateException 创建IO reactor失败
+	 */
+	public static HttpAsyncRuntime named(final String name, final Builder builder) {
+		HttpAsyncRuntime runtime = REGISTRY.get(name);
+		if (runtime != null && !runtime.shutdown) {
+			return runtime;
+		}
+		synchronized (REGISTRY) {
+			runtime = REGISTRY.get(name);
+			if (runtime == null || runtime.shutdown) {
+				runtime = builder.build(name);
+				REGISTRY.put(name, runtime);
+			}
+			return runtime;
+		}
+	}
+
+	/**
+	 * 已登记的运行时，没有时为null
+	 */
+	public static HttpAsyncRuntime get(String name) {
+		return REGISTRY.get(name);
+	}
+
+	/**
+	 * 关闭所有登记的运行时
+	 */
+	public static void shutdownAll(long timeout, TimeUnit unit) {
+		for (HttpAsyncRuntime runtime : REGISTRY.values()) {
+			runtime.shutdown(timeout, unit);
+		}
+	}
+
+	public static Builder custom() {
+		return new Builder();
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * 异步执行请求，响应体已读入内存
+	 *
+	 * @param context	http上下文，用于cookie操作，可以为null
+	 * @return 运行时已关闭时，返回的future以 {@link IllegalStateException} 失败；取消future会同时取消请求
+	 */
+	public CompletableFuture<HttpResponse> execute(HttpUriRequest request, HttpContext context) {
+		final CompletableFuture<HttpResponse> result = new CompletableFuture<HttpResponse>();
+		final Future<HttpResponse> future;
+		try {
+			future = execute(request, context, new FutureCallback<HttpResponse>() {
+				@Override
+				public void completed(HttpResponse resp) {
+					result.complete(resp);
+				}
+
+				@Override
+				public void failed(Exception e) {
+					result.completeExceptionally(e);
+				}
+
+				@Override
+				public void cancelled() {
+					result.cancel(false);
+				}
+			});
+		} catch (RuntimeException e) {
+			result.completeExceptionally(e);
+			return result;
+		}
+		result.whenComplete(new BiConsumer<HttpResponse, Throwable>() {
+			@Override
+			public void accept(HttpResponse resp, Throwable e) {
+				if (result.isCancelled()) {
+					future.cancel(true);
+				}
+			}
+		});
+		return result;
+	}
+
+	/**
+	 * 异步执行请求，结果交给回调；运行时已关闭时直接回调failed
+	 */
+	public Future<HttpResponse> execute(HttpUriRequest request, HttpContext context, final FutureCallback<HttpResponse> callback) {
+		if (!acquire()) {
+			BasicFuture<HttpResponse> rejected = new BasicFuture<HttpResponse>(callback);
+			rejected.failed(new IllegalStateException("http async runtime [" + name + "] is shut down"));
+			return rejected;
+		}
+		try {
+			return client.execute(request, context, new FutureCallback<HttpResponse>() {
+				@Override
+				public void completed(HttpResponse resp) {
+					try {
+						callback.completed(resp);
+					} finally {
+						release();
+					}
+				}
+
+				@Override
+				public void failed(Exception e) {
+					try {
+						callback.failed(e);
+					} finally {
+						release();
+					}
+				}
+
+				@Override
+				public void cancelled() {
+					try {
+						callback.cancelled();
+					} finally {
+						release();
+					}
+				}
+			});
+		} catch (RuntimeException e) {
+			release();
+			throw e;
+		}
+	}
+
+	/**
+	 * 异步执行请求，响应体交给consumer边收边处理，不在内存中缓存。<br>
+	 * consumer在IO线程上被回调，回调中阻塞(如同步写文件)会拖住该IO线程上的所有连接；
+	 * 需要限速的consumer自己调用 {@link org.apache.http.nio.IOControl#suspendInput()} 暂停读取
+	 *
+	 * @param producer	请求，如 {@link org.apache.http.nio.client.methods.HttpAsyncMethods#create(HttpUriRequest)}
+	 * @param consumer	响应处理，如 {@link org.apache.http.nio.client.methods.ZeroCopyConsumer}
+	 * @param context	http上下文，可以为null
+	 * @return 运行时已关闭时，返回的future以 {@link IllegalStateException} 失败；取消future会同时取消请求
+	 */
+	public <T> CompletableFuture<T> execute(HttpAsyncRequestProducer producer, HttpAsyncResponseConsumer<T> consumer, HttpContext context) {
+		final CompletableFuture<T> result = new CompletableFuture<T>();
+		if (!acquire()) {
+			result.completeExceptionally(new IllegalStateException("http async runtime [" + name + "] is shut down"));
+			return result;
+		}
+		final Future<T> future;
+		try {
+			future = client.execute(producer, consumer, context, new FutureCallback<T>() {
+				@Override
+				public void completed(T value) {
+					try {
+						result.complete(value);
+					} finally {
+						release();
+					}
+				}
+
+				@Override
+				public void failed(Exception e) {
+					try {
+						result.completeExceptionally(e);
+					} finally {
+						release();
+					}
+				}
+
+				@Override
+				public void cancelled() {
+					try {
+						result.cancel(false);
+					} finally {
+						release();
+					}
+				}
+			});
+		} catch (RuntimeException e) {
+			release();
+			result.completeExceptionally(e);
+			return result;
+		}
+		result.whenComplete(new BiConsumer<T, Throwable>() {
+			@Override
+			public void accept(T value, Throwable e) {
+				if (result.isCancelled()) {
+					future.cancel(true);
+				}
+			}
+		});
+		return result;
+	}
+
+	/**
+	 * 整个连接池的统计：已借出、空闲、等待连接的请求数、上限
+	 */
+	public PoolStats getTotalStats() {
+		return connManager.getTotalStats();
+	}
+
+	/**
+	 * 某个路由的统计
+	 *
+	 * @param url	http(s)://host[:port]/...
+	 */
+	public PoolStats getStats(String url) {
+		return connManager.getStats(HttpRuntimes.route(url));
+	}
+
+	/**
+	 * 进行中的请求数
+	 */
+	public int getInFlight() {
+		return inFlight.get();
+	}
+
+	public boolean isShutdown() {
+		return shutdown;
+	}
+
+	/**
+	 * 优雅关闭：不再接受新请求，最多等待timeout让进行中的请求结束，然后关闭连接池和IO线程
+	 *
+	 * @return 进行中的请求是否都已结束
+	 */
+	public boolean shutdown(long timeout, TimeUnit unit) {
+		shutdown = true;
+		boolean drained;
+		synchronized (this) {
+			long deadline = System.nanoTime() + unit.toNanos(timeout);
+			long remaining;
+			while (inFlight.get() > 0 && (remaining = deadline - System.nanoTime()) > 0) {
+				try {
+					TimeUnit.NANOSECONDS.timedWait(this, remaining);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					break;
+				}
+			}
+			drained = inFlight.get() == 0;
+		}
+		evictor.shutdownNow();
+		try {
+			client.close();
+		} catch (IOException e) {
+			logger.error("close", e);
+		}
+		REGISTRY.remove(name, this);
+		if (!drained) {
+			logger.warn("http async runtime [{}] shut down with {} requests in flight", name, inFlight.get());
+		}
+		return drained;
+	}
+
+	private boolean acquire() {
+		inFlight.incrementAndGet();
+		if (shutdown) {
+			release();
+			return false;
+		}
+		return true;
+	}
+
+	private void release() {
+		if (inFlight.decrementAndGet() == 0 && shutdown) {
+			synchronized (this) {
+				notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * 运行时配置，超时单位均为毫秒
+	 */
+	public static final class Builder {
+
+		private int maxTotal = 800;
+
+		private int maxPerRoute = 300;
+
+		private final Map<HttpRoute, Integer> routeLimits = new LinkedHashMap<HttpRoute, Integer>();
+
+		private int ioThreads = Runtime.getRuntime().availableProcessors();
+
+		private int connectTimeout = 10000;
+
+		private int socketTimeout = 30000;
+
+		private int connectionRequestTimeout = 10000;
+
+		private long idleTimeout = 60000;
+
+		private long evictInterval = 5000;
+
+		private Builder() {
+		}
+
+		/**
+		 * 连接池大小
+		 *
+		 * @param maxTotal		最大连接数
+		 * @param maxPerRoute	每个路由默认的最大连接数
+		 */
+		public Builder pool(int maxTotal, int maxPerRoute) {
+			this.maxTotal = maxTotal;
+			this.maxPerRoute = maxPerRoute;
+			return this;
+		}
+
+		/**
+		 * 单独指定某个路由的最大连接数
+		 *
+		 * @param url	http(s)://host[:port]
+		 */
+		public Builder maxPerRoute(String url, int max) {
+			routeLimits.put(HttpRuntimes.route(url), max);
+			return this;
+		}
+
+		/**
+		 * IO线程数，默认为CPU数
+		 */
+		public Builder ioThreads(int ioThreads) {
+			this.ioThreads = ioThreads;
+			return this;
+		}
+
+		/**
+		 * @param connectTimeout	建立连接超时
+		 * @param socketTimeout		读取超时
+		 */
+		public Builder timeout(int connectTimeout, int socketTimeout) {
+			this.connectTimeout = connectTimeout;
+			this.socketTimeout = socketTimeout;
+			return this;
+		}
+
+		/**
+		 * 从连接池取得连接的超时
+		 */
+		public Builder connectionRequestTimeout(int connectionRequestTimeout) {
+			this.connectionRequestTimeout = connectionRequestTimeout;
+			return this;
+		}
+
+		/**
+		 * 空闲连接回收
+		 *
+		 * @param idleTimeout		空闲超过该时间的连接被关闭
+		 * @param evictInterval		检查间隔
+		 */
+		public Builder evictIdle(long idleTimeout, long evictInterval) {
+			this.idleTimeout = idleTimeout;
+			this.evictInterval = evictInterval;
+			return this;
+		}
+
+		/**
+		 * 创建一个不登记的运行时，由调用方负责关闭
+		 */
+		public HttpAsyncRuntime build() throws HttpProcessException {
+			return new HttpAsyncRuntime("anonymous", this);
+		}
+
+		private HttpAsyncRuntime build(String name) {
+			try {
+				return new HttpAsyncRuntime(name, this);
+			} catch (HttpProcessException e) {
+				throw new IllegalStateException("create http async runtime [" + name + "] failed", e);
+			}
+		}
+	}
+}
@@ -8,12 +8,7 @@ import org.slf4j.LoggerFactory;
 
 import java.net.InetAddress;
 import java.net.UnknownHostException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
 import java.util.Random;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * 订单号生成器
@@ -27,34 +22,23 @@ public class OrderGenerater {
 
     private static final Logger LOG = LoggerFactory.getLogger(OrderGenerater.class);
 
-    private volatile static int serialNo = 0;
-
-    private static final String FORMATSTRING = "yyMMddHHmmssSSS";
-
     /**
-     * 使用公平锁防止饥饿
+     * 时间戳(15位) + 机器编号(2位) + 序列号(4位)，与原来的21位订单号长度一致
      */
-    private static final Lock lock = new ReentrantLock(true);
-
-    private static final int TIMEOUTSECODES = 3;
+    private static final OrderNoGenerator GENERATOR = new OrderNoGenerator(getNumberFromMechine(), 4, true);
     
     private OrderGenerater() {
 		// 私有类构造方法
 	}
 
     /**
-     * 生成订单号，生成规则：时间戳 + 机器IP最后两位 + 2位随机数 + 两位自增序列 <br>
-     * 采用可重入锁减小锁持有的粒度，提高系统在高并发情况下的性能
+     * 生成订单号，生成规则：时间戳(yyMMddHHmmssSSS) + 机器IP最后两位 + 4位自增序列 <br>
+     * 无锁实现，同一进程内保证不重复(每毫秒10000个，超出时借用下一毫秒)，见 {@link OrderNoGenerator}
      * 
      * @return
      */
     public static String generateOrder() {
-        StringBuilder builder = new StringBuilder();
-        builder.append(getDateTime(FORMATSTRING))
-               .append(getNumberFromMechine())
-               .append(getRandomNum())
-               .append(getIncrement());
-        return builder.toString();
+        return GENERATOR.next();
     }
 
     /**
@@ -70,50 +54,6 @@ public class OrderGenerater {
         return builder.toString();
     }
 
-    /**
-     * 获取系统当前时间
-     * 
-     * @param formatStr
-     * @return
-     */
-    private static String getDateTime(String formatStr) {
-        SimpleDateFormat format = new SimpleDateFormat(formatStr);
-        return format.format(new Date());
-    }
-
-    /**
-     * 获取自增序列
-     * 
-     * @return
-     */
-    private static String getIncrement() {
-        int tempSerialNo = 0;
-        try {
-            if (lock.tryLock(TIMEOUTSECODES, TimeUnit.SECONDS)) {
-                if (serialNo >= 99) {
-                    serialNo = 0;
-                } else {
-                    serialNo = serialNo + 1;
-                }
-                tempSerialNo = serialNo;
-            } else {
-                // 指定时间内没有获取到锁，存在激烈的锁竞争或者性能问题，直接报错
-                LOG.error("can not get lock in:{} seconds!", TIMEOUTSECODES);
-                throw new RuntimeException("generateOrder can not get lock!");
-            }
-        } catch (Exception e) {
-            LOG.error("tryLock throws Exception:", e);
-            throw new RuntimeException("tryLock throws Exception!");
-        } finally {
-            lock.unlock();
-        }
-        if (tempSerialNo < 10) {
-            return "0" + tempSerialNo;
-        } else {
-            return "" + tempSerialNo;
-        }
-    }
-
     /**
      * 返回两位随机整数
      * 
@@ -0,0 +1,179 @@
+package com.hz.tgb.id;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 高吞吐订单号生成引擎，格式：yyMMddHHmmssSSS + 节点编号 + 定长序列号，例如 180501153012345 07 0042。<br>
+ * （1）时间部分按秒缓存已渲染好的 yyMMddHHmmss 字符，每毫秒只补3位毫秒数，不使用SimpleDateFormat；<br>
+ * （2）序列号无锁递增，位数可配置(默认4位，即每毫秒10000个)；<br>
+ * （3）直接写入预先定长的char[]后生成String，没有StringBuilder拼接；<br>
+ * （4）唯一模式下"毫秒+序列号"打包在一个AtomicLong中CAS推进，序列号用完时借用下一毫秒，
+ * 时钟回拨时沿用上次的时间，保证同一节点编号下绝不重复；普通模式只做一次getAndIncrement，
+ * 同一毫秒超过序列号容量时可能重复。<br>
+ * 多进程/多机部署时各自的节点编号必须不同。
+ *
+ * @author hezhao
+ * @Time 2026年10月19日 下午4:12:08
+ */
+public class OrderNoGenerator {
+
+    /** 时间部分长度 yyMMddHHmmssSSS */
+    private static final int TIME_LENGTH = 15;
+
+    /** 唯一模式下最多借用的未来时间(毫秒) */
+    private static final long MAX_BORROW_MILLIS = 1000L;
+
+    private final char[] nodeChars;
+
+    private final int sequenceDigits;
+
+    private final long sequenceLimit;
+
+    private final boolean unique;
+
+    private final int length;
+
+    /** 普通模式的计数器 */
+    private final AtomicLong counter = new AtomicLong();
+
+    /** 唯一模式：已分配的最后一个 毫秒 * sequenceLimit + 序列号 */
+    private final AtomicLong state = new AtomicLong();
+
+    private volatile SecondCache secondCache = new SecondCache(Long.MIN_VALUE, null);
+
+    /**
+     * @param nodeCode 节点编号，只能是数字，多节点之间不能相同
+     * @param sequenceDigits 序列号位数 1~6
+     * @param unique 是否启用唯一模式
+     */
+    public OrderNoGenerator(String nodeCode, int sequenceDigits, boolean unique) {
+        if (nodeCode == null || !nodeCode.matches("[0-9]*")) {
+            throw new IllegalArgumentException("nodeCode must be digits: " + nodeCode);
+        }
+        if (sequenceDigits < 1 || sequenceDigits > 6) {
+            throw new IllegalArgumentException("sequenceDigits must be between 1 and 6");
+        }
+        this.nodeChars = nodeCode.toCharArray();
+        this.sequenceDigits = sequenceDigits;
+        long limit = 1;
+        for (int i = 0; i < sequenceDigits; i++) {
+            limit *= 10;
+        }
+        this.sequenceLimit = limit;
+        this.unique = unique;
+        this.length = TIME_LENGTH + nodeChars.length + sequenceDigits;
+    }
+
+    /**
+     * 默认唯一模式、4位序列号
+     *
+     * @param nodeCode
+     */
+    public OrderNoGenerator(String nodeCode) {
+        this(nodeCode, 4, true);
+    }
+
+    /**
+     * 生成订单号
+     *
+     * @return
+     */
+    public String next() {
+        long millis;
+        long sequence;
+        if (unique) {
+            long packed = reserve();
+            millis = packed / sequenceLimit;
+            sequence = packed % sequenceLimit;
+        } else {
+            millis = System.currentTimeMillis();
+            sequence = (counter.getAndIncrement() & Long.MAX_VALUE) % sequenceLimit;
+        }
+
+        char[] buf = new char[length];
+        renderTime(millis, buf);
+        System.arraycopy(nodeChars, 0, buf, TIME_LENGTH, nodeChars.length);
+        for (int i = length - 1, n = 0; n < sequenceDigits; i--, n++) {
+            buf[i] = (char) ('0' + sequence % 10);
+            sequence /= 10;
+        }
+        return new String(buf);
+    }
+
+    /**
+     * 订单号长度
+     *
+     * @return
+     */
+    public int getLength() {
+        return length;
+    }
+
+    private long reserve() {
+        for (;;) {
+            long now = System.currentTimeMillis();
+            long prev = state.get();
+            long next = Math.max(prev + 1, now * sequenceLimit);
+            long borrowed = next / sequenceLimit - now;
+            if (borrowed >= MAX_BORROW_MILLIS) {
+                // 持续超过每毫秒容量或时钟大幅回拨，等待时钟追上
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(borrowed - MAX_BORROW_MILLIS + 1));
+                continue;
+            }
+            if (state.compareAndSet(prev, next)) {
+                return next;
+            }
+        }
+    }
+
+    private void renderTime(long millis, char[] buf) {
+        long second = Math.floorDiv(millis, 1000L);
+        SecondCache cache = secondCache;
+        if (cache.second != second) {
+            cache = new SecondCache(second, renderSecond(second));
+            secondCache = cache;
+        }
+        System.arraycopy(cache.chars, 0, buf, 0, 12);
+        int ms = (int) Math.floorMod(millis, 1000L);
+        buf[12] = (char) ('0' + ms / 100);
+        buf[13] = (char) ('0' + ms / 10 % 10);
+        buf[14] = (char) ('0' + ms % 10);
+    }
+
+    private static char[] renderSecond(long second) {
+        LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochSecond(second), ZoneId.systemDefault());
+        char[] chars = new char[12];
+        put2(chars, 0, time.getYear() % 100);
+        put2(chars, 2, time.getMonthValue());
+        put2(chars, 4, time.getDayOfMonth());
+        put2(chars, 6, time.getHour());
+        put2(chars, 8, time.getMinute());
+        put2(chars, 10, time.getSecond());
+        return chars;
+    }
+
+    private static void put2(char[] chars, int offset, int value) {
+        chars[offset] = (char) ('0' + value / 10);
+        chars[offset + 1] = (char) ('0' + value % 10);
+    }
+
+    /**
+     * 已渲染的秒级时间，不可变，整体替换
+     */
+    private static final class SecondCache {
+
+        final long second;
+
+        final char[] chars;
+
+        SecondCache(long second, char[] chars) {
+            this.second = second;
+            this.chars = chars;
+        }
+    }
+}
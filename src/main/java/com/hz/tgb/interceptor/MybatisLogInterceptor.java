@@ -3,24 +3,18 @@ package com.hz.tgb.interceptor;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
-import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.plugin.*;
-import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
-import org.apache.ibatis.type.TypeHandlerRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.text.DateFormat;
-import java.util.Date;
-import java.util.List;
-import java.util.Locale;
 import java.util.Properties;
 
 /**
- * Mybatis日志打印
+ * Mybatis日志打印<br>
+ * 每条SQL都打印，只需要慢SQL和统计时使用 {@link StatementMetricsInterceptor}
  * 
  * @author hezhao 2015年6月24日 下午7:54:46
  */
@@ -41,21 +35,21 @@ public class MybatisLogInterceptor implements Interceptor {
             parameter = invocation.getArgs()[1];
         }
         String sqlId = mappedStatement.getId();
-        BoundSql boundSql = mappedStatement.getBoundSql(parameter);
-        Configuration configuration = mappedStatement.getConfiguration();
-        Object returnValue = null;
+        // 日志关闭时不生成BoundSql，也不渲染SQL；
+        // 开启时在执行前生成，执行过程中对参数对象的修改(如useGeneratedKeys回填主键)不影响动态SQL
+        BoundSql boundSql = LOG.isInfoEnabled() ? mappedStatement.getBoundSql(parameter) : null;
         long start = System.currentTimeMillis();
-        returnValue = invocation.proceed();
-        long end = System.currentTimeMillis();
-        long time = (end - start);
-        String sql = getSql(configuration, boundSql, sqlId, time);
-        LOG.info(sql);
+        Object returnValue = invocation.proceed();
+        long time = System.currentTimeMillis() - start;
+        if (boundSql != null) {
+            LOG.info(getSql(mappedStatement.getConfiguration(), boundSql, sqlId, time));
+        }
         return returnValue;
     }
 
     public static String getSql(Configuration configuration, BoundSql boundSql, String sqlId, long time) {
         String sql = showSql(configuration, boundSql);
-        StringBuilder str = new StringBuilder(100);
+        StringBuilder str = new StringBuilder(sql.length() + 48);
         str.append(sqlId);
         str.append("======[");
         str.append(sql);
@@ -65,47 +59,11 @@ public class MybatisLogInterceptor implements Interceptor {
         return str.toString();
     }
 
-    private static String getParameterValue(Object obj) {
-        String value = null;
-        if (obj instanceof String) {
-            value = "'" + obj.toString() + "'";
-        } else if (obj instanceof Date) {
-            DateFormat formatter = DateFormat.getDateTimeInstance(DateFormat.DEFAULT, DateFormat.DEFAULT, Locale.CHINA);
-            value = "'" + formatter.format(obj) + "'";
-        } else {
-            if (obj != null) {
-                value = obj.toString();
-            } else {
-                value = "";
-            }
-
-        }
-        return value;
-    }
-
+    /**
+     * 替换参数后的SQL，见 {@link SqlRenderer}
+     */
     public static String showSql(Configuration configuration, BoundSql boundSql) {
-        Object parameterObject = boundSql.getParameterObject();
-        List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
-        String sql = boundSql.getSql().replaceAll("[\\s]+", " ");
-        if (!parameterMappings.isEmpty() && parameterObject != null) {
-            TypeHandlerRegistry typeHandlerRegistry = configuration.getTypeHandlerRegistry();
-            if (typeHandlerRegistry.hasTypeHandler(parameterObject.getClass())) {
-                sql = sql.replaceFirst("\\?", getParameterValue(parameterObject));
-            } else {
-                MetaObject metaObject = configuration.newMetaObject(parameterObject);
-                for (ParameterMapping parameterMapping : parameterMappings) {
-                    String propertyName = parameterMapping.getProperty();
-                    if (metaObject.hasGetter(propertyName)) {
-                        Object obj = metaObject.getValue(propertyName);
-                        sql = sql.replaceFirst("\\?", getParameterValue(obj));
-                    } else if (boundSql.hasAdditionalParameter(propertyName)) {
-                        Object obj = boundSql.getAdditionalParameter(propertyName);
-                        sql = sql.replaceFirst("\\?", getParameterValue(obj));
-                    }
-                }
-            }
-        }
-        return sql;
+        return SqlRenderer.render(configuration, boundSql);
     }
 
     @Override
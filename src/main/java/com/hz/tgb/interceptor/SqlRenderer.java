@@ -0,0 +1,148 @@
+package com.hz.tgb.interceptor;
+
+import java.text.DateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.TypeHandlerRegistry;
+
+/**
+ * 把BoundSql渲染成可直接执行的SQL文本，用于日志<br>
+ * 单次扫描：连续空白压缩为一个空格，占位符 ? 依次替换为参数值，单引号字符串内的内容原样保留。<br>
+ * 参数取值顺序与MyBatis DefaultParameterHandler一致(附加参数 &gt; 简单类型参数 &gt; 属性)。
+ *
+ * @author hezhao
+ * @Time 2026年10月20日 下午2:12:46
+ */
+public final class SqlRenderer {
+
+    /** DateFormat非线程安全，每个线程一份 */
+    private static final ThreadLocal<DateFormat> DATE_FORMAT = new ThreadLocal<DateFormat>() {
+        @Override
+        protected DateFormat initialValue() {
+            return DateFormat.getDateTimeInstance(DateFormat.DEFAULT, DateFormat.DEFAULT, Locale.CHINA);
+        }
+    };
+
+    private SqlRenderer() {
+    }
+
+    /**
+     * 渲染SQL
+     *
+     * @param configuration MyBatis配置
+     * @param boundSql 待渲染的SQL
+     * @return 替换参数后的SQL
+     */
+    public static String render(Configuration configuration, BoundSql boundSql) {
+        String sql = boundSql.getSql();
+        List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
+        int mappingCount = parameterMappings == null ? 0 : parameterMappings.size();
+        StringBuilder builder = new StringBuilder(sql.length() + (mappingCount << 3));
+        ParameterResolver resolver = mappingCount == 0 ? null : new ParameterResolver(configuration, boundSql);
+        int parameterIndex = 0;
+        boolean pendingSpace = false;
+        boolean inLiteral = false;
+        for (int i = 0, length = sql.length(); i < length; i++) {
+            char c = sql.charAt(i);
+            if (inLiteral) {
+                builder.append(c);
+                // '' 转义的引号会结束后立即重新进入字符串，不影响结果
+                inLiteral = c != '\'';
+                continue;
+            }
+            if (isWhitespace(c)) {
+                pendingSpace = true;
+                continue;
+            }
+            if (pendingSpace) {
+                builder.append(' ');
+                pendingSpace = false;
+            }
+            if (c == '\'') {
+                inLiteral = true;
+                builder.append(c);
+            } else if (c == '?' && parameterIndex < mappingCount) {
+                resolver.append(builder, parameterMappings.get(parameterIndex++));
+            } else {
+                builder.append(c);
+            }
+        }
+        if (pendingSpace) {
+            builder.append(' ');
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 参数值的文本形式：字符串和日期加单引号，null为空
+     */
+    static String formatValue(Object value) {
+        if (value instanceof String) {
+            return "'" + value + "'";
+        }
+        if (value instanceof Date) {
+            return "'" + DATE_FORMAT.get().format((Date) value) + "'";
+        }
+        return value == null ? "" : value.toString();
+    }
+
+    /**
+     * 与正则 \s 相同的空白字符
+     */
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r';
+    }
+
+    /**
+     * 参数取值，MetaObject按需创建
+     */
+    private static class ParameterResolver {
+
+        private final Configuration configuration;
+
+        private final BoundSql boundSql;
+
+        private final Object parameterObject;
+
+        private final boolean simpleParameter;
+
+        private MetaObject metaObject;
+
+        ParameterResolver(Configuration configuration, BoundSql boundSql) {
+            this.configuration = configuration;
+            this.boundSql = boundSql;
+            this.parameterObject = boundSql.getParameterObject();
+            TypeHandlerRegistry typeHandlerRegistry = configuration.getTypeHandlerRegistry();
+            this.simpleParameter = parameterObject != null && typeHandlerRegistry.hasTypeHandler(parameterObject.getClass());
+        }
+
+        void append(StringBuilder builder, ParameterMapping parameterMapping) {
+            String propertyName = parameterMapping.getProperty();
+            if (parameterMapping.getMode() == ParameterMode.OUT) {
+                builder.append('?');
+            } else if (boundSql.hasAdditionalParameter(propertyName)) {
+                builder.append(formatValue(boundSql.getAdditionalParameter(propertyName)));
+            } else if (parameterObject == null) {
+                builder.append('?');
+            } else if (simpleParameter) {
+                builder.append(formatValue(parameterObject));
+            } else {
+                if (metaObject == null) {
+                    metaObject = configuration.newMetaObject(parameterObject);
+                }
+                if (metaObject.hasGetter(propertyName)) {
+                    builder.append(formatValue(metaObject.getValue(propertyName)));
+                } else {
+                    builder.append('?');
+                }
+            }
+        }
+    }
+}
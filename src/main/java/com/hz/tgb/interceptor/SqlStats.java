@@ -0,0 +1,65 @@
+package com.hz.tgb.interceptor;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.hz.tgb.metrics.LatencyHistogram;
+
+/**
+ * 单条SQL(按sqlId)的执行统计：耗时分布、影响/返回行数、慢SQL数、失败数
+ *
+ * @author hezhao
+ * @Time 2026年10月20日 下午2:31:09
+ */
+public final class SqlStats {
+
+    private final String sqlId;
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    private final LongAdder errorCount = new LongAdder();
+
+    private final LongAdder slowCount = new LongAdder();
+
+    private final LongAdder totalRows = new LongAdder();
+
+    private final LongAccumulator maxRows = new LongAccumulator(Math::max, 0L);
+
+    SqlStats(String sqlId) {
+        this.sqlId = sqlId;
+    }
+
+    /**
+     * 记录一次成功执行
+     *
+     * @param costNanos 耗时
+     * @param rows 返回或影响的行数，未知时为-1
+     * @param slow 是否超过慢SQL阈值
+     */
+    public void record(long costNanos, int rows, boolean slow) {
+        latency.recordNanos(costNanos);
+        if (rows > 0) {
+            totalRows.add(rows);
+            maxRows.accumulate(rows);
+        }
+        if (slow) {
+            slowCount.increment();
+        }
+    }
+
+    /**
+     * 记录一次失败执行
+     */
+    public void recordError(long costNanos) {
+        latency.recordNanos(costNanos);
+        errorCount.increment();
+    }
+
+    public SqlStatsSnapshot snapshot() {
+        return new SqlStatsSnapshot(sqlId, latency.snapshot(), errorCount.sum(), slowCount.sum(), totalRows.sum(), maxRows.get());
+    }
+
+    public String getSqlId() {
+        return sqlId;
+    }
+}
@@ -0,0 +1,59 @@
+package com.hz.tgb.interceptor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 按sqlId保存的SQL执行统计，供导出到监控或接口
+ *
+ * @author hezhao
+ * @Time 2026年10月20日 下午2:44:20
+ */
+public class SqlStatsRegistry {
+
+    private static final SqlStatsRegistry INSTANCE = new SqlStatsRegistry();
+
+    private final ConcurrentMap<String, SqlStats> stats = new ConcurrentHashMap<String, SqlStats>();
+
+    /**
+     * {@link StatementMetricsInterceptor} 默认使用的注册表
+     */
+    public static SqlStatsRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 获取sqlId的统计，不存在时创建
+     */
+    public SqlStats get(String sqlId) {
+        SqlStats sqlStats = stats.get(sqlId);
+        if (sqlStats == null) {
+            SqlStats created = new SqlStats(sqlId);
+            sqlStats = stats.putIfAbsent(sqlId, created);
+            if (sqlStats == null) {
+                sqlStats = created;
+            }
+        }
+        return sqlStats;
+    }
+
+    /**
+     * 所有sqlId的统计快照
+     */
+    public List<SqlStatsSnapshot> snapshot() {
+        List<SqlStatsSnapshot> snapshots = new ArrayList<SqlStatsSnapshot>(stats.size());
+        for (SqlStats sqlStats : stats.values()) {
+            snapshots.add(sqlStats.snapshot());
+        }
+        return snapshots;
+    }
+
+    /**
+     * 清空统计
+     */
+    public void clear() {
+        stats.clear();
+    }
+}
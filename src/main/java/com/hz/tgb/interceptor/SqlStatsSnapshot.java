@@ -0,0 +1,92 @@
+package com.hz.tgb.interceptor;
+
+import com.hz.tgb.metrics.HistogramSnapshot;
+
+/**
+ * SQL执行统计快照(不可变)，由 {@link SqlStats#snapshot()} 生成
+ *
+ * @author hezhao
+ * @Time 2026年10月20日 下午2:38:55
+ */
+public final class SqlStatsSnapshot {
+
+    private final String sqlId;
+
+    private final HistogramSnapshot latency;
+
+    private final long errorCount;
+
+    private final long slowCount;
+
+    private final long totalRows;
+
+    private final long maxRows;
+
+    SqlStatsSnapshot(String sqlId, HistogramSnapshot latency, long errorCount, long slowCount, long totalRows, long maxRows) {
+        this.sqlId = sqlId;
+        this.latency = latency;
+        this.errorCount = errorCount;
+        this.slowCount = slowCount;
+        this.totalRows = totalRows;
+        this.maxRows = maxRows;
+    }
+
+    public String getSqlId() {
+        return sqlId;
+    }
+
+    public HistogramSnapshot getLatency() {
+        return latency;
+    }
+
+    /**
+     * 执行次数(含失败)
+     */
+    public long getCount() {
+        return latency.getCount();
+    }
+
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    public long getSlowCount() {
+        return slowCount;
+    }
+
+    public long getTotalRows() {
+        return totalRows;
+    }
+
+    public long getMaxRows() {
+        return maxRows;
+    }
+
+    public double getAverageRows() {
+        long count = getCount();
+        return count == 0 ? 0.0d : (double) totalRows / count;
+    }
+
+    public double getMeanMillis() {
+        return latency.getMeanMicros() / 1000.0d;
+    }
+
+    /**
+     * 百分位耗时(ms)
+     *
+     * @param percentile 0~100
+     */
+    public double getPercentileMillis(double percentile) {
+        return latency.getValueAtPercentile(percentile) / 1000.0d;
+    }
+
+    public double getMaxMillis() {
+        return latency.getMaxMicros() / 1000.0d;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s count:%d, error:%d, slow:%d, rows(avg/max):%.1f/%d, mean:%.3f ms, p99:%.3f ms, max:%.3f ms", sqlId, getCount(),
+                errorCount, slowCount, getAverageRows(), maxRows, getMeanMillis(), getPercentileMillis(99), getMaxMillis());
+    }
+}
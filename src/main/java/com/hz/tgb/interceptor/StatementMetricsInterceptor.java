@@ -0,0 +1,152 @@
+package com.hz.tgb.interceptor;
+
+import java.util.Collection;
+import java.util.Properties;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Plugin;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.reflection.ExceptionUtil;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * SQL执行统计与慢SQL日志<br>
+ * 每条语句只记录耗时和行数到 {@link SqlStatsRegistry}；只有慢SQL、失败的SQL和按比例采样的SQL才会渲染完整SQL并打印。<br>
+ * 可配置属性：<br>
+ * slowMillis 慢SQL阈值(ms)，默认1000，超过阈值以WARN打印；<br>
+ * sampleRate 普通SQL按比例以INFO打印，0~1，默认0(不打印)。
+ *
+ * @author hezhao
+ * @Time 2026年10月20日 下午2:52:31
+ */
+@Intercepts({ @Signature(type = Executor.class, method = "update", args = { MappedStatement.class, Object.class }),
+        @Signature(type = Executor.class, method = "query", args = { MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class }) })
+public class StatementMetricsInterceptor implements Interceptor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StatementMetricsInterceptor.class);
+
+    private final SqlStatsRegistry registry;
+
+    private volatile long slowNanos = TimeUnit.SECONDS.toNanos(1);
+
+    private volatile double sampleRate = 0D;
+
+    public StatementMetricsInterceptor() {
+        this(SqlStatsRegistry.getInstance());
+    }
+
+    public StatementMetricsInterceptor(SqlStatsRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        MappedStatement mappedStatement = (MappedStatement) invocation.getArgs()[0];
+        Object parameter = invocation.getArgs().length > 1 ? invocation.getArgs()[1] : null;
+        SqlStats sqlStats = registry.get(mappedStatement.getId());
+        long start = System.nanoTime();
+        Object returnValue;
+        try {
+            returnValue = invocation.proceed();
+        } catch (Throwable e) {
+            long cost = System.nanoTime() - start;
+            sqlStats.recordError(cost);
+            if (LOG.isWarnEnabled()) {
+                LOG.warn("{}, error:{}", message(mappedStatement, parameter, cost, -1), ExceptionUtil.unwrapThrowable(e).toString());
+            }
+            throw e;
+        }
+        long cost = System.nanoTime() - start;
+        int rows = rowCount(returnValue);
+        boolean slow = cost >= slowNanos;
+        sqlStats.record(cost, rows, slow);
+        if (slow) {
+            if (LOG.isWarnEnabled()) {
+                LOG.warn("slow sql {}", message(mappedStatement, parameter, cost, rows));
+            }
+        } else if (sampled() && LOG.isInfoEnabled()) {
+            LOG.info(message(mappedStatement, parameter, cost, rows));
+        }
+        return returnValue;
+    }
+
+    private boolean sampled() {
+        double rate = sampleRate;
+        return rate >= 1D || (rate > 0D && ThreadLocalRandom.current().nextDouble() < rate);
+    }
+
+    /**
+     * 只在需要打印时才生成BoundSql并渲染。执行前不知道是否为慢SQL，所以渲染发生在执行之后，
+     * 执行过程中被修改的参数(如useGeneratedKeys回填的主键)会以修改后的值出现在日志中
+     */
+    private static String message(MappedStatement mappedStatement, Object parameter, long costNanos, int rows) {
+        String sql;
+        try {
+            sql = SqlRenderer.render(mappedStatement.getConfiguration(), mappedStatement.getBoundSql(parameter));
+        } catch (Exception e) {
+            sql = "(render failed: " + e + ")";
+        }
+        StringBuilder str = new StringBuilder(sql.length() + 64);
+        str.append(mappedStatement.getId());
+        str.append("======[");
+        str.append(sql);
+        str.append("]====== cost:");
+        str.append(TimeUnit.NANOSECONDS.toMillis(costNanos));
+        str.append("ms");
+        if (rows >= 0) {
+            str.append(", rows:").append(rows);
+        }
+        return str.toString();
+    }
+
+    /**
+     * 查询返回的行数或更新影响的行数，未知时为-1
+     */
+    private static int rowCount(Object returnValue) {
+        if (returnValue instanceof Collection) {
+            return ((Collection<?>) returnValue).size();
+        }
+        if (returnValue instanceof Integer) {
+            return (Integer) returnValue;
+        }
+        return -1;
+    }
+
+    public SqlStatsRegistry getRegistry() {
+        return registry;
+    }
+
+    public void setSlowMillis(long slowMillis) {
+        this.slowNanos = TimeUnit.MILLISECONDS.toNanos(slowMillis);
+    }
+
+    public void setSampleRate(double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    public Object plugin(Object target) {
+        return Plugin.wrap(target, this);
+    }
+
+    @Override
+    public void setProperties(Properties properties) {
+        String slowMillis = properties.getProperty("slowMillis");
+        if (slowMillis != null) {
+            setSlowMillis(Long.parseLong(slowMillis.trim()));
+        }
+        String rate = properties.getProperty("sampleRate");
+        if (rate != null) {
+            setSampleRate(Double.parseDouble(rate.trim()));
+        }
+    }
+}
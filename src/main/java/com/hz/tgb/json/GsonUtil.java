@@ -183,6 +183,9 @@ public class GsonUtil {
 	}
     
     private static final Gson gson = new Gson();
+
+    /** 无状态，可以共用 */
+    private static final JsonValidator VALIDATOR = new JsonValidator();
 	
 	/**
 	 * 序列化对象
@@ -224,7 +227,7 @@ public class GsonUtil {
 	 * @return true-合法 ，false-非法
 	 */
 	public static boolean validate(String json) {
-		return (new JsonValidator()).validate(json);
+		return VALIDATOR.validate(json);
 	}
 	
 	/**
@@ -0,0 +1,400 @@
+package com.hz.tgb.json;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * 流式JSON转Map/List<br>
+ * 基于jackson的token流一次扫描直接构造嵌套的Map/List，不会像json-lib那样对子树反复toString再解析。<br>
+ * 结果类型：对象为LinkedHashMap(保持字段顺序)，数组为ArrayList，字符串为String，整数为Integer/Long/BigInteger，
+ * 小数为Double(超出范围时为BigDecimal)，布尔为Boolean，null为null。<br>
+ * 可以限制嵌套深度、单个对象/数组的元素数、字符串长度，超出时抛出 {@link IllegalArgumentException}；
+ * 还可以指定深度之下的子树延迟解析：先跳过并记录原文位置，第一次访问时再解析。<br>
+ * 实例不可变，线程安全。
+ *
+ * @author hezhao
+ * @Time 2026年10月21日 上午11:18:36
+ */
+public final class JsonMapConverter {
+
+    /** 与json-lib一样接受单引号和不带引号的字段名 */
+    private static final JsonFactory FACTORY = new JsonFactory().enable(JsonParser.Feature.ALLOW_SINGLE_QUOTES)
+            .enable(JsonParser.Feature.ALLOW_UNQUOTED_FIELD_NAMES);
+
+    /** 默认最大嵌套深度 */
+    public static final int DEFAULT_MAX_DEPTH = 256;
+
+    /** 默认配置：最大深度 {@link #DEFAULT_MAX_DEPTH}，其他不限制，不延迟解析 */
+    public static final JsonMapConverter DEFAULT = new JsonMapConverter(DEFAULT_MAX_DEPTH, Integer.MAX_VALUE, Integer.MAX_VALUE, 0);
+
+    private final int maxDepth;
+
+    private final int maxContainerSize;
+
+    private final int maxStringLength;
+
+    private final int lazyDepth;
+
+    private JsonMapConverter(int maxDepth, int maxContainerSize, int maxStringLength, int lazyDepth) {
+        this.maxDepth = maxDepth;
+        this.maxContainerSize = maxContainerSize;
+        this.maxStringLength = maxStringLength;
+        this.lazyDepth = lazyDepth;
+    }
+
+    /**
+     * 最大嵌套深度，最外层对象/数组的深度为1
+     */
+    public JsonMapConverter withMaxDepth(int maxDepth) {
+        return new JsonMapConverter(maxDepth, maxContainerSize, maxStringLength, lazyDepth);
+    }
+
+    /**
+     * 单个对象的字段数/数组的元素数上限
+     */
+    public JsonMapConverter withMaxContainerSize(int maxContainerSize) {
+        return new JsonMapConverter(maxDepth, maxContainerSize, maxStringLength, lazyDepth);
+    }
+
+    /**
+     * 字符串(包括字段名)的长度上限
+     */
+    public JsonMapConverter withMaxStringLength(int maxStringLength) {
+        return new JsonMapConverter(maxDepth, maxContainerSize, maxStringLength, lazyDepth);
+    }
+
+    /**
+     * 深度大于lazyDepth的对象/数组延迟解析，0表示全部立即解析。<br>
+     * 延迟的子树在第一次访问时整棵解析；只对字符串输入有效。
+     */
+    public JsonMapConverter withLazyDepth(int lazyDepth) {
+        return new JsonMapConverter(maxDepth, maxContainerSize, maxStringLength, lazyDepth);
+    }
+
+    /**
+     * 解析JSON对象
+     *
+     * @throws IllegalArgumentException 不是合法的JSON对象，或超出限制
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> toMap(String json) {
+        Object value = parse(json);
+        if (!(value instanceof Map)) {
+            throw new IllegalArgumentException("json is not an object: " + abbreviate(json));
+        }
+        return (Map<String, Object>) value;
+    }
+
+    /**
+     * 解析任意JSON值
+     *
+     * @throws IllegalArgumentException 不是合法的JSON，或超出限制
+     */
+    public Object parse(String json) {
+        if (json == null) {
+            throw new IllegalArgumentException("json is null");
+        }
+        try {
+            JsonParser parser = FACTORY.createParser(json);
+            try {
+                return readDocument(parser, json, 0);
+            } finally {
+                parser.close();
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("invalid json: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 从流中解析任意JSON值，不支持延迟解析
+     */
+    public Object parse(Reader reader) {
+        try {
+            JsonParser parser = FACTORY.createParser(reader);
+            try {
+                return readDocument(parser, null, 0);
+            } finally {
+                parser.close();
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("invalid json: " + e.getMessage(), e);
+        }
+    }
+
+    private Object readDocument(JsonParser parser, String source, int depth) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == null) {
+            throw new IllegalArgumentException("json is empty");
+        }
+        Object value = readValue(parser, token, source, depth);
+        if (parser.nextToken() != null) {
+            throw new IllegalArgumentException("unexpected content after json value at " + parser.getTokenLocation());
+        }
+        return value;
+    }
+
+    private Object readValue(JsonParser parser, JsonToken token, String source, int depth) throws IOException {
+        switch (token) {
+        case START_OBJECT:
+        case START_ARRAY:
+            if (depth + 1 > maxDepth) {
+                throw new IllegalArgumentException("json depth exceeds " + maxDepth + " at " + parser.getTokenLocation());
+            }
+            if (source != null && lazyDepth > 0 && depth + 1 > lazyDepth) {
+                return skipLazy(parser, token, source, depth + 1);
+            }
+            return token == JsonToken.START_OBJECT ? readObject(parser, source, depth + 1) : readArray(parser, source, depth + 1);
+        case VALUE_STRING:
+            return readString(parser);
+        case VALUE_NUMBER_INT:
+            switch (parser.getNumberType()) {
+            case INT:
+                return parser.getIntValue();
+            case LONG:
+                return parser.getLongValue();
+            default:
+                return parser.getBigIntegerValue();
+            }
+        case VALUE_NUMBER_FLOAT:
+            double d = parser.getDoubleValue();
+            if (Double.isInfinite(d)) {
+                return parser.getDecimalValue();
+            }
+            return d;
+        case VALUE_TRUE:
+            return Boolean.TRUE;
+        case VALUE_FALSE:
+            return Boolean.FALSE;
+        case VALUE_NULL:
+            return null;
+        default:
+            throw new IllegalArgumentException("unexpected token " + token + " at " + parser.getTokenLocation());
+        }
+    }
+
+    private Map<String, Object> readObject(JsonParser parser, String source, int depth) throws IOException {
+        Map<String, Object> map = new LinkedHashMap<String, Object>();
+        JsonToken token;
+        while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+            String name = readString(parser);
+            if (map.size() >= maxContainerSize) {
+                throw new IllegalArgumentException("json object size exceeds " + maxContainerSize + " at " + parser.getTokenLocation());
+            }
+            map.put(name, readValue(parser, parser.nextToken(), source, depth));
+        }
+        if (token != JsonToken.END_OBJECT) {
+            throw new IllegalArgumentException("unexpected token " + token + " at " + parser.getTokenLocation());
+        }
+        return map;
+    }
+
+    private List<Object> readArray(JsonParser parser, String source, int depth) throws IOException {
+        List<Object> list = new ArrayList<Object>();
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token == null) {
+                throw new IllegalArgumentException("unexpected end of json");
+            }
+            if (list.size() >= maxContainerSize) {
+                throw new IllegalArgumentException("json array size exceeds " + maxContainerSize + " at " + parser.getTokenLocation());
+            }
+            list.add(readValue(parser, token, source, depth));
+        }
+        return list;
+    }
+
+    private String readString(JsonParser parser) throws IOException {
+        if (parser.getTextLength() > maxStringLength) {
+            throw new IllegalArgumentException("json string length exceeds " + maxStringLength + " at " + parser.getTokenLocation());
+        }
+        return parser.getText();
+    }
+
+    /**
+     * 跳过子树，只记录其在原文中的位置
+     */
+    private Object skipLazy(JsonParser parser, JsonToken token, String source, int depth) throws IOException {
+        int start = (int) parser.getTokenLocation().getCharOffset();
+        parser.skipChildren();
+        int end = (int) parser.getCurrentLocation().getCharOffset();
+        LazyNode node = new LazyNode(withLazyDepth(0), source, start, end, depth - 1);
+        return token == JsonToken.START_OBJECT ? new LazyMap(node) : new LazyList(node);
+    }
+
+    private static String abbreviate(String json) {
+        return json.length() > 64 ? json.substring(0, 64) + "..." : json;
+    }
+
+    /**
+     * 延迟解析的子树，解析一次后缓存结果
+     */
+    private static final class LazyNode {
+
+        private final JsonMapConverter converter;
+
+        private final String source;
+
+        private final int start;
+
+        private final int end;
+
+        private final int depth;
+
+        private volatile Object value;
+
+        LazyNode(JsonMapConverter converter, String source, int start, int end, int depth) {
+            this.converter = converter;
+            this.source = source;
+            this.start = start;
+            this.end = end;
+            this.depth = depth;
+        }
+
+        Object get() {
+            Object result = value;
+            if (result == null) {
+                String json = source.substring(start, end);
+                try {
+                    JsonParser parser = FACTORY.createParser(json);
+                    try {
+                        result = converter.readDocument(parser, json, depth);
+                    } finally {
+                        parser.close();
+                    }
+                } catch (IOException e) {
+                    throw new IllegalArgumentException("invalid json: " + e.getMessage(), e);
+                }
+                value = result;
+            }
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return source.substring(start, end);
+        }
+    }
+
+    /**
+     * 延迟解析的JSON对象，可以通过 {@link #toJson()} 直接取得原文
+     */
+    public static final class LazyMap extends AbstractMap<String, Object> {
+
+        private final LazyNode node;
+
+        LazyMap(LazyNode node) {
+            this.node = node;
+        }
+
+        /**
+         * 是否已经解析
+         */
+        public boolean isMaterialized() {
+            return node.value != null;
+        }
+
+        /**
+         * JSON原文
+         */
+        public String toJson() {
+            return node.toString();
+        }
+
+        @SuppressWarnings("unchecked")
+        private Map<String, Object> map() {
+            return (Map<String, Object>) node.get();
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            return map().entrySet();
+        }
+
+        @Override
+        public Object get(Object key) {
+            return map().get(key);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return map().containsKey(key);
+        }
+
+        @Override
+        public Object put(String key, Object value) {
+            return map().put(key, value);
+        }
+
+        @Override
+        public Object remove(Object key) {
+            return map().remove(key);
+        }
+
+        @Override
+        public int size() {
+            return map().size();
+        }
+    }
+
+    /**
+     * 延迟解析的JSON数组，可以通过 {@link #toJson()} 直接取得原文
+     */
+    public static final class LazyList extends AbstractList<Object> {
+
+        private final LazyNode node;
+
+        LazyList(LazyNode node) {
+            this.node = node;
+        }
+
+        public boolean isMaterialized() {
+            return node.value != null;
+        }
+
+        public String toJson() {
+            return node.toString();
+        }
+
+        @SuppressWarnings("unchecked")
+        private List<Object> list() {
+            return (List<Object>) node.get();
+        }
+
+        @Override
+        public Object get(int index) {
+            return list().get(index);
+        }
+
+        @Override
+        public Object set(int index, Object element) {
+            return list().set(index, element);
+        }
+
+        @Override
+        public void add(int index, Object element) {
+            list().add(index, element);
+        }
+
+        @Override
+        public Object remove(int index) {
+            return list().remove(index);
+        }
+
+        @Override
+        public int size() {
+            return list().size();
+        }
+    }
+}
@@ -1,216 +1,775 @@
 package com.hz.tgb.json;
 
-import java.text.CharacterIterator;
-import java.text.StringCharacterIterator;
+import java.nio.ByteBuffer;
 
 /**
- * json格式校验类
- * 
+ * json格式校验类<br>
+ * 按RFC 8259校验，支持String/CharSequence、char[]、UTF-8编码的byte[]和ByteBuffer(同时校验UTF-8编码)。<br>
+ * 校验器本身无状态、线程安全，可以共用一个实例；一次性校验复用线程内的 {@link Incremental}，校验过程不分配内存。<br>
+ * 数据分段到达时(如边接收请求体边校验)，使用 {@link #newIncremental()} 逐段喂入，最后调用 {@link Incremental#finish()}。<br>
+ * 与原实现一致，空串和只含空白的输入视为合法。
+ *
  * @author hezhao
- * @date 2015年9月15日 下午5:21:45 
+ * @date 2015年9月15日 下午5:21:45
  * @version 1.0
  */
 public class JsonValidator {
 
-    private CharacterIterator it;
-    private char              c;
-    private int               col;
+    /** 默认最大嵌套深度 */
+    public static final int DEFAULT_MAX_DEPTH = 1024;
+
+    private static final ThreadLocal<Incremental> SESSIONS = new ThreadLocal<Incremental>() {
+        @Override
+        protected Incremental initialValue() {
+            return new Incremental(DEFAULT_MAX_DEPTH);
+        }
+    };
+
+    private final int maxDepth;
 
     public JsonValidator(){
+        this(DEFAULT_MAX_DEPTH);
+    }
+
+    /**
+     * @param maxDepth 最大嵌套深度，超过时视为非法
+     */
+    public JsonValidator(int maxDepth) {
+        this.maxDepth = maxDepth;
     }
 
     /**
      * 验证一个字符串是否是合法的JSON串
-     * 
+     *
      * @param input 要验证的字符串
      * @return true-合法 ，false-非法
      */
     public boolean validate(String input) {
-        input = input.trim();
-        boolean ret = valid(input);
-        return ret;
+        return validate((CharSequence) input);
     }
 
-    private boolean valid(String input) {
-        if ("".equals(input)) return true;
-
-        boolean ret = true;
-        it = new StringCharacterIterator(input);
-        c = it.first();
-        col = 1;
-        if (!value()) {
-            ret = error("value", 1);
-        } else {
-            skipWhiteSpace();
-            if (c != CharacterIterator.DONE) {
-                ret = error("end", col);
-            }
+    public boolean validate(CharSequence input) {
+        if (input == null) {
+            return false;
         }
+        Incremental session = session();
+        session.feed(input);
+        return session.finish();
+    }
 
-        return ret;
+    public boolean validate(char[] input, int offset, int length) {
+        Incremental session = session();
+        session.feed(input, offset, length);
+        return session.finish();
     }
 
-    private boolean value() {
-        return literal("true") || literal("false") || literal("null") || string() || number() || object() || array();
+    /**
+     * @param utf8 UTF-8编码的JSON
+     */
+    public boolean validate(byte[] utf8) {
+        return validate(utf8, 0, utf8.length);
     }
 
-    private boolean literal(String text) {
-        CharacterIterator ci = new StringCharacterIterator(text);
-        char t = ci.first();
-        if (c != t) return false;
+    public boolean validate(byte[] utf8, int offset, int length) {
+        Incremental session = session();
+        session.feed(utf8, offset, length);
+        return session.finish();
+    }
 
-        int start = col;
-        boolean ret = true;
-        for (t = ci.next(); t != CharacterIterator.DONE; t = ci.next()) {
-            if (t != nextCharacter()) {
-                ret = false;
-                break;
-            }
-        }
-        nextCharacter();
-        if (!ret) error("literal " + text, start);
-        return ret;
+    /**
+     * 校验position到limit之间的内容，不改变buffer的position
+     */
+    public boolean validate(ByteBuffer utf8) {
+        Incremental session = session();
+        session.feed(utf8.duplicate());
+        return session.finish();
     }
 
-    private boolean array() {
-        return aggregate('[', ']', false);
+    /**
+     * 创建一个增量校验会话，非线程安全
+     */
+    public Incremental newIncremental() {
+        return new Incremental(maxDepth);
     }
 
-    private boolean object() {
-        return aggregate('{', '}', true);
+    private Incremental session() {
+        Incremental session = SESSIONS.get();
+        session.reset(maxDepth);
+        return session;
     }
 
-    private boolean aggregate(char entryCharacter, char exitCharacter, boolean prefix) {
-        if (c != entryCharacter) return false;
-        nextCharacter();
-        skipWhiteSpace();
-        if (c == exitCharacter) {
-            nextCharacter();
-            return true;
+    /**
+     * 增量校验：内容可以分成任意多段依次喂入，字符串、数字、UTF-8多字节字符等都可以跨段。<br>
+     * 一旦发现非法内容，之后的feed直接返回false；{@link #getErrorPosition()} 给出出错的位置(按喂入的char/byte计数)。<br>
+     * 状态机在一段之内只用局部变量，段尾才把状态写回字段；
+     * char输入按块转成单字节(非ASCII字符统一记为0x80，只能出现在字符串中)后走同一个状态机，块缓冲区在会话内复用。
+     */
+    public static final class Incremental {
+
+        private static final int VALUE = 0;
+        private static final int VALUE_OR_END = 1;
+        private static final int KEY_OR_END = 2;
+        private static final int KEY = 3;
+        private static final int COLON = 4;
+        private static final int AFTER_VALUE = 5;
+        private static final int STRING = 6;
+        private static final int UTF8 = 7;
+        private static final int ESCAPE = 8;
+        private static final int UNICODE = 9;
+        private static final int NUM_MINUS = 10;
+        private static final int NUM_ZERO = 11;
+        private static final int NUM_INT = 12;
+        private static final int NUM_DOT = 13;
+        private static final int NUM_FRAC = 14;
+        private static final int NUM_EXP = 15;
+        private static final int NUM_EXP_SIGN = 16;
+        private static final int NUM_EXP_DIGITS = 17;
+        private static final int LITERAL = 18;
+        private static final int DONE = 19;
+        private static final int ERROR = 20;
+
+        /** char输入中的非ASCII字符 */
+        private static final byte NON_ASCII = (byte) 0x80;
+
+        /** char输入转换块的大小 */
+        private static final int BLOCK_SIZE = 2048;
+
+        private static final String TRUE = "true";
+        private static final String FALSE = "false";
+        private static final String NULL = "null";
+
+        private int maxDepth;
+
+        private int state;
+
+        private int depth;
+
+        /** 每层一位，1-对象，0-数组 */
+        private long[] stack = new long[(DEFAULT_MAX_DEPTH + 63) >>> 6];
+
+        private boolean started;
+
+        private boolean key;
+
+        private String literal;
+
+        private int literalIndex;
+
+        private int hexRemaining;
+
+        private int utf8Remaining;
+
+        private int utf8Lower;
+
+        private int utf8Upper;
+
+        private long position;
+
+        private long errorPosition;
+
+        private byte[] block;
+
+        Incremental(int maxDepth) {
+            reset(maxDepth);
         }
 
-        for (;;) {
-            if (prefix) {
-                int start = col;
-                if (!string()) return error("string", start);
-                skipWhiteSpace();
-                if (c != ':') return error("colon", col);
-                nextCharacter();
-                skipWhiteSpace();
-            }
-            if (value()) {
-                skipWhiteSpace();
-                if (c == ',') {
-                    nextCharacter();
-                } else if (c == exitCharacter) {
-                    break;
-                } else {
-                    return error("comma or " + exitCharacter, col);
+        /**
+         * 重置后可以校验下一段JSON
+         */
+        public void reset() {
+            reset(maxDepth);
+        }
+
+        void reset(int maxDepth) {
+            this.maxDepth = maxDepth;
+            state = VALUE;
+            depth = 0;
+            started = false;
+            key = false;
+            literal = null;
+            literalIndex = 0;
+            hexRemaining = 0;
+            utf8Remaining = 0;
+            position = 0;
+            errorPosition = -1;
+        }
+
+        /**
+         * @return 到目前为止是否合法
+         */
+        public boolean feed(CharSequence chunk) {
+            int length = chunk.length();
+            byte[] block = block();
+            for (int start = 0; start < length && state != ERROR; start += BLOCK_SIZE) {
+                int n = Math.min(BLOCK_SIZE, length - start);
+                for (int i = 0; i < n; i++) {
+                    char c = chunk.charAt(start + i);
+                    block[i] = c < 0x80 ? (byte) c : NON_ASCII;
                 }
-            } else {
-                return error("value", col);
+                scan(block, 0, n, false);
             }
-            skipWhiteSpace();
+            return state != ERROR;
         }
 
-        nextCharacter();
-        return true;
-    }
+        public boolean feed(char[] chunk, int offset, int length) {
+            byte[] block = block();
+            for (int start = 0; start < length && state != ERROR; start += BLOCK_SIZE) {
+                int n = Math.min(BLOCK_SIZE, length - start);
+                for (int i = 0; i < n; i++) {
+                    char c = chunk[offset + start + i];
+                    block[i] = c < 0x80 ? (byte) c : NON_ASCII;
+                }
+                scan(block, 0, n, false);
+            }
+            return state != ERROR;
+        }
 
-    private boolean number() {
-        if (!Character.isDigit(c) && c != '-') return false;
-        int start = col;
-        if (c == '-') nextCharacter();
-        if (c == '0') {
-            nextCharacter();
-        } else if (Character.isDigit(c)) {
-            while (Character.isDigit(c))
-                nextCharacter();
-        } else {
-            return error("number", start);
-        }
-        if (c == '.') {
-            nextCharacter();
-            if (Character.isDigit(c)) {
-                while (Character.isDigit(c))
-                    nextCharacter();
-            } else {
-                return error("number", start);
+        /**
+         * @param utf8 UTF-8编码的内容，直接在原数组上校验
+         */
+        public boolean feed(byte[] utf8, int offset, int length) {
+            if (state != ERROR) {
+                scan(utf8, offset, offset + length, true);
             }
+            return state != ERROR;
         }
-        if (c == 'e' || c == 'E') {
-            nextCharacter();
-            if (c == '+' || c == '-') {
-                nextCharacter();
+
+        /**
+         * 消费position到limit之间的内容；堆内buffer直接在底层数组上校验，堆外buffer按块读出
+         */
+        public boolean feed(ByteBuffer utf8) {
+            if (utf8.hasArray()) {
+                boolean ret = feed(utf8.array(), utf8.arrayOffset() + utf8.position(), utf8.remaining());
+                utf8.position(utf8.limit());
+                return ret;
             }
-            if (Character.isDigit(c)) {
-                while (Character.isDigit(c))
-                    nextCharacter();
+            byte[] block = block();
+            while (utf8.hasRemaining() && state != ERROR) {
+                int n = Math.min(BLOCK_SIZE, utf8.remaining());
+                utf8.get(block, 0, n);
+                scan(block, 0, n, true);
+            }
+            return state != ERROR;
+        }
+
+        /**
+         * 输入结束
+         *
+         * @return 整个输入是否是合法的JSON
+         */
+        public boolean finish() {
+            if (state == NUM_ZERO || state == NUM_INT || state == NUM_FRAC || state == NUM_EXP_DIGITS) {
+                state = depth == 0 ? DONE : AFTER_VALUE;
+            }
+            if (state == DONE || (state == VALUE && !started)) {
+                return true;
+            }
+            if (state != ERROR) {
+                state = ERROR;
+                errorPosition = position;
+            }
+            return false;
+        }
+
+        /**
+         * 出错的位置，没有出错时为-1
+         */
+        public long getErrorPosition() {
+            return errorPosition;
+        }
+
+        private byte[] block() {
+            if (block == null) {
+                block = new byte[BLOCK_SIZE];
+            }
+            return block;
+        }
+
+        /**
+         * 状态机。字符串、数字、字面量在本段内完整时一次跳过，只有跨段或出错时才退回逐个字符的状态
+         *
+         * @param utf8 true-校验UTF-8编码，false-输入来自char，非ASCII已转为 {@link #NON_ASCII}
+         */
+        @SuppressWarnings("fallthrough")
+        private void scan(byte[] in, int offset, int end, boolean utf8) {
+            int state = this.state;
+            int depth = this.depth;
+            int i = offset;
+            loop:
+            while (i < end) {
+                int c = in[i];
+                switch (state) {
+                case VALUE:
+                case VALUE_OR_END:
+                    if (isWhitespace(c, depth)) {
+                        i++;
+                        continue;
+                    }
+                    if (c == ']' && state == VALUE_OR_END) {
+                        depth--;
+                        state = depth == 0 ? DONE : AFTER_VALUE;
+                        i++;
+                        continue;
+                    }
+                    started = true;
+                    switch (c) {
+                    case '{':
+                    case '[':
+                        if (depth >= maxDepth) {
+                            state = ERROR;
+                            break loop;
+                        }
+                        push(depth++, c == '{');
+                        state = c == '{' ? KEY_OR_END : VALUE_OR_END;
+                        i++;
+                        continue;
+                    case '"':
+                        // 字符串在本段内结束且没有转义、非ASCII时一次跳过，否则从停下的位置按STRING状态继续
+                        int close = skipString(in, i + 1, end, utf8);
+                        if (close < end && in[close] == '"') {
+                            state = depth == 0 ? DONE : AFTER_VALUE;
+                            i = close + 1;
+                        } else {
+                            key = false;
+                            state = STRING;
+                            i = close;
+                        }
+                        continue;
+                    case 't':
+                        literal = TRUE;
+                        break;
+                    case 'f':
+                        literal = FALSE;
+                        break;
+                    case 'n':
+                        literal = NULL;
+                        break;
+                    default:
+                        int next = skipNumber(in, i, end);
+                        if (next > 0) {
+                            state = depth == 0 ? DONE : AFTER_VALUE;
+                            i = next;
+                            continue;
+                        }
+                        // 跨段或不合法，逐个字符处理
+                        if (c == '-') {
+                            state = NUM_MINUS;
+                        } else if (c == '0') {
+                            state = NUM_ZERO;
+                        } else if (c >= '1' && c <= '9') {
+                            state = NUM_INT;
+                        } else {
+                            state = ERROR;
+                            break loop;
+                        }
+                        i++;
+                        continue;
+                    }
+                    if (matches(in, i, end, literal)) {
+                        state = depth == 0 ? DONE : AFTER_VALUE;
+                        i += literal.length();
+                    } else {
+                        literalIndex = 1;
+                        state = LITERAL;
+                        i++;
+                    }
+                    continue;
+                case KEY_OR_END:
+                case KEY:
+                    if (isWhitespace(c, depth)) {
+                        i++;
+                        continue;
+                    }
+                    if (c == '"') {
+                        int close = skipString(in, i + 1, end, utf8);
+                        if (close < end && in[close] == '"') {
+                            state = COLON;
+                            i = close + 1;
+                        } else {
+                            key = true;
+                            state = STRING;
+                            i = close;
+                        }
+                        continue;
+                    }
+                    if (c != '}' || state != KEY_OR_END) {
+                        state = ERROR;
+                        break loop;
+                    }
+                    depth--;
+                    state = depth == 0 ? DONE : AFTER_VALUE;
+                    i++;
+                    continue;
+                case COLON:
+                    if (isWhitespace(c, depth)) {
+                        i++;
+                        continue;
+                    }
+                    if (c != ':') {
+                        state = ERROR;
+                        break loop;
+                    }
+                    state = VALUE;
+                    i++;
+                    continue;
+                case AFTER_VALUE:
+                    if (isWhitespace(c, depth)) {
+                        i++;
+                        continue;
+                    }
+                    boolean object = isObject(depth - 1);
+                    if (c == ',') {
+                        state = object ? KEY : VALUE;
+                    } else if (c == (object ? '}' : ']')) {
+                        depth--;
+                        state = depth == 0 ? DONE : AFTER_VALUE;
+                    } else {
+                        state = ERROR;
+                        break loop;
+                    }
+                    i++;
+                    continue;
+                case STRING:
+                    i = skipString(in, i, end, utf8);
+                    if (i == end) {
+                        break loop;
+                    }
+                    c = in[i];
+                    if (c == '"') {
+                        state = key ? COLON : depth == 0 ? DONE : AFTER_VALUE;
+                        key = false;
+                    } else if (c == '\\') {
+                        state = ESCAPE;
+                    } else if (c >= 0) {
+                        // 控制字符
+                        state = ERROR;
+                        break loop;
+                    } else {
+                        // UTF-8多字节字符跨段或不合法，逐个字节校验
+                        c &= 0xFF;
+                        utf8Remaining = utf8Length(c);
+                        if (utf8Remaining < 0) {
+                            state = ERROR;
+                            break loop;
+                        }
+                        utf8Lower = utf8Lower(c);
+                        utf8Upper = utf8Upper(c);
+                        state = UTF8;
+                    }
+                    i++;
+                    continue;
+                case UTF8:
+                    c &= 0xFF;
+                    if (c < utf8Lower || c > utf8Upper) {
+                        state = ERROR;
+                        break loop;
+                    }
+                    utf8Lower = 0x80;
+                    utf8Upper = 0xBF;
+                    if (--utf8Remaining == 0) {
+                        state = STRING;
+                    }
+                    i++;
+                    continue;
+                case ESCAPE:
+                    if (c == 'u') {
+                        hexRemaining = 4;
+                        state = UNICODE;
+                    } else if (c == '"' || c == '\\' || c == '/' || c == 'b' || c == 'f' || c == 'n' || c == 'r' || c == 't') {
+                        state = STRING;
+                    } else {
+                        state = ERROR;
+                        break loop;
+                    }
+                    i++;
+                    continue;
+                case UNICODE:
+                    if (!((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F'))) {
+                        state = ERROR;
+                        break loop;
+                    }
+                    if (--hexRemaining == 0) {
+                        state = STRING;
+                    }
+                    i++;
+                    continue;
+                case NUM_MINUS:
+                    if (c == '0') {
+                        state = NUM_ZERO;
+                    } else if (c >= '1' && c <= '9') {
+                        state = NUM_INT;
+                    } else {
+                        state = ERROR;
+                        break loop;
+                    }
+                    i++;
+                    continue;
+                case NUM_INT:
+                    while (c >= '0' && c <= '9') {
+                        if (++i == end) {
+                            break loop;
+                        }
+                        c = in[i];
+                    }
+                    // fall through，继续按NUM_ZERO处理小数点、指数
+                case NUM_ZERO:
+                    if (c == '.') {
+                        state = NUM_DOT;
+                        i++;
+                    } else if (c == 'e' || c == 'E') {
+                        state = NUM_EXP;
+                        i++;
+                    } else {
+                        // 数字结束，当前字符按新状态重新处理
+                        state = depth == 0 ? DONE : AFTER_VALUE;
+                    }
+                    continue;
+                case NUM_DOT:
+                    if (c < '0' || c > '9') {
+                        state = ERROR;
+                        break loop;
+                    }
+                    state = NUM_FRAC;
+                    i++;
+                    continue;
+                case NUM_FRAC:
+                    while (c >= '0' && c <= '9') {
+                        if (++i == end) {
+                            break loop;
+                        }
+                        c = in[i];
+                    }
+                    if (c == 'e' || c == 'E') {
+                        state = NUM_EXP;
+                        i++;
+                    } else {
+                        state = depth == 0 ? DONE : AFTER_VALUE;
+                    }
+                    continue;
+                case NUM_EXP:
+                    if (c == '+' || c == '-') {
+                        state = NUM_EXP_SIGN;
+                    } else if (c >= '0' && c <= '9') {
+                        state = NUM_EXP_DIGITS;
+                    } else {
+                        state = ERROR;
+                        break loop;
+                    }
+                    i++;
+                    continue;
+                case NUM_EXP_SIGN:
+                    if (c < '0' || c > '9') {
+                        state = ERROR;
+                        break loop;
+                    }
+                    state = NUM_EXP_DIGITS;
+                    i++;
+                    continue;
+                case NUM_EXP_DIGITS:
+                    while (c >= '0' && c <= '9') {
+                        if (++i == end) {
+                            break loop;
+                        }
+                        c = in[i];
+                    }
+                    state = depth == 0 ? DONE : AFTER_VALUE;
+                    continue;
+                case LITERAL:
+                    if (c != literal.charAt(literalIndex)) {
+                        state = ERROR;
+                        break loop;
+                    }
+                    if (++literalIndex == literal.length()) {
+                        state = depth == 0 ? DONE : AFTER_VALUE;
+                    }
+                    i++;
+                    continue;
+                case DONE:
+                    if (!isWhitespace(c, 0)) {
+                        state = ERROR;
+                        break loop;
+                    }
+                    i++;
+                    continue;
+                default:
+                    break loop;
+                }
+            }
+            if (state == ERROR && this.state != ERROR) {
+                errorPosition = position + (i - offset);
+            }
+            position += i - offset;
+            this.state = state;
+            this.depth = depth;
+        }
+
+        /**
+         * 跳过字符串内容，UTF-8多字节字符在段内完整时一并校验
+         *
+         * @return 第一个引号、反斜杠、控制字符、跨段或不合法的UTF-8首字节的位置，都没有时为end
+         */
+        private static int skipString(byte[] in, int i, int end, boolean utf8) {
+            while (i < end) {
+                int c = in[i];
+                if (c >= 0x20 && c != '"' && c != '\\') {
+                    i++;
+                } else if (c >= 0) {
+                    return i;
+                } else if (!utf8) {
+                    i++;
+                } else {
+                    int next = skipUtf8(in, i, end);
+                    if (next < 0) {
+                        return i;
+                    }
+                    i = next;
+                }
+            }
+            return i;
+        }
+
+        /**
+         * @return 完整合法的UTF-8多字节字符之后的位置，否则为-1
+         */
+        private static int skipUtf8(byte[] in, int i, int end) {
+            int b = in[i] & 0xFF;
+            int length = utf8Length(b);
+            if (length < 0 || end - i <= length) {
+                return -1;
+            }
+            int c = in[i + 1] & 0xFF;
+            if (c < utf8Lower(b) || c > utf8Upper(b)) {
+                return -1;
+            }
+            for (int k = 2; k <= length; k++) {
+                c = in[i + k] & 0xFF;
+                if (c < 0x80 || c > 0xBF) {
+                    return -1;
+                }
+            }
+            return i + length + 1;
+        }
+
+        /**
+         * 跳过一个完整的数字
+         *
+         * @return 数字之后的位置；数字不合法，或到段尾还不能确定是否结束时为-1
+         */
+        private static int skipNumber(byte[] in, int i, int end) {
+            if (in[i] == '-' && ++i == end) {
+                return -1;
+            }
+            if (in[i] == '0') {
+                i++;
             } else {
-                return error("number", start);
+                int start = i;
+                i = skipDigits(in, i, end);
+                if (i == start) {
+                    return -1;
+                }
+            }
+            if (i < end && in[i] == '.') {
+                int start = ++i;
+                i = skipDigits(in, i, end);
+                if (i == start) {
+                    return -1;
+                }
             }
+            if (i < end && (in[i] == 'e' || in[i] == 'E')) {
+                if (++i < end && (in[i] == '+' || in[i] == '-')) {
+                    i++;
+                }
+                int start = i;
+                i = skipDigits(in, i, end);
+                if (i == start) {
+                    return -1;
+                }
+            }
+            return i < end ? i : -1;
         }
-        return true;
-    }
 
-    private boolean string() {
-        if (c != '"') return false;
+        private static int skipDigits(byte[] in, int i, int end) {
+            while (i < end && in[i] >= '0' && in[i] <= '9') {
+                i++;
+            }
+            return i;
+        }
 
-        int start = col;
-        boolean escaped = false;
-        for (nextCharacter(); c != CharacterIterator.DONE; nextCharacter()) {
-            if (!escaped && c == '\\') {
-                escaped = true;
-            } else if (escaped) {
-                if (!escape()) {
+        private static boolean matches(byte[] in, int i, int end, String literal) {
+            int length = literal.length();
+            if (end - i < length) {
+                return false;
+            }
+            for (int k = 1; k < length; k++) {
+                if (in[i + k] != literal.charAt(k)) {
                     return false;
                 }
-                escaped = false;
-            } else if (c == '"') {
-                nextCharacter();
-                return true;
             }
+            return true;
         }
-        return error("quoted string", start);
-    }
 
-    private boolean escape() {
-        int start = col - 1;
-        if (" \\\"/bfnrtu".indexOf(c) < 0) {
-            return error("escape sequence  \\\",\\\\,\\/,\\b,\\f,\\n,\\r,\\t  or  \\uxxxx ", start);
-        }
-        if (c == 'u') {
-            if (!ishex(nextCharacter()) || !ishex(nextCharacter()) || !ishex(nextCharacter())
-                || !ishex(nextCharacter())) {
-                return error("unicode escape sequence  \\uxxxx ", start);
+        /**
+         * UTF-8多字节字符的首字节，按Unicode标准表3-7限定后续字节：排除过长编码、代理区和超出U+10FFFF的编码
+         *
+         * @return 后续字节数，不能作为首字节时为-1
+         */
+        private static int utf8Length(int b) {
+            if (b >= 0xC2 && b <= 0xDF) {
+                return 1;
+            } else if (b >= 0xE0 && b <= 0xEF) {
+                return 2;
+            } else if (b >= 0xF0 && b <= 0xF4) {
+                return 3;
             }
+            return -1;
         }
-        return true;
-    }
 
-    private boolean ishex(char d) {
-        return "0123456789abcdefABCDEF".indexOf(c) >= 0;
-    }
+        /**
+         * 第一个后续字节的下限
+         */
+        private static int utf8Lower(int b) {
+            return b == 0xE0 ? 0xA0 : b == 0xF0 ? 0x90 : 0x80;
+        }
 
-    private char nextCharacter() {
-        c = it.next();
-        ++col;
-        return c;
-    }
+        /**
+         * 第一个后续字节的上限
+         */
+        private static int utf8Upper(int b) {
+            return b == 0xED ? 0x9F : b == 0xF4 ? 0x8F : 0xBF;
+        }
 
-    private void skipWhiteSpace() {
-        while (Character.isWhitespace(c)) {
-            nextCharacter();
+        /**
+         * 最外层之外允许任意控制字符(与原实现的trim一致)，内部只允许JSON空白
+         */
+        private static boolean isWhitespace(int c, int depth) {
+            if (c > ' ' || c < 0) {
+                return false;
+            }
+            return c == ' ' || c == '\n' || c == '\r' || c == '\t' || depth == 0;
         }
-    }
 
-    private boolean error(String type, int col) {
-      	//System.out.printf("type: %s, col: %s%s", type, col, System.getProperty("line.separator"));
-        return false;
+        private void push(int level, boolean object) {
+            int word = level >>> 6;
+            if (word == stack.length) {
+                long[] grown = new long[stack.length * 2];
+                System.arraycopy(stack, 0, grown, 0, stack.length);
+                stack = grown;
+            }
+            if (object) {
+                stack[word] |= 1L << level;
+            } else {
+                stack[word] &= ~(1L << level);
+            }
+        }
+
+        private boolean isObject(int level) {
+            return (stack[level >>> 6] & (1L << level)) != 0;
+        }
     }
+
     public static void main(String[] args){
         String jsonStr = "{\"website\":\"oschina.net\"}";
         System.out.println(new JsonValidator().validate(jsonStr));
     }
 
-}
\ No newline at end of file
+}
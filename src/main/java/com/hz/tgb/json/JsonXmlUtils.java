@@ -44,33 +44,26 @@ public class JsonXmlUtils {
     }
     
     /**
-     * json转map<String, Object>
+     * json转map<String, Object><br>
+     * 使用 {@link JsonMapConverter} 流式解析，嵌套的对象为Map，数组为List，null值为null
      * 
      * @param jsonStr
      * @return
      */
     public static Map<String, Object> json2Map(String jsonStr){
-        Map<String, Object> map = new HashMap<String, Object>();  
-        //最外层解析  
-        JSONObject json = JSONObject.fromObject(jsonStr);  
-        for(Object k : json.keySet()){  
-            Object v = json.get(k);   
-            //如果内层还是数组的话，继续解析  
-            if(v instanceof JSONArray){  
-                List<Map<String, Object>> list = new ArrayList<Map<String,Object>>();  
-                @SuppressWarnings("unchecked")
-				Iterator<JSONObject> it = ((JSONArray)v).iterator();  
-                while(it.hasNext()){  
-                    JSONObject json2 = it.next();  
-                    list.add(json2Map(json2.toString()));  
-                }  
-                map.put(k.toString(), list);  
-            } else {  
-                map.put(k.toString(), v);  
-            }  
-        }  
-        return map;  
-    }  
+        return JsonMapConverter.DEFAULT.toMap(jsonStr);
+    }
+
+    /**
+     * json转map<String, Object>，可以指定深度/大小限制和延迟解析
+     *
+     * @param jsonStr
+     * @param converter 如 JsonMapConverter.DEFAULT.withMaxDepth(32).withLazyDepth(1)
+     * @return
+     */
+    public static Map<String, Object> json2Map(String jsonStr, JsonMapConverter converter){
+        return converter.toMap(jsonStr);
+    }
      
 
     /**
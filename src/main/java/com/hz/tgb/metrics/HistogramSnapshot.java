@@ -0,0 +1,86 @@
+package com.hz.tgb.metrics;
+
+/**
+ * 耗时直方图快照(不可变)，单位微秒，由 {@link LatencyHistogram#snapshot()} 生成
+ *
+ * @author hezhao
+ * @Time 2026年10月20日 上午10:21:37
+ */
+public final class HistogramSnapshot {
+
+    static final HistogramSnapshot EMPTY = new HistogramSnapshot(new long[LatencyHistogram.BUCKET_COUNT], 0L, 0L);
+
+    private final long[] counts;
+
+    private final long count;
+
+    private final long totalMicros;
+
+    private final long maxMicros;
+
+    HistogramSnapshot(long[] counts, long totalMicros, long maxMicros) {
+        this.counts = counts;
+        long sum = 0;
+        int highest = -1;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                sum += counts[i];
+                highest = i;
+            }
+        }
+        this.count = sum;
+        this.totalMicros = totalMicros;
+        // 区间快照没有精确的最大值，用最高非空桶的上界，不超过累计最大值
+        this.maxMicros = highest < 0 ? 0L : Math.min(LatencyHistogram.highestValue(highest), maxMicros);
+    }
+
+    /**
+     * 本快照减去更早的快照，得到两次快照之间的分布
+     *
+     * @param previous 同一直方图更早的快照
+     */
+    public HistogramSnapshot minus(HistogramSnapshot previous) {
+        long[] diff = new long[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            diff[i] = Math.max(0L, counts[i] - previous.counts[i]);
+        }
+        return new HistogramSnapshot(diff, Math.max(0L, totalMicros - previous.totalMicros), maxMicros);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getTotalMicros() {
+        return totalMicros;
+    }
+
+    public long getMaxMicros() {
+        return maxMicros;
+    }
+
+    public double getMeanMicros() {
+        return count == 0 ? 0.0d : (double) totalMicros / count;
+    }
+
+    /**
+     * 百分位耗时，返回所在桶的上界(不超过最大值)，没有数据时为0
+     *
+     * @param percentile 0~100，如99.9
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (count == 0) {
+            return 0L;
+        }
+        double p = Math.min(Math.max(percentile, 0.0d), 100.0d);
+        long rank = Math.max(1L, (long) Math.ceil(p / 100.0d * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(LatencyHistogram.highestValue(i), maxMicros);
+            }
+        }
+        return maxMicros;
+    }
+}
@@ -0,0 +1,89 @@
+package com.hz.tgb.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 无锁的耗时直方图(HDR风格的对数-线性分桶)，单位微秒<br>
+ * 每个2的幂区间再等分为32个子桶，任意值的相对误差不超过1/32；最大可记录 2^41-1 微秒(约25天)，超出按最大值计。<br>
+ * 记录只有一次 {@link AtomicLongArray} 自增和一次 {@link LongAdder} 累加，不加锁、不分配对象。
+ *
+ * @author hezhao
+ * @Time 2026年10月20日 上午10:05:14
+ */
+public final class LatencyHistogram {
+
+    static final int SUB_BUCKET_BITS = 5;
+
+    static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    private static final int MAX_SHIFT = 35;
+
+    static final int BUCKET_COUNT = SUB_BUCKET_COUNT * (MAX_SHIFT + 2);
+
+    public static final long MAX_VALUE = (1L << (MAX_SHIFT + SUB_BUCKET_BITS + 1)) - 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+    private final LongAdder totalMicros = new LongAdder();
+
+    private final LongAccumulator maxMicros = new LongAccumulator(Math::max, 0L);
+
+    /**
+     * 记录一次耗时
+     *
+     * @param nanos System.nanoTime()之差
+     */
+    public void recordNanos(long nanos) {
+        recordMicros(nanos / 1000L);
+    }
+
+    public void recordMicros(long micros) {
+        long value = micros < 0 ? 0 : Math.min(micros, MAX_VALUE);
+        counts.incrementAndGet(bucketIndex(value));
+        totalMicros.add(value);
+        maxMicros.accumulate(value);
+    }
+
+    /**
+     * 当前累计数据的快照；记录与快照并发时，快照内各项之间可能相差正在记录的几次调用
+     */
+    public HistogramSnapshot snapshot() {
+        long[] copy = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            copy[i] = counts.get(i);
+        }
+        return new HistogramSnapshot(copy, totalMicros.sum(), maxMicros.get());
+    }
+
+    static int bucketIndex(long value) {
+        if (value < (SUB_BUCKET_COUNT << 1)) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+    }
+
+    /**
+     * 桶内最小值
+     */
+    static long lowestValue(int index) {
+        if (index < (SUB_BUCKET_COUNT << 1)) {
+            return index;
+        }
+        int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        return (long) (index - (shift << SUB_BUCKET_BITS)) << shift;
+    }
+
+    /**
+     * 桶内最大值
+     */
+    static long highestValue(int index) {
+        if (index < (SUB_BUCKET_COUNT << 1)) {
+            return index;
+        }
+        int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        return lowestValue(index) + (1L << shift) - 1;
+    }
+}
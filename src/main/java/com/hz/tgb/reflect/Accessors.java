@@ -0,0 +1,383 @@
+package com.hz.tgb.reflect;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * 把getter/setter/属性/构造方法转换成函数接口，供需要反复访问属性的地方预先解析后缓存使用<br>
+ * 公有类的公有方法通过 {@link LambdaMetafactory} 生成直接调用(与手写代码性能相当)；
+ * 非公有的类/方法、属性、目标类对本类不可见时，退化为 {@link MethodHandle}。<br>
+ * int/long/double版本不装箱；short/byte/char可按int读取，float可按double读取。
+ *
+ * @author hezhao
+ * @Time 2026年10月20日 下午7:12:40
+ */
+public final class Accessors {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private Accessors() {
+    }
+
+    public static Function<Object, Object> getter(Method method) {
+        Function<Object, Object> function = lambda(method, Function.class, "apply", MethodType.methodType(Object.class, Object.class),
+                MethodType.methodType(wrap(method.getReturnType()), method.getDeclaringClass()));
+        return function != null ? function : objectGetter(handle(method));
+    }
+
+    public static ToIntFunction<Object> intGetter(Method method) {
+        ToIntFunction<Object> function = lambda(method, ToIntFunction.class, "applyAsInt", MethodType.methodType(int.class, Object.class),
+                MethodType.methodType(method.getReturnType(), method.getDeclaringClass()));
+        return function != null ? function : intGetter(handle(method));
+    }
+
+    public static ToLongFunction<Object> longGetter(Method method) {
+        ToLongFunction<Object> function = lambda(method, ToLongFunction.class, "applyAsLong", MethodType.methodType(long.class, Object.class),
+                MethodType.methodType(method.getReturnType(), method.getDeclaringClass()));
+        return function != null ? function : longGetter(handle(method));
+    }
+
+    public static ToDoubleFunction<Object> doubleGetter(Method method) {
+        ToDoubleFunction<Object> function = lambda(method, ToDoubleFunction.class, "applyAsDouble",
+                MethodType.methodType(double.class, Object.class), MethodType.methodType(method.getReturnType(), method.getDeclaringClass()));
+        return function != null ? function : doubleGetter(handle(method));
+    }
+
+    public static BiConsumer<Object, Object> setter(Method method) {
+        BiConsumer<Object, Object> consumer = lambda(method, BiConsumer.class, "accept",
+                MethodType.methodType(void.class, Object.class, Object.class),
+                MethodType.methodType(void.class, method.getDeclaringClass(), wrap(method.getParameterTypes()[0])));
+        return consumer != null ? consumer : objectSetter(handle(method));
+    }
+
+    /**
+     * 参数必须是int
+     */
+    public static ObjIntConsumer<Object> intSetter(Method method) {
+        ObjIntConsumer<Object> consumer = lambda(method, ObjIntConsumer.class, "accept", MethodType.methodType(void.class, Object.class, int.class),
+                MethodType.methodType(void.class, method.getDeclaringClass(), int.class));
+        return consumer != null ? consumer : intSetter(handle(method));
+    }
+
+    /**
+     * 参数必须是long
+     */
+    public static ObjLongConsumer<Object> longSetter(Method method) {
+        ObjLongConsumer<Object> consumer = lambda(method, ObjLongConsumer.class, "accept",
+                MethodType.methodType(void.class, Object.class, long.class), MethodType.methodType(void.class, method.getDeclaringClass(), long.class));
+        return consumer != null ? consumer : longSetter(handle(method));
+    }
+
+    /**
+     * 参数必须是double
+     */
+    public static ObjDoubleConsumer<Object> doubleSetter(Method method) {
+        ObjDoubleConsumer<Object> consumer = lambda(method, ObjDoubleConsumer.class, "accept",
+                MethodType.methodType(void.class, Object.class, double.class),
+                MethodType.methodType(void.class, method.getDeclaringClass(), double.class));
+        return consumer != null ? consumer : doubleSetter(handle(method));
+    }
+
+    /**
+     * 无参构造方法
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Supplier<T> constructor(Class<T> type) {
+        Constructor<T> constructor;
+        try {
+            constructor = type.getDeclaredConstructor();
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException(type.getName() + " has no default constructor", e);
+        }
+        if (isLambdaTarget(type, constructor.getModifiers())) {
+            try {
+                MethodHandle target = LOOKUP.unreflectConstructor(constructor);
+                CallSite site = LambdaMetafactory.metafactory(LOOKUP, "get", MethodType.methodType(Supplier.class),
+                        MethodType.methodType(Object.class), target, MethodType.methodType(type));
+                return (Supplier<T>) site.getTarget().invoke();
+            } catch (Throwable e) {
+                // 退化为MethodHandle
+            }
+        }
+        try {
+            constructor.setAccessible(true);
+            final MethodHandle handle = LOOKUP.unreflectConstructor(constructor).asType(MethodType.methodType(Object.class));
+            return new Supplier<T>() {
+                @Override
+                public T get() {
+                    try {
+                        return (T) handle.invokeExact();
+                    } catch (Throwable e) {
+                        throw rethrow(e);
+                    }
+                }
+            };
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("can not access constructor of " + type.getName(), e);
+        }
+    }
+
+    public static Function<Object, Object> getter(Field field) {
+        return objectGetter(getterHandle(field));
+    }
+
+    public static ToIntFunction<Object> intGetter(Field field) {
+        return intGetter(getterHandle(field));
+    }
+
+    public static ToLongFunction<Object> longGetter(Field field) {
+        return longGetter(getterHandle(field));
+    }
+
+    public static ToDoubleFunction<Object> doubleGetter(Field field) {
+        return doubleGetter(getterHandle(field));
+    }
+
+    public static BiConsumer<Object, Object> setter(Field field) {
+        return objectSetter(setterHandle(field));
+    }
+
+    public static ObjIntConsumer<Object> intSetter(Field field) {
+        return intSetter(setterHandle(field));
+    }
+
+    public static ObjLongConsumer<Object> longSetter(Field field) {
+        return longSetter(setterHandle(field));
+    }
+
+    public static ObjDoubleConsumer<Object> doubleSetter(Field field) {
+        return doubleSetter(setterHandle(field));
+    }
+
+    /**
+     * 基本类型转为包装类型
+     */
+    public static Class<?> wrap(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return type;
+        }
+        if (type == int.class) {
+            return Integer.class;
+        } else if (type == long.class) {
+            return Long.class;
+        } else if (type == double.class) {
+            return Double.class;
+        } else if (type == boolean.class) {
+            return Boolean.class;
+        } else if (type == float.class) {
+            return Float.class;
+        } else if (type == short.class) {
+            return Short.class;
+        } else if (type == byte.class) {
+            return Byte.class;
+        } else if (type == char.class) {
+            return Character.class;
+        }
+        return Void.class;
+    }
+
+    /**
+     * 生成的lambda类由本类的类加载器解析目标类，所以目标类必须对本类可见
+     *
+     * @return 不能使用LambdaMetafactory时返回null
+     */
+    @SuppressWarnings("unchecked")
+    private static <F> F lambda(Method method, Class<?> functionType, String functionName, MethodType erased, MethodType instantiated) {
+        if (Modifier.isStatic(method.getModifiers()) || !isLambdaTarget(method.getDeclaringClass(), method.getModifiers())) {
+            return null;
+        }
+        try {
+            CallSite site = LambdaMetafactory.metafactory(LOOKUP, functionName, MethodType.methodType(functionType), erased,
+                    LOOKUP.unreflect(method), instantiated);
+            return (F) site.getTarget().invoke();
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+
+    private static boolean isLambdaTarget(Class<?> declaring, int modifiers) {
+        if (!Modifier.isPublic(declaring.getModifiers()) || !Modifier.isPublic(modifiers)) {
+            return false;
+        }
+        for (Class<?> c = declaring; c != null; c = c.getEnclosingClass()) {
+            if (!Modifier.isPublic(c.getModifiers())) {
+                return false;
+            }
+        }
+        try {
+            return Class.forName(declaring.getName(), false, Accessors.class.getClassLoader()) == declaring;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    private static MethodHandle handle(Method method) {
+        try {
+            method.setAccessible(true);
+            return LOOKUP.unreflect(method);
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("can not access method: " + method, e);
+        }
+    }
+
+    /**
+     * static字段忽略传入的对象
+     */
+    private static MethodHandle getterHandle(Field field) {
+        try {
+            field.setAccessible(true);
+            MethodHandle handle = LOOKUP.unreflectGetter(field);
+            return Modifier.isStatic(field.getModifiers()) ? MethodHandles.dropArguments(handle, 0, Object.class) : handle;
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("can not access field: " + field, e);
+        }
+    }
+
+    private static MethodHandle setterHandle(Field field) {
+        try {
+            field.setAccessible(true);
+            MethodHandle handle = LOOKUP.unreflectSetter(field);
+            return Modifier.isStatic(field.getModifiers()) ? MethodHandles.dropArguments(handle, 0, Object.class) : handle;
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("can not access field: " + field, e);
+        }
+    }
+
+    private static Function<Object, Object> objectGetter(MethodHandle handle) {
+        final MethodHandle getter = handle.asType(MethodType.methodType(Object.class, Object.class));
+        return new Function<Object, Object>() {
+            @Override
+            public Object apply(Object bean) {
+                try {
+                    return getter.invokeExact(bean);
+                } catch (Throwable e) {
+                    throw rethrow(e);
+                }
+            }
+        };
+    }
+
+    private static ToIntFunction<Object> intGetter(MethodHandle handle) {
+        final MethodHandle getter = handle.asType(MethodType.methodType(int.class, Object.class));
+        return new ToIntFunction<Object>() {
+            @Override
+            public int applyAsInt(Object bean) {
+                try {
+                    return (int) getter.invokeExact(bean);
+                } catch (Throwable e) {
+                    throw rethrow(e);
+                }
+            }
+        };
+    }
+
+    private static ToLongFunction<Object> longGetter(MethodHandle handle) {
+        final MethodHandle getter = handle.asType(MethodType.methodType(long.class, Object.class));
+        return new ToLongFunction<Object>() {
+            @Override
+            public long applyAsLong(Object bean) {
+                try {
+                    return (long) getter.invokeExact(bean);
+                } catch (Throwable e) {
+                    throw rethrow(e);
+                }
+            }
+        };
+    }
+
+    private static ToDoubleFunction<Object> doubleGetter(MethodHandle handle) {
+        final MethodHandle getter = handle.asType(MethodType.methodType(double.class, Object.class));
+        return new ToDoubleFunction<Object>() {
+            @Override
+            public double applyAsDouble(Object bean) {
+                try {
+                    return (double) getter.invokeExact(bean);
+                } catch (Throwable e) {
+                    throw rethrow(e);
+                }
+            }
+        };
+    }
+
+    private static BiConsumer<Object, Object> objectSetter(MethodHandle handle) {
+        final MethodHandle setter = handle.asType(MethodType.methodType(void.class, Object.class, Object.class));
+        return new BiConsumer<Object, Object>() {
+            @Override
+            public void accept(Object bean, Object value) {
+                try {
+                    setter.invokeExact(bean, value);
+                } catch (Throwable e) {
+                    throw rethrow(e);
+                }
+            }
+        };
+    }
+
+    private static ObjIntConsumer<Object> intSetter(MethodHandle handle) {
+        final MethodHandle setter = handle.asType(MethodType.methodType(void.class, Object.class, int.class));
+        return new ObjIntConsumer<Object>() {
+            @Override
+            public void accept(Object bean, int value) {
+                try {
+                    setter.invokeExact(bean, value);
+                } catch (Throwable e) {
+                    throw rethrow(e);
+                }
+            }
+        };
+    }
+
+    private static ObjLongConsumer<Object> longSetter(MethodHandle handle) {
+        final MethodHandle setter = handle.asType(MethodType.methodType(void.class, Object.class, long.class));
+        return new ObjLongConsumer<Object>() {
+            @Override
+            public void accept(Object bean, long value) {
+                try {
+                    setter.invokeExact(bean, value);
+                } catch (Throwable e) {
+                    throw rethrow(e);
+                }
+            }
+        };
+    }
+
+    private static ObjDoubleConsumer<Object> doubleSetter(MethodHandle handle) {
+        final MethodHandle setter = handle.asType(MethodType.methodType(void.class, Object.class, double.class));
+        return new ObjDoubleConsumer<Object>() {
+            @Override
+            public void accept(Object bean, double value) {
+                try {
+                    setter.invokeExact(bean, value);
+                } catch (Throwable e) {
+                    throw rethrow(e);
+                }
+            }
+        };
+    }
+
+    private static RuntimeException rethrow(Throwable e) {
+        if (e instanceof RuntimeException) {
+            return (RuntimeException) e;
+        }
+        if (e instanceof Error) {
+            throw (Error) e;
+        }
+        return new IllegalStateException(e);
+    }
+}
@@ -0,0 +1,384 @@
+package com.hz.tgb.reflect;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+import org.apache.commons.beanutils.BeanUtilsBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 属性拷贝引擎<br>
+ * 每对(源类型, 目标类型)只解析一次：同名的可读属性与可写属性配对，getter/setter通过 {@link Accessors} 生成访问函数，
+ * 结果缓存在 {@link ClassValue} 中，之后每次拷贝只是依次调用这些函数，没有反射查找。<br>
+ * 规则：<br>
+ * 1、源属性类型可以赋值给目标属性(包括基本类型与包装类型互转)时直接赋值，与spring的BeanUtils.copyProperties一致，引用类型不做深拷贝；
+ * int/long/double同类型之间不装箱；<br>
+ * 2、类型不兼容时交给 {@link PropertyConverter} 转换，没有指定转换器时跳过该属性；<br>
+ * 3、null不会赋值给基本类型的属性，目标属性保持原值。<br>
+ * 线程安全。
+ *
+ * @author hezhao
+ * @Time 2026年10月20日 下午7:40:16
+ */
+public final class BeanCopier<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(BeanCopier.class);
+
+    /** 列表元素数达到该值时，copyList才会并行拷贝 */
+    public static final int PARALLEL_THRESHOLD = 1 << 13;
+
+    /** 使用commons-beanutils注册的转换器转换，与BeanUtils.copyProperties的类型转换一致 */
+    public static final PropertyConverter COMMONS_CONVERTER = new PropertyConverter() {
+        @Override
+        public Object convert(Object value, Class<?> targetType) {
+            return BeanUtilsBean.getInstance().getConvertUtils().convert(value, targetType);
+        }
+    };
+
+    private static final ClassValue<ConcurrentMap<Class<?>, BeanCopier<?>>> COPIERS = new ClassValue<ConcurrentMap<Class<?>, BeanCopier<?>>>() {
+        @Override
+        protected ConcurrentMap<Class<?>, BeanCopier<?>> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<Class<?>, BeanCopier<?>>();
+        }
+    };
+
+    /**
+     * 属性类型不兼容时的转换器
+     */
+    public interface PropertyConverter {
+
+        /**
+         * @param value 源属性值，可能为null
+         * @param targetType 目标属性类型
+         * @return 转换后的值
+         */
+        Object convert(Object value, Class<?> targetType);
+    }
+
+    private final Class<?> sourceType;
+
+    private final Class<T> targetType;
+
+    private final PropertyCopy[] properties;
+
+    private final boolean needConverter;
+
+    private volatile Supplier<T> constructor;
+
+    private BeanCopier(Class<?> sourceType, Class<T> targetType) {
+        this.sourceType = sourceType;
+        this.targetType = targetType;
+        this.properties = plan(sourceType, targetType);
+        boolean convert = false;
+        for (PropertyCopy property : properties) {
+            convert |= property instanceof ConvertCopy;
+        }
+        this.needConverter = convert;
+    }
+
+    /**
+     * 获取(源类型, 目标类型)对应的拷贝器，首次调用时解析并缓存
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> BeanCopier<T> get(Class<?> sourceType, Class<T> targetType) {
+        ConcurrentMap<Class<?>, BeanCopier<?>> copiers = COPIERS.get(sourceType);
+        BeanCopier<?> copier = copiers.get(targetType);
+        if (copier == null) {
+            copier = new BeanCopier<T>(sourceType, targetType);
+            BeanCopier<?> existing = copiers.putIfAbsent(targetType, copier);
+            if (existing != null) {
+                copier = existing;
+            }
+        }
+        return (BeanCopier<T>) copier;
+    }
+
+    /**
+     * 拷贝到新创建的目标对象，目标类型需要有无参构造方法
+     *
+     * @return source为null时返回null
+     */
+    public T copy(Object source) {
+        return copy(source, (PropertyConverter) null);
+    }
+
+    public T copy(Object source, PropertyConverter converter) {
+        if (source == null) {
+            return null;
+        }
+        Supplier<T> supplier = constructor;
+        if (supplier == null) {
+            supplier = Accessors.constructor(targetType);
+            constructor = supplier;
+        }
+        T target = supplier.get();
+        copy(source, target, converter);
+        return target;
+    }
+
+    public void copy(Object source, T target) {
+        copy(source, target, null);
+    }
+
+    public void copy(Object source, T target, PropertyConverter converter) {
+        for (PropertyCopy property : properties) {
+            property.copy(source, target, converter);
+        }
+    }
+
+    /**
+     * 是否有类型不兼容、需要转换器的属性
+     */
+    public boolean isNeedConverter() {
+        return needConverter;
+    }
+
+    /**
+     * 会被拷贝的属性名
+     */
+    public List<String> getPropertyNames() {
+        List<String> names = new ArrayList<String>(properties.length);
+        for (PropertyCopy property : properties) {
+            names.add(property.name);
+        }
+        return names;
+    }
+
+    /**
+     * 拷贝列表，每个元素按自身的类型查找拷贝器，null元素结果也为null
+     *
+     * @param sources 源列表
+     * @param targetType 目标类型
+     * @param converter 类型不兼容时的转换器，可以为null
+     * @param parallel 是否允许并行拷贝，元素数达到 {@link #PARALLEL_THRESHOLD} 时才会并行
+     * @return 可修改的ArrayList
+     */
+    public static <T> List<T> copyList(Collection<?> sources, final Class<T> targetType, final PropertyConverter converter, boolean parallel) {
+        if (sources == null || sources.isEmpty()) {
+            return new ArrayList<T>();
+        }
+        final Object[] items = sources.toArray();
+        if (parallel && items.length >= PARALLEL_THRESHOLD) {
+            // 每个位置只读写自己，可以原地替换
+            Arrays.parallelSetAll(items, new IntFunction<Object>() {
+                @Override
+                public Object apply(int i) {
+                    Object source = items[i];
+                    return source == null ? null : get(source.getClass(), targetType).copy(source, converter);
+                }
+            });
+        } else {
+            BeanCopier<T> last = null;
+            for (int i = 0; i < items.length; i++) {
+                Object source = items[i];
+                if (source == null) {
+                    continue;
+                }
+                if (last == null || last.sourceType != source.getClass()) {
+                    last = get(source.getClass(), targetType);
+                }
+                items[i] = last.copy(source, converter);
+            }
+        }
+        return toList(items);
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> List<T> toList(Object[] items) {
+        return (List<T>) new ArrayList<Object>(Arrays.asList(items));
+    }
+
+    private static PropertyCopy[] plan(Class<?> sourceType, Class<?> targetType) {
+        Map<String, PropertyDescriptor> writable = new HashMap<String, PropertyDescriptor>();
+        for (PropertyDescriptor descriptor : descriptors(targetType)) {
+            if (descriptor.getWriteMethod() != null) {
+                writable.put(descriptor.getName(), descriptor);
+            }
+        }
+        List<PropertyCopy> properties = new ArrayList<PropertyCopy>();
+        for (PropertyDescriptor descriptor : descriptors(sourceType)) {
+            Method getter = descriptor.getReadMethod();
+            PropertyDescriptor target = writable.get(descriptor.getName());
+            if (getter == null || target == null || "class".equals(descriptor.getName())) {
+                continue;
+            }
+            try {
+                properties.add(create(descriptor.getName(), getter, target.getWriteMethod()));
+            } catch (RuntimeException e) {
+                logger.warn("skip property {} when copy {} to {}: {}", descriptor.getName(), sourceType.getName(), targetType.getName(), e.toString());
+            }
+        }
+        return properties.toArray(new PropertyCopy[0]);
+    }
+
+    private static PropertyDescriptor[] descriptors(Class<?> type) {
+        try {
+            BeanInfo beanInfo = Introspector.getBeanInfo(type);
+            return beanInfo.getPropertyDescriptors();
+        } catch (IntrospectionException e) {
+            logger.error("can not introspect " + type.getName(), e);
+            return new PropertyDescriptor[0];
+        }
+    }
+
+    private static PropertyCopy create(String name, Method getter, Method setter) {
+        Class<?> from = getter.getReturnType();
+        Class<?> to = setter.getParameterTypes()[0];
+        if (from == to && from == int.class) {
+            return new IntCopy(name, Accessors.intGetter(getter), Accessors.intSetter(setter));
+        } else if (from == to && from == long.class) {
+            return new LongCopy(name, Accessors.longGetter(getter), Accessors.longSetter(setter));
+        } else if (from == to && from == double.class) {
+            return new DoubleCopy(name, Accessors.doubleGetter(getter), Accessors.doubleSetter(setter));
+        } else if (Accessors.wrap(to).isAssignableFrom(Accessors.wrap(from))) {
+            return new ObjectCopy(name, Accessors.getter(getter), Accessors.setter(setter), to.isPrimitive());
+        }
+        return new ConvertCopy(name, Accessors.getter(getter), Accessors.setter(setter), to);
+    }
+
+    @Override
+    public String toString() {
+        return "BeanCopier[" + sourceType.getName() + " -> " + targetType.getName() + ", properties=" + getPropertyNames() + "]";
+    }
+
+    /**
+     * 单个属性的拷贝
+     */
+    private abstract static class PropertyCopy {
+
+        final String name;
+
+        PropertyCopy(String name) {
+            this.name = name;
+        }
+
+        abstract void copy(Object source, Object target, PropertyConverter converter);
+    }
+
+    private static final class IntCopy extends PropertyCopy {
+
+        private final ToIntFunction<Object> getter;
+
+        private final ObjIntConsumer<Object> setter;
+
+        IntCopy(String name, ToIntFunction<Object> getter, ObjIntConsumer<Object> setter) {
+            super(name);
+            this.getter = getter;
+            this.setter = setter;
+        }
+
+        @Override
+        void copy(Object source, Object target, PropertyConverter converter) {
+            setter.accept(target, getter.applyAsInt(source));
+        }
+    }
+
+    private static final class LongCopy extends PropertyCopy {
+
+        private final ToLongFunction<Object> getter;
+
+        private final ObjLongConsumer<Object> setter;
+
+        LongCopy(String name, ToLongFunction<Object> getter, ObjLongConsumer<Object> setter) {
+            super(name);
+            this.getter = getter;
+            this.setter = setter;
+        }
+
+        @Override
+        void copy(Object source, Object target, PropertyConverter converter) {
+            setter.accept(target, getter.applyAsLong(source));
+        }
+    }
+
+    private static final class DoubleCopy extends PropertyCopy {
+
+        private final ToDoubleFunction<Object> getter;
+
+        private final ObjDoubleConsumer<Object> setter;
+
+        DoubleCopy(String name, ToDoubleFunction<Object> getter, ObjDoubleConsumer<Object> setter) {
+            super(name);
+            this.getter = getter;
+            this.setter = setter;
+        }
+
+        @Override
+        void copy(Object source, Object target, PropertyConverter converter) {
+            setter.accept(target, getter.applyAsDouble(source));
+        }
+    }
+
+    private static final class ObjectCopy extends PropertyCopy {
+
+        private final Function<Object, Object> getter;
+
+        private final BiConsumer<Object, Object> setter;
+
+        private final boolean primitive;
+
+        ObjectCopy(String name, Function<Object, Object> getter, BiConsumer<Object, Object> setter, boolean primitive) {
+            super(name);
+            this.getter = getter;
+            this.setter = setter;
+            this.primitive = primitive;
+        }
+
+        @Override
+        void copy(Object source, Object target, PropertyConverter converter) {
+            Object value = getter.apply(source);
+            if (value != null || !primitive) {
+                setter.accept(target, value);
+            }
+        }
+    }
+
+    private static final class ConvertCopy extends PropertyCopy {
+
+        private final Function<Object, Object> getter;
+
+        private final BiConsumer<Object, Object> setter;
+
+        private final Class<?> type;
+
+        ConvertCopy(String name, Function<Object, Object> getter, BiConsumer<Object, Object> setter, Class<?> type) {
+            super(name);
+            this.getter = getter;
+            this.setter = setter;
+            this.type = type;
+        }
+
+        @Override
+        void copy(Object source, Object target, PropertyConverter converter) {
+            if (converter == null) {
+                return;
+            }
+            Object value = converter.convert(getter.apply(source), type);
+            if (value != null || !type.isPrimitive()) {
+                setter.accept(target, value);
+            }
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.hz.tgb.reflect;
 
 import org.apache.commons.beanutils.BeanUtils;
 import org.apache.commons.beanutils.ConvertUtils;
+import org.apache.commons.beanutils.DynaBean;
 import org.apache.commons.beanutils.converters.BigDecimalConverter;
 import org.apache.commons.beanutils.converters.DateConverter;
 
@@ -11,6 +12,7 @@ import java.lang.reflect.Method;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /** Bean操作助手
  * @Author hezhao
@@ -34,13 +36,18 @@ public class BeanHelper {
     }
 
     /**
-     * <用途描述>: 属性拷贝
+     * <用途描述>: 属性拷贝，使用 {@link BeanCopier}，类型不同的属性使用apache.commons-beanutils的转换器转换
      * <创建人>:13632540770
      * <创建时间>：2017年12月7日 上午10:32:30
      * <return>:void
      */
+    @SuppressWarnings("unchecked")
     public static void copyProperties(Object toObj, Object fromObj) {
         try {
+            if (toObj != null && fromObj != null && !(fromObj instanceof Map) && !(fromObj instanceof DynaBean)) {
+                BeanCopier.get(fromObj.getClass(), (Class<Object>) toObj.getClass()).copy(fromObj, toObj, BeanCopier.COMMONS_CONVERTER);
+                return;
+            }
             BeanUtils.copyProperties(toObj, fromObj);
         } catch (IllegalAccessException a) {
             System.err.println("BeanUtilsExpand 拷贝对象属性出现异常(反射异常)==>> 一般是由于java在反射时调用private方法所致");
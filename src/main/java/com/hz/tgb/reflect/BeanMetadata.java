@@ -0,0 +1,239 @@
+package com.hz.tgb.reflect;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ObjLongConsumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 类的元数据缓存，供 {@link ConvertHelper} 等按字段/属性反复访问对象的地方使用<br>
+ * 每个类只解析一次，缓存在 {@link ClassValue} 中(随类卸载而释放)：<br>
+ * 1、所有字段(包括父类，父类在前)；<br>
+ * 2、Bean转Map用的字段访问器，以及字段名的大写/小写形式；<br>
+ * 3、按属性名索引的setter，基本类型属性接收对应包装类型的值时直接拆箱赋值。
+ *
+ * @author hezhao
+ * @Time 2026年10月21日 上午9:26:14
+ */
+public final class BeanMetadata {
+
+    private static final Logger logger = LoggerFactory.getLogger(BeanMetadata.class);
+
+    /** Bean转Map时忽略的字段 */
+    private static final List<String> IGNORE_FIELDS = Arrays.asList("serialVersionUID", "logger");
+
+    private static final ClassValue<BeanMetadata> METADATA = new ClassValue<BeanMetadata>() {
+        @Override
+        protected BeanMetadata computeValue(Class<?> type) {
+            return new BeanMetadata(type);
+        }
+    };
+
+    private final Class<?> type;
+
+    private final Field[] fields;
+
+    private volatile FieldProperty[] readable;
+
+    private volatile Map<String, WritableProperty> writable;
+
+    private BeanMetadata(Class<?> type) {
+        this.type = type;
+        List<Class<?>> hierarchy = new ArrayList<Class<?>>();
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            hierarchy.add(c);
+        }
+        Collections.reverse(hierarchy);
+        List<Field> fields = new ArrayList<Field>();
+        for (Class<?> c : hierarchy) {
+            fields.addAll(Arrays.asList(c.getDeclaredFields()));
+        }
+        this.fields = fields.toArray(new Field[0]);
+    }
+
+    public static BeanMetadata of(Class<?> type) {
+        return METADATA.get(type);
+    }
+
+    public Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * 所有字段(包括父类，父类在前)，返回副本
+     */
+    public Field[] getFields() {
+        return fields.clone();
+    }
+
+    /**
+     * Bean转Map用的字段，忽略serialVersionUID和logger，首次调用时生成访问器
+     */
+    FieldProperty[] getReadableFields() {
+        FieldProperty[] properties = readable;
+        if (properties == null) {
+            List<FieldProperty> list = new ArrayList<FieldProperty>(fields.length);
+            for (Field field : fields) {
+                if (IGNORE_FIELDS.contains(field.getName())) {
+                    continue;
+                }
+                try {
+                    list.add(new FieldProperty(field));
+                } catch (RuntimeException e) {
+                    logger.warn("skip field {}.{}: {}", type.getName(), field.getName(), e.toString());
+                }
+            }
+            properties = list.toArray(new FieldProperty[0]);
+            readable = properties;
+        }
+        return properties;
+    }
+
+    /**
+     * 尝试直接赋值：简单属性名(不含 . [ ( )且值非null、是属性类型(或其包装类型)的实例时直接调用setter；
+     * 简单属性名没有对应的可写属性时什么也不做，与BeanUtils.setProperty一致
+     *
+     * @return 已处理返回true；需要类型转换或是嵌套属性时返回false，由调用方使用BeanUtils.setProperty
+     */
+    public boolean trySetProperty(Object bean, String name, Object value) {
+        if (name == null) {
+            return false;
+        }
+        WritableProperty property = getWritableProperties().get(name);
+        if (property == null) {
+            return isSimpleName(name);
+        }
+        return value != null && property.setIfAssignable(bean, value);
+    }
+
+    private static boolean isSimpleName(String name) {
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c == '.' || c == '[' || c == '(') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Map<String, WritableProperty> getWritableProperties() {
+        Map<String, WritableProperty> properties = writable;
+        if (properties == null) {
+            properties = new HashMap<String, WritableProperty>();
+            try {
+                for (PropertyDescriptor descriptor : Introspector.getBeanInfo(type).getPropertyDescriptors()) {
+                    Method setter = descriptor.getWriteMethod();
+                    if (setter == null) {
+                        continue;
+                    }
+                    try {
+                        properties.put(descriptor.getName(), new WritableProperty(setter));
+                    } catch (RuntimeException e) {
+                        logger.warn("skip property {}.{}: {}", type.getName(), descriptor.getName(), e.toString());
+                    }
+                }
+            } catch (IntrospectionException e) {
+                logger.error("can not introspect " + type.getName(), e);
+            }
+            writable = properties;
+        }
+        return properties;
+    }
+
+    /**
+     * 可读字段
+     */
+    static final class FieldProperty {
+
+        final Field field;
+
+        final String name;
+
+        final String upperName;
+
+        final String lowerName;
+
+        /** 基本类型的值不可能为null或空串 */
+        final boolean primitive;
+
+        private final Function<Object, Object> getter;
+
+        FieldProperty(Field field) {
+            this.field = field;
+            this.name = field.getName();
+            this.upperName = name.toUpperCase();
+            this.lowerName = name.toLowerCase();
+            this.primitive = field.getType().isPrimitive();
+            this.getter = Accessors.getter(field);
+        }
+
+        Object get(Object bean) {
+            return getter.apply(bean);
+        }
+
+        String name(ConvertHelper.FMT fmt) {
+            if (fmt == ConvertHelper.FMT.TOLOWER) {
+                return lowerName;
+            } else if (fmt == ConvertHelper.FMT.TOUPPER) {
+                return upperName;
+            }
+            return name;
+        }
+    }
+
+    /**
+     * 可写属性
+     */
+    private static final class WritableProperty {
+
+        private final Class<?> wrapper;
+
+        private final ObjIntConsumer<Object> intSetter;
+
+        private final ObjLongConsumer<Object> longSetter;
+
+        private final ObjDoubleConsumer<Object> doubleSetter;
+
+        private final BiConsumer<Object, Object> setter;
+
+        WritableProperty(Method method) {
+            Class<?> type = method.getParameterTypes()[0];
+            this.wrapper = Accessors.wrap(type);
+            this.intSetter = type == int.class ? Accessors.intSetter(method) : null;
+            this.longSetter = type == long.class ? Accessors.longSetter(method) : null;
+            this.doubleSetter = type == double.class ? Accessors.doubleSetter(method) : null;
+            this.setter = intSetter == null && longSetter == null && doubleSetter == null ? Accessors.setter(method) : null;
+        }
+
+        boolean setIfAssignable(Object bean, Object value) {
+            if (!wrapper.isInstance(value)) {
+                return false;
+            }
+            if (intSetter != null) {
+                intSetter.accept(bean, ((Integer) value).intValue());
+            } else if (longSetter != null) {
+                longSetter.accept(bean, ((Long) value).longValue());
+            } else if (doubleSetter != null) {
+                doubleSetter.accept(bean, ((Double) value).doubleValue());
+            } else {
+                setter.accept(bean, value);
+            }
+            return true;
+        }
+    }
+}
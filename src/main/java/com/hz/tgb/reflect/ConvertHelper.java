@@ -3,6 +3,7 @@ package com.hz.tgb.reflect;
 import com.hz.tgb.entity.Student;
 import org.apache.commons.beanutils.BeanUtils;
 import org.apache.commons.beanutils.ConvertUtils;
+import org.apache.commons.beanutils.DynaBean;
 
 import java.lang.reflect.Field;
 import java.util.*;
@@ -21,12 +22,23 @@ public class ConvertHelper {
         return (T)ConvertUtils.convert(value, targetType);
     }
 
+    /**
+     * Map转Bean，值可以直接赋给属性时走缓存的setter，否则使用BeanUtils.setProperty(支持类型转换和嵌套属性)
+     *
+     * @param map
+     * @param beanClass
+     * @return
+     */
     public static <T> T mapConvertToBean(Map<String, Object> map, Class<T> beanClass) {
         Object bean = null;
         try {
             bean = beanClass.newInstance();
-            for (String name : map.keySet()) {
-                BeanUtils.setProperty(bean, name, map.get(name));
+            BeanMetadata metadata = Map.class.isAssignableFrom(beanClass) || DynaBean.class.isAssignableFrom(beanClass) ? null
+                    : BeanMetadata.of(beanClass);
+            for (Map.Entry<String, Object> entry : map.entrySet()) {
+                if (metadata == null || !metadata.trySetProperty(bean, entry.getKey(), entry.getValue())) {
+                    BeanUtils.setProperty(bean, entry.getKey(), entry.getValue());
+                }
             }
         } catch (InstantiationException e) {
             e.printStackTrace();
@@ -49,55 +61,30 @@ public class ConvertHelper {
     }
 
     /**
-     * Bean转map
+     * Bean转map，字段及其访问器按类缓存在 {@link BeanMetadata} 中
      *
      * @param bean
      * @param setNull	如果值为空时，设置值为""
      * @param fmt		格式：FMT.NONE(-1),   TOUPPER(0),   TOLOWER(1)
      * @return
      */
-    private static LinkedHashMap<String,Object> beanConvertToMap(Object bean, boolean setNull,FMT fmt) {
-
-        LinkedHashMap<String,Object> map = new LinkedHashMap<String, Object>();
-        Class<?> clazz = bean.getClass();//获取当前对象的类
-        try {
-            Field[] fields = getFields(clazz);//获取该类所有的字段信息
-
-            List<String> ignoreField = Arrays.asList("serialVersionUID","logger");
-
-            if(bean != null){
-                for (Field field : fields) {
-                    if(ignoreField.contains(field.getName())){//忽略serialVersionUID 和logger
-                        continue;
-                    }
-                    field.setAccessible(true);
-                    try{
-                        Object value =field.get(bean);
-                        if(setNull && (value == null || value.equals(""))){
-                            if(fmt == FMT.TOLOWER){//小写
-                                map.put(field.getName().toLowerCase(), "");
-                            }else if(fmt == FMT.TOUPPER){//大写
-                                map.put(field.getName().toUpperCase(), "");
-                            }else{
-                                map.put(field.getName(), "");
-                            }
-                        }else  if(value != null && !value.equals("")){
-                            if(fmt == FMT.TOLOWER){//小写
-                                map.put(field.getName().toLowerCase(), field.get(bean));
-                            }else if(fmt == FMT.TOUPPER){//大写
-                                map.put(field.getName().toUpperCase(), field.get(bean));
-                            }else{
-                                map.put(field.getName(), field.get(bean));
-                            }
-                        }
-                    }catch(Exception e){
-                        System.err.println("Bean转map时出错，字段名："+field.getName()+"，类"+clazz.getSimpleName()+"："+e.getMessage());
-                    }
+    public static LinkedHashMap<String,Object> beanConvertToMap(Object bean, boolean setNull,FMT fmt) {
+        if (bean == null) {
+            return new LinkedHashMap<String, Object>();
+        }
+        BeanMetadata.FieldProperty[] properties = BeanMetadata.of(bean.getClass()).getReadableFields();
+        LinkedHashMap<String,Object> map = new LinkedHashMap<String, Object>(properties.length * 4 / 3 + 1);
+        for (BeanMetadata.FieldProperty property : properties) {
+            try{
+                Object value = property.get(bean);
+                if (property.primitive || (value != null && !"".equals(value))) {
+                    map.put(property.name(fmt), value);
+                } else if (setNull) {
+                    map.put(property.name(fmt), "");
                 }
+            }catch(Exception e){
+                System.err.println("Bean转map时出错，字段名："+property.name+"，类"+bean.getClass().getSimpleName()+"："+e.getMessage());
             }
-
-        } catch (Exception e) {
-            e.printStackTrace();
         }
         return map;
     }
@@ -127,7 +114,7 @@ public class ConvertHelper {
         if ( clazz == Object.class ) {
             return null;
         }
-        return combineFields(getFields(clazz.getSuperclass()),clazz.getDeclaredFields());
+        return BeanMetadata.of(clazz).getFields();
     }
     /**
      * 获取所有字段（包括父类）
@@ -2,12 +2,16 @@ package com.hz.tgb.reflect;
 
 import com.hz.tgb.entity.Student;
 import com.hz.tgb.entity.Student2;
+import org.apache.commons.beanutils.DynaBean;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
 
 /**
  * 对象赋值工具类，Bean -> BeanDto.
@@ -20,7 +24,8 @@ public class EntityCopyUtils {
     }
 
     /**
-     * 复制单个对象,使用apache.commons-beanutils工具类库
+     * 复制单个对象，使用 {@link BeanCopier}，类型不同的属性使用apache.commons-beanutils的转换器转换；
+     * 源对象是Map或DynaBean时仍使用apache.commons-beanutils工具类库
      *
      * @param targetClazz 目标类
      * @param srcObj 源对象
@@ -29,6 +34,9 @@ public class EntityCopyUtils {
      */
     public static <T> T copySingle(Class<T> targetClazz, Object srcObj) {
         try {
+            if (srcObj != null && !(srcObj instanceof Map) && !(srcObj instanceof DynaBean)) {
+                return BeanCopier.get(srcObj.getClass(), targetClazz).copy(srcObj, BeanCopier.COMMONS_CONVERTER);
+            }
             T targetEntity = targetClazz.newInstance();
             org.apache.commons.beanutils.BeanUtils.copyProperties(targetEntity, srcObj);
             return targetEntity;
@@ -40,7 +48,7 @@ public class EntityCopyUtils {
     }
 
     /**
-     * 复制列表,使用apache.commons-beanutils工具类库
+     * 复制列表，规则同 {@link #copySingle(Class, Object)}
      *
      * @param targetClazz 目标类
      * @param srcList 源对象列表
@@ -48,16 +56,37 @@ public class EntityCopyUtils {
      * @return
      */
     public static <T> List<T> copyList(Class<T> targetClazz, List srcList) {
+        return copyList(targetClazz, srcList, false);
+    }
+
+    /**
+     * 复制列表，规则同 {@link #copySingle(Class, Object)}，复制失败的元素为null
+     *
+     * @param targetClazz 目标类
+     * @param srcList 源对象列表
+     * @param parallel 是否并行复制，元素数达到 {@link BeanCopier#PARALLEL_THRESHOLD} 时才会并行
+     * @param <T>
+     * @return
+     */
+    public static <T> List<T> copyList(final Class<T> targetClazz, List<?> srcList, boolean parallel) {
         if (srcList == null) {
             return Collections.emptyList();
         }
 
-        List<T> targetList = new LinkedList<>();
-        for (Object o : srcList) {
-            T target = copySingle(targetClazz, o);
-            targetList.add(target);
+        final Object[] items = srcList.toArray();
+        if (parallel && items.length >= BeanCopier.PARALLEL_THRESHOLD) {
+            Arrays.parallelSetAll(items, new IntFunction<Object>() {
+                @Override
+                public Object apply(int i) {
+                    return copySingle(targetClazz, items[i]);
+                }
+            });
+        } else {
+            for (int i = 0; i < items.length; i++) {
+                items[i] = copySingle(targetClazz, items[i]);
+            }
         }
-        return targetList;
+        return BeanCopier.toList(items);
     }
 
 
@@ -94,7 +123,7 @@ public class EntityCopyUtils {
             return Collections.emptyList();
         }
 
-        List<T> targetList = new LinkedList<>();
+        List<T> targetList = new ArrayList<>(srcList.size());
         for (Object o : srcList) {
             T target = copySingleBySpring(targetClazz, o);
             targetList.add(target);
@@ -0,0 +1,104 @@
+package com.hz.tgb.reflect;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ObjLongConsumer;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * 同类型对象按字段浅拷贝<br>
+ * 拷贝类及其父类中声明的所有非static、非final字段(包括private)，每个类只解析一次，字段通过 {@link Accessors} 访问。
+ *
+ * @author hezhao
+ * @Time 2026年10月20日 下午8:06:52
+ */
+public final class FieldCopier<T> {
+
+    private static final ClassValue<FieldCopier<?>> COPIERS = new ClassValue<FieldCopier<?>>() {
+        @Override
+        protected FieldCopier<?> computeValue(Class<?> type) {
+            return new FieldCopier<Object>(type);
+        }
+    };
+
+    private final FieldCopy[] fields;
+
+    private FieldCopier(Class<?> type) {
+        List<FieldCopy> fields = new ArrayList<FieldCopy>();
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if ((field.getModifiers() & (Modifier.STATIC | Modifier.FINAL)) == 0) {
+                    fields.add(create(field));
+                }
+            }
+        }
+        this.fields = fields.toArray(new FieldCopy[0]);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> FieldCopier<T> get(Class<T> type) {
+        return (FieldCopier<T>) COPIERS.get(type);
+    }
+
+    /**
+     * 把source的字段值拷贝到target，两者都必须是该类型(或子类)的实例
+     */
+    public void copy(T source, T target) {
+        for (FieldCopy field : fields) {
+            field.copy(source, target);
+        }
+    }
+
+    private static FieldCopy create(Field field) {
+        Class<?> type = field.getType();
+        if (type == int.class) {
+            final ToIntFunction<Object> getter = Accessors.intGetter(field);
+            final ObjIntConsumer<Object> setter = Accessors.intSetter(field);
+            return new FieldCopy() {
+                @Override
+                void copy(Object source, Object target) {
+                    setter.accept(target, getter.applyAsInt(source));
+                }
+            };
+        } else if (type == long.class) {
+            final ToLongFunction<Object> getter = Accessors.longGetter(field);
+            final ObjLongConsumer<Object> setter = Accessors.longSetter(field);
+            return new FieldCopy() {
+                @Override
+                void copy(Object source, Object target) {
+                    setter.accept(target, getter.applyAsLong(source));
+                }
+            };
+        } else if (type == double.class) {
+            final ToDoubleFunction<Object> getter = Accessors.doubleGetter(field);
+            final ObjDoubleConsumer<Object> setter = Accessors.doubleSetter(field);
+            return new FieldCopy() {
+                @Override
+                void copy(Object source, Object target) {
+                    setter.accept(target, getter.applyAsDouble(source));
+                }
+            };
+        }
+        final Function<Object, Object> getter = Accessors.getter(field);
+        final BiConsumer<Object, Object> setter = Accessors.setter(field);
+        return new FieldCopy() {
+            @Override
+            void copy(Object source, Object target) {
+                setter.accept(target, getter.apply(source));
+            }
+        };
+    }
+
+    private abstract static class FieldCopy {
+
+        abstract void copy(Object source, Object target);
+    }
+}
@@ -103,6 +103,12 @@ public class ObjectUtil {
 
         T objDes = clazz.newInstance();
 
+        // 同类型(或子类)对象使用缓存的字段访问器拷贝
+        if (clazz.isInstance(objSource)) {
+            FieldCopier.get(clazz).copy(clazz.cast(objSource), objDes);
+            return objDes;
+        }
+
         // 获得源对象所有属性
 //		Field[] fields = clazz.getDeclaredFields();
         Field[] fields = ConvertHelper.getFields(clazz);
@@ -0,0 +1,334 @@
+package com.hz.tgb.test.cache;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.ObjectName;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.hz.tgb.cache.CacheLoadException;
+import com.hz.tgb.cache.CacheLoader;
+import com.hz.tgb.cache.CacheStats;
+import com.hz.tgb.cache.ConcurrentLocalCache;
+import com.hz.tgb.cache.EvictionPolicy;
+import com.hz.tgb.cache.LocalCache;
+import com.hz.tgb.cache.LocalCacheBuilder;
+import com.hz.tgb.cache.RemovalCause;
+import com.hz.tgb.cache.Weigher;
+
+/**
+ * 本地缓存引擎单元测试
+ *
+ * @author hezhao
+ * @Time 2026年10月18日 上午11:35:10
+ */
+public class ConcurrentLocalCacheTest {
+
+    @Test
+    public void testLruEvictsLeastRecentlyUsed() {
+        ConcurrentLocalCache<String, Integer> cache = LocalCacheBuilder.<String, Integer> newBuilder()
+                .maximumSize(3).concurrencyLevel(1).build();
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.put("c", 3);
+        Assert.assertEquals(Integer.valueOf(1), cache.getIfPresent("a"));
+        cache.put("d", 4);
+
+        Assert.assertEquals(3, cache.size());
+        Assert.assertNull(cache.getIfPresent("b"));
+        Assert.assertNotNull(cache.getIfPresent("a"));
+        Assert.assertNotNull(cache.getIfPresent("d"));
+    }
+
+    @Test
+    public void testTinyLfuKeepsFrequentKeys() {
+        ConcurrentLocalCache<Integer, Integer> cache = LocalCacheBuilder.<Integer, Integer> newBuilder()
+                .maximumSize(100).concurrencyLevel(1).evictionPolicy(EvictionPolicy.W_TINY_LFU).build();
+        for (int i = 0; i < 10; i++) {
+            cache.put(i, i);
+        }
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 10; i++) {
+                cache.getIfPresent(i);
+            }
+        }
+        // 一次性扫描大量冷数据
+        for (int i = 1000; i < 3000; i++) {
+            cache.put(i, i);
+        }
+
+        Assert.assertTrue(cache.size() <= 100);
+        for (int i = 0; i < 10; i++) {
+            Assert.assertNotNull("hot key evicted: " + i, cache.getIfPresent(i));
+        }
+    }
+
+    @Test
+    public void testMaximumWeight() {
+        ConcurrentLocalCache<String, String> cache = LocalCacheBuilder.<String, String> newBuilder()
+                .maximumWeight(10).weigher(new Weigher<String, String>() {
+                    @Override
+                    public int weigh(String key, String value) {
+                        return value.length();
+                    }
+                }).concurrencyLevel(1).build();
+        cache.put("a", "aaaa");
+        cache.put("b", "bbbb");
+        cache.put("c", "cccc");
+
+        Assert.assertTrue(cache.weightedSize() <= 10);
+        Assert.assertNull(cache.getIfPresent("a"));
+        Assert.assertEquals("cccc", cache.getIfPresent("c"));
+    }
+
+    @Test
+    public void testExpire() throws InterruptedException {
+        ConcurrentLocalCache<String, String> cache = LocalCacheBuilder.<String, String> newBuilder()
+                .expireAfterWrite(1, TimeUnit.HOURS).build();
+        cache.put("short", "v", 20);
+        cache.put("long", "v");
+        cache.put("forever", "v", -1);
+        Thread.sleep(50);
+
+        cache.cleanUp();
+        Assert.assertEquals(2, cache.size());
+        Assert.assertNull(cache.getIfPresent("short"));
+        Assert.assertEquals("v", cache.getIfPresent("long"));
+        Assert.assertEquals(Long.MAX_VALUE, cache.getEntry("forever").getExpireTime());
+        cache.close();
+    }
+
+    @Test
+    public void testSweepPerEntryTtlWithoutDefaultExpire() throws InterruptedException {
+        ConcurrentLocalCache<String, String> cache = LocalCacheBuilder.<String, String> newBuilder()
+                .sweepInterval(20, TimeUnit.MILLISECONDS).build();
+        cache.put("forever", "v");
+        cache.put("short", "v", 10);
+        Thread.sleep(200);
+        // 没有读取，过期条目也被后台清理
+        Assert.assertEquals(1, cache.size());
+        cache.close();
+    }
+
+    /**
+     * 禁用清理或关闭之后，带过期时间的写入不再进入启动清理的全局锁
+     */
+    @Test
+    public void testTtlPutSkipsSweeperLock() throws Exception {
+        final ConcurrentLocalCache<String, String> disabled = LocalCacheBuilder.<String, String> newBuilder()
+                .sweepInterval(0, TimeUnit.MILLISECONDS).expireAfterWrite(1, TimeUnit.MINUTES).build();
+        final ConcurrentLocalCache<String, String> closed = LocalCacheBuilder.<String, String> newBuilder().build();
+        closed.close();
+        for (final ConcurrentLocalCache<String, String> cache : Arrays.asList(disabled, closed)) {
+            FutureTask<Void> put = new FutureTask<Void>(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    cache.put("k", "v", 1000);
+                    return null;
+                }
+            });
+            synchronized (cache) {
+                new Thread(put).start();
+                put.get(5, TimeUnit.SECONDS);
+            }
+            Assert.assertEquals("v", cache.getIfPresent("k"));
+        }
+        disabled.close();
+    }
+
+    @Test
+    public void testConcurrentPutStaysBounded() throws InterruptedException {
+        final ConcurrentLocalCache<Integer, Integer> cache = LocalCacheBuilder.<Integer, Integer> newBuilder()
+                .maximumSize(1000).evictionPolicy(EvictionPolicy.W_TINY_LFU).build();
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int t = 0; t < 8; t++) {
+            final int base = t * 100000;
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 20000; i++) {
+                        cache.put(base + i, i);
+                        cache.getIfPresent(base + i / 2);
+                        if (i % 7 == 0) {
+                            cache.remove(base + i - 3);
+                        }
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Assert.assertTrue(cache.size() <= 1000);
+        Assert.assertEquals(cache.size(), cache.weightedSize());
+    }
+
+    @Test
+    public void testConcurrentMissesLoadOnce() throws InterruptedException {
+        final ConcurrentLocalCache<String, String> cache = LocalCacheBuilder.<String, String> newBuilder().maximumSize(100).build();
+        final AtomicInteger loads = new AtomicInteger();
+        final CacheLoader<String, String> loader = new CacheLoader<String, String>() {
+            @Override
+            public String load(String key) throws Exception {
+                loads.incrementAndGet();
+                Thread.sleep(100);
+                return key + "-value";
+            }
+        };
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicInteger wrong = new AtomicInteger();
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int t = 0; t < 16; t++) {
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    if (!"hot-value".equals(cache.get("hot", loader))) {
+                        wrong.incrementAndGet();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Assert.assertEquals(1, loads.get());
+        Assert.assertEquals(0, wrong.get());
+    }
+
+    @Test
+    public void testRefreshAhead() throws InterruptedException {
+        ConcurrentLocalCache<String, Integer> cache = LocalCacheBuilder.<String, Integer> newBuilder()
+                .expireAfterWrite(300, TimeUnit.MILLISECONDS).refreshAhead(250, TimeUnit.MILLISECONDS).build();
+        final AtomicInteger version = new AtomicInteger();
+        CacheLoader<String, Integer> loader = new CacheLoader<String, Integer>() {
+            @Override
+            public Integer load(String key) throws Exception {
+                Thread.sleep(50);
+                return version.incrementAndGet();
+            }
+        };
+        Assert.assertEquals(Integer.valueOf(1), cache.get("k", loader));
+        Thread.sleep(100);
+        // 进入提前刷新窗口：立即返回旧值，后台刷新
+        long start = System.currentTimeMillis();
+        Assert.assertEquals(Integer.valueOf(1), cache.get("k", loader));
+        Assert.assertTrue(System.currentTimeMillis() - start < 50);
+        Thread.sleep(150);
+        Assert.assertEquals(Integer.valueOf(2), cache.getIfPresent("k"));
+        cache.close();
+    }
+
+    @Test
+    public void testLoaderFailure() {
+        ConcurrentLocalCache<String, String> cache = LocalCacheBuilder.<String, String> newBuilder().build();
+        try {
+            cache.get("bad", new CacheLoader<String, String>() {
+                @Override
+                public String load(String key) throws Exception {
+                    throw new IllegalStateException("boom");
+                }
+            });
+            Assert.fail();
+        } catch (CacheLoadException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        Assert.assertNull(cache.getIfPresent("bad"));
+    }
+
+    @Test
+    public void testRecursiveLoad() {
+        final ConcurrentLocalCache<String, String> cache = LocalCacheBuilder.<String, String> newBuilder().build();
+        try {
+            cache.get("self", new CacheLoader<String, String>() {
+                @Override
+                public String load(String key) throws Exception {
+                    return cache.get(key, this);
+                }
+            });
+            Assert.fail();
+        } catch (CacheLoadException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        // 加载其他key不受影响
+        Assert.assertEquals("b!", cache.get("a", new CacheLoader<String, String>() {
+            @Override
+            public String load(String key) throws Exception {
+                return "a".equals(key) ? cache.get("b", this) : key + "!";
+            }
+        }));
+    }
+
+    @Test
+    public void testStats() throws Exception {
+        ConcurrentLocalCache<String, String> cache = LocalCacheBuilder.<String, String> newBuilder()
+                .maximumSize(2).concurrencyLevel(1).recordStats().build();
+        cache.put("a", "1");
+        cache.put("a", "2");
+        cache.put("b", "1");
+        cache.put("c", "1");
+        cache.getIfPresent("b");
+        cache.getIfPresent("x");
+        cache.get("y", new CacheLoader<String, String>() {
+            @Override
+            public String load(String key) throws Exception {
+                return "y";
+            }
+        });
+        cache.remove("y");
+        cache.put("d", "1", 0);
+        Thread.sleep(5);
+        cache.cleanUp();
+
+        CacheStats stats = cache.stats();
+        Assert.assertEquals(1, stats.getHitCount());
+        Assert.assertEquals(2, stats.getMissCount());
+        Assert.assertEquals(1, stats.getLoadSuccessCount());
+        Assert.assertEquals(1, stats.getRemovalCount(RemovalCause.REPLACED));
+        Assert.assertEquals(1, stats.getRemovalCount(RemovalCause.EXPLICIT));
+        Assert.assertEquals(2, stats.getRemovalCount(RemovalCause.SIZE));
+        Assert.assertEquals(1, stats.getRemovalCount(RemovalCause.EXPIRED));
+        Assert.assertTrue(stats.getMaxExpiryLag() > 0);
+        Assert.assertEquals(stats.getSize(), stats.getWeightedSize());
+
+        cache.registerMBean("stats-test");
+        ObjectName name = new ObjectName("com.hz.tgb.cache:type=LocalCache,name=\"stats-test\"");
+        Assert.assertEquals(1L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "HitCount"));
+        cache.close();
+        Assert.assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+    }
+
+    @Test
+    public void testLocalCacheFacade() {
+        LocalCache.insertCache("name", "jack");
+        Assert.assertEquals("jack", LocalCache.queryCache("name").getT());
+        LocalCache.deleteCache("name");
+        Assert.assertNull(LocalCache.queryCache("name"));
+
+        // 与旧版一致，可以缓存null
+        LocalCache.insertCache("nothing", null);
+        Assert.assertNotNull(LocalCache.queryCache("nothing"));
+        Assert.assertNull(LocalCache.queryCache("nothing").getT());
+        LocalCache.deleteCache("nothing");
+    }
+}
@@ -0,0 +1,216 @@
+package com.hz.tgb.test.common;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.hz.tgb.common.BeanComparators;
+import com.hz.tgb.common.SortListUtil;
+import com.hz.tgb.entity.Student;
+
+/**
+ * 排序工具单元测试与基准
+ *
+ * @author hezhao
+ * @Time 2026年10月20日 下午4:48:33
+ */
+public class SortListUtilTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(SortListUtilTest.class);
+
+    /** 非public类，走MethodHandle访问 */
+    private static class Item {
+
+        private short level;
+
+        private float score;
+
+        private String name;
+
+        Item(int level, float score, String name) {
+            this.level = (short) level;
+            this.score = score;
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    private static class SubItem extends Item {
+
+        SubItem(int level, float score, String name) {
+            super(level, score, name);
+        }
+    }
+
+    @Test
+    public void testMatchesLegacy() throws Exception {
+        String[][] keys = { { "age" }, { "id" }, { "name", "id" }, { "sex", "birthday" }, { "name", "age", "id" } };
+        String[][] sorts = { {}, { SortListUtil.DESC }, { SortListUtil.ASC, "DESC" }, { null, SortListUtil.DESC }, { "desc", null, "asc" } };
+        for (int round = 0; round < 20; round++) {
+            List<Student> students = students(500, new Random(round));
+            for (int k = 0; k < keys.length; k++) {
+                List<Student> expected = new ArrayList<Student>(students);
+                legacySort(expected, keys[k], sorts[k]);
+                List<Student> actual = new ArrayList<Student>(students);
+                SortListUtil.sort(actual, keys[k], sorts[k]);
+                Assert.assertEquals(Arrays.toString(keys[k]), expected, actual);
+
+                String[] methods = new String[keys[k].length];
+                for (int i = 0; i < methods.length; i++) {
+                    methods[i] = "get" + Character.toUpperCase(keys[k][i].charAt(0)) + keys[k][i].substring(1);
+                }
+                actual = new ArrayList<Student>(students);
+                SortListUtil.sortByMethod(actual, methods, sorts[k]);
+                Assert.assertEquals(Arrays.toString(methods), expected, actual);
+            }
+        }
+    }
+
+    @Test
+    public void testSingleKeyAndPrimitiveReturn() {
+        List<Student> students = students(100, new Random(1));
+        // 原sortByMethod单字段版本对int返回值按字符串比较，现在按数值
+        SortListUtil.sortByMethod(students, "getAge");
+        for (int i = 1; i < students.size(); i++) {
+            Assert.assertTrue(students.get(i - 1).getAge() <= students.get(i).getAge());
+        }
+        SortListUtil.sort(students, "birthday", SortListUtil.DESC);
+        for (int i = 1; i < students.size(); i++) {
+            Assert.assertTrue(students.get(i - 1).getBirthday().compareTo(students.get(i).getBirthday()) >= 0);
+        }
+    }
+
+    @Test
+    public void testNonPublicClassInheritedFieldAndNulls() {
+        List<Item> items = new ArrayList<Item>();
+        items.add(new SubItem(2, 1.5f, "b"));
+        items.add(new Item(1, 2.5f, null));
+        items.add(new SubItem(2, 0.5f, "a"));
+        items.add(new Item(10, 0.5f, "c"));
+
+        SortListUtil.sort(items, new String[] { "level", "score" }, null);
+        Assert.assertEquals(Arrays.asList("null", "a", "b", "c"), names(items));
+
+        SortListUtil.sortByMethod(items, "getName", SortListUtil.DESC);
+        Assert.assertEquals(Arrays.asList("c", "b", "a", "null"), names(items));
+
+        // 找不到属性时顺序不变
+        SortListUtil.sort(items, "missing");
+        Assert.assertEquals(Arrays.asList("c", "b", "a", "null"), names(items));
+    }
+
+    @Test
+    public void testParallelSort() {
+        List<Student> students = students(SortListUtil.PARALLEL_THRESHOLD * 3, new Random(9));
+        List<Student> sequential = new ArrayList<Student>(students);
+        SortListUtil.sort(sequential, new String[] { "name", "age" }, new String[] { SortListUtil.DESC });
+        List<Student> parallel = new ArrayList<Student>(students);
+        SortListUtil.sort(parallel, new String[] { "name", "age" }, new String[] { SortListUtil.DESC }, true);
+        Assert.assertEquals(sequential, parallel);
+    }
+
+    /**
+     * 10万元素按3个字段排序：原实现(每次比较都反射查找) vs 缓存的比较器
+     */
+    public static void main(String[] args) throws Exception {
+        List<Student> students = students(100000, new Random(3));
+        String[] fields = { "name", "age", "id" };
+        String[] sorts = { SortListUtil.ASC, SortListUtil.DESC, SortListUtil.ASC };
+        Comparator<Student> comparator = BeanComparators.byFields(fields, sorts);
+        for (int round = 0; round < 5; round++) {
+            List<Student> copy = new ArrayList<Student>(students);
+            long start = System.nanoTime();
+            legacySort(copy, fields, sorts);
+            long legacy = System.nanoTime() - start;
+
+            copy = new ArrayList<Student>(students);
+            start = System.nanoTime();
+            SortListUtil.sort(copy, fields, sorts);
+            long cached = System.nanoTime() - start;
+
+            copy = new ArrayList<Student>(students);
+            start = System.nanoTime();
+            SortListUtil.sort(copy, comparator, true);
+            long parallel = System.nanoTime() - start;
+
+            copy = new ArrayList<Student>(students);
+            start = System.nanoTime();
+            Collections.sort(copy, new Comparator<Student>() {
+                @Override
+                public int compare(Student a, Student b) {
+                    int ret = a.getName().compareTo(b.getName());
+                    if (ret == 0) {
+                        ret = Integer.compare(b.getAge(), a.getAge());
+                    }
+                    return ret != 0 ? ret : Long.compare(a.getId(), b.getId());
+                }
+            });
+            long handWritten = System.nanoTime() - start;
+            logger.info("legacy reflection:{} ms, cached accessors:{} ms, parallel:{} ms, hand written:{} ms", legacy / 1000000,
+                    cached / 1000000, parallel / 1000000, handWritten / 1000000);
+        }
+    }
+
+    private static List<String> names(List<Item> items) {
+        List<String> names = new ArrayList<String>();
+        for (Item item : items) {
+            names.add(String.valueOf(item.getName()));
+        }
+        return names;
+    }
+
+    private static List<Student> students(int size, Random random) {
+        List<Student> students = new ArrayList<Student>(size);
+        for (int i = 0; i < size; i++) {
+            students.add(new Student(random.nextInt(size), "n" + random.nextInt(50), random.nextInt(30), random.nextBoolean(),
+                    new Date(random.nextInt(1000) * 86400000L)));
+        }
+        return students;
+    }
+
+    /**
+     * 原实现：每个字段一次稳定排序，每次比较都反射查找字段
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static void legacySort(List<?> list, String[] fields, String[] sorts) {
+        for (int i = fields.length - 1; i >= 0; i--) {
+            final String field = fields[i];
+            final boolean desc = sorts != null && sorts.length > i && sorts[i] != null && sorts[i].toLowerCase().equals(SortListUtil.DESC);
+            Collections.sort(list, new Comparator() {
+                public int compare(Object a, Object b) {
+                    int ret = 0;
+                    try {
+                        Field f = a.getClass().getDeclaredField(field);
+                        f.setAccessible(true);
+                        Class<?> type = f.getType();
+                        if (type == int.class) {
+                            ret = ((Integer) f.getInt(a)).compareTo((Integer) f.getInt(b));
+                        } else if (type == long.class) {
+                            ret = ((Long) f.getLong(a)).compareTo((Long) f.getLong(b));
+                        } else if (SortListUtil.isImplementsOf(type, Comparable.class)) {
+                            ret = ((Comparable) f.get(a)).compareTo((Comparable) f.get(b));
+                        } else {
+                            ret = String.valueOf(f.get(a)).compareTo(String.valueOf(f.get(b)));
+                        }
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                    return desc ? -ret : ret;
+                }
+            });
+        }
+    }
+}
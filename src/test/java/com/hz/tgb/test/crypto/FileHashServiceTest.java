@@ -0,0 +1,153 @@
+package com.hz.tgb.test.crypto;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.hz.tgb.common.ByteUtil;
+import com.hz.tgb.crypto.FileHashService;
+import com.hz.tgb.crypto.FileMD5Util;
+import com.hz.tgb.crypto.HashAlgorithm;
+
+/**
+ * 文件摘要服务单元测试
+ *
+ * @author hezhao
+ * @Time 2026年10月19日 下午7:32:18
+ */
+public class FileHashServiceTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileHashServiceTest.class);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testKnownDigests() throws Exception {
+        File empty = folder.newFile("empty");
+        Assert.assertEquals("d41d8cd98f00b204e9800998ecf8427e", FileMD5Util.getFileMD5String(empty));
+        Assert.assertEquals("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855", FileMD5Util.getFileSHA256String(empty));
+        Assert.assertEquals("900150983cd24fb0d6963f7d28e17f72", FileMD5Util.getMD5String("abc"));
+        Assert.assertTrue(FileMD5Util.checkPassword("abc", "900150983cd24fb0d6963f7d28e17f72"));
+    }
+
+    /**
+     * 多线程同时计算不同文件(大于读缓冲区)，结果互不干扰
+     */
+    @Test
+    public void testConcurrent() throws Exception {
+        final List<File> files = new ArrayList<File>();
+        final List<String> expected = new ArrayList<String>();
+        for (int i = 0; i < 8; i++) {
+            byte[] content = randomBytes(300 * 1024 + i * 7919, i);
+            files.add(write("f" + i, content));
+            expected.add(ByteUtil.bytesToHexString(MessageDigest.getInstance("MD5").digest(content)));
+        }
+        final AtomicInteger errors = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(8);
+        for (int t = 0; t < 8; t++) {
+            final int offset = t;
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 20; i++) {
+                        int index = (offset + i) % files.size();
+                        try {
+                            if (!expected.get(index).equalsIgnoreCase(FileMD5Util.getFileMD5String(files.get(index)))) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (IOException e) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                    done.countDown();
+                }
+            }).start();
+        }
+        done.await();
+        Assert.assertEquals(0, errors.get());
+    }
+
+    @Test
+    public void testBatch() throws Exception {
+        List<File> files = new ArrayList<File>();
+        for (int i = 0; i < 5; i++) {
+            files.add(write("b" + i, randomBytes(1000 * i, i)));
+        }
+        File missing = new File(folder.getRoot(), "missing");
+        files.add(missing);
+        try (FileHashService service = new FileHashService(3)) {
+            Map<File, String> hashes = service.hashAll(files, HashAlgorithm.SHA256);
+            Assert.assertEquals(files, new ArrayList<File>(hashes.keySet()));
+            for (int i = 0; i < 5; i++) {
+                Assert.assertEquals(FileHashService.hash(files.get(i), HashAlgorithm.SHA256), hashes.get(files.get(i)));
+                Assert.assertEquals(64, hashes.get(files.get(i)).length());
+            }
+            Assert.assertEquals("", hashes.get(missing));
+        }
+    }
+
+    /**
+     * 批量吞吐：单线程逐个计算 vs 线程池并行
+     */
+    public static void main(String[] args) throws Exception {
+        File dir = new File(System.getProperty("java.io.tmpdir"), "file-hash-bench");
+        dir.mkdirs();
+        List<File> files = new ArrayList<File>();
+        for (int i = 0; i < 32; i++) {
+            File file = new File(dir, "f" + i);
+            if (!file.exists()) {
+                FileOutputStream out = new FileOutputStream(file);
+                out.write(randomBytes(16 * 1024 * 1024, i));
+                out.close();
+            }
+            files.add(file);
+        }
+        long bytes = 32L * 16 * 1024 * 1024;
+        FileHashService service = new FileHashService();
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            for (File file : files) {
+                FileMD5Util.getFileMD5String(file);
+            }
+            long serial = System.nanoTime() - start;
+            start = System.nanoTime();
+            service.hashAll(files, HashAlgorithm.MD5);
+            long parallel = System.nanoTime() - start;
+            logger.info("files:{}, serial:{} MB/s, parallel({} threads):{} MB/s", files.size(), bytes * 1000 / serial,
+                    Runtime.getRuntime().availableProcessors(), bytes * 1000 / parallel);
+        }
+        service.close();
+    }
+
+    private File write(String name, byte[] content) throws IOException {
+        File file = folder.newFile(name);
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(content);
+        } finally {
+            out.close();
+        }
+        return file;
+    }
+
+    private static byte[] randomBytes(int size, long seed) {
+        byte[] bytes = new byte[size];
+        new Random(seed).nextBytes(bytes);
+        return bytes;
+    }
+}
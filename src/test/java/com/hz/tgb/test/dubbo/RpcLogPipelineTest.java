@@ -0,0 +1,250 @@
+package com.hz.tgb.test.dubbo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import ch.qos.logback.core.read.ListAppender;
+
+import com.alibaba.dubbo.common.URL;
+import com.alibaba.dubbo.rpc.Invocation;
+import com.alibaba.dubbo.rpc.Invoker;
+import com.alibaba.dubbo.rpc.Result;
+import com.alibaba.dubbo.rpc.RpcException;
+import com.alibaba.dubbo.rpc.RpcInvocation;
+import com.alibaba.fastjson.JSON;
+import com.hz.tgb.dubbo.filter.RpcLogFormat;
+import com.hz.tgb.dubbo.filter.RpcLogPipeline;
+
+/**
+ * Dubbo异步日志管道单元测试与基准
+ *
+ * @author hezhao
+ * @Time 2026年10月19日 下午10:48:20
+ */
+public class RpcLogPipelineTest {
+
+    private static final org.slf4j.Logger logger = LoggerFactory.getLogger(RpcLogPipelineTest.class);
+
+    public interface DemoService {
+
+        List<String> query(String name);
+
+        String get(String id);
+    }
+
+    @Test
+    public void testFormatBudget() {
+        List<String> big = bigList(100000);
+        String full = JSON.toJSONString(big);
+        String json = RpcLogFormat.JSON.format(big, 100);
+        Assert.assertEquals(full.substring(0, 100) + RpcLogFormat.TRUNCATED, json);
+        Assert.assertEquals(full, RpcLogFormat.JSON.format(big, 0));
+        Assert.assertEquals("[\"a\",1]", RpcLogFormat.JSON.format(new Object[] { "a", 1 }, 100));
+        Assert.assertEquals("null", RpcLogFormat.JSON.format(null, 100));
+
+        Object[] args = { "a\nb", "\tc\r" };
+        Assert.assertEquals("[ab, c]", RpcLogFormat.TO_STRING.format(args, 100));
+        Assert.assertEquals("[a" + RpcLogFormat.TRUNCATED, RpcLogFormat.TO_STRING.format(args, 2));
+        Assert.assertNull(RpcLogFormat.TO_STRING.format(null, 100));
+    }
+
+    /**
+     * query方法只打印慢调用，get方法全量打印；异常和失败返回总是打印
+     */
+    @Test
+    public void testSlowOnlyAndSampling() {
+        ListAppender<ILoggingEvent> appender = new ListAppender<ILoggingEvent>();
+        Logger log = newLogger(appender);
+        RpcLogPipeline pipeline = new RpcLogPipeline(16);
+        pipeline.setAsync(false);
+        pipeline.setDefaultBudget(20);
+        Invoker<DemoService> invoker = invoker("dubbo://127.0.0.1:20880/DemoService?query.rpclog.sample=0&query.rpclog.slow=50");
+
+        pipeline.log(log, RpcLogFormat.JSON, invoker, invocation("query", "x"), bigList(10), null, false, 10);
+        Assert.assertEquals(1, pipeline.getSampledOut());
+        Assert.assertEquals(0, appender.list.size());
+
+        pipeline.log(log, RpcLogFormat.JSON, invoker, invocation("query", "x"), bigList(10), null, false, 60);
+        pipeline.log(log, RpcLogFormat.JSON, invoker, invocation("query", "x"), null, new IllegalStateException("boom"), false, 1);
+        pipeline.log(log, RpcLogFormat.JSON, invoker, invocation("query", "x"), "fail", null, true, 1);
+        pipeline.log(log, RpcLogFormat.JSON, invoker, invocation("get", "1"), "ok", null, false, 1);
+        Assert.assertEquals(1, pipeline.getSampledOut());
+        Assert.assertEquals(4, pipeline.getWritten());
+        Assert.assertEquals(4, appender.list.size());
+
+        ILoggingEvent slow = appender.list.get(0);
+        Assert.assertEquals("INFO", slow.getLevel().toString());
+        Assert.assertTrue(slow.getFormattedMessage(), slow.getFormattedMessage().contains(RpcLogFormat.TRUNCATED));
+        Assert.assertTrue(slow.getFormattedMessage().contains("cost:60 ms!"));
+        Assert.assertTrue(appender.list.get(1).getFormattedMessage().contains("exception:java.lang.IllegalStateException: boom"));
+        Assert.assertEquals("WARN", appender.list.get(2).getLevel().toString());
+        Assert.assertTrue(appender.list.get(3).getFormattedMessage().endsWith("DemoService.get() param:[\"1\"], return:\"ok\", cost:1 ms!"));
+    }
+
+    /**
+     * 后台线程阻塞时队列写满，之后的记录被丢弃并计数；MDC ThreadName在后台线程恢复
+     */
+    @Test
+    public void testDropWhenFull() throws Exception {
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<ILoggingEvent> events = new ArrayList<ILoggingEvent>();
+        AppenderBase<ILoggingEvent> appender = new AppenderBase<ILoggingEvent>() {
+            @Override
+            protected void append(ILoggingEvent event) {
+                // MDC在事件首次读取时才从当前线程复制
+                event.getMDCPropertyMap();
+                synchronized (events) {
+                    events.add(event);
+                }
+                entered.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        Logger log = newLogger(appender);
+        RpcLogPipeline pipeline = new RpcLogPipeline(1);
+        Invoker<DemoService> invoker = invoker("dubbo://127.0.0.1:20880/DemoService");
+
+        MDC.put("ThreadName", "trace-1");
+        try {
+            pipeline.log(log, RpcLogFormat.TO_STRING, invoker, invocation("get", "1"), "a", null, false, 1);
+            Assert.assertTrue(entered.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 3; i++) {
+                pipeline.log(log, RpcLogFormat.TO_STRING, invoker, invocation("get", "1"), "b", null, false, 1);
+            }
+        } finally {
+            MDC.remove("ThreadName");
+        }
+        Assert.assertEquals(4, pipeline.getSubmitted());
+        Assert.assertEquals(2, pipeline.getDropped());
+
+        release.countDown();
+        Assert.assertTrue(pipeline.flush(5, TimeUnit.SECONDS));
+        Assert.assertEquals(2, pipeline.getWritten());
+        Assert.assertEquals(0, pipeline.getPending());
+        synchronized (events) {
+            Assert.assertEquals(2, events.size());
+            Assert.assertEquals("trace-1", events.get(0).getMDCPropertyMap().get("ThreadName"));
+        }
+    }
+
+    /**
+     * close后后台线程打印完已入队的记录并退出，之后的记录同步打印
+     */
+    @Test
+    public void testClose() throws Exception {
+        ListAppender<ILoggingEvent> appender = new ListAppender<ILoggingEvent>();
+        Logger log = newLogger(appender);
+        RpcLogPipeline pipeline = new RpcLogPipeline(16);
+        Invoker<DemoService> invoker = invoker("dubbo://127.0.0.1:20880/DemoService");
+        for (int i = 0; i < 5; i++) {
+            pipeline.log(log, RpcLogFormat.TO_STRING, invoker, invocation("get", "1"), "a", null, false, 1);
+        }
+        Assert.assertTrue(pipeline.close(5, TimeUnit.SECONDS));
+        Assert.assertEquals(5, pipeline.getWritten());
+        pipeline.log(log, RpcLogFormat.TO_STRING, invoker, invocation("get", "1"), "b", null, false, 1);
+        Assert.assertEquals(6, pipeline.getWritten());
+        Assert.assertEquals(6, appender.list.size());
+        Assert.assertTrue(pipeline.flush(1, TimeUnit.SECONDS));
+    }
+
+    /**
+     * 调用线程的耗时对比：同步序列化 vs 交给管道
+     */
+    public static void main(String[] args) throws Exception {
+        List<String> big = bigList(20000);
+        // 只格式化不保存，模拟输出到文件
+        Logger log = newLogger(new AppenderBase<ILoggingEvent>() {
+            @Override
+            protected void append(ILoggingEvent event) {
+                event.getFormattedMessage();
+            }
+        });
+        RpcLogPipeline pipeline = new RpcLogPipeline(RpcLogPipeline.DEFAULT_CAPACITY);
+        Invoker<DemoService> invoker = invoker("dubbo://127.0.0.1:20880/DemoService");
+        Invocation invocation = invocation("query", "x");
+        int loops = 2000;
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < loops; i++) {
+                log.info("{}.{}() param:{}, return:{}, cost:{} ms!", DemoService.class, "query", JSON.toJSONString(invocation.getArguments()),
+                        JSON.toJSONString(big), 1);
+            }
+            long inline = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < loops; i++) {
+                pipeline.log(log, RpcLogFormat.JSON, invoker, invocation, big, null, false, 1);
+            }
+            long handOff = System.nanoTime() - start;
+            pipeline.flush(1, TimeUnit.MINUTES);
+            logger.info("inline:{} ns/op, caller thread with pipeline:{} ns/op, dropped:{}", inline / loops, handOff / loops,
+                    pipeline.getDropped());
+        }
+    }
+
+    private static Logger newLogger(AppenderBase<ILoggingEvent> appender) {
+        LoggerContext context = new LoggerContext();
+        appender.setContext(context);
+        appender.start();
+        Logger log = context.getLogger("rpc");
+        log.addAppender(appender);
+        return log;
+    }
+
+    private static List<String> bigList(int size) {
+        List<String> list = new ArrayList<String>(size);
+        for (int i = 0; i < size; i++) {
+            list.add("item-" + i);
+        }
+        return list;
+    }
+
+    private static Invocation invocation(String method, String arg) {
+        return new RpcInvocation(method, new Class<?>[] { String.class }, new Object[] { arg });
+    }
+
+    private static Invoker<DemoService> invoker(String spec) {
+        final URL url = URL.valueOf(spec);
+        return new Invoker<DemoService>() {
+
+            @Override
+            public Class<DemoService> getInterface() {
+                return DemoService.class;
+            }
+
+            @Override
+            public Result invoke(Invocation invocation) throws RpcException {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public URL getUrl() {
+                return url;
+            }
+
+            @Override
+            public boolean isAvailable() {
+                return true;
+            }
+
+            @Override
+            public void destroy() {
+            }
+        };
+    }
+}
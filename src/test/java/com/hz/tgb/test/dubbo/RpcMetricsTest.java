@@ -0,0 +1,213 @@
+package com.hz.tgb.test.dubbo;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.ObjectName;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.alibaba.dubbo.common.URL;
+import com.alibaba.dubbo.rpc.Invocation;
+import com.alibaba.dubbo.rpc.Invoker;
+import com.alibaba.dubbo.rpc.Result;
+import com.alibaba.dubbo.rpc.RpcException;
+import com.alibaba.dubbo.rpc.RpcInvocation;
+import com.alibaba.dubbo.rpc.RpcResult;
+import com.hz.tgb.dubbo.filter.RpcMetricsFilter;
+import com.hz.tgb.metrics.HistogramSnapshot;
+import com.hz.tgb.metrics.LatencyHistogram;
+import com.hz.tgb.dubbo.metrics.MethodMetrics;
+import com.hz.tgb.dubbo.metrics.MethodMetricsSnapshot;
+import com.hz.tgb.dubbo.metrics.RpcMetricsRegistry;
+import com.hz.tgb.dubbo.metrics.RpcMetricsReporter;
+
+/**
+ * Dubbo调用统计单元测试与基准
+ *
+ * @author hezhao
+ * @Time 2026年10月20日 上午11:40:52
+ */
+public class RpcMetricsTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(RpcMetricsTest.class);
+
+    public interface MetricsDemoService {
+
+        String echo(String value);
+    }
+
+    /**
+     * 百分位与精确排序结果的相对误差不超过1/32
+     */
+    @Test
+    public void testPercentileAccuracy() {
+        Random random = new Random(7);
+        LatencyHistogram histogram = new LatencyHistogram();
+        long[] values = new long[100000];
+        for (int i = 0; i < values.length; i++) {
+            // 对数分布：1微秒 ~ 约10秒
+            values[i] = (long) Math.exp(random.nextDouble() * Math.log(1e7));
+            histogram.recordMicros(values[i]);
+        }
+        Arrays.sort(values);
+        HistogramSnapshot snapshot = histogram.snapshot();
+        Assert.assertEquals(values.length, snapshot.getCount());
+        Assert.assertEquals(values[values.length - 1], snapshot.getMaxMicros());
+        for (double p : new double[] { 1, 50, 90, 99, 99.9, 99.99, 100 }) {
+            long exact = values[(int) Math.ceil(p / 100 * values.length) - 1];
+            long actual = snapshot.getValueAtPercentile(p);
+            Assert.assertTrue("p" + p + " exact:" + exact + " actual:" + actual, actual >= exact && actual - exact <= exact / 32 + 1);
+        }
+        Assert.assertEquals(0L, new LatencyHistogram().snapshot().getValueAtPercentile(99));
+    }
+
+    @Test
+    public void testFilterAndJmx() throws Exception {
+        RpcMetricsRegistry registry = new RpcMetricsRegistry(true);
+        RpcMetricsFilter filter = new RpcMetricsFilter(registry);
+        Invoker<MetricsDemoService> invoker = invoker();
+        for (int i = 0; i < 10; i++) {
+            filter.invoke(invoker, new RpcInvocation("echo", new Class<?>[] { String.class }, new Object[] { "v" + i }));
+        }
+        filter.invoke(invoker, new RpcInvocation("echo", new Class<?>[] { String.class }, new Object[] { "fail" }));
+        try {
+            filter.invoke(invoker, new RpcInvocation("echo", new Class<?>[] { String.class }, new Object[] { "throw" }));
+            Assert.fail();
+        } catch (RpcException e) {
+            // expected
+        }
+
+        MethodMetrics metrics = registry.get(MetricsDemoService.class.getName(), "echo");
+        MethodMetricsSnapshot snapshot = metrics.snapshot();
+        Assert.assertEquals(12, snapshot.getCount());
+        Assert.assertEquals(2, snapshot.getErrorCount());
+        Assert.assertEquals(2.0d / 12, snapshot.getErrorRate(), 1e-9);
+        Assert.assertEquals(0, snapshot.getInFlight());
+        Assert.assertTrue(snapshot.getThroughput() > 0);
+        Assert.assertTrue(snapshot.getMaxMillis() >= snapshot.getPercentileMillis(50));
+
+        ObjectName name = new ObjectName("com.hz.tgb.dubbo:type=RpcMetrics,service=" + ObjectName.quote(MetricsDemoService.class.getName())
+                + ",method=" + ObjectName.quote("echo"));
+        Assert.assertEquals(12L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Count"));
+        Assert.assertEquals(2L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "ErrorCount"));
+        ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+    }
+
+    /**
+     * 上报的是两次上报之间的区间统计
+     */
+    @Test
+    public void testIntervalReporting() throws Exception {
+        RpcMetricsRegistry registry = new RpcMetricsRegistry(false);
+        MethodMetrics metrics = registry.get("demo.Service", "slow");
+        for (int i = 0; i < 100; i++) {
+            metrics.stop(metrics.start(), false);
+        }
+        MethodMetricsSnapshot first = metrics.snapshot();
+        metrics.stop(System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(500), true);
+        MethodMetricsSnapshot interval = metrics.snapshot().minus(first);
+        Assert.assertEquals(1, interval.getCount());
+        Assert.assertEquals(1, interval.getErrorCount());
+        Assert.assertTrue(interval.getPercentileMillis(50) >= 500);
+
+        final AtomicLong reportedCount = new AtomicLong();
+        final AtomicInteger reports = new AtomicInteger();
+        ScheduledFuture<?> future = registry.startReporting(new RpcMetricsReporter() {
+            @Override
+            public void report(List<MethodMetricsSnapshot> snapshots) {
+                reportedCount.addAndGet(snapshots.get(0).getCount());
+                reports.incrementAndGet();
+            }
+        }, 20, TimeUnit.MILLISECONDS);
+        try {
+            // 第一次上报包含已有的101次，之后的上报只包含新增调用，空周期不上报
+            waitFor(reportedCount, 101);
+            Assert.assertEquals(1, reports.get());
+            for (int i = 0; i < 3; i++) {
+                metrics.stop(metrics.start(), false);
+            }
+            waitFor(reportedCount, 104);
+            Thread.sleep(100);
+            Assert.assertEquals(104, reportedCount.get());
+        } finally {
+            future.cancel(false);
+        }
+    }
+
+    private static void waitFor(AtomicLong value, long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (value.get() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        Assert.assertEquals(expected, value.get());
+    }
+
+    /**
+     * 过滤器自身开销
+     */
+    public static void main(String[] args) {
+        RpcMetricsFilter filter = new RpcMetricsFilter(new RpcMetricsRegistry(false));
+        Invoker<MetricsDemoService> invoker = invoker();
+        Invocation invocation = new RpcInvocation("echo", new Class<?>[] { String.class }, new Object[] { "v" });
+        int loops = 2000000;
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < loops; i++) {
+                invoker.invoke(invocation);
+            }
+            long direct = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < loops; i++) {
+                filter.invoke(invoker, invocation);
+            }
+            long filtered = System.nanoTime() - start;
+            logger.info("direct:{} ns/op, with metrics filter:{} ns/op", direct / loops, filtered / loops);
+        }
+    }
+
+    private static Invoker<MetricsDemoService> invoker() {
+        return new Invoker<MetricsDemoService>() {
+
+            @Override
+            public Class<MetricsDemoService> getInterface() {
+                return MetricsDemoService.class;
+            }
+
+            @Override
+            public Result invoke(Invocation invocation) throws RpcException {
+                Object value = invocation.getArguments()[0];
+                if ("throw".equals(value)) {
+                    throw new RpcException("boom");
+                }
+                if ("fail".equals(value)) {
+                    return new RpcResult(new IllegalStateException("fail"));
+                }
+                return new RpcResult(value);
+            }
+
+            @Override
+            public URL getUrl() {
+                return null;
+            }
+
+            @Override
+            public boolean isAvailable() {
+                return true;
+            }
+
+            @Override
+            public void destroy() {
+            }
+        };
+    }
+}
@@ -0,0 +1,215 @@
+package com.hz.tgb.test.file;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.hz.tgb.file.EncodingDetect;
+
+/**
+ * 编码探测单元测试
+ *
+ * @author hezhao
+ * @Time 2026年10月19日 下午6:40:15
+ */
+public class EncodingDetectTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(EncodingDetectTest.class);
+
+    private static final String TEXT = "中华人民共和国，我们的祖国。这是一段用于测试编码探测的中文文本，包含常用汉字。";
+
+    private static final String[] CORPUS = {
+            "中华人民共和国，我们的祖国。这是一段用于测试编码探测的中文文本，包含常用汉字。",
+            "订单已于2018年5月1日发货，请注意查收。如有疑问请联系客服：400-800-8888，谢谢！",
+            "臺灣的繁體中文，歡迎光臨。這個檔案使用傳統字元書寫，測試大五碼的偵測結果。",
+            "日本語のテキストです。文字コードの判定をテストします。ひらがなとカタカナと漢字。",
+            "한국어 텍스트입니다. 문자 인코딩 감지를 테스트합니다. 대한민국 서울특별시.",
+            "The quick brown fox jumps over the lazy dog. 1234567890 !@#$%^&*()",
+            "mixed 中文 and English, 价格：¥100.00，数量 x3 ~ HZ ~ tilde",
+            "Ünïcödé Lätïn-1 têxt wïth àccénts ànd ümläuts.",
+    };
+
+    private static final String[] CHARSETS = { "UTF-8", "GBK", "GB18030", "Big5", "EUC-KR", "MS949", "Shift_JIS", "EUC-JP",
+            "ISO-2022-JP", "UTF-16BE", "UTF-16LE", "ISO-8859-1" };
+
+    @Test
+    public void testDetect() throws Exception {
+        Assert.assertEquals("UTF-8", EncodingDetect.getJavaEncode(repeat(TEXT, 20).getBytes("UTF-8")));
+        Assert.assertEquals("GB2312", EncodingDetect.getJavaEncode(repeat(TEXT, 20).getBytes("GBK")));
+        Assert.assertEquals("ASCII", EncodingDetect.getJavaEncode("hello world".getBytes("UTF-8")));
+    }
+
+    /**
+     * 大数据流只读取采样窗口，ByteBuffer的position不变
+     */
+    @Test
+    public void testSampleWindow() throws Exception {
+        byte[] big = repeat(TEXT, 20000).getBytes("UTF-8");
+        final AtomicInteger read = new AtomicInteger();
+        InputStream in = new ByteArrayInputStream(big) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                int n = super.read(b, off, len);
+                read.addAndGet(Math.max(n, 0));
+                return n;
+            }
+        };
+        Assert.assertEquals("UTF-8", EncodingDetect.getJavaEncode(in, 4096));
+        Assert.assertEquals(4096, read.get());
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(big.length);
+        buffer.put(big).flip();
+        Assert.assertEquals("UTF-8", EncodingDetect.getJavaEncode(buffer, EncodingDetect.DEFAULT_SAMPLE_SIZE));
+        Assert.assertEquals(0, buffer.position());
+    }
+
+    @Test
+    public void testConcurrent() throws Exception {
+        final byte[] utf8 = repeat(TEXT, 50).getBytes("UTF-8");
+        final byte[] gbk = repeat(TEXT, 50).getBytes("GBK");
+        final AtomicInteger errors = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(4);
+        for (int t = 0; t < 4; t++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (int i = 0; i < 200; i++) {
+                            if (!"UTF-8".equals(EncodingDetect.getJavaEncode(new ByteArrayInputStream(utf8), 1024))
+                                    || !"GB2312".equals(EncodingDetect.getJavaEncode(ByteBuffer.wrap(gbk), 1024))) {
+                                errors.incrementAndGet();
+                            }
+                        }
+                    } catch (IOException e) {
+                        errors.incrementAndGet();
+                    }
+                    done.countDown();
+                }
+            }).start();
+        }
+        done.await();
+        Assert.assertEquals(0, errors.get());
+    }
+
+    /**
+     * 回归语料：单次扫描的结果与逐个编码完整扫描的原始算法完全一致
+     */
+    @Test
+    public void testSinglePassMatchesMultiPass() throws Exception {
+        List<byte[]> samples = corpus();
+        Random random = new Random(20181019L);
+        for (int i = 0; i < 3000; i++) {
+            byte[] bytes = new byte[1 + random.nextInt(2000)];
+            random.nextBytes(bytes);
+            samples.add(bytes);
+        }
+        int compared = 0;
+        for (byte[] bytes : samples) {
+            // 任意截断位置，覆盖多字节字符被截断的情况
+            for (int len = 0; len <= bytes.length; len += len < 64 ? 1 : 97) {
+                byte[] window = Arrays.copyOf(bytes, len);
+                if (hasBom(window)) {
+                    continue;
+                }
+                Assert.assertEquals(EncodingDetect.getJavaEncodeMultiPass(window), EncodingDetect.getJavaEncode(window));
+                compared++;
+            }
+        }
+        Assert.assertTrue(compared > 10000);
+    }
+
+    /**
+     * 前面是大量合法的UTF-8、后面是GBK：单次扫描不能只看前面就认定为UTF-8
+     */
+    @Test
+    public void testMixedUtf8ThenGbk() throws Exception {
+        byte[] utf8 = repeat("中", 300).getBytes("UTF-8");
+        byte[] gbk = repeat(CORPUS[0] + CORPUS[1], 20).getBytes("GBK");
+        byte[] mixed = Arrays.copyOf(utf8, utf8.length + gbk.length);
+        System.arraycopy(gbk, 0, mixed, utf8.length, gbk.length);
+        String multiPass = EncodingDetect.getJavaEncodeMultiPass(mixed);
+        Assert.assertNotEquals("UTF-8", multiPass);
+        Assert.assertEquals(multiPass, EncodingDetect.getJavaEncode(mixed));
+        Assert.assertEquals(multiPass, EncodingDetect.getJavaEncode(new ByteArrayInputStream(mixed), mixed.length));
+    }
+
+    @Test
+    public void testShortCircuit() throws Exception {
+        Assert.assertEquals("Unicode", EncodingDetect.getJavaEncode(TEXT.getBytes("UTF-16")));
+        byte[] utf8Bom = ("\uFEFF" + TEXT).getBytes("UTF-8");
+        Assert.assertEquals("UTF-8", EncodingDetect.getJavaEncode(utf8Bom));
+        Assert.assertEquals("ASCII", EncodingDetect.getJavaEncode(new byte[0]));
+    }
+
+    /**
+     * 吞吐对比：单次扫描 vs 逐个编码完整扫描，GBK/UTF-8/Big5混合样本
+     */
+    public static void main(String[] args) throws Exception {
+        final byte[][] samples = {
+                repeat(CORPUS[0] + CORPUS[1], 200).getBytes("GBK"),
+                repeat(CORPUS[0] + CORPUS[1], 200).getBytes("UTF-8"),
+                repeat(CORPUS[2], 300).getBytes("Big5"),
+                repeat(CORPUS[6], 300).getBytes("GBK"),
+        };
+        long bytes = 0;
+        for (byte[] sample : samples) {
+            bytes += sample.length;
+        }
+        for (int round = 0; round < 5; round++) {
+            int loops = 300;
+            long start = System.nanoTime();
+            for (int i = 0; i < loops; i++) {
+                for (byte[] sample : samples) {
+                    EncodingDetect.getJavaEncodeMultiPass(sample);
+                }
+            }
+            long multi = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < loops; i++) {
+                for (byte[] sample : samples) {
+                    EncodingDetect.getJavaEncode(sample);
+                }
+            }
+            long single = System.nanoTime() - start;
+            logger.info("bytes:{}, multi pass:{} MB/s, single pass:{} MB/s", bytes * loops, bytes * loops * 1000 / multi,
+                    bytes * loops * 1000 / single);
+        }
+    }
+
+    private static List<byte[]> corpus() throws Exception {
+        List<byte[]> samples = new ArrayList<byte[]>();
+        for (String text : CORPUS) {
+            for (String charset : CHARSETS) {
+                samples.add(text.getBytes(charset));
+                samples.add(repeat(text, 40).getBytes(charset));
+                samples.add(repeat(CORPUS[5] + text, 20).getBytes(charset));
+            }
+        }
+        return samples;
+    }
+
+    private static boolean hasBom(byte[] bytes) {
+        return bytes.length > 1 && ((bytes[0] == (byte) 0xFE && bytes[1] == (byte) 0xFF) || (bytes[0] == (byte) 0xFF && bytes[1] == (byte) 0xFE))
+                || bytes.length > 2 && bytes[0] == (byte) 0xEF && bytes[1] == (byte) 0xBB && bytes[2] == (byte) 0xBF;
+    }
+
+    private static String repeat(String s, int times) {
+        StringBuilder builder = new StringBuilder(s.length() * times);
+        for (int i = 0; i < times; i++) {
+            builder.append(s);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,162 @@
+package com.hz.tgb.test.filter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.hz.tgb.filter.KeyWordMatcher;
+import com.hz.tgb.filter.KeyWordsFilter;
+
+/**
+ * 关键词过滤单元测试与基准
+ *
+ * @author hezhao
+ * @Time 2026年10月19日 下午8:45:20
+ */
+public class KeyWordsFilterTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(KeyWordsFilterTest.class);
+
+    @Test
+    public void testReplace() {
+        KeyWordMatcher matcher = new KeyWordMatcher(Arrays.asList("he", "she", "his", "hers", "a.b", "(x)"));
+        Assert.assertEquals("u** **", matcher.replace("ushe his", "**"));
+        // 重叠的关键词合并为一处，相邻的分别替换
+        Assert.assertEquals("**", matcher.replace("shers", "**"));
+        Assert.assertEquals("****", matcher.replace("hehe", "**"));
+        // 正则元字符按字面匹配
+        Assert.assertEquals("** axb **", matcher.replace("a.b axb (x)", "**"));
+        Assert.assertSame("nothing", matcher.replace("nothing", "**"));
+        Assert.assertEquals(Arrays.asList("she", "he", "hers"), matcher.findAll("shers"));
+        Assert.assertTrue(matcher.containsAny("ahisb"));
+        Assert.assertFalse(matcher.containsAny("abc"));
+    }
+
+    /**
+     * 与逐个关键词indexOf的朴素实现对比命中结果
+     */
+    @Test
+    public void testMatchesNaive() {
+        Random random = new Random(7);
+        List<String> keyWords = randomKeyWords(random, 500, "abcd");
+        KeyWordMatcher matcher = new KeyWordMatcher(keyWords);
+        for (int t = 0; t < 300; t++) {
+            String text = randomWord(random, 50 + random.nextInt(200), "abcde");
+            List<String> expected = new ArrayList<String>();
+            for (int end = 1; end <= text.length(); end++) {
+                for (String keyWord : matcher.getKeyWords()) {
+                    if (text.startsWith(keyWord, end - keyWord.length()) && end >= keyWord.length()) {
+                        expected.add(keyWord);
+                    }
+                }
+            }
+            List<String> actual = matcher.findAll(text);
+            Collections.sort(expected);
+            Collections.sort(actual);
+            Assert.assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    public void testDictionaryAndReload() throws Exception {
+        KeyWordsFilter filter = KeyWordsFilter.getInstance();
+        Assert.assertTrue(filter.getKeyWordList().contains("av"));
+        Assert.assertTrue(filter.getKeyWordList().contains("\"起诉江x泽x民,真的!\""));
+        Assert.assertEquals("测试**和**", filter.filterKeyWord("测试av和白粉"));
+
+        final AtomicInteger errors = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(4);
+        for (int t = 0; t < 4; t++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 2000; i++) {
+                        String result = KeyWordsFilter.getInstance().filterKeyWord("测试av替换");
+                        // 热更新过程中只会看到完整的旧词库或新词库
+                        if (!"测试**替换".equals(result) && !"测试av**".equals(result)) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                    done.countDown();
+                }
+            }).start();
+        }
+        for (int i = 0; i < 20; i++) {
+            filter.reload(Arrays.asList("替换"));
+            filter.reload();
+        }
+        done.await();
+        Assert.assertEquals(0, errors.get());
+        filter.reload();
+        Assert.assertEquals("测试**替换", filter.filterKeyWord("测试av替换"));
+    }
+
+    /**
+     * 吞吐对比：逐个关键词indexOf+replaceAll vs Aho-Corasick，1万/10万关键词
+     */
+    public static void main(String[] args) {
+        Random random = new Random(1);
+        String chars = "的一是不了人我在有他这中大来上个国到说们为子和你地出道也时年得就那要下以生会自着去之过家学对可她里后小么心多天而能好都然没日于起还发成事只作当想看文无开手十用主行方又如前所本见经头面公同三已老从动两长知民样现";
+        StringBuilder builder = new StringBuilder();
+        while (builder.length() < 2000) {
+            builder.append(randomWord(random, 2 + random.nextInt(10), chars)).append("，");
+        }
+        String text = builder.toString();
+        for (int size : new int[] { 10000, 100000 }) {
+            List<String> keyWords = randomKeyWords(random, size, chars);
+            long start = System.nanoTime();
+            KeyWordMatcher matcher = new KeyWordMatcher(keyWords);
+            logger.info("keywords:{}, build:{} ms", matcher.size(), (System.nanoTime() - start) / 1000000);
+            for (int round = 0; round < 3; round++) {
+                int loops = size >= 100000 ? 5 : 20;
+                start = System.nanoTime();
+                for (int i = 0; i < loops; i++) {
+                    naiveFilter(keyWords, text);
+                }
+                long naive = (System.nanoTime() - start) / loops;
+                loops = 2000;
+                start = System.nanoTime();
+                for (int i = 0; i < loops; i++) {
+                    matcher.replace(text, "**");
+                }
+                long ac = (System.nanoTime() - start) / loops;
+                logger.info("keywords:{}, text:{} chars, indexOf+replaceAll:{} us/op, aho-corasick:{} us/op", size, text.length(), naive / 1000,
+                        ac / 1000);
+            }
+        }
+    }
+
+    private static String naiveFilter(List<String> keyWords, String src) {
+        for (String str : keyWords) {
+            if (src.indexOf(str) > -1) {
+                src = src.replaceAll(str, "**");
+            }
+        }
+        return src;
+    }
+
+    private static List<String> randomKeyWords(Random random, int count, String chars) {
+        List<String> keyWords = new ArrayList<String>(count);
+        for (int i = 0; i < count; i++) {
+            keyWords.add(randomWord(random, 2 + random.nextInt(5), chars));
+        }
+        return keyWords;
+    }
+
+    private static String randomWord(Random random, int length, String chars) {
+        char[] word = new char[length];
+        for (int i = 0; i < length; i++) {
+            word[i] = chars.charAt(random.nextInt(chars.length()));
+        }
+        return new String(word);
+    }
+}
@@ -0,0 +1,308 @@
+package com.hz.tgb.test.http;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.hz.tgb.http.util.async.HttpAsyncClientUtil;
+import com.hz.tgb.http.util.async.HttpAsyncConfig;
+import com.hz.tgb.http.util.async.HttpAsyncRuntime;
+import com.hz.tgb.http.util.async.HttpMethods;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * 共享异步HTTP运行时单元测试与基准，使用本地的JDK HttpServer代替真实服务
+ *
+ * @author hezhao
+ * @Time 2026年10月22日 下午3:06:41
+ */
+public class HttpAsyncRuntimeTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(HttpAsyncRuntimeTest.class);
+
+    private static HttpServer server;
+
+    private static ExecutorService executor;
+
+    private static String base;
+
+    /** 服务端看到的客户端端口，每个端口对应一个TCP连接 */
+    private static final Set<Integer> PORTS = Collections.newSetFromMap(new ConcurrentHashMap<Integer, Boolean>());
+
+    @BeforeClass
+    public static void start() throws IOException {
+        server = startServer(16);
+        base = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterClass
+    public static void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    @Before
+    public void reset() {
+        PORTS.clear();
+    }
+
+    @Test
+    public void testFutureVariants() throws Exception {
+        HttpAsyncRuntime runtime = HttpAsyncRuntime.custom().build();
+        try {
+            Assert.assertEquals("GET /echo?a=1 ", HttpAsyncClientUtil.getAsync(config(runtime, "/echo?a=1")).get(5, TimeUnit.SECONDS));
+            Map<String, Object> paras = new HashMap<String, Object>();
+            paras.put("k", "v");
+            Assert.assertEquals("POST /echo k=v", HttpAsyncClientUtil.postAsync(config(runtime, "/echo").map(paras)).get(5, TimeUnit.SECONDS));
+            Assert.assertEquals("PUT /echo k=v", HttpAsyncClientUtil.putAsync(config(runtime, "/echo").map(paras)).get(5, TimeUnit.SECONDS));
+            Assert.assertEquals("DELETE /echo ", HttpAsyncClientUtil.deleteAsync(config(runtime, "/echo")).get(5, TimeUnit.SECONDS));
+            // 默认运行时
+            Assert.assertEquals("GET /echo ", HttpAsyncClientUtil.getAsync(base + "/echo").get(5, TimeUnit.SECONDS));
+            Assert.assertSame(HttpAsyncRuntime.getDefault(), HttpAsyncRuntime.get(HttpAsyncRuntime.DEFAULT_NAME));
+            // 连接失败时future以异常结束
+            try {
+                HttpAsyncClientUtil.getAsync(config(runtime, "/echo").url("http://127.0.0.1:1/")).get(5, TimeUnit.SECONDS);
+                Assert.fail();
+            } catch (ExecutionException e) {
+                Assert.assertTrue(e.getCause() instanceof IOException);
+            }
+        } finally {
+            runtime.shutdown(1, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void testHandler() throws Exception {
+        HttpAsyncRuntime runtime = HttpAsyncRuntime.custom().build();
+        final CountDownLatch latch = new CountDownLatch(1);
+        final AtomicReference<Object> result = new AtomicReference<Object>();
+        HttpAsyncClientUtil.get(config(runtime, "/echo?h=1").handler(new HttpAsyncClientUtil.IHandler() {
+            @Override
+            public Object failed(Exception e) {
+                result.set(e);
+                latch.countDown();
+                return null;
+            }
+
+            @Override
+            public Object completed(String respBody) {
+                result.set(respBody);
+                latch.countDown();
+                return null;
+            }
+
+            @Override
+            public Object down(OutputStream out) {
+                return null;
+            }
+
+            @Override
+            public Object cancelled() {
+                latch.countDown();
+                return null;
+            }
+        }));
+        Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals("GET /echo?h=1 ", result.get());
+        // 回调方式不再关闭共享的client，同一运行时可以继续使用
+        Assert.assertEquals("GET /echo ", HttpAsyncClientUtil.getAsync(config(runtime, "/echo")).get(5, TimeUnit.SECONDS));
+        Assert.assertTrue(runtime.shutdown(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testConnectionReuse() throws Exception {
+        HttpAsyncRuntime runtime = HttpAsyncRuntime.custom().pool(20, 4).build();
+        try {
+            CompletableFuture<?>[] futures = new CompletableFuture<?>[200];
+            for (int i = 0; i < futures.length; i++) {
+                futures[i] = HttpAsyncClientUtil.getAsync(config(runtime, "/echo?i=" + i));
+            }
+            CompletableFuture.allOf(futures).get(30, TimeUnit.SECONDS);
+            Assert.assertTrue(PORTS.toString(), PORTS.size() <= 4);
+            Assert.assertEquals(0, runtime.getStats(base).getLeased());
+            Assert.assertEquals(PORTS.size(), runtime.getStats(base).getAvailable());
+        } finally {
+            runtime.shutdown(1, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void testIdleEviction() throws Exception {
+        HttpAsyncRuntime runtime = HttpAsyncRuntime.custom().evictIdle(200, 100).build();
+        try {
+            HttpAsyncClientUtil.getAsync(config(runtime, "/echo")).get(5, TimeUnit.SECONDS);
+            Assert.assertEquals(1, runtime.getTotalStats().getAvailable());
+            long deadline = System.currentTimeMillis() + 5000;
+            while (runtime.getTotalStats().getAvailable() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            Assert.assertEquals(0, runtime.getTotalStats().getAvailable());
+        } finally {
+            runtime.shutdown(1, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void testGracefulShutdown() throws Exception {
+        HttpAsyncRuntime runtime = HttpAsyncRuntime.named("shutdown-test", HttpAsyncRuntime.custom());
+        Assert.assertSame(runtime, HttpAsyncRuntime.get("shutdown-test"));
+        CompletableFuture<String> slow = HttpAsyncClientUtil.getAsync(config(runtime, "/slow"));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (runtime.getInFlight() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertTrue(runtime.shutdown(5, TimeUnit.SECONDS));
+        Assert.assertTrue(slow.isDone());
+        Assert.assertEquals("GET /slow ", slow.get());
+        Assert.assertTrue(runtime.isShutdown());
+        Assert.assertNull(HttpAsyncRuntime.get("shutdown-test"));
+        try {
+            HttpAsyncClientUtil.getAsync(config(runtime, "/echo")).get(5, TimeUnit.SECONDS);
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        // 同名的运行时关闭后重新创建
+        HttpAsyncRuntime recreated = HttpAsyncRuntime.named("shutdown-test", HttpAsyncRuntime.custom());
+        Assert.assertNotSame(runtime, recreated);
+        Assert.assertTrue(recreated.shutdown(1, TimeUnit.SECONDS));
+    }
+
+    /**
+     * 每个请求新建client(原实现) vs 共享运行时：吞吐量与建立的TCP连接数
+     */
+    public static void main(String[] args) throws Exception {
+        start();
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int concurrency = 50;
+        HttpAsyncRuntime runtime = HttpAsyncRuntime.custom().pool(200, 50).build();
+        try {
+            for (int round = 0; round < 3; round++) {
+                PORTS.clear();
+                long start = System.nanoTime();
+                for (int i = 0; i < requests; i += concurrency) {
+                    final CountDownLatch latch = new CountDownLatch(concurrency);
+                    for (int j = 0; j < concurrency; j++) {
+                        HttpAsyncClientUtil.get(HttpAsyncConfig.custom().url(base + "/echo").asynclient(HttpAsyncClientUtil.create(base))
+                                .handler(new LatchHandler(latch)));
+                    }
+                    latch.await();
+                }
+                long legacy = System.nanoTime() - start;
+                int legacyConnections = PORTS.size();
+
+                PORTS.clear();
+                start = System.nanoTime();
+                for (int i = 0; i < requests; i += concurrency) {
+                    CompletableFuture<?>[] futures = new CompletableFuture<?>[concurrency];
+                    for (int j = 0; j < concurrency; j++) {
+                        futures[j] = HttpAsyncClientUtil.getAsync(config(runtime, "/echo"));
+                    }
+                    CompletableFuture.allOf(futures).get();
+                }
+                long shared = System.nanoTime() - start;
+                logger.info("{} requests: client per request {} req/s ({} connections), shared runtime {} req/s ({} connections)", requests,
+                        requests * 1000000000L / legacy, legacyConnections, requests * 1000000000L / shared, PORTS.size());
+            }
+        } finally {
+            runtime.shutdown(5, TimeUnit.SECONDS);
+            stop();
+        }
+    }
+
+    private static HttpAsyncConfig config(HttpAsyncRuntime runtime, String path) {
+        return HttpAsyncConfig.custom().runtime(runtime).url(base + path).method(HttpMethods.GET);
+    }
+
+    /**
+     * /echo 返回"方法 路径 请求体"，/slow 延迟300ms后同样返回
+     */
+    private static HttpServer startServer(int threads) throws IOException {
+        HttpServer httpServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 256);
+        HttpHandler echo = new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                PORTS.add(exchange.getRemoteAddress().getPort());
+                if (exchange.getRequestURI().getPath().equals("/slow")) {
+                    try {
+                        Thread.sleep(300);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                ByteArrayOutputStream body = new ByteArrayOutputStream();
+                InputStream in = exchange.getRequestBody();
+                byte[] buf = new byte[1024];
+                int n;
+                while ((n = in.read(buf)) != -1) {
+                    body.write(buf, 0, n);
+                }
+                byte[] resp = (exchange.getRequestMethod() + " " + exchange.getRequestURI() + " " + body.toString("UTF-8")).getBytes("UTF-8");
+                exchange.sendResponseHeaders(200, resp.length);
+                exchange.getResponseBody().write(resp);
+                exchange.close();
+            }
+        };
+        httpServer.createContext("/", echo);
+        executor = Executors.newFixedThreadPool(threads);
+        httpServer.setExecutor(executor);
+        httpServer.start();
+        return httpServer;
+    }
+
+    private static final class LatchHandler implements HttpAsyncClientUtil.IHandler {
+
+        private final CountDownLatch latch;
+
+        LatchHandler(CountDownLatch latch) {
+            this.latch = latch;
+        }
+
+        @Override
+        public Object failed(Exception e) {
+            latch.countDown();
+            return null;
+        }
+
+        @Override
+        public Object completed(String respBody) {
+            latch.countDown();
+            return null;
+        }
+
+        @Override
+        public Object down(OutputStream out) {
+            return null;
+        }
+
+        @Override
+        public Object cancelled() {
+            latch.countDown();
+            return null;
+        }
+    }
+}
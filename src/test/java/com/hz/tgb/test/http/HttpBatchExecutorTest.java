@@ -0,0 +1,313 @@
+package com.hz.tgb.test.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.http.Consts;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.entity.StringEntity;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.hz.tgb.http.HttpBatchExecutor;
+import com.hz.tgb.http.util.HttpClientUtil;
+import com.hz.tgb.http.util.HttpConfig;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * 批量并发HTTP执行器单元测试与基准，使用本地的JDK HttpServer代替真实服务，通过参数注入延迟
+ *
+ * @author hezhao
+ * @Time 2026年10月24日 下午2:18:33
+ */
+public class HttpBatchExecutorTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(HttpBatchExecutorTest.class);
+
+    private static HttpServer server;
+
+    private static ExecutorService executor;
+
+    private static String base;
+
+    /** 服务端正在处理的请求数和最大值 */
+    private static final AtomicInteger ACTIVE = new AtomicInteger();
+
+    private static final AtomicInteger MAX_ACTIVE = new AtomicInteger();
+
+    /** 每个key收到的请求数，slowFirst时第一次请求慢 */
+    private static final Map<String, AtomicInteger> HITS = new ConcurrentHashMap<String, AtomicInteger>();
+
+    @BeforeClass
+    public static void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                int active = ACTIVE.incrementAndGet();
+                int max;
+                while (active > (max = MAX_ACTIVE.get()) && !MAX_ACTIVE.compareAndSet(max, active)) {
+                    // 记录最大并发
+                }
+                try {
+                    InputStream in = exchange.getRequestBody();
+                    while (in.read() != -1) {
+                        // 读完请求体，连接才能复用
+                    }
+                    Map<String, String> params = params(exchange.getRequestURI().getQuery());
+                    long delay = params.containsKey("delay") ? Long.parseLong(params.get("delay")) : 0;
+                    String key = params.get("key");
+                    if (key != null) {
+                        AtomicInteger hits = HITS.get(key);
+                        if (hits == null) {
+                            HITS.putIfAbsent(key, new AtomicInteger());
+                            hits = HITS.get(key);
+                        }
+                        if (hits.incrementAndGet() > 1 && params.containsKey("slowFirst")) {
+                            delay = 0;
+                        }
+                    }
+                    if (delay > 0) {
+                        try {
+                            Thread.sleep(delay);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                    int status = params.containsKey("status") ? Integer.parseInt(params.get("status")) : 200;
+                    byte[] resp = (exchange.getRequestMethod() + " " + (key == null ? "" : key)).getBytes("UTF-8");
+                    exchange.sendResponseHeaders(status, resp.length);
+                    exchange.getResponseBody().write(resp);
+                } finally {
+                    ACTIVE.decrementAndGet();
+                    exchange.close();
+                }
+            }
+        });
+        executor = Executors.newFixedThreadPool(256);
+        server.setExecutor(executor);
+        server.start();
+        base = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterClass
+    public static void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    @Before
+    public void reset() {
+        MAX_ACTIVE.set(0);
+        HITS.clear();
+    }
+
+    @Test
+    public void testResultsInOrder() throws Exception {
+        List<HttpUriRequest> requests = new ArrayList<HttpUriRequest>();
+        for (int i = 0; i < 20; i++) {
+            // 后提交的先返回
+            requests.add(new HttpGet(base + "/?key=" + i + "&delay=" + (20 - i) * 5));
+        }
+        requests.add(new HttpGet(base + "/?key=404&status=404"));
+        requests.add(new HttpGet("http://127.0.0.1:1/"));
+        List<HttpBatchExecutor.Result> results = HttpBatchExecutor.custom().maxConcurrency(32).build().execute(requests).get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(22, results.size());
+        for (int i = 0; i < 20; i++) {
+            HttpBatchExecutor.Result result = results.get(i);
+            Assert.assertEquals(i, result.getIndex());
+            Assert.assertTrue(result.isSuccess());
+            Assert.assertEquals(200, result.getStatusCode());
+            Assert.assertEquals("GET " + i, result.getBody(Consts.UTF_8));
+            Assert.assertEquals(1, result.getAttempts());
+            Assert.assertTrue(result.getElapsed(TimeUnit.MILLISECONDS) >= (20 - i) * 5);
+        }
+        // 非2xx也是收到了响应
+        Assert.assertEquals(HttpBatchExecutor.Status.SUCCESS, results.get(20).getStatus());
+        Assert.assertEquals(404, results.get(20).getStatusCode());
+        Assert.assertEquals(HttpBatchExecutor.Status.FAILED, results.get(21).getStatus());
+        Assert.assertTrue(results.get(21).getError() instanceof IOException);
+        Assert.assertEquals(-1, results.get(21).getStatusCode());
+
+        Assert.assertTrue(HttpBatchExecutor.custom().build().execute(new ArrayList<HttpUriRequest>()).get().isEmpty());
+    }
+
+    @Test
+    public void testBoundedConcurrency() throws Exception {
+        List<HttpUriRequest> requests = new ArrayList<HttpUriRequest>();
+        for (int i = 0; i < 40; i++) {
+            requests.add(new HttpGet(base + "/?delay=20"));
+        }
+        List<HttpBatchExecutor.Result> results = HttpBatchExecutor.custom().maxConcurrency(4).build().execute(requests).get(10, TimeUnit.SECONDS);
+        for (HttpBatchExecutor.Result result : results) {
+            Assert.assertTrue(result.toString(), result.isSuccess());
+        }
+        Assert.assertTrue(String.valueOf(MAX_ACTIVE.get()), MAX_ACTIVE.get() <= 4);
+    }
+
+    @Test
+    public void testDeadline() throws Exception {
+        List<HttpUriRequest> requests = new ArrayList<HttpUriRequest>();
+        requests.add(new HttpGet(base + "/?key=fast"));
+        requests.add(new HttpGet(base + "/?key=slow&delay=3000"));
+        requests.add(new HttpGet(base + "/?key=queued"));
+        long start = System.nanoTime();
+        // 并发1：第三个请求排在慢请求后面，到截止时间还没启动
+        List<HttpBatchExecutor.Result> results = HttpBatchExecutor.custom().maxConcurrency(1).deadline(300).build().execute(requests).get(10,
+                TimeUnit.SECONDS);
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        Assert.assertTrue(String.valueOf(elapsed), elapsed < 2000);
+        Assert.assertEquals(HttpBatchExecutor.Status.SUCCESS, results.get(0).getStatus());
+        Assert.assertEquals(HttpBatchExecutor.Status.TIMEOUT, results.get(1).getStatus());
+        Assert.assertEquals(1, results.get(1).getAttempts());
+        Assert.assertEquals(HttpBatchExecutor.Status.TIMEOUT, results.get(2).getStatus());
+        Assert.assertEquals(0, results.get(2).getAttempts());
+        Assert.assertNull(HITS.get("queued"));
+    }
+
+    @Test
+    public void testHedge() throws Exception {
+        List<HttpUriRequest> requests = new ArrayList<HttpUriRequest>();
+        for (int i = 0; i < 5; i++) {
+            requests.add(new HttpGet(base + "/?slowFirst=1&delay=2000&key=h" + i));
+        }
+        long start = System.nanoTime();
+        List<HttpBatchExecutor.Result> results = HttpBatchExecutor.custom().hedge(50, 1).build().execute(requests).get(10, TimeUnit.SECONDS);
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        Assert.assertTrue(String.valueOf(elapsed), elapsed < 1500);
+        for (int i = 0; i < 5; i++) {
+            HttpBatchExecutor.Result result = results.get(i);
+            Assert.assertTrue(result.toString(), result.isSuccess());
+            Assert.assertTrue(result.isHedged());
+            Assert.assertEquals(2, result.getAttempts());
+            Assert.assertEquals("GET h" + i, result.getBody(Consts.UTF_8));
+        }
+    }
+
+    @Test
+    public void testRetryOnFailure() throws Exception {
+        HttpGet request = new HttpGet("http://127.0.0.1:1/");
+        // 对冲时间很长，失败后立即重发
+        HttpBatchExecutor.Result result = HttpBatchExecutor.custom().hedge(10000, 2).build().execute(Arrays.asList(request)).get(5, TimeUnit.SECONDS)
+                .get(0);
+        Assert.assertEquals(HttpBatchExecutor.Status.FAILED, result.getStatus());
+        Assert.assertEquals(3, result.getAttempts());
+    }
+
+    @Test
+    public void testNonIdempotentNotHedged() throws Exception {
+        HttpPost post = new HttpPost(base + "/?slowFirst=1&delay=300&key=post");
+        post.setEntity(new StringEntity("x", Consts.UTF_8));
+        HttpBatchExecutor.Result result = HttpBatchExecutor.custom().hedge(20, 1).build().execute(Arrays.asList(post)).get(5, TimeUnit.SECONDS).get(0);
+        Assert.assertTrue(result.isSuccess());
+        Assert.assertEquals(1, result.getAttempts());
+        Assert.assertEquals(1, HITS.get("post").get());
+
+        post = new HttpPost(base + "/?slowFirst=1&delay=2000&key=post2");
+        post.setEntity(new StringEntity("x", Consts.UTF_8));
+        result = HttpBatchExecutor.custom().hedge(20, 1).hedgeNonIdempotent(true).build().execute(Arrays.asList(post)).get(5, TimeUnit.SECONDS).get(0);
+        Assert.assertTrue(result.isHedged());
+        Assert.assertEquals("POST post2", result.getBody(Consts.UTF_8));
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        List<HttpUriRequest> requests = new ArrayList<HttpUriRequest>();
+        for (int i = 0; i < 4; i++) {
+            requests.add(new HttpGet(base + "/?delay=3000"));
+        }
+        CompletableFuture<List<HttpBatchExecutor.Result>> future = HttpBatchExecutor.custom().maxConcurrency(2).build().execute(requests);
+        Thread.sleep(100);
+        Assert.assertTrue(future.cancel(true));
+        Assert.assertTrue(future.isCancelled());
+    }
+
+    private static Map<String, String> params(String query) {
+        Map<String, String> params = new HashMap<String, String>();
+        if (query != null) {
+            for (String pair : query.split("&")) {
+                String[] kv = pair.split("=", 2);
+                params.put(kv[0], kv.length > 1 ? kv[1] : "");
+            }
+        }
+        return params;
+    }
+
+    /**
+     * 循环调用HttpClientUtil.doGet(原做法) vs 批量并发 vs 批量并发+对冲：每个后端20ms延迟，5%的请求有500ms长尾
+     */
+    public static void main(String[] args) throws Exception {
+        start();
+        int backends = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        HttpConfig config = new HttpConfig();
+        HttpBatchExecutor batch = HttpBatchExecutor.custom().maxConcurrency(32).deadline(5000).build();
+        HttpBatchExecutor hedged = HttpBatchExecutor.custom().maxConcurrency(32).deadline(5000).hedge(60, 1).build();
+        try {
+            for (int round = 0; round < rounds; round++) {
+                List<HttpUriRequest> requests = new ArrayList<HttpUriRequest>();
+                List<String> urls = new ArrayList<String>();
+                for (int i = 0; i < backends; i++) {
+                    // 长尾只出现在第一次请求，对冲的副本走正常延迟
+                    String url = base + "/?key=" + round + "-" + i + (i % 20 == 7 ? "&slowFirst=1&delay=500" : "&delay=20");
+                    urls.add(url);
+                }
+                long start = System.nanoTime();
+                HITS.clear();
+                for (String url : urls) {
+                    HttpClientUtil.doGet(url, null, config);
+                }
+                long serial = System.nanoTime() - start;
+
+                HITS.clear();
+                for (String url : urls) {
+                    requests.add(new HttpGet(url));
+                }
+                start = System.nanoTime();
+                batch.execute(requests).get();
+                long parallel = System.nanoTime() - start;
+
+                HITS.clear();
+                requests.clear();
+                for (String url : urls) {
+                    requests.add(new HttpGet(url));
+                }
+                start = System.nanoTime();
+                List<HttpBatchExecutor.Result> results = hedged.execute(requests).get();
+                long hedgedTime = System.nanoTime() - start;
+                long maxLatency = 0;
+                int hedgedCount = 0;
+                for (HttpBatchExecutor.Result result : results) {
+                    maxLatency = Math.max(maxLatency, result.getElapsed(TimeUnit.MILLISECONDS));
+                    hedgedCount += result.isHedged() ? 1 : 0;
+                }
+                logger.info("{} backends: serial {}ms, batch {}ms, batch+hedge {}ms (max request {}ms, {} hedged)", backends,
+                        TimeUnit.NANOSECONDS.toMillis(serial), TimeUnit.NANOSECONDS.toMillis(parallel), TimeUnit.NANOSECONDS.toMillis(hedgedTime), maxLatency,
+                        hedgedCount);
+            }
+        } finally {
+            stop();
+        }
+    }
+}
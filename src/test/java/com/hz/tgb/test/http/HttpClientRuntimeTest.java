@@ -0,0 +1,389 @@
+package com.hz.tgb.test.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.http.Consts;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.util.EntityUtils;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.hz.tgb.http.HttpConnectUtilV4;
+import com.hz.tgb.http.util.HttpClientPool;
+import com.hz.tgb.http.util.HttpClientPoolUtil;
+import com.hz.tgb.http.util.HttpClientRuntime;
+import com.hz.tgb.http.util.HttpClientUtil;
+import com.hz.tgb.http.util.HttpConfig;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * 共享同步HTTP运行时单元测试与基准，使用本地的JDK HttpServer代替真实服务
+ *
+ * @author hezhao
+ * @Time 2026年10月23日 上午11:27:50
+ */
+public class HttpClientRuntimeTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(HttpClientRuntimeTest.class);
+
+    private static HttpServer server;
+
+    private static ExecutorService executor;
+
+    private static String base;
+
+    /** 服务端看到的客户端端口，每个端口对应一个TCP连接 */
+    private static final Set<Integer> PORTS = Collections.newSetFromMap(new ConcurrentHashMap<Integer, Boolean>());
+
+    @BeforeClass
+    public static void start() throws IOException {
+        // 响应头和响应体分开写，不关Nagle时每个请求都要等40ms的延迟ACK
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 256);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                PORTS.add(exchange.getRemoteAddress().getPort());
+                InputStream in = exchange.getRequestBody();
+                while (in.read() != -1) {
+                    // 读完请求体，连接才能复用
+                }
+                String query = exchange.getRequestURI().getQuery();
+                Map<String, String> params = new HashMap<String, String>();
+                if (query != null) {
+                    for (String pair : query.split("&")) {
+                        String[] kv = pair.split("=", 2);
+                        params.put(kv[0], kv.length > 1 ? kv[1] : "");
+                    }
+                }
+                int status = params.containsKey("status") ? Integer.parseInt(params.get("status")) : 200;
+                int size = params.containsKey("size") ? Integer.parseInt(params.get("size")) : -1;
+                byte[] resp;
+                if (size >= 0) {
+                    resp = new byte[size];
+                    for (int i = 0; i < size; i++) {
+                        resp[i] = (byte) ('a' + i % 26);
+                    }
+                } else {
+                    String header = exchange.getRequestHeaders().getFirst("X-Test");
+                    resp = ("中文 " + exchange.getRequestMethod() + " " + (header == null ? "" : header)).getBytes("UTF-8");
+                }
+                exchange.getResponseHeaders().add("Content-Type", "text/plain; charset=UTF-8");
+                // chunked=1 时不返回Content-Length；空响应体也用chunked，JDK HttpServer对-1(无响应体)的响应会直接断开连接
+                exchange.sendResponseHeaders(status, params.containsKey("chunked") ? 0 : resp.length);
+                exchange.getResponseBody().write(resp);
+                exchange.close();
+            }
+        });
+        executor = Executors.newFixedThreadPool(8);
+        server.setExecutor(executor);
+        server.start();
+        base = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterClass
+    public static void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testClientCache() throws IOException {
+        HttpConfig config = new HttpConfig();
+        config.addHearder("X-Test", "a");
+        HttpConfig same = new HttpConfig();
+        same.addHearder("X-Test", "a");
+        HttpConfig other = new HttpConfig();
+        other.addHearder("X-Test", "b");
+        CloseableHttpClient client = HttpClientPool.getHttpClient(config);
+        Assert.assertSame(client, HttpClientPool.getHttpClient(same));
+        Assert.assertSame(client, HttpClientPoolUtil.getHttpClient(same));
+        Assert.assertNotSame(client, HttpClientPool.getHttpClient(other));
+        same.setReadTimeout(1000);
+        Assert.assertNotSame(client, HttpClientPool.getHttpClient(same));
+
+        Assert.assertEquals("中文 GET b", HttpClientUtil.doGet(base + "/", null, other));
+        // 调用方关闭缓存的client不影响共享的连接池
+        client.close();
+        Assert.assertEquals("中文 GET a", HttpClientUtil.doGet(base + "/", null, config));
+    }
+
+    @Test
+    public void testCacheLimit() throws IOException {
+        HttpClientRuntime runtime = HttpClientRuntime.custom().maxCachedClients(2).build();
+        try {
+            for (int i = 0; i < 5; i++) {
+                HttpConfig config = new HttpConfig();
+                config.addHearder("X-Test", String.valueOf(i));
+                Assert.assertEquals("中文 GET " + i, runtime.execute(new HttpGet(base + "/"), config, STRING));
+            }
+            Assert.assertEquals(2, runtime.getCachedClients());
+            // 满了之后淘汰旧的，新的配置照样缓存，不会每次新建client
+            Assert.assertEquals(3, runtime.getEvictedClients());
+            HttpConfig last = new HttpConfig();
+            last.addHearder("X-Test", "4");
+            Assert.assertSame(runtime.getHttpClient(last), runtime.getHttpClient(last));
+            Assert.assertEquals(3, runtime.getEvictedClients());
+        } finally {
+            runtime.close();
+        }
+    }
+
+    /**
+     * 服务端声明了巨大的Content-Length却只发几个字节：不能按声明的长度预先分配
+     */
+    @Test
+    public void testHugeContentLengthNotPreallocated() throws Exception {
+        final ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try (Socket socket = server.accept()) {
+                    InputStream in = socket.getInputStream();
+                    // 读到请求头结束
+                    int state = 0;
+                    while (state < 4) {
+                        int b = in.read();
+                        if (b == -1) {
+                            return;
+                        }
+                        state = (b == '\r' && state % 2 == 0) || (b == '\n' && state % 2 == 1) ? state + 1 : 0;
+                    }
+                    OutputStream out = socket.getOutputStream();
+                    out.write("HTTP/1.1 200 OK\r\nContent-Length: 2000000000\r\n\r\nabc".getBytes("US-ASCII"));
+                    out.flush();
+                } catch (IOException e) {
+                    // 测试结束
+                }
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+        HttpClientRuntime runtime = HttpClientRuntime.custom().buffers(4, 1024, 64 * 1024).build();
+        try {
+            runtime.execute(new HttpGet("http://127.0.0.1:" + server.getLocalPort() + "/"), BYTES);
+            Assert.fail();
+        } catch (IOException e) {
+            // 连接提前关闭，而不是先分配2GB
+        } finally {
+            runtime.close();
+            server.close();
+        }
+    }
+
+    @Test
+    public void testPooledBody() throws IOException {
+        HttpClientRuntime runtime = HttpClientRuntime.custom().buffers(4, 1024, 64 * 1024).build();
+        try {
+            final byte[][] arrays = new byte[2][];
+            for (int i = 0; i < 2; i++) {
+                final int index = i;
+                runtime.execute(new HttpGet(base + "/?size=100"), new HttpClientRuntime.BodyHandler<Void>() {
+                    @Override
+                    public Void handle(HttpResponse response, HttpClientRuntime.ResponseBody body) {
+                        arrays[index] = body.array();
+                        return null;
+                    }
+                });
+            }
+            // 缓冲区复用
+            Assert.assertSame(arrays[0], arrays[1]);
+            Assert.assertEquals(1, runtime.getPooledBuffers());
+
+            for (int size : new int[] { 0, 1, 1023, 1024, 1025, 50000, 200000 }) {
+                byte[] expected = new byte[size];
+                for (int i = 0; i < size; i++) {
+                    expected[i] = (byte) ('a' + i % 26);
+                }
+                Assert.assertArrayEquals(String.valueOf(size), expected, runtime.execute(new HttpGet(base + "/?size=" + size), BYTES));
+                Assert.assertArrayEquals(String.valueOf(size), expected, runtime.execute(new HttpGet(base + "/?chunked=1&size=" + size), BYTES));
+            }
+            // 超过保留上限的缓冲区归还时被替换
+            runtime.execute(new HttpGet(base + "/?size=200000"), new HttpClientRuntime.BodyHandler<Void>() {
+                @Override
+                public Void handle(HttpResponse response, HttpClientRuntime.ResponseBody body) {
+                    arrays[0] = body.array();
+                    return null;
+                }
+            });
+            runtime.execute(new HttpGet(base + "/?size=10"), new HttpClientRuntime.BodyHandler<Void>() {
+                @Override
+                public Void handle(HttpResponse response, HttpClientRuntime.ResponseBody body) {
+                    arrays[1] = body.array();
+                    Assert.assertEquals(Consts.UTF_8, body.getCharset());
+                    return null;
+                }
+            });
+            Assert.assertEquals(1024, arrays[1].length);
+        } finally {
+            runtime.close();
+        }
+        try {
+            runtime.execute(new HttpGet(base + "/"), STRING);
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            Assert.assertTrue(runtime.isClosed());
+        }
+    }
+
+    @Test
+    public void testRouteStatsAndReuse() throws IOException {
+        HttpClientRuntime runtime = HttpClientRuntime.custom().pool(10, 2).build();
+        try {
+            PORTS.clear();
+            for (int i = 0; i < 50; i++) {
+                runtime.execute(new HttpGet(base + "/"), STRING);
+            }
+            Assert.assertEquals(1, PORTS.size());
+            PoolStats stats = runtime.getStats(base);
+            Assert.assertEquals(0, stats.getLeased());
+            Assert.assertEquals(1, stats.getAvailable());
+            Assert.assertEquals(0, stats.getPending());
+            Assert.assertEquals(2, stats.getMax());
+            Map<String, PoolStats> routes = runtime.getRouteStats();
+            Assert.assertEquals(Collections.singleton(base), routes.keySet());
+            Assert.assertEquals(1, runtime.getTotalStats().getAvailable());
+        } finally {
+            runtime.close();
+        }
+    }
+
+    @Test
+    public void testSkipErrorBody() throws IOException {
+        HttpClientRuntime runtime = HttpClientRuntime.custom().pool(10, 2).build();
+        try {
+            HttpClientRuntime.BodyHandler<Integer> okOnly = new HttpClientRuntime.BodyHandler<Integer>() {
+                @Override
+                public boolean readBody(HttpResponse response) {
+                    return response.getStatusLine().getStatusCode() == 200;
+                }
+
+                @Override
+                public Integer handle(HttpResponse response, HttpClientRuntime.ResponseBody body) {
+                    return body == null ? -response.getStatusLine().getStatusCode() : body.length();
+                }
+            };
+            PORTS.clear();
+            Assert.assertEquals(-500, (int) runtime.execute(new HttpGet(base + "/?status=500&size=200000"), okOnly));
+            // 错误页没有借用缓冲区，连接照常复用
+            Assert.assertEquals(0, runtime.getPooledBuffers());
+            Assert.assertEquals(100, (int) runtime.execute(new HttpGet(base + "/?size=100"), okOnly));
+            Assert.assertEquals(1, runtime.getPooledBuffers());
+            Assert.assertEquals(1, PORTS.size());
+        } finally {
+            runtime.close();
+        }
+    }
+
+    @Test
+    public void testLegacyResults() throws Exception {
+        HttpConfig config = new HttpConfig();
+        Assert.assertEquals("status:404", HttpClientUtil.doGet(base + "/", Collections.singletonMap("status", "404"), config));
+        Assert.assertEquals("entity is empty!", HttpClientUtil.doGet(base + "/", Collections.singletonMap("size", "0"), config));
+        Assert.assertEquals("中文 POST ", HttpClientUtil.doPost(base + "/", "x", config));
+        Assert.assertEquals("中文 GET ", HttpConnectUtilV4.getResponseData(null, new HttpGet(base + "/")));
+        try {
+            HttpConnectUtilV4.getResponseData(null, new HttpGet(base + "/?status=500"));
+            Assert.fail();
+        } catch (IOException e) {
+            Assert.assertTrue(e.getMessage().contains("500"));
+        }
+    }
+
+    /**
+     * 每次新建client+EntityUtils.toString(原实现) vs 缓存client+池化缓冲区：吞吐量和每个请求在调用线程上分配的内存
+     */
+    public static void main(String[] args) throws Exception {
+        start();
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        String url = base + "/?size=16384";
+        HttpConfig config = new HttpConfig();
+        config.addHearder("X-Test", "bench");
+        PoolingHttpClientConnectionManager legacyPool = new PoolingHttpClientConnectionManager();
+        HttpClientRuntime runtime = HttpClientRuntime.custom().build();
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long tid = Thread.currentThread().getId();
+        try {
+            for (int round = 0; round < 5; round++) {
+                long allocated = threads.getThreadAllocatedBytes(tid);
+                long start = System.nanoTime();
+                int check = 0;
+                for (int i = 0; i < requests; i++) {
+                    CloseableHttpClient client = HttpClients.custom().setConnectionManager(legacyPool).build();
+                    check += client.execute(new HttpGet(url), new org.apache.http.client.ResponseHandler<String>() {
+                        @Override
+                        public String handleResponse(HttpResponse response) throws IOException {
+                            return EntityUtils.toString(response.getEntity(), "UTF-8");
+                        }
+                    }).length();
+                }
+                long legacy = System.nanoTime() - start;
+                long legacyAllocated = threads.getThreadAllocatedBytes(tid) - allocated;
+
+                allocated = threads.getThreadAllocatedBytes(tid);
+                start = System.nanoTime();
+                for (int i = 0; i < requests; i++) {
+                    check += runtime.execute(new HttpGet(url), config, LENGTH);
+                }
+                long pooled = System.nanoTime() - start;
+                long pooledAllocated = threads.getThreadAllocatedBytes(tid) - allocated;
+                logger.info("{} x 16KB: client per request + String {} req/s {} KB/req, cached client + pooled buffer {} req/s {} KB/req ({})", requests,
+                        requests * 1000000000L / legacy, legacyAllocated / requests / 1024, requests * 1000000000L / pooled,
+                        pooledAllocated / requests / 1024, check);
+            }
+        } finally {
+            legacyPool.shutdown();
+            runtime.close();
+            stop();
+        }
+    }
+
+    private static final HttpClientRuntime.BodyHandler<String> STRING = new HttpClientRuntime.BodyHandler<String>() {
+        @Override
+        public String handle(HttpResponse response, HttpClientRuntime.ResponseBody body) {
+            return body == null ? null : body.asString(Consts.UTF_8);
+        }
+    };
+
+    private static final HttpClientRuntime.BodyHandler<byte[]> BYTES = new HttpClientRuntime.BodyHandler<byte[]>() {
+        @Override
+        public byte[] handle(HttpResponse response, HttpClientRuntime.ResponseBody body) {
+            byte[] bytes = body == null ? new byte[0] : body.toByteArray();
+            Assert.assertTrue(body == null || Arrays.equals(bytes, Arrays.copyOf(body.array(), body.length())));
+            return bytes;
+        }
+    };
+
+    private static final HttpClientRuntime.BodyHandler<Integer> LENGTH = new HttpClientRuntime.BodyHandler<Integer>() {
+        @Override
+        public Integer handle(HttpResponse response, HttpClientRuntime.ResponseBody body) {
+            return body.length();
+        }
+    };
+}
@@ -0,0 +1,320 @@
+package com.hz.tgb.test.http;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.http.Consts;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.HttpResponseException;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.hz.tgb.http.util.HttpClientRuntime;
+import com.hz.tgb.http.util.HttpConfig;
+import com.hz.tgb.http.util.HttpFileTransfer;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * 流式文件下载、续传、分段下载与multipart上传单元测试，使用本地的JDK HttpServer代替真实服务
+ *
+ * @author hezhao
+ * @Time 2026年10月25日 下午3:40:12
+ */
+public class HttpFileTransferTest {
+
+    private static HttpServer server;
+
+    private static ExecutorService executor;
+
+    private static String base;
+
+    /** 每个key收到的请求数 */
+    private static final Map<String, AtomicInteger> HITS = new ConcurrentHashMap<String, AtomicInteger>();
+
+    /** 收到的Range头 */
+    private static final Map<String, String> RANGES = new ConcurrentHashMap<String, String>();
+
+    /** 上传收到的请求体 */
+    private static volatile byte[] uploaded;
+
+    private Path dir;
+
+    @BeforeClass
+    public static void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 64);
+        server.createContext("/file", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                Map<String, String> params = params(exchange.getRequestURI().getQuery());
+                String key = params.get("key");
+                int hit = hit(key);
+                int size = Integer.parseInt(params.get("size"));
+                long start = 0;
+                long end = size - 1;
+                int status = 200;
+                String range = exchange.getRequestHeaders().getFirst("Range");
+                if (range != null) {
+                    RANGES.put(key + "#" + hit, range);
+                }
+                if (range != null && !params.containsKey("noRange")) {
+                    String[] se = range.substring("bytes=".length()).split("-", -1);
+                    start = Long.parseLong(se[0]);
+                    if (!se[1].isEmpty()) {
+                        end = Math.min(end, Long.parseLong(se[1]));
+                    }
+                    if (start >= size) {
+                        exchange.getResponseHeaders().add("Content-Range", "bytes */" + size);
+                        exchange.sendResponseHeaders(416, -1);
+                        exchange.close();
+                        return;
+                    }
+                    status = 206;
+                    exchange.getResponseHeaders().add("Content-Range", "bytes " + start + "-" + end + "/" + size);
+                }
+                long length = end - start + 1;
+                // 第failHit次(默认第一次)请求只发failAfter个字节就断开
+                int failHit = params.containsKey("failHit") ? Integer.parseInt(params.get("failHit")) : 1;
+                long cut = params.containsKey("failAfter") && hit == failHit ? Long.parseLong(params.get("failAfter")) : length;
+                exchange.sendResponseHeaders(status, length);
+                OutputStream out = exchange.getResponseBody();
+                byte[] chunk = new byte[8192];
+                long pos = start;
+                long stop = start + Math.min(length, cut);
+                try {
+                    while (pos < stop) {
+                        int n = (int) Math.min(chunk.length, stop - pos);
+                        for (int i = 0; i < n; i++) {
+                            chunk[i] = content(pos + i);
+                        }
+                        out.write(chunk, 0, n);
+                        pos += n;
+                    }
+                    out.flush();
+                    // 没写够Content-Length时close会断开连接
+                    exchange.close();
+                } catch (IOException e) {
+                    // 客户端提前断开，或故意没写完
+                }
+            }
+        });
+        server.createContext("/upload", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                InputStream in = exchange.getRequestBody();
+                ByteArrayOutputStream body = new ByteArrayOutputStream();
+                byte[] buf = new byte[8192];
+                int n;
+                while ((n = in.read(buf)) != -1) {
+                    body.write(buf, 0, n);
+                }
+                uploaded = body.toByteArray();
+                byte[] resp = ("ok " + exchange.getRequestHeaders().getFirst("Content-Length")).getBytes("UTF-8");
+                exchange.sendResponseHeaders(200, resp.length);
+                exchange.getResponseBody().write(resp);
+                exchange.close();
+            }
+        });
+        executor = Executors.newFixedThreadPool(16);
+        server.setExecutor(executor);
+        server.start();
+        base = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterClass
+    public static void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    @Before
+    public void reset() throws IOException {
+        HITS.clear();
+        RANGES.clear();
+        dir = Files.createTempDirectory("http-transfer");
+        dir.toFile().deleteOnExit();
+    }
+
+    @Test
+    public void testDownload() throws IOException {
+        Path target = dir.resolve("a.bin");
+        Assert.assertEquals(300000, HttpFileTransfer.getDefault().download(base + "/file?key=a&size=300000", target, new HttpConfig()));
+        assertContent(target, 300000);
+        Assert.assertFalse(Files.exists(dir.resolve("a.bin" + HttpFileTransfer.PART_SUFFIX)));
+        Assert.assertTrue(RANGES.isEmpty());
+    }
+
+    @Test
+    public void testResumeAfterDisconnect() throws IOException {
+        Path target = dir.resolve("b.bin");
+        Assert.assertEquals(500000, HttpFileTransfer.getDefault().download(base + "/file?key=b&size=500000&failAfter=100000", target, new HttpConfig()));
+        assertContent(target, 500000);
+        Assert.assertEquals(2, HITS.get("b").get());
+        // 第二次请求从断开的位置续传
+        String range = RANGES.get("b#2");
+        Assert.assertTrue(range, range.startsWith("bytes=") && !range.equals("bytes=0-"));
+    }
+
+    @Test
+    public void testResumeFromPartFile() throws IOException {
+        Path target = dir.resolve("c.bin");
+        Path part = dir.resolve("c.bin" + HttpFileTransfer.PART_SUFFIX);
+        byte[] head = new byte[1000];
+        for (int i = 0; i < head.length; i++) {
+            head[i] = content(i);
+        }
+        Files.write(part, head);
+        HttpFileTransfer.getDefault().download(base + "/file?key=c&size=5000", target, new HttpConfig());
+        assertContent(target, 5000);
+        Assert.assertEquals("bytes=1000-", RANGES.get("c#1"));
+
+        // .part已经完整(416)
+        Files.write(part, Arrays.copyOf(Files.readAllBytes(target), 5000));
+        Assert.assertEquals(5000, HttpFileTransfer.getDefault().download(base + "/file?key=c2&size=5000", target, new HttpConfig()));
+        assertContent(target, 5000);
+
+        // 服务端不支持Range时从头下载
+        Files.write(part, head);
+        HttpFileTransfer.getDefault().download(base + "/file?key=c3&size=5000&noRange=1", target, new HttpConfig());
+        assertContent(target, 5000);
+    }
+
+    @Test
+    public void testDownloadRange() throws IOException {
+        Path target = dir.resolve("d.bin");
+        HttpFileTransfer.getDefault().downloadRange(base + "/file?key=d&size=10000", target, 2000, 3000, new HttpConfig());
+        byte[] bytes = Files.readAllBytes(target);
+        Assert.assertEquals(5000, bytes.length);
+        for (int i = 2000; i < 5000; i++) {
+            Assert.assertEquals(content(i), bytes[i]);
+        }
+        try {
+            HttpFileTransfer.getDefault().downloadRange(base + "/file?key=d2&size=10000&noRange=1", target, 0, 10, new HttpConfig());
+            Assert.fail();
+        } catch (HttpResponseException e) {
+            Assert.assertEquals(200, e.getStatusCode());
+        }
+    }
+
+    @Test
+    public void testSegmented() throws IOException {
+        HttpFileTransfer transfer = new HttpFileTransfer(HttpClientRuntime.getDefault(), 4);
+        transfer.setMinSegmentSize(100000);
+        try {
+            Path target = dir.resolve("e.bin");
+            Assert.assertEquals(1000001, transfer.downloadSegmented(base + "/file?key=e&size=1000001&failHit=2&failAfter=5000", target, 4, new HttpConfig()));
+            assertContent(target, 1000001);
+            // 1个探测请求 + 4段 + 1次续传
+            Assert.assertEquals(6, HITS.get("e").get());
+
+            // 文件小于两段时不拆分
+            target = dir.resolve("f.bin");
+            transfer.downloadSegmented(base + "/file?key=f&size=150000", target, 4, new HttpConfig());
+            assertContent(target, 150000);
+            Assert.assertEquals(2, HITS.get("f").get());
+
+            // 不支持Range时探测请求直接下载整个文件
+            target = dir.resolve("g.bin");
+            transfer.downloadSegmented(base + "/file?key=g&size=1000000&noRange=1", target, 4, new HttpConfig());
+            assertContent(target, 1000000);
+            Assert.assertEquals(1, HITS.get("g").get());
+        } finally {
+            transfer.close();
+        }
+    }
+
+    /**
+     * 空文件：探测请求bytes=0-0得到416和bytes *&#47;0，按空文件下载完成
+     */
+    @Test
+    public void testEmptyFile() throws IOException {
+        Path target = dir.resolve("empty.bin");
+        Assert.assertEquals(0, HttpFileTransfer.getDefault().downloadSegmented(base + "/file?key=h&size=0", target, 4, new HttpConfig()));
+        Assert.assertEquals(0, Files.size(target));
+        Assert.assertEquals("bytes=0-0", RANGES.get("h#1"));
+        Assert.assertEquals(1, HITS.get("h").get());
+        Assert.assertFalse(Files.exists(dir.resolve("empty.bin" + HttpFileTransfer.PART_SUFFIX)));
+
+        Files.delete(target);
+        Assert.assertEquals(0, HttpFileTransfer.getDefault().download(base + "/file?key=h2&size=0", target, new HttpConfig()));
+        Assert.assertEquals(0, Files.size(target));
+    }
+
+    @Test
+    public void testUpload() throws IOException {
+        Path file = dir.resolve("up.bin");
+        byte[] bytes = new byte[200000];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = content(i);
+        }
+        Files.write(file, bytes);
+        Map<String, Path> files = new LinkedHashMap<String, Path>();
+        files.put("file", file);
+        String resp = HttpFileTransfer.getDefault().upload(base + "/upload", files, Collections.singletonMap("name", "中文"), new HttpConfig(),
+                new HttpClientRuntime.BodyHandler<String>() {
+                    @Override
+                    public String handle(HttpResponse response, HttpClientRuntime.ResponseBody body) {
+                        return body.asString(Consts.UTF_8);
+                    }
+                });
+        // 长度已知，不使用chunked
+        Assert.assertEquals("ok " + uploaded.length, resp);
+        String text = new String(uploaded, Consts.ISO_8859_1);
+        Assert.assertTrue(text.contains("filename=\"up.bin\""));
+        Assert.assertTrue(new String(uploaded, Consts.UTF_8).contains("中文"));
+        int index = text.indexOf("\r\n\r\n", text.indexOf("filename=\"up.bin\"")) + 4;
+        Assert.assertTrue(Arrays.equals(bytes, Arrays.copyOfRange(uploaded, index, index + bytes.length)));
+    }
+
+    private static void assertContent(Path path, int size) throws IOException {
+        byte[] bytes = Files.readAllBytes(path);
+        Assert.assertEquals(size, bytes.length);
+        for (int i = 0; i < size; i++) {
+            if (bytes[i] != content(i)) {
+                Assert.fail("content mismatch at " + i);
+            }
+        }
+    }
+
+    private static byte content(long pos) {
+        return (byte) (pos * 31 + (pos >> 8));
+    }
+
+    private static int hit(String key) {
+        AtomicInteger hits = HITS.get(key);
+        if (hits == null) {
+            HITS.putIfAbsent(key, new AtomicInteger());
+            hits = HITS.get(key);
+        }
+        return hits.incrementAndGet();
+    }
+
+    private static Map<String, String> params(String query) {
+        Map<String, String> params = new HashMap<String, String>();
+        if (query != null) {
+            for (String pair : query.split("&")) {
+                String[] kv = pair.split("=", 2);
+                params.put(kv[0], kv.length > 1 ? kv[1] : "");
+            }
+        }
+        return params;
+    }
+}
@@ -0,0 +1,151 @@
+package com.hz.tgb.test.id;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.hz.tgb.datetime.AtomicSnowflake;
+import com.hz.tgb.datetime.Snowflake;
+
+/**
+ * 无锁雪花算法单元测试
+ *
+ * @author hezhao
+ * @Time 2026年10月19日 上午10:20:33
+ */
+public class AtomicSnowflakeTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(AtomicSnowflakeTest.class);
+
+    /**
+     * 单线程：严格递增，且与Snowflake的位布局一致
+     */
+    @Test
+    public void testMonotonic() {
+        AtomicSnowflake snowflake = new AtomicSnowflake(3, 7);
+        long last = -1;
+        for (int i = 0; i < 100000; i++) {
+            long id = snowflake.nextId();
+            Assert.assertTrue(id > last);
+            Assert.assertEquals(3, (id >>> 17) & 31);
+            Assert.assertEquals(7, (id >>> 12) & 31);
+            last = id;
+        }
+        long legacy = new Snowflake(3, 7).nextId();
+        Assert.assertTrue(Math.abs(AtomicSnowflake.getTimestamp(legacy) - System.currentTimeMillis()) < 1000);
+    }
+
+    /**
+     * 多线程混合单个与批量获取，不重复
+     */
+    @Test
+    public void testConcurrentUnique() throws InterruptedException {
+        final AtomicSnowflake snowflake = new AtomicSnowflake(1, 1);
+        final Set<Long> ids = ConcurrentHashMap.newKeySet();
+        final AtomicInteger total = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(8);
+        for (int t = 0; t < 8; t++) {
+            final boolean batch = t % 2 == 0;
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 2000; i++) {
+                        if (batch) {
+                            for (long id : snowflake.nextIds(10)) {
+                                ids.add(id);
+                                total.incrementAndGet();
+                            }
+                        } else {
+                            ids.add(snowflake.nextId());
+                            total.incrementAndGet();
+                        }
+                    }
+                    done.countDown();
+                }
+            }).start();
+        }
+        done.await();
+        Assert.assertEquals(total.get(), ids.size());
+    }
+
+    /**
+     * 批量ID连续递增，流形式与数组形式一致
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidMaxTimeDifference() {
+        new AtomicSnowflake(0, 0, 0);
+    }
+
+    @Test
+    public void testBatch() {
+        AtomicSnowflake snowflake = new AtomicSnowflake(0, 0);
+        long[] ids = snowflake.nextIds(4096);
+        Set<Long> set = new HashSet<Long>();
+        for (int i = 0; i < ids.length; i++) {
+            if (i > 0) {
+                Assert.assertTrue(ids[i] > ids[i - 1]);
+            }
+            set.add(ids[i]);
+        }
+        Assert.assertEquals(4096, set.size());
+        Assert.assertEquals(500, snowflake.nextIdStream(500).filter(id -> id > ids[ids.length - 1]).count());
+    }
+
+    /**
+     * 吞吐对比：synchronized版 vs 无锁版(单个/批量)，多线程。<br>
+     * 注意单节点理论上限为4096个/毫秒，无锁版超出部分借用未来时间，借满maxTimeDifference后等待时钟。
+     */
+    public static void main(String[] args) throws InterruptedException {
+        final int threads = Runtime.getRuntime().availableProcessors();
+        final int perThread = 2000000;
+        final Snowflake legacy = new Snowflake(1, 1);
+        final AtomicSnowflake atomic = new AtomicSnowflake(1, 1);
+        for (int round = 0; round < 3; round++) {
+            bench("synchronized nextId", threads, perThread, new Runnable() {
+                @Override
+                public void run() {
+                    legacy.nextId();
+                }
+            }, 1);
+            bench("atomic nextId", threads, perThread, new Runnable() {
+                @Override
+                public void run() {
+                    atomic.nextId();
+                }
+            }, 1);
+            bench("atomic nextIds(64)", threads, perThread / 64, new Runnable() {
+                @Override
+                public void run() {
+                    atomic.nextIds(64);
+                }
+            }, 64);
+        }
+    }
+
+    private static void bench(String name, int threads, final int loops, final Runnable task, int idsPerCall) throws InterruptedException {
+        final CountDownLatch done = new CountDownLatch(threads);
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < loops; i++) {
+                        task.run();
+                    }
+                    done.countDown();
+                }
+            }).start();
+        }
+        done.await();
+        long cost = System.nanoTime() - start;
+        long ids = (long) threads * loops * idsPerCall;
+        logger.info("{}: threads:{}, ids:{}, cost:{} ms, {} ids/ms", name, threads, ids, cost / 1000000, ids * 1000000 / cost);
+    }
+}
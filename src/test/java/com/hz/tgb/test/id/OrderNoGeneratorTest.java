@@ -0,0 +1,158 @@
+package com.hz.tgb.test.id;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.hz.tgb.id.OrderGenerater;
+import com.hz.tgb.id.OrderNoGenerator;
+
+/**
+ * 订单号生成引擎单元测试与吞吐/唯一性基准
+ *
+ * @author hezhao
+ * @Time 2026年10月19日 下午5:02:37
+ */
+public class OrderNoGeneratorTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderNoGeneratorTest.class);
+
+    @Test
+    public void testFormat() throws Exception {
+        OrderNoGenerator generator = new OrderNoGenerator("07");
+        long before = System.currentTimeMillis() / 1000 * 1000;
+        String orderNo = generator.next();
+        Assert.assertEquals(21, orderNo.length());
+        Assert.assertEquals(21, OrderGenerater.generateOrder().length());
+        Assert.assertEquals("07", orderNo.substring(15, 17));
+        long time = new SimpleDateFormat("yyMMddHHmmssSSS").parse(orderNo.substring(0, 15)).getTime();
+        Assert.assertTrue(time >= before && time <= System.currentTimeMillis() + 1000);
+    }
+
+    /**
+     * 唯一模式：多线程、3位序列号(每毫秒1000个)下大量生成，不重复
+     */
+    @Test
+    public void testUniqueModeConcurrent() throws InterruptedException {
+        final OrderNoGenerator generator = new OrderNoGenerator("1", 3, true);
+        final Set<String> orders = ConcurrentHashMap.newKeySet();
+        final AtomicInteger total = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(8);
+        for (int t = 0; t < 8; t++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 25000; i++) {
+                        orders.add(generator.next());
+                        total.incrementAndGet();
+                    }
+                    done.countDown();
+                }
+            }).start();
+        }
+        done.await();
+        Assert.assertEquals(total.get(), orders.size());
+    }
+
+    /**
+     * 吞吐与唯一性对比：原SimpleDateFormat+公平锁实现 vs 普通模式 vs 唯一模式
+     */
+    public static void main(String[] args) throws InterruptedException {
+        final int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+        final int perThread = 200000;
+        final OrderNoGenerator fast = new OrderNoGenerator("01", 4, false);
+        final OrderNoGenerator unique = new OrderNoGenerator("01", 4, true);
+        for (int round = 0; round < 3; round++) {
+            bench("legacy fair lock", threads, perThread, new Generator() {
+                @Override
+                public String next() {
+                    return LegacyOrderGenerater.generateOrder();
+                }
+            });
+            bench("engine fast mode", threads, perThread, new Generator() {
+                @Override
+                public String next() {
+                    return fast.next();
+                }
+            });
+            bench("engine unique mode", threads, perThread, new Generator() {
+                @Override
+                public String next() {
+                    return unique.next();
+                }
+            });
+        }
+    }
+
+    interface Generator {
+        String next();
+    }
+
+    private static void bench(String name, int threads, final int loops, final Generator generator) throws InterruptedException {
+        final Set<String> orders = ConcurrentHashMap.newKeySet();
+        final CountDownLatch done = new CountDownLatch(threads);
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < loops; i++) {
+                        orders.add(generator.next());
+                    }
+                    done.countDown();
+                }
+            }).start();
+        }
+        done.await();
+        long cost = System.nanoTime() - start;
+        long total = (long) threads * loops;
+        logger.info("{}: threads:{}, orders:{}, duplicates:{}, cost:{} ms, {} orders/ms", name, threads, total, total - orders.size(), cost / 1000000,
+                total * 1000000 / cost);
+    }
+
+    /**
+     * 原实现：每次新建SimpleDateFormat + 公平锁保护的两位序列号
+     */
+    static class LegacyOrderGenerater {
+
+        private static final Lock lock = new ReentrantLock(true);
+
+        private static final AtomicLong random = new AtomicLong(System.nanoTime());
+
+        private static int serialNo = 0;
+
+        static String generateOrder() {
+            StringBuilder builder = new StringBuilder();
+            builder.append(new SimpleDateFormat("yyMMddHHmmssSSS").format(new Date())).append("01");
+            int num = (int) ((random.incrementAndGet() * 0x9E3779B97F4A7C15L >>> 33) % 100);
+            builder.append(num < 10 ? "0" + num : "" + num);
+            int tempSerialNo;
+            try {
+                if (!lock.tryLock(3, TimeUnit.SECONDS)) {
+                    throw new IllegalStateException("can not get lock");
+                }
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            try {
+                serialNo = serialNo >= 99 ? 0 : serialNo + 1;
+                tempSerialNo = serialNo;
+            } finally {
+                lock.unlock();
+            }
+            return builder.append(tempSerialNo < 10 ? "0" + tempSerialNo : "" + tempSerialNo).toString();
+        }
+    }
+}
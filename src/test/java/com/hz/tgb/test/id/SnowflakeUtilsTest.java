@@ -0,0 +1,104 @@
+package com.hz.tgb.test.id;
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.hz.tgb.datetime.AtomicSnowflake;
+import com.hz.tgb.datetime.FileLockWorkerIdAssigner;
+import com.hz.tgb.datetime.Snowflake;
+import com.hz.tgb.datetime.SnowflakeUtils;
+import com.hz.tgb.datetime.WorkerIdAssigner;
+import com.hz.tgb.id.GenerateOrderNoUtil;
+
+/**
+ * 雪花算法注册表与工作节点ID分配单元测试
+ *
+ * @author hezhao
+ * @Time 2026年10月19日 下午3:05:42
+ */
+public class SnowflakeUtilsTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * 注册表是静态的，前后都恢复成初始状态，避免与其他测试互相影响
+     */
+    @Before
+    @After
+    public void resetRegistry() throws Exception {
+        ((Map<?, ?>) field("generatorCache").get(null)).clear();
+        ((Map<?, ?>) field("snowflakeCache").get(null)).clear();
+        ((AtomicInteger) field("aliasCount").get(null)).set(0);
+        field("workerId").setLong(null, -1L);
+        field("workerIdAssigner").set(null, new FileLockWorkerIdAssigner());
+    }
+
+    private static Field field(String name) throws NoSuchFieldException {
+        Field field = SnowflakeUtils.class.getDeclaredField(name);
+        field.setAccessible(true);
+        return field;
+    }
+
+    /**
+     * 每个分配器模拟一个进程，已被持有的ID不会再被分配
+     */
+    @Test
+    public void testFileLockAssignsDistinctIds() throws Exception {
+        File dir = folder.newFolder("worker");
+        Set<Long> ids = new HashSet<Long>();
+        for (int i = 0; i < 4; i++) {
+            ids.add(new FileLockWorkerIdAssigner(dir, 0, 3).assign());
+        }
+        Assert.assertEquals(4, ids.size());
+        try {
+            new FileLockWorkerIdAssigner(dir, 0, 3).assign();
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            // 0~3已全部被占用
+        }
+    }
+
+    @Test
+    public void testRegistry() {
+        SnowflakeUtils.setWorkerIdAssigner(new WorkerIdAssigner() {
+            @Override
+            public long assign() {
+                return 1000;
+            }
+        });
+        AtomicSnowflake generator = SnowflakeUtils.getGenerator("ORDER  PAY");
+        Assert.assertSame(generator, SnowflakeUtils.getGenerator("ORDER PAY"));
+        Assert.assertSame(generator, SnowflakeUtils.getGenerator("ORDER  PAY"));
+        Assert.assertEquals(1000 >> 5, generator.getDatacenterId());
+        Assert.assertEquals(1000 & 31, generator.getMachineId());
+        Assert.assertEquals(1000, SnowflakeUtils.getWorkerId());
+
+        // 订单号长度不再影响机器标识
+        Assert.assertEquals(40, GenerateOrderNoUtil.getOrderNo(40).length());
+    }
+
+    @SuppressWarnings("deprecation")
+    @Test
+    public void testDeprecatedInstanceSharesGenerator() {
+        AtomicSnowflake generator = SnowflakeUtils.getGenerator(1, 2, "LEGACY");
+        Snowflake legacy = SnowflakeUtils.getInstance(1, 2, "LEGACY");
+        Assert.assertSame(legacy, SnowflakeUtils.getInstance(1, 2, " LEGACY "));
+        Set<Long> ids = new HashSet<Long>();
+        for (int i = 0; i < 10000; i++) {
+            Assert.assertTrue(ids.add(generator.nextId()));
+            Assert.assertTrue(ids.add(legacy.nextId()));
+        }
+    }
+}
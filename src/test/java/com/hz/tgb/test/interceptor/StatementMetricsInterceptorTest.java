@@ -0,0 +1,261 @@
+package com.hz.tgb.test.interceptor;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.text.DateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.TypeHandlerRegistry;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.hz.tgb.interceptor.SqlRenderer;
+import com.hz.tgb.interceptor.SqlStatsRegistry;
+import com.hz.tgb.interceptor.SqlStatsSnapshot;
+import com.hz.tgb.interceptor.StatementMetricsInterceptor;
+
+/**
+ * SQL渲染与执行统计单元测试与基准
+ *
+ * @author hezhao
+ * @Time 2026年10月20日 下午3:10:27
+ */
+public class StatementMetricsInterceptorTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatementMetricsInterceptorTest.class);
+
+    private static final Configuration CONFIGURATION = new Configuration();
+
+    public static class User {
+
+        static int getterCalls;
+
+        private Long id = 7L;
+
+        private String name = "张三";
+
+        private Date createTime = new Date(1500000000000L);
+
+        public Long getId() {
+            getterCalls++;
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Date getCreateTime() {
+            return createTime;
+        }
+    }
+
+    /**
+     * 测试用的执行器，返回参数指定的行数或抛出异常
+     */
+    public static class FakeExecutor {
+
+        public Object update(MappedStatement mappedStatement, Object parameter) throws InterruptedException {
+            if (parameter instanceof Map) {
+                Object sleep = ((Map<?, ?>) parameter).get("sleep");
+                if (sleep != null) {
+                    Thread.sleep((Integer) sleep);
+                }
+                if (((Map<?, ?>) parameter).containsKey("fail")) {
+                    throw new IllegalStateException("fail");
+                }
+            }
+            return 3;
+        }
+    }
+
+    @Test
+    public void testRenderMatchesLegacy() {
+        User user = new User();
+        BoundSql bean = boundSql("select *\n  from user\twhere id = ? and name = ?  and create_time > ? ", user, "id", "name", "createTime");
+        Assert.assertEquals(legacyShowSql(CONFIGURATION, bean), SqlRenderer.render(CONFIGURATION, bean));
+        Assert.assertTrue(SqlRenderer.render(CONFIGURATION, bean).startsWith("select * from user where id = 7 and name = '张三' and create_time > '"));
+
+        BoundSql simple = boundSql("delete from user where id = ?", 9L, "id");
+        Assert.assertEquals("delete from user where id = 9", SqlRenderer.render(CONFIGURATION, simple));
+        Assert.assertEquals(legacyShowSql(CONFIGURATION, simple), SqlRenderer.render(CONFIGURATION, simple));
+
+        Map<String, Object> map = new HashMap<String, Object>();
+        map.put("status", 1);
+        BoundSql foreach = boundSql("select id from user where status = ? and id in ( ? , ? )", map, "status", "__frch_id_0", "__frch_id_1");
+        foreach.setAdditionalParameter("__frch_id_0", 10L);
+        foreach.setAdditionalParameter("__frch_id_1", 11L);
+        Assert.assertEquals("select id from user where status = 1 and id in ( 10 , 11 )", SqlRenderer.render(CONFIGURATION, foreach));
+        Assert.assertEquals(legacyShowSql(CONFIGURATION, foreach), SqlRenderer.render(CONFIGURATION, foreach));
+
+        Assert.assertEquals("select 1 ", SqlRenderer.render(CONFIGURATION, boundSql("select\r\n1\n", null)));
+    }
+
+    /**
+     * 原实现的问题：参数值中的 $ 和 ? 会干扰后续替换；字符串常量中的 ? 不是占位符
+     */
+    @Test
+    public void testRenderLiteralsAndSpecialValues() {
+        Map<String, Object> map = new HashMap<String, Object>();
+        map.put("a", "x?$1");
+        map.put("b", "y");
+        BoundSql sql = boundSql("update t set remark = 'what?  ok', a = ?, b = ?", map, "a", "b");
+        Assert.assertEquals("update t set remark = 'what?  ok', a = 'x?$1', b = 'y'", SqlRenderer.render(CONFIGURATION, sql));
+        Assert.assertEquals("select '?' from t where name = 'it''s' and id = ?",
+                SqlRenderer.render(CONFIGURATION, boundSql("select '?' from t where name = 'it''s' and id = ?", null, "id")));
+    }
+
+    @Test
+    public void testStatsAndLazyRendering() throws Throwable {
+        SqlStatsRegistry registry = new SqlStatsRegistry();
+        StatementMetricsInterceptor interceptor = new StatementMetricsInterceptor(registry);
+        Properties properties = new Properties();
+        properties.setProperty("slowMillis", "30");
+        properties.setProperty("sampleRate", "0");
+        interceptor.setProperties(properties);
+
+        MappedStatement userStatement = mappedStatement("demo.updateUser", "update user set name = ? where id = ?", "name", "id");
+        User.getterCalls = 0;
+        for (int i = 0; i < 5; i++) {
+            interceptor.intercept(invocation(userStatement, new User()));
+        }
+        // 快SQL且不采样时不渲染，不会调用参数的getter
+        Assert.assertEquals(0, User.getterCalls);
+
+        MappedStatement mapStatement = mappedStatement("demo.slow", "update t set a = 1");
+        Map<String, Object> slow = new HashMap<String, Object>();
+        slow.put("sleep", 40);
+        interceptor.intercept(invocation(mapStatement, slow));
+        Map<String, Object> fail = new HashMap<String, Object>();
+        fail.put("fail", true);
+        try {
+            interceptor.intercept(invocation(mapStatement, fail));
+            Assert.fail();
+        } catch (InvocationTargetException e) {
+            // Invocation.proceed直接反射调用，由Plugin负责解包
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+
+        Map<String, SqlStatsSnapshot> stats = new HashMap<String, SqlStatsSnapshot>();
+        for (SqlStatsSnapshot snapshot : registry.snapshot()) {
+            stats.put(snapshot.getSqlId(), snapshot);
+        }
+        SqlStatsSnapshot user = stats.get("demo.updateUser");
+        Assert.assertEquals(5, user.getCount());
+        Assert.assertEquals(15, user.getTotalRows());
+        Assert.assertEquals(3, user.getMaxRows());
+        Assert.assertEquals(0, user.getSlowCount());
+        SqlStatsSnapshot slowStats = stats.get("demo.slow");
+        Assert.assertEquals(2, slowStats.getCount());
+        Assert.assertEquals(1, slowStats.getSlowCount());
+        Assert.assertEquals(1, slowStats.getErrorCount());
+        Assert.assertTrue(slowStats.getMaxMillis() >= 40);
+    }
+
+    /**
+     * 50个参数的in查询：正则逐个替换 vs 单次扫描
+     */
+    public static void main(String[] args) {
+        Map<String, Object> map = new HashMap<String, Object>();
+        map.put("status", "NORMAL");
+        StringBuilder sql = new StringBuilder("select id, name,\n    status from user\n  where status = ? and id in (");
+        List<String> properties = new ArrayList<String>();
+        properties.add("status");
+        for (int i = 0; i < 50; i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+            properties.add("__frch_id_" + i);
+        }
+        sql.append(")");
+        BoundSql boundSql = boundSql(sql.toString(), map, properties.toArray(new String[0]));
+        for (int i = 0; i < 50; i++) {
+            boundSql.setAdditionalParameter("__frch_id_" + i, 1000L + i);
+        }
+        int loops = 20000;
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < loops; i++) {
+                legacyShowSql(CONFIGURATION, boundSql);
+            }
+            long legacy = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < loops; i++) {
+                SqlRenderer.render(CONFIGURATION, boundSql);
+            }
+            long single = System.nanoTime() - start;
+            logger.info("legacy regex:{} ns/op, single pass:{} ns/op", legacy / loops, single / loops);
+        }
+    }
+
+    private static BoundSql boundSql(String sql, Object parameter, String... properties) {
+        List<ParameterMapping> mappings = new ArrayList<ParameterMapping>();
+        for (String property : properties) {
+            mappings.add(new ParameterMapping.Builder(CONFIGURATION, property, Object.class).build());
+        }
+        return new BoundSql(CONFIGURATION, sql, mappings, parameter);
+    }
+
+    private static MappedStatement mappedStatement(String id, String sql, String... properties) {
+        List<ParameterMapping> mappings = new ArrayList<ParameterMapping>();
+        for (String property : properties) {
+            mappings.add(new ParameterMapping.Builder(CONFIGURATION, property, Object.class).build());
+        }
+        return new MappedStatement.Builder(CONFIGURATION, id, new StaticSqlSource(CONFIGURATION, sql, mappings), SqlCommandType.UPDATE).build();
+    }
+
+    private static Invocation invocation(MappedStatement mappedStatement, Object parameter) throws NoSuchMethodException {
+        Method method = FakeExecutor.class.getMethod("update", MappedStatement.class, Object.class);
+        return new Invocation(new FakeExecutor(), method, new Object[] { mappedStatement, parameter });
+    }
+
+    /**
+     * 原实现
+     */
+    private static String legacyShowSql(Configuration configuration, BoundSql boundSql) {
+        Object parameterObject = boundSql.getParameterObject();
+        List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
+        String sql = boundSql.getSql().replaceAll("[\\s]+", " ");
+        if (!parameterMappings.isEmpty() && parameterObject != null) {
+            TypeHandlerRegistry typeHandlerRegistry = configuration.getTypeHandlerRegistry();
+            if (typeHandlerRegistry.hasTypeHandler(parameterObject.getClass())) {
+                sql = sql.replaceFirst("\\?", legacyValue(parameterObject));
+            } else {
+                MetaObject metaObject = configuration.newMetaObject(parameterObject);
+                for (ParameterMapping parameterMapping : parameterMappings) {
+                    String propertyName = parameterMapping.getProperty();
+                    if (metaObject.hasGetter(propertyName)) {
+                        sql = sql.replaceFirst("\\?", legacyValue(metaObject.getValue(propertyName)));
+                    } else if (boundSql.hasAdditionalParameter(propertyName)) {
+                        sql = sql.replaceFirst("\\?", legacyValue(boundSql.getAdditionalParameter(propertyName)));
+                    }
+                }
+            }
+        }
+        return sql;
+    }
+
+    private static String legacyValue(Object obj) {
+        if (obj instanceof String) {
+            return "'" + obj + "'";
+        } else if (obj instanceof Date) {
+            DateFormat formatter = DateFormat.getDateTimeInstance(DateFormat.DEFAULT, DateFormat.DEFAULT, Locale.CHINA);
+            return "'" + formatter.format(obj) + "'";
+        }
+        return obj != null ? obj.toString() : "";
+    }
+}
@@ -0,0 +1,184 @@
+package com.hz.tgb.test.json;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.hz.tgb.json.JsonMapConverter;
+import com.hz.tgb.json.JsonXmlUtils;
+
+import net.sf.json.JSONArray;
+import net.sf.json.JSONNull;
+import net.sf.json.JSONObject;
+
+/**
+ * 流式JSON转Map单元测试与基准
+ *
+ * @author hezhao
+ * @Time 2026年10月21日 上午11:52:09
+ */
+public class JsonMapConverterTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(JsonMapConverterTest.class);
+
+    private static final String[] DOCUMENTS = {
+            "{}",
+            "{\"id\":1,\"name\":\"张三\",\"ok\":true,\"no\":false,\"score\":98.5,\"big\":12345678901,\"huge\":123456789012345678901234567890}",
+            "{\"user\":{\"id\":2,\"tags\":{\"a\":\"x\",\"b\":{\"c\":-1.25}}},\"empty\":{}}",
+            "{\"items\":[{\"sku\":\"A1\",\"qty\":2},{\"sku\":\"B2\",\"qty\":1,\"attrs\":[{\"k\":\"color\",\"v\":\"red\"}]}],\"total\":3}",
+            "{\"text\":\"line1\\nline2\\t\\\"quoted\\\" \\u4e2d\\u6587 \\\\ /\",\"nested\":{\"list\":[{\"x\":{\"y\":{\"z\":[{\"deep\":1}]}}}]}}",
+            "{'single':'quote',unquoted:1,\"arr\":[]}",
+            "{\"remark\":null,\"nested\":{\"v\":null}}" };
+
+    @Test
+    public void testMatchesLegacy() {
+        for (String json : DOCUMENTS) {
+            Assert.assertEquals(json, normalize(legacyJson2Map(json)), JsonXmlUtils.json2Map(json));
+        }
+    }
+
+    @Test
+    public void testTypesAndOrder() {
+        Map<String, Object> map = JsonXmlUtils.json2Map(DOCUMENTS[1]);
+        Assert.assertEquals("[id, name, ok, no, score, big, huge]", map.keySet().toString());
+        Assert.assertEquals(Integer.class, map.get("id").getClass());
+        Assert.assertEquals(Long.class, map.get("big").getClass());
+        Assert.assertEquals(java.math.BigInteger.class, map.get("huge").getClass());
+        Assert.assertEquals(Double.class, map.get("score").getClass());
+        // json-lib在数组元素不是对象时抛出ClassCastException
+        Map<String, Object> values = JsonXmlUtils.json2Map("{\"ids\":[1,\"2\",null,[true]]}");
+        Assert.assertEquals("[1, 2, null, [true]]", values.get("ids").toString());
+        Assert.assertEquals(Arrays.asList(1, "a"), JsonMapConverter.DEFAULT.parse(new StringReader("[1,\"a\"]")));
+    }
+
+    @Test
+    public void testLimitsAndErrors() {
+        String deep = "{\"a\":{\"b\":{\"c\":{\"d\":1}}}}";
+        Assert.assertNotNull(JsonMapConverter.DEFAULT.withMaxDepth(4).toMap(deep));
+        assertRejected(JsonMapConverter.DEFAULT.withMaxDepth(3), deep, "depth");
+        assertRejected(JsonMapConverter.DEFAULT.withMaxContainerSize(2), "{\"a\":[1,2,3]}", "array size");
+        assertRejected(JsonMapConverter.DEFAULT.withMaxContainerSize(2), "{\"a\":1,\"b\":2,\"c\":3}", "object size");
+        assertRejected(JsonMapConverter.DEFAULT.withMaxStringLength(3), "{\"a\":\"abcd\"}", "string length");
+        assertRejected(JsonMapConverter.DEFAULT, "{\"a\":1", "invalid json");
+        assertRejected(JsonMapConverter.DEFAULT, "{\"a\":1} x", "invalid json");
+        assertRejected(JsonMapConverter.DEFAULT, "[1]", "not an object");
+        assertRejected(JsonMapConverter.DEFAULT, "", "empty");
+    }
+
+    @Test
+    public void testLazy() {
+        String json = DOCUMENTS[3];
+        Map<String, Object> lazy = JsonMapConverter.DEFAULT.withLazyDepth(1).toMap(json);
+        Object items = lazy.get("items");
+        Assert.assertTrue(items instanceof JsonMapConverter.LazyList);
+        JsonMapConverter.LazyList list = (JsonMapConverter.LazyList) items;
+        Assert.assertFalse(list.isMaterialized());
+        Assert.assertEquals("[{\"sku\":\"A1\",\"qty\":2},{\"sku\":\"B2\",\"qty\":1,\"attrs\":[{\"k\":\"color\",\"v\":\"red\"}]}]", list.toJson());
+        Assert.assertEquals(JsonXmlUtils.json2Map(json), lazy);
+        Assert.assertTrue(list.isMaterialized());
+        // 延迟的子树解析时同样受深度限制
+        Map<String, Object> limited = JsonMapConverter.DEFAULT.withLazyDepth(1).withMaxDepth(3).toMap(json);
+        try {
+            limited.get("items").toString();
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("depth"));
+        }
+    }
+
+    /**
+     * 约1.2MB、5层嵌套的文档：json-lib递归toString再解析 vs 流式解析 vs 延迟解析(只访问顶层)
+     */
+    public static void main(String[] args) {
+        StringBuilder json = new StringBuilder("{\"code\":0,\"orders\":[");
+        for (int i = 0; i < 3000; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"id\":").append(i).append(",\"buyer\":{\"name\":\"u").append(i)
+                    .append("\",\"address\":{\"city\":\"sz\",\"geo\":{\"lat\":22.5,\"lng\":114.1}}},\"lines\":[");
+            for (int j = 0; j < 5; j++) {
+                json.append(j == 0 ? "" : ",").append("{\"sku\":\"S").append(j).append("\",\"qty\":").append(j + 1)
+                        .append(",\"price\":12.5,\"tags\":[{\"t\":\"a\"},{\"t\":\"b\"}]}");
+            }
+            json.append("]}");
+        }
+        json.append("]}");
+        String document = json.toString();
+        JsonMapConverter lazy = JsonMapConverter.DEFAULT.withLazyDepth(2);
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            legacyJson2Map(document);
+            long legacy = System.nanoTime() - start;
+            start = System.nanoTime();
+            JsonXmlUtils.json2Map(document);
+            long streaming = System.nanoTime() - start;
+            start = System.nanoTime();
+            ((List<?>) lazy.toMap(document).get("orders")).size();
+            long lazyTop = System.nanoTime() - start;
+            logger.info("{} KB: json-lib:{} ms, streaming:{} ms, lazy(top level only):{} ms", document.length() / 1024, legacy / 1000000,
+                    streaming / 1000000, lazyTop / 1000000);
+        }
+    }
+
+    private static void assertRejected(JsonMapConverter converter, String json, String message) {
+        try {
+            converter.toMap(json);
+            Assert.fail(json);
+        } catch (IllegalArgumentException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains(message));
+        }
+    }
+
+    /**
+     * json-lib的结果转为普通的Map/List，JSONNull转为null
+     */
+    private static Object normalize(Object value) {
+        if (value instanceof Map) {
+            Map<String, Object> map = new LinkedHashMap<String, Object>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                map.put(entry.getKey().toString(), normalize(entry.getValue()));
+            }
+            return map;
+        } else if (value instanceof List) {
+            List<Object> list = new ArrayList<Object>();
+            for (Object item : (List<?>) value) {
+                list.add(normalize(item));
+            }
+            return list;
+        } else if (value instanceof JSONNull) {
+            return null;
+        }
+        return value;
+    }
+
+    /**
+     * 原实现
+     */
+    private static Map<String, Object> legacyJson2Map(String jsonStr) {
+        Map<String, Object> map = new java.util.HashMap<String, Object>();
+        JSONObject json = JSONObject.fromObject(jsonStr);
+        for (Object k : json.keySet()) {
+            Object v = json.get(k);
+            if (v instanceof JSONArray) {
+                List<Map<String, Object>> list = new ArrayList<Map<String, Object>>();
+                @SuppressWarnings("unchecked")
+                Iterator<JSONObject> it = ((JSONArray) v).iterator();
+                while (it.hasNext()) {
+                    JSONObject json2 = it.next();
+                    list.add(legacyJson2Map(json2.toString()));
+                }
+                map.put(k.toString(), list);
+            } else {
+                map.put(k.toString(), v);
+            }
+        }
+        return map;
+    }
+}
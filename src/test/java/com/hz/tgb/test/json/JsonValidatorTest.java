@@ -0,0 +1,460 @@
+package com.hz.tgb.test.json;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.CharacterIterator;
+import java.text.StringCharacterIterator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.hz.tgb.json.JsonValidator;
+
+/**
+ * JSON校验单元测试与基准
+ *
+ * @author hezhao
+ * @Time 2026年10月21日 下午2:16:40
+ */
+public class JsonValidatorTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(JsonValidatorTest.class);
+
+    private static final JsonValidator VALIDATOR = new JsonValidator();
+
+    private static final String[] VALID = { "", "  \n ", "0", "-0", "-12.5e+3", "1E9", "true", " null ", "\"\"", "\"a\\\"b\\\\c\\/\\b\\f\\n\\r\\t\\u00e9\"",
+            "{}", "[]", "[ ]", "{ \"a\" : 1 , \"b\" : [ true , false , null , { } ] }", "[1,[2,[3,[4]]]]",
+            "{\"name\":\"张三\",\"emoji\":\"\ud83d\ude00\",\"n\":-0.0e-0}", "\t{\"a\":{\"b\":{\"c\":\"d\"}}}\r\n" };
+
+    private static final String[] INVALID = { "{", "}", "[1,]", "[,1]", "{\"a\"}", "{\"a\":}", "{\"a\":1,}", "{a:1}", "{'a':1}", "01",
+            "1.", ".5", "-", "1e", "1e+", "+1", "tru", "nul", "nulll", "truefalse", "\"abc", "\"\\x\"", "\"\\u12g4\"", "[1 2]",
+            "{\"a\":1 \"b\":2}", "1 2", "[\"a\",]", "{\"a\":1}}", "[[]", "\"\\u123\"" };
+
+    @Test
+    public void testMatchesLegacy() {
+        for (String json : VALID) {
+            Assert.assertTrue(json, legacyValidate(json));
+            assertAllInputs(json, true);
+        }
+        for (String json : INVALID) {
+            Assert.assertFalse(json, legacyValidate(json));
+            assertAllInputs(json, false);
+        }
+    }
+
+    /**
+     * 原实现接受的不合法内容：转义的空格、字符串中的控制字符、非ASCII数字
+     */
+    @Test
+    public void testStricterThanLegacy() {
+        String[] jsons = { "\"a\\ b\"", "\"a\nb\"", "[\u0661]" };
+        for (String json : jsons) {
+            Assert.assertTrue(json, legacyValidate(json));
+            assertAllInputs(json, false);
+        }
+    }
+
+    /**
+     * 值之间只允许JSON空白(空格、\t、\n、\r)，原实现用Character.isWhitespace还接受\f、\u000B、\u001C-\u001F和Unicode空格；
+     * 字符串中的原始tab同样不合法；最外层值前后的控制字符仍然忽略，与原实现的trim一致
+     */
+    @Test
+    public void testStricterWhitespace() {
+        String[] jsons = { "[1,\f2]", "[1,\u000B2]", "[1\u001C]", "[1\u001F]", "{\"a\":\u20031}", "[\u3000]", "{\u2028\"a\":1}" };
+        for (String json : jsons) {
+            Assert.assertTrue(json, legacyValidate(json));
+            assertAllInputs(json, false);
+        }
+        assertAllInputs("\"a\tb\"", false);
+        assertAllInputs("{\"a\tb\":1}", false);
+        assertAllInputs("[\"a\\tb\",\t1]", true);
+        assertAllInputs("\f[1]\u000B", true);
+    }
+
+    @Test
+    public void testUtf8() {
+        Assert.assertTrue(VALIDATOR.validate("[\"é中\ud83d\ude00\"]".getBytes(StandardCharsets.UTF_8)));
+        // 非法的UTF-8：孤立的续字节、过长编码、代理区、超出范围、截断
+        byte[][] invalid = { { '"', (byte) 0x80, '"' }, { '"', (byte) 0xC0, (byte) 0xAF, '"' }, { '"', (byte) 0xE0, (byte) 0x80, (byte) 0xAF, '"' },
+                { '"', (byte) 0xED, (byte) 0xA0, (byte) 0x80, '"' }, { '"', (byte) 0xF4, (byte) 0x90, (byte) 0x80, (byte) 0x80, '"' },
+                { '"', (byte) 0xE4, (byte) 0xB8, '"' }, { '"', 'a', (byte) 0xE4 } };
+        for (byte[] bytes : invalid) {
+            Assert.assertFalse(VALIDATOR.validate(bytes));
+        }
+        // 字符串之外不允许非ASCII
+        Assert.assertFalse(VALIDATOR.validate("[1,中]".getBytes(StandardCharsets.UTF_8)));
+        // 超过一块的堆外buffer
+        byte[] large = document(100).getBytes(StandardCharsets.UTF_8);
+        ByteBuffer direct = ByteBuffer.allocateDirect(large.length);
+        direct.put(large).flip();
+        Assert.assertTrue(VALIDATOR.validate(direct));
+        direct.put(large.length - 1, (byte) 0xE4);
+        Assert.assertFalse(VALIDATOR.validate(direct));
+    }
+
+    @Test
+    public void testIncrementalSplitAnywhere() {
+        String json = "{\"name\":\"张三\ud83d\ude00\",\"list\":[1,-2.5e3,true,null,\"\\u4e2d\"],\"o\":{}}";
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        for (int split = 0; split <= bytes.length; split++) {
+            JsonValidator.Incremental session = VALIDATOR.newIncremental();
+            Assert.assertTrue(session.feed(bytes, 0, split));
+            Assert.assertTrue(session.feed(ByteBuffer.wrap(bytes, split, bytes.length - split)));
+            Assert.assertTrue("split at " + split, session.finish());
+        }
+        for (int split = 0; split <= json.length(); split++) {
+            JsonValidator.Incremental session = VALIDATOR.newIncremental();
+            session.feed(json.substring(0, split));
+            session.feed(json.toCharArray(), split, json.length() - split);
+            Assert.assertTrue("split at " + split, session.finish());
+        }
+        // 数字在段尾结束时要到finish才能确定
+        JsonValidator.Incremental session = VALIDATOR.newIncremental();
+        Assert.assertTrue(session.feed("12"));
+        Assert.assertTrue(session.finish());
+        session.reset();
+        Assert.assertTrue(session.feed("[1,"));
+        Assert.assertFalse(session.feed("2]x"));
+        Assert.assertEquals(5, session.getErrorPosition());
+        Assert.assertFalse(session.finish());
+    }
+
+    /**
+     * 逐字节喂入时每个值都跨段，走逐字符的状态；与整段校验的结果应当一致
+     */
+    @Test
+    public void testByteByByteMatchesWhole() {
+        Random random = new Random(20);
+        String json = document(3);
+        String alphabet = "{}[]:,\"\\ 0-1.eE+tfnulx\u00e9\n";
+        for (int n = 0; n < 2000; n++) {
+            StringBuilder mutated = new StringBuilder(json);
+            int at = random.nextInt(mutated.length());
+            if (random.nextBoolean()) {
+                mutated.deleteCharAt(at);
+            } else {
+                mutated.insert(at, alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            byte[] bytes = mutated.toString().getBytes(StandardCharsets.UTF_8);
+            JsonValidator.Incremental session = VALIDATOR.newIncremental();
+            for (byte b : bytes) {
+                session.feed(new byte[] { b }, 0, 1);
+            }
+            Assert.assertEquals(mutated.toString(), VALIDATOR.validate(bytes), session.finish());
+            Assert.assertEquals(mutated.toString(), VALIDATOR.validate(mutated), session.finish());
+        }
+    }
+
+    @Test
+    public void testDepthLimit() {
+        StringBuilder deep = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            deep.append(i % 2 == 0 ? "[" : "{\"k\":");
+        }
+        deep.append('0');
+        for (int i = 199; i >= 0; i--) {
+            deep.append(i % 2 == 0 ? "]" : "}");
+        }
+        Assert.assertTrue(VALIDATOR.validate(deep.toString()));
+        Assert.assertTrue(new JsonValidator(200).validate(deep.toString()));
+        Assert.assertFalse(new JsonValidator(199).validate(deep.toString()));
+    }
+
+    @Test
+    public void testThreadSafeAndAllocationFree() throws Exception {
+        final String json = document(200);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>();
+            for (int i = 0; i < 16; i++) {
+                final boolean valid = i % 2 == 0;
+                futures.add(executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() {
+                        for (int n = 0; n < 200; n++) {
+                            if (VALIDATOR.validate(valid ? json : json + "]") != valid) {
+                                return false;
+                            }
+                        }
+                        return true;
+                    }
+                }));
+            }
+            for (Future<Boolean> future : futures) {
+                Assert.assertTrue(future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+            long id = Thread.currentThread().getId();
+            byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+            VALIDATOR.validate(json);
+            long before = threads.getThreadAllocatedBytes(id);
+            for (int i = 0; i < 100; i++) {
+                VALIDATOR.validate(json);
+                VALIDATOR.validate(bytes);
+            }
+            long allocated = threads.getThreadAllocatedBytes(id) - before;
+            Assert.assertTrue("allocated " + allocated, allocated < 1024);
+        }
+    }
+
+    /**
+     * 约600KB的JSON：原实现(String、先把UTF-8请求体解码为String) vs 新实现(String、直接校验UTF-8 byte[])
+     */
+    public static void main(String[] args) {
+        String json = document(4000);
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        int loops = 20;
+        for (int round = 0; round < 10; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < loops; i++) {
+                legacyValidate(json);
+            }
+            long legacy = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < loops; i++) {
+                legacyValidate(new String(bytes, StandardCharsets.UTF_8));
+            }
+            long legacyBytes = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < loops; i++) {
+                VALIDATOR.validate(json);
+            }
+            long chars = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < loops; i++) {
+                VALIDATOR.validate(bytes);
+            }
+            long utf8 = System.nanoTime() - start;
+            logger.info("{} KB: legacy String:{} MB/s, legacy UTF-8 bytes:{} MB/s; String:{} MB/s, UTF-8 bytes:{} MB/s", bytes.length / 1024,
+                    throughput(bytes.length, loops, legacy), throughput(bytes.length, loops, legacyBytes), throughput(bytes.length, loops, chars),
+                    throughput(bytes.length, loops, utf8));
+        }
+    }
+
+    private static long throughput(long size, int loops, long nanos) {
+        return size * loops * 1000L / Math.max(1, nanos);
+    }
+
+    private static String document(int items) {
+        StringBuilder json = new StringBuilder("{\"code\":0,\"message\":\"成功\",\"data\":[");
+        for (int i = 0; i < items; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"id\":").append(i).append(",\"name\":\"用户").append(i)
+                    .append("\",\"score\":").append(i * 1.5).append(",\"tags\":[\"a\",\"b\\n\"],\"active\":true,\"extra\":null,")
+                    .append("\"address\":{\"city\":\"深圳\",\"zip\":\"518000\",\"lines\":[\"line 1\",\"line 2\"]}}");
+        }
+        return json.append("]}").toString();
+    }
+
+    private static void assertAllInputs(String json, boolean expected) {
+        Assert.assertEquals(json, expected, VALIDATOR.validate(json));
+        Assert.assertEquals(json, expected, VALIDATOR.validate(new StringBuilder(json)));
+        Assert.assertEquals(json, expected, VALIDATOR.validate(json.toCharArray(), 0, json.length()));
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        Assert.assertEquals(json, expected, VALIDATOR.validate(bytes));
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes).flip();
+        Assert.assertEquals(json, expected, VALIDATOR.validate(direct));
+        Assert.assertEquals(bytes.length, direct.remaining());
+    }
+
+    private static boolean legacyValidate(String input) {
+        return new LegacyValidator().validate(input);
+    }
+
+    /**
+     * 原实现
+     */
+    private static class LegacyValidator {
+
+        private CharacterIterator it;
+        private char c;
+
+        boolean validate(String input) {
+            input = input.trim();
+            if ("".equals(input)) {
+                return true;
+            }
+            it = new StringCharacterIterator(input);
+            c = it.first();
+            if (!value()) {
+                return false;
+            }
+            skipWhiteSpace();
+            return c == CharacterIterator.DONE;
+        }
+
+        private boolean value() {
+            return literal("true") || literal("false") || literal("null") || string() || number() || object() || array();
+        }
+
+        private boolean literal(String text) {
+            CharacterIterator ci = new StringCharacterIterator(text);
+            char t = ci.first();
+            if (c != t) {
+                return false;
+            }
+            boolean ret = true;
+            for (t = ci.next(); t != CharacterIterator.DONE; t = ci.next()) {
+                if (t != nextCharacter()) {
+                    ret = false;
+                    break;
+                }
+            }
+            nextCharacter();
+            return ret;
+        }
+
+        private boolean array() {
+            return aggregate('[', ']', false);
+        }
+
+        private boolean object() {
+            return aggregate('{', '}', true);
+        }
+
+        private boolean aggregate(char entryCharacter, char exitCharacter, boolean prefix) {
+            if (c != entryCharacter) {
+                return false;
+            }
+            nextCharacter();
+            skipWhiteSpace();
+            if (c == exitCharacter) {
+                nextCharacter();
+                return true;
+            }
+            for (;;) {
+                if (prefix) {
+                    if (!string()) {
+                        return false;
+                    }
+                    skipWhiteSpace();
+                    if (c != ':') {
+                        return false;
+                    }
+                    nextCharacter();
+                    skipWhiteSpace();
+                }
+                if (value()) {
+                    skipWhiteSpace();
+                    if (c == ',') {
+                        nextCharacter();
+                    } else if (c == exitCharacter) {
+                        break;
+                    } else {
+                        return false;
+                    }
+                } else {
+                    return false;
+                }
+                skipWhiteSpace();
+            }
+            nextCharacter();
+            return true;
+        }
+
+        private boolean number() {
+            if (!Character.isDigit(c) && c != '-') {
+                return false;
+            }
+            if (c == '-') {
+                nextCharacter();
+            }
+            if (c == '0') {
+                nextCharacter();
+            } else if (Character.isDigit(c)) {
+                while (Character.isDigit(c)) {
+                    nextCharacter();
+                }
+            } else {
+                return false;
+            }
+            if (c == '.') {
+                nextCharacter();
+                if (Character.isDigit(c)) {
+                    while (Character.isDigit(c)) {
+                        nextCharacter();
+                    }
+                } else {
+                    return false;
+                }
+            }
+            if (c == 'e' || c == 'E') {
+                nextCharacter();
+                if (c == '+' || c == '-') {
+                    nextCharacter();
+                }
+                if (Character.isDigit(c)) {
+                    while (Character.isDigit(c)) {
+                        nextCharacter();
+                    }
+                } else {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean string() {
+            if (c != '"') {
+                return false;
+            }
+            boolean escaped = false;
+            for (nextCharacter(); c != CharacterIterator.DONE; nextCharacter()) {
+                if (!escaped && c == '\\') {
+                    escaped = true;
+                } else if (escaped) {
+                    if (!escape()) {
+                        return false;
+                    }
+                    escaped = false;
+                } else if (c == '"') {
+                    nextCharacter();
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean escape() {
+            if (" \\\"/bfnrtu".indexOf(c) < 0) {
+                return false;
+            }
+            if (c == 'u') {
+                for (int i = 0; i < 4; i++) {
+                    nextCharacter();
+                    if ("0123456789abcdefABCDEF".indexOf(c) < 0) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        private char nextCharacter() {
+            c = it.next();
+            return c;
+        }
+
+        private void skipWhiteSpace() {
+            while (Character.isWhitespace(c)) {
+                nextCharacter();
+            }
+        }
+    }
+}
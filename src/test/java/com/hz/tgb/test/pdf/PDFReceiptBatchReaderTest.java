@@ -0,0 +1,290 @@
+package com.hz.tgb.test.pdf;
+
+import com.alibaba.fastjson.JSONObject;
+import com.hz.tgb.api.invoice.pdf.parse.PDFReceiptBatchReader;
+import com.hz.tgb.api.invoice.pdf.parse.PDFReceiptBatchReader.Result;
+import com.hz.tgb.api.invoice.pdf.parse.PDFReceiptBatchReader.Source;
+import com.hz.tgb.api.invoice.pdf.parse.PDFReceiptBatchReader.Stats;
+import com.hz.tgb.api.invoice.pdf.parse.PDFReceiptBatchReader.Status;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 批量解析PDF发票单元测试，PDF由PDFBox现场生成。<br>
+ * 环境里没有中文字体，生成不了真实的发票，成功的路径用提取纯文本的 {@link Source} 代替发票解析。
+ *
+ * @author hezhao
+ * @Time 2026年10月26日 下午2:05:18
+ */
+public class PDFReceiptBatchReaderTest {
+
+    @Test
+    public void testParallelWithScratchFile() throws IOException {
+        List<Source> sources = new ArrayList<Source>();
+        for (int i = 0; i < 24; i++) {
+            sources.add(new TextSource("doc" + i, createPdf(i, 1 + i % 2)));
+        }
+        Path tempDir = Files.createTempDirectory("pdf-scratch");
+        try (PDFReceiptBatchReader reader = new PDFReceiptBatchReader(4)) {
+            // 全部走临时文件
+            reader.setMaxMainMemoryBytes(0);
+            reader.setTempDir(tempDir.toFile());
+            final Map<String, JSONObject> results = new HashMap<String, JSONObject>();
+            reader.readAll(sources, result -> {
+                Assert.assertEquals(result.toString(), Status.SUCCESS, result.getStatus());
+                results.put(result.getName(), result.getJson());
+            });
+            Assert.assertEquals(24, results.size());
+            for (int i = 0; i < 24; i++) {
+                JSONObject json = results.get("doc" + i);
+                Assert.assertEquals(1 + i % 2, json.getIntValue("pages"));
+                Assert.assertTrue(json.getString("text").contains("seed " + i + " "));
+            }
+            Stats stats = reader.getStats();
+            Assert.assertEquals(24, stats.getSubmitted());
+            Assert.assertEquals(24, stats.getSucceeded());
+            Assert.assertEquals(0, stats.getPending());
+            Assert.assertTrue(stats.getBytes() > 0);
+        }
+    }
+
+    @Test
+    public void testErrorIsolationAndTimeout() throws IOException {
+        List<Source> sources = new ArrayList<Source>();
+        sources.add(new TextSource("ok", createPdf(1, 2)));
+        sources.add(Source.of("broken", "not a pdf".getBytes("UTF-8")));
+        // 不是发票，PDFReaderUtil找不到关键字
+        sources.add(Source.of("notInvoice", createPdf(2, 1)));
+        sources.add(Source.of("slow", new InputStream() {
+            @Override
+            public int read() throws IOException {
+                try {
+                    Thread.sleep(2000);
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+                return -1;
+            }
+        }));
+        sources.add(new TextSource("ok2", createPdf(3, 1)));
+        try (PDFReceiptBatchReader reader = new PDFReceiptBatchReader(4)) {
+            reader.setTimeout(300, TimeUnit.MILLISECONDS);
+            final Map<String, Result> results = new HashMap<String, Result>();
+            reader.readAll(sources, result -> results.put(result.getName(), result));
+            Assert.assertEquals(Status.SUCCESS, results.get("ok").getStatus());
+            Assert.assertEquals(Status.SUCCESS, results.get("ok2").getStatus());
+            Assert.assertEquals(Status.FAILED, results.get("broken").getStatus());
+            Assert.assertNotNull(results.get("broken").getError());
+            Assert.assertNull(results.get("broken").getJson());
+            Assert.assertEquals(Status.FAILED, results.get("notInvoice").getStatus());
+            Assert.assertEquals(Status.TIMEOUT, results.get("slow").getStatus());
+            Assert.assertTrue(results.get("slow").getElapsedMillis() < 2000);
+            Stats stats = reader.getStats();
+            Assert.assertEquals(2, stats.getSucceeded());
+            Assert.assertEquals(2, stats.getFailed());
+            Assert.assertEquals(1, stats.getTimedOut());
+        }
+    }
+
+    @Test
+    public void testQueuedTimeoutAndDiscard() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicBoolean queuedClosed = new AtomicBoolean();
+        List<Source> sources = new ArrayList<Source>();
+        // 唯一的工作线程卡住，后面的文档一直排队
+        sources.add(Source.of("stuck", new InputStream() {
+            @Override
+            public int read() throws IOException {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+                return -1;
+            }
+        }));
+        sources.add(Source.of("queued", new ByteArrayInputStream(createPdf(1, 1)) {
+            @Override
+            public void close() throws IOException {
+                queuedClosed.set(true);
+                super.close();
+            }
+        }));
+        sources.add(new TextSource("queued2", createPdf(2, 1)));
+        PDFReceiptBatchReader reader = new PDFReceiptBatchReader(1);
+        try {
+            reader.setTimeout(300, TimeUnit.MILLISECONDS);
+            final Map<String, Result> results = new HashMap<String, Result>();
+            long start = System.currentTimeMillis();
+            reader.readAll(sources, result -> results.put(result.getName(), result));
+            Assert.assertTrue(System.currentTimeMillis() - start < 2000);
+            Assert.assertEquals(3, results.size());
+            for (Result result : results.values()) {
+                Assert.assertEquals(result.toString(), Status.TIMEOUT, result.getStatus());
+            }
+            Assert.assertEquals(3, reader.getStats().getTimedOut());
+        } finally {
+            release.countDown();
+            reader.close();
+        }
+        // 排队时已超时的文档不再解析，输入流照样关闭
+        long wait = System.currentTimeMillis() + 5000;
+        while (!queuedClosed.get() && System.currentTimeMillis() < wait) {
+            Thread.sleep(10);
+        }
+        Assert.assertTrue(queuedClosed.get());
+
+        // 线程池已关闭，拒绝的输入流也要关闭
+        final AtomicBoolean rejectedClosed = new AtomicBoolean();
+        Result rejected = reader.readAsync(Source.of("rejected", new ByteArrayInputStream(new byte[0]) {
+            @Override
+            public void close() throws IOException {
+                rejectedClosed.set(true);
+                super.close();
+            }
+        })).get();
+        Assert.assertEquals(Status.FAILED, rejected.getStatus());
+        Assert.assertTrue(rejectedClosed.get());
+    }
+
+    @Test
+    public void testStreamIsBounded() throws IOException {
+        final AtomicInteger pulled = new AtomicInteger();
+        final byte[] bytes = createPdf(3, 1);
+        Iterator<Source> sources = new Iterator<Source>() {
+            @Override
+            public boolean hasNext() {
+                return pulled.get() < 50;
+            }
+
+            @Override
+            public Source next() {
+                return new TextSource("doc" + pulled.incrementAndGet(), bytes);
+            }
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try (PDFReceiptBatchReader reader = new PDFReceiptBatchReader(executor, 3)) {
+            int consumed = 0;
+            Iterator<Result> results = reader.stream(sources).iterator();
+            while (results.hasNext()) {
+                Assert.assertTrue(results.next().isSuccess());
+                consumed++;
+                Assert.assertTrue(pulled.get() - consumed <= 3);
+            }
+            Assert.assertEquals(50, consumed);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testDirectory() throws IOException {
+        Path dir = Files.createTempDirectory("pdf-batch");
+        Files.createDirectories(dir.resolve("sub"));
+        Files.write(dir.resolve("a.pdf"), createPdf(1, 1));
+        Files.write(dir.resolve("sub").resolve("b.PDF"), createPdf(2, 2));
+        Files.write(dir.resolve("c.txt"), "ignored".getBytes("UTF-8"));
+        try (PDFReceiptBatchReader reader = new PDFReceiptBatchReader(2)) {
+            List<String> names;
+            try (Stream<Result> results = reader.stream(dir)) {
+                names = results.map(result -> Paths.get(result.getName()).getFileName().toString())
+                        .sorted()
+                        .collect(Collectors.toList());
+            }
+            Assert.assertEquals(2, names.size());
+            Assert.assertEquals("a.pdf", names.get(0));
+            Assert.assertEquals("b.PDF", names.get(1));
+            Assert.assertEquals(2, reader.getStats().getCompleted());
+        }
+    }
+
+    /**
+     * 用给定的内存设置加载文档并提取纯文本
+     */
+    private static class TextSource extends Source {
+
+        private final byte[] bytes;
+
+        TextSource(String name, byte[] bytes) {
+            super(name, bytes.length);
+            this.bytes = bytes;
+        }
+
+        @Override
+        protected JSONObject read(MemoryUsageSetting setting) throws IOException {
+            try (PDDocument document = PDDocument.load(bytes, "", null, null, setting)) {
+                JSONObject json = new JSONObject();
+                json.put("pages", document.getNumberOfPages());
+                json.put("text", new PDFTextStripper().getText(document));
+                return json;
+            }
+        }
+    }
+
+    private static byte[] createPdf(int seed, int pages) throws IOException {
+        try (PDDocument document = new PDDocument()) {
+            for (int p = 0; p < pages; p++) {
+                PDPage page = new PDPage();
+                document.addPage(page);
+                try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                    content.beginText();
+                    content.setFont(PDType1Font.HELVETICA, 10);
+                    content.newLineAtOffset(50, 700);
+                    content.setLeading(14);
+                    for (int i = 0; i < 10; i++) {
+                        content.showText("line " + i + " seed " + seed + " page " + p + " amount " + (seed * 100 + i) + ".00");
+                        content.newLine();
+                    }
+                    content.endText();
+                }
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            document.save(out);
+            return out.toByteArray();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        byte[] bytes = createPdf(7, 2);
+        List<Source> sources = new ArrayList<Source>();
+        for (int i = 0; i < 2000; i++) {
+            sources.add(new TextSource("doc" + i, bytes));
+        }
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < 200; i++) {
+            new TextSource("doc", bytes).read(MemoryUsageSetting.setupMainMemoryOnly());
+        }
+        System.out.println("sequential: " + (200 * 1000D / (System.currentTimeMillis() - start)) + " docs/s");
+        try (PDFReceiptBatchReader reader = new PDFReceiptBatchReader()) {
+            reader.readAll(sources, result -> { });
+            System.out.println("batch: " + reader.getStats());
+        }
+    }
+}
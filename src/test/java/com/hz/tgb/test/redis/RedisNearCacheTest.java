@@ -0,0 +1,119 @@
+package com.hz.tgb.test.redis;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.MessageListener;
+
+import com.hz.tgb.data.redis.RedisNearCache;
+import com.hz.tgb.data.redis.RedisService;
+import com.hz.tgb.test.entity.Stu;
+
+/**
+ * 二级缓存单元测试，使用内存版RedisService代替真实Redis
+ *
+ * @author hezhao
+ * @Time 2026年10月18日 下午5:40:16
+ */
+public class RedisNearCacheTest {
+
+    @Test
+    public void testReadServedFromLocal() {
+        InMemoryRedisService redis = new InMemoryRedisService();
+        RedisNearCache nearCache = new RedisNearCache(redis, 100, 1, TimeUnit.MINUTES);
+        redis.listeners.add(nearCache);
+        nearCache.save("stu:1", newStu("jack"));
+
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals("jack", nearCache.get("stu:1", Stu.class).getName());
+        }
+        Assert.assertEquals(1, redis.reads.get());
+        Assert.assertEquals(9, nearCache.stats().getHitCount());
+        nearCache.close();
+    }
+
+    @Test
+    public void testInvalidationAcrossNodes() {
+        InMemoryRedisService redis = new InMemoryRedisService();
+        RedisNearCache node1 = new RedisNearCache(redis, 100, 1, TimeUnit.MINUTES);
+        RedisNearCache node2 = new RedisNearCache(redis, 100, 1, TimeUnit.MINUTES);
+        redis.listeners.add(node1);
+        redis.listeners.add(node2);
+
+        node1.save("stu:1", newStu("jack"));
+        Assert.assertEquals("jack", node2.get("stu:1", Stu.class).getName());
+
+        node1.save("stu:1", newStu("bob"));
+        Assert.assertEquals("bob", node2.get("stu:1", Stu.class).getName());
+
+        node1.delete("stu:1");
+        Assert.assertNull(node2.get("stu:1", Stu.class));
+        node1.close();
+        node2.close();
+    }
+
+    @Test
+    public void testKeyspaceNotification() {
+        InMemoryRedisService redis = new InMemoryRedisService();
+        RedisNearCache nearCache = new RedisNearCache(redis, 100, 1, TimeUnit.MINUTES);
+        redis.save("stu:2", "{\"name\":\"jack\"}");
+        Assert.assertEquals("jack", nearCache.get("stu:2", Stu.class).getName());
+
+        // 其他客户端直接修改Redis，由键空间通知推送
+        redis.save("stu:2", "{\"name\":\"bob\"}");
+        nearCache.onMessage(new DefaultMessage("__keyspace@0__:stu:2".getBytes(StandardCharsets.UTF_8), "set".getBytes(StandardCharsets.UTF_8)), null);
+        Assert.assertEquals("bob", nearCache.get("stu:2", Stu.class).getName());
+        nearCache.close();
+    }
+
+    private static Stu newStu(String name) {
+        Stu stu = new Stu();
+        stu.setName(name);
+        return stu;
+    }
+
+    /**
+     * 内存版Redis：字符串存储 + 同步发布订阅
+     */
+    static class InMemoryRedisService extends RedisService {
+
+        final Map<String, String> store = new ConcurrentHashMap<String, String>();
+
+        final List<MessageListener> listeners = new CopyOnWriteArrayList<MessageListener>();
+
+        final AtomicInteger reads = new AtomicInteger();
+
+        @Override
+        public boolean save(String key, String value, long seconds) {
+            store.put(key, value);
+            return true;
+        }
+
+        @Override
+        public String get(String key) {
+            reads.incrementAndGet();
+            return store.get(key);
+        }
+
+        @Override
+        public Long delete(String key) {
+            return store.remove(key) == null ? 0L : 1L;
+        }
+
+        @Override
+        public long publish(String channel, String message) {
+            for (MessageListener listener : listeners) {
+                listener.onMessage(new DefaultMessage(channel.getBytes(StandardCharsets.UTF_8), message.getBytes(StandardCharsets.UTF_8)), null);
+            }
+            return listeners.size();
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package com.hz.tgb.test.reflect;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.hz.tgb.entity.Student;
+import com.hz.tgb.entity.Student2;
+import com.hz.tgb.reflect.BeanCopier;
+import com.hz.tgb.reflect.BeanHelper;
+import com.hz.tgb.reflect.EntityCopyUtils;
+import com.hz.tgb.reflect.ObjectUtil;
+
+/**
+ * 属性拷贝引擎单元测试与基准
+ *
+ * @author hezhao
+ * @Time 2026年10月20日 下午8:31:05
+ */
+public class BeanCopierTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(BeanCopierTest.class);
+
+    public static class Order {
+
+        private Long id;
+
+        private Integer count;
+
+        private String amount;
+
+        private double price;
+
+        private int level;
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public Integer getCount() {
+            return count;
+        }
+
+        public void setCount(Integer count) {
+            this.count = count;
+        }
+
+        public String getAmount() {
+            return amount;
+        }
+
+        public void setAmount(String amount) {
+            this.amount = amount;
+        }
+
+        public double getPrice() {
+            return price;
+        }
+
+        public void setPrice(double price) {
+            this.price = price;
+        }
+
+        public int getLevel() {
+            return level;
+        }
+
+        public void setLevel(int level) {
+            this.level = level;
+        }
+    }
+
+    public static class OrderDto {
+
+        private long id;
+
+        private int count = -1;
+
+        private BigDecimal amount;
+
+        private Double price;
+
+        private long level;
+
+        public long getId() {
+            return id;
+        }
+
+        public void setId(long id) {
+            this.id = id;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+
+        public BigDecimal getAmount() {
+            return amount;
+        }
+
+        public void setAmount(BigDecimal amount) {
+            this.amount = amount;
+        }
+
+        public Double getPrice() {
+            return price;
+        }
+
+        public void setPrice(Double price) {
+            this.price = price;
+        }
+
+        public long getLevel() {
+            return level;
+        }
+
+        public void setLevel(long level) {
+            this.level = level;
+        }
+    }
+
+    /** 非public类，走MethodHandle访问 */
+    private static class Hidden {
+
+        private String name;
+
+        private int age;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public int getAge() {
+            return age;
+        }
+
+        public void setAge(int age) {
+            this.age = age;
+        }
+    }
+
+    @Test
+    public void testMatchesBeanUtils() throws Exception {
+        Random random = new Random(7);
+        for (int i = 0; i < 200; i++) {
+            Student student = student(random);
+            if (i % 10 == 0) {
+                student.setName(null);
+            }
+            Student2 expected = new Student2();
+            org.apache.commons.beanutils.BeanUtils.copyProperties(expected, student);
+            // boolean -> String 由beanutils的转换器转换
+            Assert.assertEquals(expected.toString(), EntityCopyUtils.copySingle(Student2.class, student).toString());
+            Assert.assertEquals(student.toString(), EntityCopyUtils.copySingle(Student.class, student).toString());
+
+            Student2 helper = new Student2();
+            BeanHelper.copyProperties(helper, student);
+            Assert.assertEquals(expected.toString(), helper.toString());
+        }
+        Assert.assertNull(EntityCopyUtils.copySingle(Student2.class, null));
+    }
+
+    @Test
+    public void testAssignableConvertedAndNulls() {
+        BeanCopier<OrderDto> copier = BeanCopier.get(Order.class, OrderDto.class);
+        Assert.assertTrue(copier.isNeedConverter());
+        Assert.assertEquals(Arrays.asList("amount", "count", "id", "level", "price"), copier.getPropertyNames());
+
+        Order order = new Order();
+        order.setId(3L);
+        order.setAmount("12.50");
+        order.setPrice(2.5);
+        order.setLevel(4);
+        OrderDto dto = copier.copy(order, BeanCopier.COMMONS_CONVERTER);
+        Assert.assertEquals(3L, dto.getId());
+        // null不覆盖基本类型
+        Assert.assertEquals(-1, dto.getCount());
+        Assert.assertEquals(new BigDecimal("12.50"), dto.getAmount());
+        Assert.assertEquals(Double.valueOf(2.5), dto.getPrice());
+        Assert.assertEquals(4L, dto.getLevel());
+
+        // 没有转换器时跳过类型不兼容的属性
+        dto = copier.copy(order);
+        Assert.assertNull(dto.getAmount());
+        Assert.assertEquals(0L, dto.getLevel());
+        Assert.assertEquals(3L, dto.getId());
+
+        order.setCount(9);
+        order.setId(null);
+        copier.copy(order, dto);
+        Assert.assertEquals(9, dto.getCount());
+        Assert.assertEquals(3L, dto.getId());
+    }
+
+    @Test
+    public void testNonPublicClass() {
+        Hidden hidden = new Hidden();
+        hidden.setName("a");
+        hidden.setAge(3);
+        Hidden copy = BeanCopier.get(Hidden.class, Hidden.class).copy(hidden);
+        Assert.assertNotSame(hidden, copy);
+        Assert.assertEquals("a", copy.getName());
+        Assert.assertEquals(3, copy.getAge());
+
+        Student2 student2 = BeanCopier.get(Hidden.class, Student2.class).copy(hidden);
+        Assert.assertEquals("a", student2.getName());
+        Assert.assertEquals(3, student2.getAge());
+    }
+
+    @Test
+    public void testCopyList() {
+        List<Object> students = new ArrayList<Object>();
+        Random random = new Random(5);
+        for (int i = 0; i < BeanCopier.PARALLEL_THRESHOLD * 2; i++) {
+            students.add(i % 100 == 0 ? null : i % 7 == 0 ? hidden(random) : student(random));
+        }
+        List<Student2> sequential = BeanCopier.copyList(students, Student2.class, BeanCopier.COMMONS_CONVERTER, false);
+        List<Student2> parallel = BeanCopier.copyList(students, Student2.class, BeanCopier.COMMONS_CONVERTER, true);
+        List<Student2> utils = EntityCopyUtils.copyList(Student2.class, students, true);
+        Assert.assertTrue(sequential instanceof ArrayList);
+        Assert.assertEquals(students.size(), sequential.size());
+        for (int i = 0; i < students.size(); i++) {
+            Assert.assertEquals(students.get(i) == null, sequential.get(i) == null);
+            Assert.assertEquals(String.valueOf(sequential.get(i)), String.valueOf(parallel.get(i)));
+            Assert.assertEquals(String.valueOf(sequential.get(i)), String.valueOf(utils.get(i)));
+        }
+        Assert.assertTrue(BeanCopier.copyList(null, Student2.class, null, true).isEmpty());
+    }
+
+    @Test
+    public void testObjectUtilCopy() throws Exception {
+        Student student = student(new Random(1));
+        Student copy = ObjectUtil.copy(student, Student.class);
+        Assert.assertNotSame(student, copy);
+        Assert.assertEquals(student.toString(), copy.toString());
+        Assert.assertSame(student.getBirthday(), copy.getBirthday());
+    }
+
+    /**
+     * 10万个Student -> Student2：commons-beanutils、spring BeanUtils、缓存的拷贝器(带/不带转换器、并行)、手写
+     */
+    public static void main(String[] args) throws Exception {
+        Random random = new Random(3);
+        List<Student> students = new ArrayList<Student>();
+        for (int i = 0; i < 100000; i++) {
+            students.add(student(random));
+        }
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            for (Student student : students) {
+                Student2 target = new Student2();
+                org.apache.commons.beanutils.BeanUtils.copyProperties(target, student);
+            }
+            long beanUtils = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            EntityCopyUtils.copyListBySpring(Student2.class, students);
+            long spring = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            EntityCopyUtils.copyList(Student2.class, students);
+            long engine = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            BeanCopier.copyList(students, Student2.class, null, false);
+            long noConverter = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            BeanCopier.copyList(students, Student2.class, null, true);
+            long parallel = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            List<Student2> handWritten = new ArrayList<Student2>(students.size());
+            for (Student student : students) {
+                Student2 target = new Student2();
+                target.setName(student.getName());
+                target.setAge(student.getAge());
+                target.setSex(String.valueOf(student.getSex()));
+                handWritten.add(target);
+            }
+            long hand = System.nanoTime() - start;
+            // spring和无转换器的拷贝器都会跳过类型不同的sex属性
+            logger.info("beanutils:{} ms, copier(commons converter):{} ms, spring:{} ms, copier:{} ms, copier(parallel):{} ms, hand written:{} ms",
+                    beanUtils / 1000000, engine / 1000000, spring / 1000000, noConverter / 1000000, parallel / 1000000, hand / 1000000);
+        }
+    }
+
+    private static Student student(Random random) {
+        return new Student(random.nextInt(100000), "n" + random.nextInt(50), random.nextInt(30), random.nextBoolean(),
+                new Date(random.nextInt(1000) * 86400000L));
+    }
+
+    private static Hidden hidden(Random random) {
+        Hidden hidden = new Hidden();
+        hidden.setName("h" + random.nextInt(10));
+        hidden.setAge(random.nextInt(30));
+        return hidden;
+    }
+}
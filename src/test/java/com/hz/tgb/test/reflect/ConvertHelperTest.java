@@ -0,0 +1,201 @@
+package com.hz.tgb.test.reflect;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.hz.tgb.entity.Student;
+import com.hz.tgb.reflect.ConvertHelper;
+import com.hz.tgb.reflect.ConvertHelper.FMT;
+
+/**
+ * Bean与Map互转单元测试与基准
+ *
+ * @author hezhao
+ * @Time 2026年10月21日 上午10:02:47
+ */
+public class ConvertHelperTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConvertHelperTest.class);
+
+    public static class Pupil extends Student {
+
+        private static final long serialVersionUID = 1L;
+
+        private static final Logger logger = LoggerFactory.getLogger(Pupil.class);
+
+        static String school = "No.1";
+
+        private String nickName;
+
+        private Double score;
+
+        private char grade = 'A';
+
+        public String getNickName() {
+            return nickName;
+        }
+
+        public void setNickName(String nickName) {
+            this.nickName = nickName;
+        }
+
+        public Double getScore() {
+            return score;
+        }
+
+        public void setScore(Double score) {
+            this.score = score;
+        }
+
+        public char getGrade() {
+            return grade;
+        }
+
+        public void setGrade(char grade) {
+            this.grade = grade;
+        }
+    }
+
+    @Test
+    public void testBeanToMapMatchesLegacy() throws Exception {
+        Pupil pupil = pupil();
+        pupil.setNickName("");
+        for (FMT fmt : FMT.values()) {
+            for (boolean setNull : new boolean[] { true, false }) {
+                LinkedHashMap<String, Object> expected = legacyBeanConvertToMap(pupil, setNull, fmt);
+                LinkedHashMap<String, Object> actual = ConvertHelper.beanConvertToMap(pupil, setNull, fmt);
+                Assert.assertEquals(expected, actual);
+                // 顺序也一致：父类字段在前
+                Assert.assertEquals(Arrays.asList(expected.keySet().toArray()), Arrays.asList(actual.keySet().toArray()));
+            }
+        }
+        Assert.assertEquals(legacyBeanConvertToMap(pupil, false, FMT.NONE), ConvertHelper.beanConvertToMap(pupil));
+        Assert.assertEquals("No.1", ConvertHelper.beanConvertToMap(pupil).get("school"));
+        Assert.assertFalse(ConvertHelper.beanConvertToMap(pupil).containsKey("logger"));
+    }
+
+    @Test
+    public void testGetFields() {
+        Assert.assertNull(ConvertHelper.getFields(Object.class));
+        List<Field> expected = Arrays.asList(ConvertHelper.combineFields(Student.class.getDeclaredFields(), Pupil.class.getDeclaredFields()));
+        Assert.assertEquals(expected, Arrays.asList(ConvertHelper.getFields(Pupil.class)));
+        // 返回副本，调用方修改不影响缓存
+        ConvertHelper.getFields(Pupil.class)[0] = null;
+        Assert.assertNotNull(ConvertHelper.getFields(Pupil.class)[0]);
+    }
+
+    @Test
+    public void testMapToBean() {
+        Pupil pupil = pupil();
+        Pupil copy = ConvertHelper.mapConvertToBean(ConvertHelper.beanConvertToMap(pupil), Pupil.class);
+        Assert.assertEquals(pupil.toString(), copy.toString());
+        Assert.assertEquals(pupil.getNickName(), copy.getNickName());
+        Assert.assertEquals(pupil.getScore(), copy.getScore());
+        Assert.assertEquals('B', copy.getGrade());
+
+        // 类型不同时由BeanUtils转换
+        Map<String, Object> map = new HashMap<String, Object>();
+        map.put("age", "12");
+        map.put("id", 5);
+        map.put("score", "9.5");
+        map.put("sex", "true");
+        map.put("missing", 1);
+        map.put("nickName", null);
+        copy = ConvertHelper.mapConvertToBean(map, Pupil.class);
+        Assert.assertEquals(12, copy.getAge());
+        Assert.assertEquals(5L, copy.getId());
+        Assert.assertEquals(Double.valueOf(9.5), copy.getScore());
+        Assert.assertTrue(copy.getSex());
+        Assert.assertNull(copy.getNickName());
+    }
+
+    /**
+     * 10万次Bean转Map与Map转Bean：原实现 vs 缓存的元数据
+     */
+    public static void main(String[] args) throws Exception {
+        Pupil pupil = pupil();
+        Map<String, Object> map = ConvertHelper.beanConvertToMap(pupil);
+        int loops = 100000;
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < loops; i++) {
+                legacyBeanConvertToMap(pupil, false, FMT.NONE);
+            }
+            long legacyToMap = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < loops; i++) {
+                ConvertHelper.beanConvertToMap(pupil);
+            }
+            long toMap = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < loops; i++) {
+                Pupil bean = new Pupil();
+                for (Map.Entry<String, Object> entry : map.entrySet()) {
+                    org.apache.commons.beanutils.BeanUtils.setProperty(bean, entry.getKey(), entry.getValue());
+                }
+            }
+            long legacyToBean = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < loops; i++) {
+                ConvertHelper.mapConvertToBean(map, Pupil.class);
+            }
+            long toBean = System.nanoTime() - start;
+            logger.info("beanToMap legacy:{} ns/op, cached:{} ns/op; mapToBean legacy:{} ns/op, cached:{} ns/op", legacyToMap / loops,
+                    toMap / loops, legacyToBean / loops, toBean / loops);
+        }
+    }
+
+    private static Pupil pupil() {
+        Pupil pupil = new Pupil();
+        pupil.setId(3);
+        pupil.setName("张三");
+        pupil.setAge(12);
+        pupil.setSex(true);
+        pupil.setBirthday(new Date(1500000000000L));
+        pupil.setNickName("san");
+        pupil.setScore(98.5);
+        pupil.setGrade('B');
+        return pupil;
+    }
+
+    /**
+     * 原实现
+     */
+    private static LinkedHashMap<String, Object> legacyBeanConvertToMap(Object bean, boolean setNull, FMT fmt) {
+        LinkedHashMap<String, Object> map = new LinkedHashMap<String, Object>();
+        Field[] fields = ConvertHelper.combineFields(Student.class.getDeclaredFields(), bean.getClass().getDeclaredFields());
+        List<String> ignoreField = Arrays.asList("serialVersionUID", "logger");
+        for (Field field : fields) {
+            if (ignoreField.contains(field.getName())) {
+                continue;
+            }
+            field.setAccessible(true);
+            try {
+                Object value = field.get(bean);
+                String name = fmt == FMT.TOLOWER ? field.getName().toLowerCase()
+                        : fmt == FMT.TOUPPER ? field.getName().toUpperCase() : field.getName();
+                if (setNull && (value == null || value.equals(""))) {
+                    map.put(name, "");
+                } else if (value != null && !value.equals("")) {
+                    map.put(name, field.get(bean));
+                }
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return map;
+    }
+}